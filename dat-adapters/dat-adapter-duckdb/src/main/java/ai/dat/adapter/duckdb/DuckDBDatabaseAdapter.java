@@ -2,9 +2,12 @@ package ai.dat.adapter.duckdb;
 
 import ai.dat.core.adapter.data.AnsiSqlType;
 import ai.dat.core.adapter.GenericSqlDatabaseAdapter;
+import ai.dat.core.adapter.data.QueryPlan;
 
 import javax.sql.DataSource;
 import java.sql.Types;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * @Author JunjieM
@@ -12,6 +15,12 @@ import java.sql.Types;
  */
 public class DuckDBDatabaseAdapter extends GenericSqlDatabaseAdapter {
 
+    /**
+     * 物理计划中各算子的估算基数，例如："~1,000 rows"（1.1及以上版本）或"EC: 1000"
+     */
+    private static final Pattern ESTIMATED_CARDINALITY_PATTERN =
+            Pattern.compile("~\\s*([\\d,]+)\\s+rows?|EC:\\s*([\\d,]+)");
+
     public DuckDBDatabaseAdapter(DataSource dataSource) {
         super(new DuckDBSemanticAdapter(), dataSource);
     }
@@ -130,6 +139,25 @@ public class DuckDBDatabaseAdapter extends GenericSqlDatabaseAdapter {
         return dataType.substring(0, parenIndex).trim();
     }
 
+    @Override
+    protected String getExplainSql(String sql) {
+        return "EXPLAIN " + sql;
+    }
+
+    @Override
+    protected QueryPlan parseQueryPlan(String plan) {
+        Matcher matcher = ESTIMATED_CARDINALITY_PATTERN.matcher(plan);
+        boolean found = false;
+        double rows = 0;
+        while (matcher.find()) {
+            String value = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            rows = Math.max(rows, Double.parseDouble(value.replace(",", "")));
+            found = true;
+        }
+        // DuckDB的计划不提供代价
+        return found ? QueryPlan.builder().estimatedRows(rows).plan(plan).build() : null;
+    }
+
     @Override
     public String limitClause(int limit) {
         return "LIMIT " + limit;
@@ -0,0 +1,126 @@
+package ai.dat.adapter.duckdb;
+
+import ai.dat.core.utils.CancellationToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 查询超时与取消：中止的查询统一抛出 SQLState 57014；物化查询结果与事务中的更新失败时不影响已有的表
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class DuckDBDatabaseAdapterTest {
+
+    /**
+     * 不被中止时需要运行很长时间的查询
+     */
+    private static final String SLOW_SQL = "SELECT SUM(a.range * b.range) AS total "
+                                           + "FROM range(100000000) a CROSS JOIN range(100000) b";
+
+    private static final Duration MAX_ELAPSED = Duration.ofSeconds(10);
+
+    private DuckDBDatabaseAdapter databaseAdapter;
+
+    @BeforeEach
+    void setUp() {
+        databaseAdapter = new DuckDBDatabaseAdapter(new DuckDBDataSource(null));
+    }
+
+    @Test
+    void executeQuery() throws SQLException {
+        List<Map<String, Object>> results = databaseAdapter.executeQuery(
+                "SELECT 1 AS id", Duration.ofSeconds(5), CancellationToken.NONE);
+        assertEquals(1, results.size());
+        assertEquals(1, ((Number) results.get(0).get("id")).intValue());
+    }
+
+    @Test
+    void executeQueryTimeout() {
+        long start = System.nanoTime();
+        SQLException e = assertThrows(SQLException.class, () ->
+                databaseAdapter.executeQuery(SLOW_SQL, Duration.ofMillis(500), CancellationToken.NONE));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertInstanceOf(SQLTimeoutException.class, e);
+        assertEquals("57014", e.getSQLState());
+        assertTrue(elapsed.compareTo(MAX_ELAPSED) < 0, "The query was not aborted in time: " + elapsed);
+    }
+
+    @Test
+    void executeQueryCancelled() throws InterruptedException {
+        CancellationToken cancellationToken = new CancellationToken();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            scheduler.schedule(() -> cancellationToken.cancel("The client disconnected"),
+                    500, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+            SQLException e = assertThrows(SQLException.class, () ->
+                    databaseAdapter.executeQuery(SLOW_SQL, null, cancellationToken));
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            assertEquals("57014", e.getSQLState());
+            assertTrue(e.getMessage().contains("The client disconnected"), e.getMessage());
+            assertTrue(elapsed.compareTo(MAX_ELAPSED) < 0, "The query was not aborted in time: " + elapsed);
+        } finally {
+            scheduler.shutdownNow();
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void executeQueryAlreadyCancelled() {
+        CancellationToken cancellationToken = new CancellationToken();
+        cancellationToken.cancel("Cancelled before execution");
+
+        SQLException e = assertThrows(SQLException.class, () ->
+                databaseAdapter.executeQuery(SLOW_SQL, null, cancellationToken));
+        assertEquals("57014", e.getSQLState());
+    }
+
+    @Test
+    void createTableAsReplacesTableOnlyOnSuccess(@TempDir Path dir) throws SQLException {
+        // 每个连接共享同一个数据库文件
+        databaseAdapter = new DuckDBDatabaseAdapter(new DuckDBDataSource(dir.resolve("dat.duckdb").toString()));
+        assertEquals(3L, databaseAdapter.createTableAs("rollup_orders", "SELECT range AS id FROM range(3)"));
+        assertThrows(SQLException.class, () ->
+                databaseAdapter.createTableAs("rollup_orders", "SELECT id FROM missing_table"));
+        assertEquals(3L, count("rollup_orders"), "A failed materialization must keep the previous table");
+        assertTrue(databaseAdapter.executeQuery(
+                "SELECT * FROM information_schema.tables WHERE table_name = 'rollup_orders__staging'").isEmpty());
+
+        assertEquals(5L, databaseAdapter.createTableAs("rollup_orders", "SELECT range AS id FROM range(5)"));
+        assertEquals(5L, count("rollup_orders"));
+    }
+
+    @Test
+    void executeUpdatesRollsBackOnFailure(@TempDir Path dir) throws SQLException {
+        databaseAdapter = new DuckDBDatabaseAdapter(new DuckDBDataSource(dir.resolve("dat.duckdb").toString()));
+        databaseAdapter.executeUpdate("CREATE TABLE orders AS SELECT range AS id FROM range(3)");
+        assertThrows(SQLException.class, () -> databaseAdapter.executeUpdates(List.of(
+                "DELETE FROM orders", "INSERT INTO orders SELECT id FROM missing_table")));
+        assertEquals(3L, count("orders"), "A failed statement must roll back the whole transaction");
+
+        assertEquals(5L, databaseAdapter.executeUpdates(List.of(
+                "DELETE FROM orders WHERE id = 0", "INSERT INTO orders SELECT range FROM range(3, 7)")));
+        assertEquals(6L, count("orders"));
+    }
+
+    private long count(String tableName) throws SQLException {
+        return ((Number) databaseAdapter.executeQuery("SELECT COUNT(*) AS cnt FROM " + tableName)
+                .get(0).get("cnt")).longValue();
+    }
+}
@@ -2,10 +2,15 @@ package ai.dat.adapter.mysql;
 
 import ai.dat.core.adapter.data.AnsiSqlType;
 import ai.dat.core.adapter.GenericSqlDatabaseAdapter;
+import ai.dat.core.adapter.data.QueryPlan;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.sql.DataSource;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.List;
 
 /**
  * MySQL数据库适配器
@@ -16,6 +21,8 @@ import java.sql.Types;
  */
 public class MySqlDatabaseAdapter extends GenericSqlDatabaseAdapter {
 
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
     public MySqlDatabaseAdapter(DataSource dataSource) {
         super(new MySqlSemanticAdapter(), dataSource);
     }
@@ -48,6 +55,14 @@ public class MySqlDatabaseAdapter extends GenericSqlDatabaseAdapter {
         return value;
     }
 
+    /**
+     * MySQL驱动只有fetchSize为 Integer.MIN_VALUE 时才逐行流式读取
+     */
+    @Override
+    protected int streamFetchSize() {
+        return Integer.MIN_VALUE;
+    }
+
     @Override
     public AnsiSqlType toAnsiSqlType(int columnType, String columnTypeName, int precision, int scale) {
         // MySQL特定的类型映射规则
@@ -144,6 +159,37 @@ public class MySqlDatabaseAdapter extends GenericSqlDatabaseAdapter {
         return dataType.substring(0, parenIndex).trim();
     }
 
+    @Override
+    protected String getExplainSql(String sql) {
+        return "EXPLAIN FORMAT=JSON " + sql;
+    }
+
+    @Override
+    protected QueryPlan parseQueryPlan(String plan) {
+        try {
+            JsonNode root = JSON_MAPPER.readTree(plan);
+            JsonNode queryBlock = root.path("query_block");
+            if (queryBlock.isMissingNode()) {
+                return null;
+            }
+            // 各表扫描与连接结果的估算行数取最大值（嵌套循环连接的最终结果行数最大）
+            double rows = 0;
+            for (String field : List.of("rows_examined_per_scan", "rows_produced_per_join")) {
+                for (JsonNode value : root.findValues(field)) {
+                    rows = Math.max(rows, value.asDouble(0));
+                }
+            }
+            JsonNode queryCost = queryBlock.path("cost_info").path("query_cost");
+            return QueryPlan.builder()
+                    .estimatedRows(rows)
+                    .estimatedCost(queryCost.isMissingNode() ? null : queryCost.asDouble())
+                    .plan(plan)
+                    .build();
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
     @Override
     public String limitClause(int limit) {
         return "LIMIT " + limit;
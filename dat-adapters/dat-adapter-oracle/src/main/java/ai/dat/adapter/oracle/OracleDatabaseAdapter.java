@@ -2,11 +2,15 @@ package ai.dat.adapter.oracle;
 
 import ai.dat.core.adapter.data.AnsiSqlType;
 import ai.dat.core.adapter.GenericSqlDatabaseAdapter;
+import ai.dat.core.adapter.data.QueryPlan;
 
 import javax.sql.DataSource;
-import java.sql.Types;
+import java.sql.*;
 import java.math.BigDecimal;
-import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Oracle数据库适配器
@@ -196,6 +200,54 @@ public class OracleDatabaseAdapter extends GenericSqlDatabaseAdapter {
                            quoteIdentifier(tableName));
     }
 
+    /**
+     * Oracle的EXPLAIN PLAN把计划写入PLAN_TABLE，读取后删除本次的计划
+     */
+    @Override
+    public Optional<QueryPlan> explain(String sql) throws SQLException {
+        String statementId = "DAT_" + UUID.randomUUID().toString().replace("-", "").substring(0, 26);
+        try (Connection conn = dataSource.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("EXPLAIN PLAN SET STATEMENT_ID = '" + statementId + "' FOR " + sql);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT ID, OPERATION, OPTIONS, OBJECT_NAME, CARDINALITY, COST FROM PLAN_TABLE "
+                    + "WHERE STATEMENT_ID = ? ORDER BY ID")) {
+                stmt.setString(1, statementId);
+                double rows = 0;
+                Double cost = null;
+                List<String> lines = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows = Math.max(rows, rs.getDouble("CARDINALITY"));
+                        if (rs.getInt("ID") == 0) {
+                            double value = rs.getDouble("COST");
+                            cost = rs.wasNull() ? null : value;
+                        }
+                        lines.add(rs.getInt("ID") + "\t" + rs.getString("OPERATION") + " "
+                                  + Optional.ofNullable(rs.getString("OPTIONS")).orElse("") + "\t"
+                                  + Optional.ofNullable(rs.getString("OBJECT_NAME")).orElse("") + "\t"
+                                  + rs.getLong("CARDINALITY") + "\t" + rs.getLong("COST"));
+                    }
+                }
+                if (lines.isEmpty()) {
+                    return Optional.empty();
+                }
+                return Optional.of(QueryPlan.builder()
+                        .estimatedRows(rows)
+                        .estimatedCost(cost)
+                        .plan(String.join("\n", lines))
+                        .build());
+            } finally {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "DELETE FROM PLAN_TABLE WHERE STATEMENT_ID = ?")) {
+                    stmt.setString(1, statementId);
+                    stmt.executeUpdate();
+                }
+            }
+        }
+    }
+
     @Override
     public String limitClause(int limit) {
         return "FETCH FIRST " + limit + " ROWS ONLY";
@@ -2,6 +2,10 @@ package ai.dat.adapter.postgresql;
 
 import ai.dat.core.adapter.GenericSqlDatabaseAdapter;
 import ai.dat.core.adapter.data.AnsiSqlType;
+import ai.dat.core.adapter.data.QueryPlan;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.postgresql.util.PGobject;
 
 import javax.sql.DataSource;
@@ -15,6 +19,9 @@ import java.sql.Types;
  * @Date 2025/7/2
  */
 public class PostgreSqlDatabaseAdapter extends GenericSqlDatabaseAdapter {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
     public PostgreSqlDatabaseAdapter(DataSource dataSource) {
         super(new PostgreSqlSemanticAdapter(), dataSource);
     }
@@ -358,6 +365,39 @@ public class PostgreSqlDatabaseAdapter extends GenericSqlDatabaseAdapter {
         return String.format("DROP TABLE IF EXISTS %s CASCADE", quoteIdentifier(tableName));
     }
 
+    @Override
+    protected String getExplainSql(String sql) {
+        return "EXPLAIN (FORMAT JSON) " + sql;
+    }
+
+    @Override
+    protected QueryPlan parseQueryPlan(String plan) {
+        try {
+            JsonNode root = JSON_MAPPER.readTree(plan).path(0).path("Plan");
+            if (root.isMissingNode()) {
+                return null;
+            }
+            return QueryPlan.builder()
+                    .estimatedRows(maxPlanRows(root))
+                    .estimatedCost(root.path("Total Cost").asDouble())
+                    .plan(plan)
+                    .build();
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 计划树中各节点估算行数的最大值（例如笛卡尔积的中间结果）
+     */
+    private static double maxPlanRows(JsonNode node) {
+        double rows = node.path("Plan Rows").asDouble(0);
+        for (JsonNode child : node.path("Plans")) {
+            rows = Math.max(rows, maxPlanRows(child));
+        }
+        return rows;
+    }
+
     @Override
     public String limitClause(int limit) {
         return "LIMIT " + limit;
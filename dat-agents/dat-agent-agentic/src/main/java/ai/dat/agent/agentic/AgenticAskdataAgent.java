@@ -3,20 +3,28 @@ package ai.dat.agent.agentic;
 import ai.dat.agent.agentic.tools.email.EmailSender;
 import ai.dat.core.adapter.DatabaseAdapter;
 import ai.dat.core.agent.AbstractHitlAskdataAgent;
+import ai.dat.core.agent.DataPreviewCache;
+import ai.dat.core.agent.DefaultEventOptions;
+import ai.dat.core.agent.QueryCostGuard;
 import ai.dat.core.agent.data.EventOption;
 import ai.dat.core.agent.data.StreamAction;
 import ai.dat.core.agent.data.StreamEvent;
 import ai.dat.core.contentstore.ContentStore;
 import ai.dat.core.contentstore.DefaultContentStore;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
+import ai.dat.core.metrics.DatMetrics;
+import ai.dat.core.prompt.PromptContextPacker;
 import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.tracing.DatTracing;
 import ai.dat.core.utils.JinjaTemplateUtil;
 import ai.dat.core.utils.SemanticModelUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Suppliers;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import dev.langchain4j.agent.tool.ToolSpecification;
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.segment.TextSegment;
@@ -39,15 +47,21 @@ import dev.langchain4j.service.tool.BeforeToolExecution;
 import dev.langchain4j.service.tool.ToolExecution;
 import dev.langchain4j.service.tool.ToolExecutor;
 import dev.langchain4j.service.tool.ToolProvider;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static ai.dat.agent.agentic.AgenticEventOptions.*;
@@ -81,6 +95,12 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
     private final String instruction;
     private final Integer maxHistories;
     private final Integer semanticModelDataPreviewLimit;
+    private final DataPreviewCache dataPreviewCache;
+    /**
+     * 数据预览缓存的连接标识，为null时数据预览不缓存
+     */
+    private final String dataPreviewConnectionId;
+    private final PromptContextPacker promptContextPacker;
 
     private final Boolean humanInTheLoop;
     private final Boolean humanInTheLoopAskUser;
@@ -90,6 +110,7 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
     private List<QuestionSqlPair> histories = Collections.emptyList();
     private final MessageWindowChatMemory chatMemory;
     private final MainAgent mainAgent;
+    private final Map<String, ToolInvocation> toolInvocations = new ConcurrentHashMap<>();
 
     @Builder
     public AgenticAskdataAgent(@NonNull ContentStore contentStore,
@@ -107,11 +128,18 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
                                Integer maxMessages,
                                Integer maxHistories,
                                Integer semanticModelDataPreviewLimit,
+                               DataPreviewCache dataPreviewCache,
+                               String dataPreviewConnectionId,
                                Boolean humanInTheLoop,
                                Boolean humanInTheLoopAskUser,
                                Boolean humanInTheLoopToolApproval,
-                               Boolean humanInTheLoopToolNotApprovalAndFeedback) {
+                               Boolean humanInTheLoopToolNotApprovalAndFeedback,
+                               PromptContextPacker promptContextPacker,
+                               QueryCostGuard queryCostGuard,
+                               Duration queryTimeout) {
         super(contentStore, databaseAdapter, variables);
+        setQueryCostGuard(queryCostGuard);
+        setQueryTimeout(queryTimeout);
         SemanticModelUtil.validateSemanticModels(semanticModels);
         this.defaultModel = defaultModel;
         this.defaultStreamingModel = defaultStreamingModel;
@@ -131,6 +159,9 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
         this.semanticModelDataPreviewLimit = Optional.ofNullable(semanticModelDataPreviewLimit).orElse(0);
         Preconditions.checkArgument(this.semanticModelDataPreviewLimit >= 0 && this.semanticModelDataPreviewLimit <= 20,
                 "semanticModelDataPreviewLimit must be between 0 and 20");
+        this.dataPreviewCache = Optional.ofNullable(dataPreviewCache).orElseGet(DataPreviewCache::getDefault);
+        this.dataPreviewConnectionId = dataPreviewConnectionId;
+        this.promptContextPacker = promptContextPacker;
         this.humanInTheLoop = Optional.ofNullable(humanInTheLoop).orElse(true);
         this.humanInTheLoopAskUser = Optional.ofNullable(humanInTheLoopAskUser).orElse(true);
         this.humanInTheLoopToolApproval = Optional.ofNullable(humanInTheLoopToolApproval).orElse(false);
@@ -145,7 +176,8 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
 
     @Override
     public Set<EventOption> eventOptions() {
-        return Set.of(SQL_GENERATE_EVENT, SEMANTIC_TO_SQL_EVENT, SQL_EXECUTE_EVENT,
+        return Set.of(SQL_GENERATE_EVENT, SEMANTIC_TO_SQL_EVENT, DefaultEventOptions.SQL_COST_GUARD_EVENT,
+                SQL_EXECUTE_EVENT, DefaultEventOptions.PROMPT_CONTEXT_EVENT,
                 BEFORE_TOOL_EXECUTION, TOOL_EXECUTION, AGENT_ANSWER, HITL_AI_REQUEST);
     }
 
@@ -164,12 +196,27 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
                     future.completeExceptionally(e);
                 })
                 .start();
-        future.join();
+        action.getCancellationToken().await(future);
+    }
+
+    /**
+     * 清空对话记忆与历史，结束未完成的工具调用span
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        chatMemory.clear();
+        histories = Collections.emptyList();
+        toolInvocations.values().forEach(invocation -> invocation.span().end());
+        toolInvocations.clear();
     }
 
     private void beforeToolExecution(BeforeToolExecution beforeToolExecution) {
         String toolName = beforeToolExecution.request().name();
         String toolArgs = beforeToolExecution.request().arguments();
+        toolInvocations.put(toolInvocationKey(beforeToolExecution.request().id(), toolName),
+                new ToolInvocation(Timer.start(DatMetrics.registry()),
+                        DatTracing.startSpan("Tool.execute").setAttribute(DatTracing.TOOL_NAME, toolName)));
         if (!humanInTheLoop || !ASK_USER_TOOL_NAME.equals(toolName)) {
             action.add(StreamEvent.from(BEFORE_TOOL_EXECUTION, TOOL_NAME, toolName)
                     .set(TOOL_ID, beforeToolExecution.request().id())
@@ -200,8 +247,29 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
         return approval;
     }
 
+    @Override
+    protected boolean approveCostlyQuery(QueryCostGuard.Verdict verdict) {
+        if (!humanInTheLoop) {
+            return false;
+        }
+        action.add(StreamEvent.from(HITL_TOOL_APPROVAL, TOOL_APPROVAL,
+                verdict.reason() + " Do you approve the execution of this query?"));
+        try {
+            return this.waitForUserApproval();
+        } catch (Exception e) {
+            log.warn("Failed to wait for user approval", e);
+            return false;
+        }
+    }
+
     private void onToolExecuted(ToolExecution toolExecution) {
         String toolName = toolExecution.request().name();
+        ToolInvocation invocation = toolInvocations.remove(
+                toolInvocationKey(toolExecution.request().id(), toolName));
+        if (invocation != null) {
+            invocation.sample().stop(DatMetrics.timer(DatMetrics.TOOL, "tool", toolName));
+            invocation.span().end();
+        }
         if (!humanInTheLoop || !humanInTheLoopAskUser || !ASK_USER_TOOL_NAME.equals(toolName)) {
             action.add(StreamEvent.from(TOOL_EXECUTION, TOOL_NAME, toolName)
                     .set(TOOL_ID, toolExecution.request().id())
@@ -210,15 +278,39 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
         }
     }
 
+    private static String toolInvocationKey(String toolId, String toolName) {
+        return Objects.requireNonNullElse(toolId, toolName);
+    }
+
+    /**
+     * 在工具调用的span中执行工具（工具内部的调用挂在该span下）
+     */
+    private String executeInToolSpan(ToolExecutionRequest request, ToolExecutor toolExecutor, Object memoryId) {
+        ToolInvocation invocation = toolInvocations.get(toolInvocationKey(request.id(), request.name()));
+        if (invocation == null) {
+            return toolExecutor.execute(request, memoryId);
+        }
+        try (Scope ignored = invocation.span().makeCurrent()) {
+            return toolExecutor.execute(request, memoryId);
+        }
+    }
+
+    /**
+     * 进行中的工具调用
+     */
+    private record ToolInvocation(Timer.Sample sample, Span span) {
+    }
+
     private MainAgent createMainAgent() {
         AiServices<MainAgent> aiServices = AiServices.builder(MainAgent.class)
-                .streamingChatModel(defaultStreamingModel)
+                .streamingChatModel(DatMetrics.metered(defaultStreamingModel, "main_agent"))
                 .maxSequentialToolsInvocations(maxToolsInvocations)
                 .tools(
                         createMisleadingAssistanceAgent(),
                         createDataAssistanceAgent(),
                         createText2SqlAgent(),
-                        new Toolbox(contentStore, databaseAdapter, variables, semanticModels, action)
+                        new Toolbox(contentStore, databaseAdapter, variables, semanticModels, action,
+                                this::guardQuery, this::executeDialectQuery)
                 )
                 .inputGuardrails()
                 .chatMemoryProvider(memoryId -> chatMemory);
@@ -234,6 +326,12 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
         if (mcpTransports == null || mcpTransports.isEmpty()) {
             return null;
         }
+        // MCP客户端创建时即连接MCP服务，延迟到首次需要工具列表时再创建，不拖慢Agent的创建
+        Supplier<ToolProvider> mcpToolProvider = Suppliers.memoize(this::createMcpToolProvider);
+        return request -> mcpToolProvider.get().provideTools(request);
+    }
+
+    private ToolProvider createMcpToolProvider() {
         List<McpClient> mcpClients = mcpTransports.entrySet().stream()
                 .map(e -> {
                             try {
@@ -256,7 +354,9 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
                     } catch (Exception e) {
                         return (toolExecutionRequest, memoryId) -> e.getMessage();
                     }
-                    return approval ? toolExecutor :
+                    return approval ?
+                            (toolExecutionRequest, memoryId) ->
+                                    executeInToolSpan(toolExecutionRequest, toolExecutor, memoryId) :
                             (toolExecutionRequest, memoryId) -> TOOL_NOT_APPROVAL_MESSAGE;
                 })
                 .build();
@@ -393,10 +493,14 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
                 ))
                 .contentInjector(new Text2SqlContentInjector(
                         contentStore, databaseAdapter, semanticModels, variables, textToSqlRules,
-                        semanticModelDataPreviewLimit))
+                        semanticModelDataPreviewLimit, dataPreviewCache, dataPreviewConnectionId,
+                        promptContextPacker,
+                        packing -> action.add(StreamEvent.from(DefaultEventOptions.PROMPT_CONTEXT_EVENT,
+                                        DefaultEventOptions.TOKENS, packing.totalTokens())
+                                .set(DefaultEventOptions.SECTIONS, packing.statsMaps()))))
                 .build();
         return AiServices.builder(Text2SqlAgent.class)
-                .chatModel(text2sqlModel)
+                .chatModel(DatMetrics.metered(text2sqlModel, "text2sql_agent"))
                 .retrievalAugmentor(text2SqlRetrievalAugmentor)
                 .build();
     }
@@ -408,7 +512,7 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
                         contentStore, databaseAdapter, semanticModels))
                 .build();
         return AiServices.builder(DataAssistanceAgent.class)
-                .chatModel(defaultModel)
+                .chatModel(DatMetrics.metered(defaultModel, "data_assistance_agent"))
                 .retrievalAugmentor(dataAssistanceRetrievalAugmentor)
                 .build();
     }
@@ -420,7 +524,7 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
                         contentStore, databaseAdapter, semanticModels))
                 .build();
         return AiServices.builder(MisleadingAssistanceAgent.class)
-                .chatModel(defaultModel)
+                .chatModel(DatMetrics.metered(defaultModel, "misleading_assistance_agent"))
                 .retrievalAugmentor(misleadingAssistanceRetrievalAugmentor)
                 .build();
     }
@@ -450,11 +554,28 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
         String text2Sql(@P("The question") @V("query") String query);
     }
 
+    /**
+     * 执行前检查查询代价，返回实际执行的SQL
+     */
+    @FunctionalInterface
+    public interface QueryGuard {
+        String guard(String sql) throws SQLException;
+    }
+
+    /**
+     * 执行查询（应用Agent的查询超时，问数被取消时中止查询）
+     */
+    @FunctionalInterface
+    public interface QueryExecutor {
+        List<Map<String, Object>> execute(String sql) throws SQLException;
+    }
+
     public record Toolbox(ContentStore contentStore, DatabaseAdapter databaseAdapter, Map<String, Object> variables,
-                          List<SemanticModel> semanticModels, StreamAction action) {
+                          List<SemanticModel> semanticModels, StreamAction action, QueryGuard queryGuard,
+                          QueryExecutor queryExecutor) {
         @Tool("Convert the given ANSI SQL into the dialect SQL of the target database")
         public String ansiSql2dialectSql(@P("The ANSI SQL") String ansiSql) {
-            log.info("semanticSql: " + ansiSql);
+            log.info("semanticSql: {}", ansiSql);
             action.add(StreamEvent.from(SQL_GENERATE_EVENT, SQL, ansiSql));
             List<SemanticModel> semanticModels = this.semanticModels;
             if (semanticModels == null || semanticModels.isEmpty()) {
@@ -473,7 +594,7 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
             }).collect(Collectors.toList());
             try {
                 String dialectSql = databaseAdapter.generateSql(ansiSql, renderedSemanticModels);
-                log.info("dialectSql: " + dialectSql);
+                log.info("dialectSql: {}", dialectSql);
                 action.add(StreamEvent.from(SEMANTIC_TO_SQL_EVENT, SQL, dialectSql));
                 return dialectSql;
             } catch (Exception e) {
@@ -485,9 +606,10 @@ class AgenticAskdataAgent extends AbstractHitlAskdataAgent {
         @Tool("The execute database dialect SQL query return the dataset")
         public List<Map<String, Object>> executeSql(
                 @P("The database dialect SQL") String dialectSql) throws SQLException {
-            log.info("executeSql: " + dialectSql);
+            log.info("executeSql: {}", dialectSql);
+            String sql = queryGuard.guard(dialectSql);
             try {
-                List<Map<String, Object>> results = databaseAdapter.executeQuery(dialectSql);
+                List<Map<String, Object>> results = queryExecutor.execute(sql);
                 action.add(StreamEvent.from(SQL_EXECUTE_EVENT, DATA, results));
                 return results;
             } catch (SQLException e) {
@@ -4,6 +4,8 @@ import ai.dat.agent.agentic.tools.email.EmailSenderFactory;
 import ai.dat.agent.agentic.tools.mcp.McpTransportFactory;
 import ai.dat.core.adapter.DatabaseAdapter;
 import ai.dat.core.agent.AskdataAgent;
+import ai.dat.core.agent.DataPreviewCache;
+import ai.dat.core.agent.QueryCostGuard;
 import ai.dat.core.configuration.ConfigOption;
 import ai.dat.core.configuration.ConfigOptions;
 import ai.dat.core.configuration.Configuration;
@@ -11,12 +13,17 @@ import ai.dat.core.configuration.ReadableConfig;
 import ai.dat.core.contentstore.ContentStore;
 import ai.dat.core.factories.AskdataAgentFactory;
 import ai.dat.core.factories.data.ChatModelInstance;
+import ai.dat.core.prompt.PromptContextPacker;
+import ai.dat.core.prompt.PromptSection;
 import ai.dat.core.semantic.data.SemanticModel;
 import ai.dat.core.utils.FactoryUtil;
 import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
 import dev.langchain4j.mcp.client.transport.McpTransport;
 import lombok.NonNull;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -77,6 +84,20 @@ public class AgenticAskdataAgentFactory implements AskdataAgentFactory {
                     .withDescription("The maximum number of sample records to fetch from the database and show to the LLM. " +
                             "Value must be between 1 and 20");
 
+    public static final ConfigOption<Duration> DATA_PREVIEW_REFRESH_INTERVAL =
+            ConfigOptions.key("data-preview.refresh-interval")
+                    .durationType()
+                    .defaultValue(DataPreviewCache.DEFAULT_REFRESH_INTERVAL)
+                    .withDescription("The interval to refresh the cached data previews in the background, " +
+                            "0 means the cached data previews are never refreshed.");
+
+    public static final ConfigOption<Duration> DATA_PREVIEW_QUERY_TIMEOUT =
+            ConfigOptions.key("data-preview.query-timeout")
+                    .durationType()
+                    .defaultValue(DataPreviewCache.DEFAULT_QUERY_TIMEOUT)
+                    .withDescription("The hard timeout of each data preview query, " +
+                            "the data preview is skipped when the query times out.");
+
     public static final ConfigOption<String> TEXT_TO_SQL_RULES =
             ConfigOptions.key("text-to-sql-rules")
                     .stringType()
@@ -180,6 +201,101 @@ public class AgenticAskdataAgentFactory implements AskdataAgentFactory {
                             and request gave feedback when not approve.
                             """);
 
+    public static final ConfigOption<Duration> QUERY_TIMEOUT =
+            ConfigOptions.key("query-timeout")
+                    .durationType()
+                    .defaultValue(Duration.ZERO)
+                    .withDescription("The timeout of each SQL query executed by the agent, the running statement " +
+                            "is cancelled when the query times out. 0 means no timeout.");
+
+    public static final ConfigOption<Boolean> COST_GUARD =
+            ConfigOptions.key("cost-guard")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription("Whether to estimate the rows and cost of the SQL executed by the agent with " +
+                            "the database EXPLAIN before executing it, queries exceeding the thresholds are " +
+                            "handled according to the `cost-guard.action`. Queries that cannot be explained are executed.");
+
+    public static final ConfigOption<Long> COST_GUARD_MAX_ROWS =
+            ConfigOptions.key("cost-guard.max-rows")
+                    .longType()
+                    .defaultValue(1000000L)
+                    .withDescription("The maximum estimated rows of the query plan.");
+
+    public static final ConfigOption<Double> COST_GUARD_MAX_COST =
+            ConfigOptions.key("cost-guard.max-cost")
+                    .doubleType()
+                    .noDefaultValue()
+                    .withDescription("The maximum estimated cost of the query plan, in the cost unit of the database. " +
+                            "Ignored for databases that do not provide the estimated cost.");
+
+    public static final ConfigOption<QueryCostGuard.Action> COST_GUARD_ACTION =
+            ConfigOptions.key("cost-guard.action")
+                    .enumType(QueryCostGuard.Action.class)
+                    .defaultValue(QueryCostGuard.Action.REJECT)
+                    .withDescription("The action for queries exceeding the thresholds: " +
+                            "`REJECT` returns the reason to the LLM, `LIMIT` limits the results to " +
+                            "`cost-guard.limit` rows, `APPROVAL` asks the user for approval " +
+                            "(rejected when human-in-the-loop is disabled).");
+
+    public static final ConfigOption<Integer> COST_GUARD_LIMIT =
+            ConfigOptions.key("cost-guard.limit")
+                    .intType()
+                    .defaultValue(1000)
+                    .withDescription("The maximum number of rows returned when the action is `LIMIT`.");
+
+    public static final ConfigOption<Duration> COST_GUARD_PLAN_CACHE_TTL =
+            ConfigOptions.key("cost-guard.plan-cache-ttl")
+                    .durationType()
+                    .defaultValue(Duration.ofMinutes(10))
+                    .withDescription("The time to live of the query plans cached by SQL fingerprint, " +
+                            "0 means the query plans are not cached.");
+
+    public static final ConfigOption<Boolean> PROMPT_BUDGET =
+            ConfigOptions.key("prompt-budget")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription("Whether to limit the estimated tokens of each context section in the " +
+                            "Text2SQL prompt. Sections exceeding the budget drop the least relevant items first " +
+                            "by the retrieval or rerank scores, semantic models are first shortened to the " +
+                            "columns hit by the column embedding (CE) retrieval.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_SEMANTIC_MODELS =
+            ConfigOptions.key("prompt-budget.semantic-models")
+                    .intType()
+                    .defaultValue(6000)
+                    .withDescription("The token budget of the semantic models, at least one semantic model is kept.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_DATA_SAMPLES =
+            ConfigOptions.key("prompt-budget.data-samples")
+                    .intType()
+                    .defaultValue(2000)
+                    .withDescription("The token budget of the semantic model data previews.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_SQL_SAMPLES =
+            ConfigOptions.key("prompt-budget.sql-samples")
+                    .intType()
+                    .defaultValue(2000)
+                    .withDescription("The token budget of the question and SQL samples.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_SYNONYMS =
+            ConfigOptions.key("prompt-budget.synonyms")
+                    .intType()
+                    .defaultValue(500)
+                    .withDescription("The token budget of the word synonyms.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_DOCS =
+            ConfigOptions.key("prompt-budget.docs")
+                    .intType()
+                    .defaultValue(2000)
+                    .withDescription("The token budget of the business knowledge docs.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_HISTORIES =
+            ConfigOptions.key("prompt-budget.histories")
+                    .intType()
+                    .defaultValue(1500)
+                    .withDescription("The token budget of the conversation histories, the most recent are kept first.");
+
     @Override
     public Set<ConfigOption<?>> requiredOptions() {
         return Collections.emptySet();
@@ -189,9 +305,14 @@ public class AgenticAskdataAgentFactory implements AskdataAgentFactory {
     public Set<ConfigOption<?>> optionalOptions() {
         return new LinkedHashSet<>(List.of(
                 DEFAULT_LLM, MAX_MESSAGES, MAX_HISTORIES, MAX_TOOLS_INVOCATIONS, DATA_PREVIEW, DATA_PREVIEW_LIMIT,
+                DATA_PREVIEW_REFRESH_INTERVAL, DATA_PREVIEW_QUERY_TIMEOUT,
                 SQL_GENERATION_LLM, TEXT_TO_SQL_RULES, INSTRUCTION, EMAIL_SENDER, MCP_SERVERS,
                 HUMAN_IN_THE_LOOP, HUMAN_IN_THE_LOOP_ASK_USER, HUMAN_IN_THE_LOOP_TOOL_APPROVAL,
-                HUMAN_IN_THE_LOOP_TOOL_NOT_APPROVAL_AND_FEEDBACK
+                HUMAN_IN_THE_LOOP_TOOL_NOT_APPROVAL_AND_FEEDBACK,
+                QUERY_TIMEOUT, COST_GUARD, COST_GUARD_MAX_ROWS, COST_GUARD_MAX_COST, COST_GUARD_ACTION,
+                COST_GUARD_LIMIT, COST_GUARD_PLAN_CACHE_TTL, PROMPT_BUDGET, PROMPT_BUDGET_SEMANTIC_MODELS,
+                PROMPT_BUDGET_DATA_SAMPLES, PROMPT_BUDGET_SQL_SAMPLES, PROMPT_BUDGET_SYNONYMS, PROMPT_BUDGET_DOCS,
+                PROMPT_BUDGET_HISTORIES
         ));
     }
 
@@ -213,6 +334,17 @@ public class AgenticAskdataAgentFactory implements AskdataAgentFactory {
                                @NonNull List<ChatModelInstance> chatModelInstances,
                                @NonNull DatabaseAdapter databaseAdapter,
                                Map<String, Object> variables) {
+        return create(config, semanticModels, contentStore, chatModelInstances, databaseAdapter, null, variables);
+    }
+
+    @Override
+    public AskdataAgent create(@NonNull ReadableConfig config,
+                               List<SemanticModel> semanticModels,
+                               @NonNull ContentStore contentStore,
+                               @NonNull List<ChatModelInstance> chatModelInstances,
+                               @NonNull DatabaseAdapter databaseAdapter,
+                               String connectionId,
+                               Map<String, Object> variables) {
         Preconditions.checkArgument(!chatModelInstances.isEmpty(),
                 "chatModelInstances cannot be empty");
         FactoryUtil.validateFactoryOptions(this, config);
@@ -260,6 +392,18 @@ public class AgenticAskdataAgentFactory implements AskdataAgentFactory {
         }
         if (dataPreview) {
             builder.semanticModelDataPreviewLimit(config.get(DATA_PREVIEW_LIMIT));
+            builder.dataPreviewCache(DataPreviewCache.getOrCreate(
+                    config.get(DATA_PREVIEW_REFRESH_INTERVAL), config.get(DATA_PREVIEW_QUERY_TIMEOUT)));
+            builder.dataPreviewConnectionId(connectionId);
+        }
+        if (!config.get(QUERY_TIMEOUT).isZero()) {
+            builder.queryTimeout(config.get(QUERY_TIMEOUT));
+        }
+        if (config.get(COST_GUARD)) {
+            builder.queryCostGuard(createQueryCostGuard(config));
+        }
+        if (config.get(PROMPT_BUDGET)) {
+            builder.promptContextPacker(createPromptContextPacker(config));
         }
 
         config.getOptional(EMAIL_SENDER)
@@ -279,6 +423,28 @@ public class AgenticAskdataAgentFactory implements AskdataAgentFactory {
         return builder.build();
     }
 
+    /**
+     * 相同配置的Agent在进程内共享同一个查询代价守卫（及其查询计划缓存）
+     */
+    private QueryCostGuard createQueryCostGuard(ReadableConfig config) {
+        String name = IDENTIFIER + ":" + Hashing.sha256()
+                .hashString(new TreeMap<>(config.toMap()).toString(), StandardCharsets.UTF_8);
+        return QueryCostGuard.getOrCreate(name, config.get(COST_GUARD_MAX_ROWS).doubleValue(),
+                config.getOptional(COST_GUARD_MAX_COST).orElse(null), config.get(COST_GUARD_ACTION),
+                config.get(COST_GUARD_LIMIT), config.get(COST_GUARD_PLAN_CACHE_TTL));
+    }
+
+    private PromptContextPacker createPromptContextPacker(ReadableConfig config) {
+        Map<PromptSection, Integer> budgets = new EnumMap<>(PromptSection.class);
+        budgets.put(PromptSection.SEMANTIC_MODELS, config.get(PROMPT_BUDGET_SEMANTIC_MODELS));
+        budgets.put(PromptSection.DATA_SAMPLES, config.get(PROMPT_BUDGET_DATA_SAMPLES));
+        budgets.put(PromptSection.SQL_SAMPLES, config.get(PROMPT_BUDGET_SQL_SAMPLES));
+        budgets.put(PromptSection.SYNONYMS, config.get(PROMPT_BUDGET_SYNONYMS));
+        budgets.put(PromptSection.DOCS, config.get(PROMPT_BUDGET_DOCS));
+        budgets.put(PromptSection.HISTORIES, config.get(PROMPT_BUDGET_HISTORIES));
+        return new PromptContextPacker(budgets);
+    }
+
     private void validateConfigOptions(ReadableConfig config, Map<String, ChatModelInstance> instances) {
         config.getOptional(MAX_MESSAGES)
                 .ifPresent(n -> Preconditions.checkArgument(n > 0,
@@ -292,6 +458,33 @@ public class AgenticAskdataAgentFactory implements AskdataAgentFactory {
         config.getOptional(DATA_PREVIEW_LIMIT)
                 .ifPresent(n -> Preconditions.checkArgument(n >= 1 && n <= 20,
                         "'" + DATA_PREVIEW_LIMIT.key() + "' value must be between 1 and 20"));
+        config.getOptional(DATA_PREVIEW_REFRESH_INTERVAL)
+                .ifPresent(d -> Preconditions.checkArgument(!d.isNegative(),
+                        "'" + DATA_PREVIEW_REFRESH_INTERVAL.key() + "' value cannot be negative"));
+        config.getOptional(DATA_PREVIEW_QUERY_TIMEOUT)
+                .ifPresent(d -> Preconditions.checkArgument(!d.isNegative() && !d.isZero(),
+                        "'" + DATA_PREVIEW_QUERY_TIMEOUT.key() + "' value must be greater than 0"));
+        config.getOptional(QUERY_TIMEOUT)
+                .ifPresent(d -> Preconditions.checkArgument(!d.isNegative(),
+                        "'" + QUERY_TIMEOUT.key() + "' value cannot be negative"));
+        config.getOptional(COST_GUARD_MAX_ROWS)
+                .ifPresent(n -> Preconditions.checkArgument(n > 0,
+                        "'" + COST_GUARD_MAX_ROWS.key() + "' value must be greater than 0"));
+        config.getOptional(COST_GUARD_MAX_COST)
+                .ifPresent(n -> Preconditions.checkArgument(n > 0,
+                        "'" + COST_GUARD_MAX_COST.key() + "' value must be greater than 0"));
+        config.getOptional(COST_GUARD_LIMIT)
+                .ifPresent(n -> Preconditions.checkArgument(n > 0,
+                        "'" + COST_GUARD_LIMIT.key() + "' value must be greater than 0"));
+        config.getOptional(COST_GUARD_PLAN_CACHE_TTL)
+                .ifPresent(d -> Preconditions.checkArgument(!d.isNegative(),
+                        "'" + COST_GUARD_PLAN_CACHE_TTL.key() + "' value cannot be negative"));
+        for (ConfigOption<Integer> option : List.of(PROMPT_BUDGET_SEMANTIC_MODELS, PROMPT_BUDGET_DATA_SAMPLES,
+                PROMPT_BUDGET_SQL_SAMPLES, PROMPT_BUDGET_SYNONYMS, PROMPT_BUDGET_DOCS, PROMPT_BUDGET_HISTORIES)) {
+            config.getOptional(option)
+                    .ifPresent(n -> Preconditions.checkArgument(n > 0,
+                            "'" + option.key() + "' value must be greater than 0"));
+        }
         String llmNames = String.join(", ", instances.keySet());
         String errorMessageFormat = "'%s' value must be one of [%s]";
         config.getOptional(DEFAULT_LLM)
@@ -1,33 +1,34 @@
 package ai.dat.agent.agentic;
 
 import ai.dat.core.adapter.DatabaseAdapter;
+import ai.dat.core.agent.DataPreviewCache;
 import ai.dat.core.contentstore.ContentStore;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
 import ai.dat.core.contentstore.data.WordSynonymPair;
 import ai.dat.core.contentstore.utils.ContentStoreUtil;
+import ai.dat.core.prompt.PromptContextPacker;
+import ai.dat.core.prompt.PromptSection;
+import ai.dat.core.prompt.ScoredSemanticModel;
 import ai.dat.core.semantic.data.SemanticModel;
 import ai.dat.core.utils.JinjaTemplateUtil;
-import ai.dat.core.utils.MarkdownUtil;
 import ai.dat.core.utils.SemanticModelUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
 import dev.langchain4j.data.message.ChatMessage;
-import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.input.PromptTemplate;
 import dev.langchain4j.rag.content.Content;
 import dev.langchain4j.rag.content.injector.ContentInjector;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.calcite.sql.parser.SqlParseException;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static ai.dat.core.contentstore.DefaultContentStore.METADATA_CONTENT_TYPE;
@@ -73,19 +74,31 @@ class Text2SqlContentInjector implements ContentInjector {
     private final Map<String, Object> variables;
     private final String textToSqlRules;
     private final Integer semanticModelDataPreviewLimit;
+    private final DataPreviewCache dataPreviewCache;
+    private final String dataPreviewConnectionId;
+    private final PromptContextPacker promptContextPacker;
+    private final Consumer<PromptContextPacker.Session> packedListener;
 
     public Text2SqlContentInjector(@NonNull ContentStore contentStore,
                                    @NonNull DatabaseAdapter databaseAdapter,
                                    List<SemanticModel> semanticModels,
                                    Map<String, Object> variables,
                                    String textToSqlRules,
-                                   Integer semanticModelDataPreviewLimit) {
+                                   Integer semanticModelDataPreviewLimit,
+                                   DataPreviewCache dataPreviewCache,
+                                   String dataPreviewConnectionId,
+                                   PromptContextPacker promptContextPacker,
+                                   Consumer<PromptContextPacker.Session> packedListener) {
         this.contentStore = contentStore;
         this.databaseAdapter = databaseAdapter;
         this.semanticModels = semanticModels;
         this.variables = Optional.ofNullable(variables).orElse(Collections.emptyMap());
         this.textToSqlRules = Optional.ofNullable(textToSqlRules).orElse(TEXT_TO_SQL_RULES);
         this.semanticModelDataPreviewLimit = Optional.ofNullable(semanticModelDataPreviewLimit).orElse(0);
+        this.dataPreviewCache = Optional.ofNullable(dataPreviewCache).orElseGet(DataPreviewCache::getDefault);
+        this.dataPreviewConnectionId = dataPreviewConnectionId;
+        this.promptContextPacker = promptContextPacker;
+        this.packedListener = packedListener;
     }
 
     @Override
@@ -95,31 +108,57 @@ class Text2SqlContentInjector implements ContentInjector {
         } else {
             String queryTime = LocalDateTime.now().format(FORMATTER);
 
+            // 按Token预算裁剪上下文时，每次注入使用独立的会话记录各部分的Token数
+            PromptContextPacker.Session packing = promptContextPacker == null ? null : promptContextPacker.session();
+
             List<SemanticModel> semanticModels = this.semanticModels;
+            List<ScoredSemanticModel> scoredSemanticModels;
             if (semanticModels == null || semanticModels.isEmpty()) {
-                List<TextSegment> mdlTextSegments = contents.stream()
-                        .map(Content::textSegment).filter(contentStore::isMdl).toList();
-                semanticModels = ContentStoreUtil.toSemanticModels(mdlTextSegments);
+                List<Content> mdlContents = contents.stream()
+                        .filter(content -> contentStore.isMdl(content.textSegment())).toList();
+                scoredSemanticModels = ContentStoreUtil.contents2ScoredSemanticModels(mdlContents);
+                semanticModels = scoredSemanticModels.stream()
+                        .map(ScoredSemanticModel::semanticModel).collect(Collectors.toList());
                 Preconditions.checkArgument(!semanticModels.isEmpty(), "Retrieve semantic models is empty");
+            } else {
+                scoredSemanticModels = semanticModels.stream()
+                        .map(ScoredSemanticModel::of).collect(Collectors.toList());
+            }
+            List<String> semantics;
+            if (packing == null) {
+                semantics = semanticModels.stream()
+                        .map(semanticModel -> SemanticModelUtil.toSemanticModelViewText(
+                                semanticModel, databaseAdapter.semanticAdapter()))
+                        .collect(Collectors.toList());
+            } else {
+                List<PromptContextPacker.PackedSemanticModel> packedSemanticModels =
+                        packing.semanticModels(scoredSemanticModels, databaseAdapter.semanticAdapter());
+                semantics = packedSemanticModels.stream()
+                        .map(PromptContextPacker.PackedSemanticModel::viewText)
+                        .collect(Collectors.toList());
+                semanticModels = packedSemanticModels.stream()
+                        .map(PromptContextPacker.PackedSemanticModel::semanticModel)
+                        .collect(Collectors.toList());
+            }
+            List<Content> sqlContents = contents.stream()
+                    .filter(content -> contentStore.isSql(content.textSegment())).toList();
+            List<QuestionSqlPair> sqlSamples = ContentStoreUtil.contents2QuestionSqlPairs(sqlContents);
+            List<Content> synContents = contents.stream()
+                    .filter(content -> contentStore.isSyn(content.textSegment())).toList();
+            List<WordSynonymPair> synonyms = ContentStoreUtil.contents2NounSynonymPairs(synContents);
+            List<Content> docContents = contents.stream()
+                    .filter(content -> contentStore.isDoc(content.textSegment())).toList();
+            List<String> docs = ContentStoreUtil.contents2Docs(docContents);
+            if (packing != null) {
+                sqlSamples = packing.pack(PromptSection.SQL_SAMPLES, sqlSamples, ContentStoreUtil.scores(sqlContents));
+                synonyms = packing.pack(PromptSection.SYNONYMS, synonyms, ContentStoreUtil.scores(synContents));
+                docs = packing.pack(PromptSection.DOCS, docs, ContentStoreUtil.scores(docContents));
             }
-            List<String> semantics = semanticModels.stream()
-                    .map(semanticModel -> SemanticModelUtil.toSemanticModelViewText(
-                            semanticModel, databaseAdapter.semanticAdapter()))
-                    .collect(Collectors.toList());
-            List<TextSegment> sqlTextSegments = contents.stream()
-                    .map(Content::textSegment).filter(contentStore::isSql).toList();
-            List<QuestionSqlPair> sqlSamples = ContentStoreUtil.toQuestionSqlPairs(sqlTextSegments);
-            List<TextSegment> synTextSegments = contents.stream()
-                    .map(Content::textSegment).filter(contentStore::isSyn).toList();
-            List<WordSynonymPair> synonyms = ContentStoreUtil.toNounSynonymPairs(synTextSegments);
-            List<TextSegment> docTextSegments = contents.stream()
-                    .map(Content::textSegment).filter(contentStore::isDoc).toList();
-            List<String> docs = ContentStoreUtil.toDocs(docTextSegments);
             String query = ((dev.langchain4j.data.message.UserMessage) chatMessage).singleText();
 
             List<String> dataSamples = Collections.emptyList();
             if (semanticModelDataPreviewLimit > 0) {
-                dataSamples = semanticModels.stream().map(m -> {
+                List<SemanticModel> renderedSemanticModels = semanticModels.stream().map(m -> {
                             try {
                                 SemanticModel semanticModel = JSON_MAPPER.readValue(
                                         JSON_MAPPER.writeValueAsString(m), SemanticModel.class);
@@ -128,29 +167,12 @@ class Text2SqlContentInjector implements ContentInjector {
                             } catch (JsonProcessingException ex) {
                                 throw new RuntimeException(ex);
                             }
-                        }).map(m -> {
-                            String semanticModelSql;
-                            try {
-                                semanticModelSql = SemanticModelUtil.semanticModelSql(databaseAdapter.semanticAdapter(), m);
-                            } catch (SqlParseException e) {
-                                log.warn("Skip data preview for semantic model {} due to parse error. SQL template: {}",
-                                        m.getName(), m.getModel(), e);
-                                return null;
-                            }
-                            String sql = "SELECT * FROM (" + semanticModelSql + ") AS __dat_semantic_model "
-                                    + databaseAdapter.limitClause(semanticModelDataPreviewLimit);
-                            List<Map<String, Object>> data;
-                            try {
-                                data = databaseAdapter.executeQuery(sql);
-                            } catch (SQLException e) {
-                                log.warn("Skip data preview for semantic model {} due to SQL error. SQL: {}",
-                                        m.getName(), sql, e);
-                                return null;
-                            }
-                            return "#### " + m.getName() + "\n\n" + MarkdownUtil.toTable(data);
-                        })
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList());
+                        }).collect(Collectors.toList());
+                dataSamples = dataPreviewCache.previews(dataPreviewConnectionId, databaseAdapter,
+                        renderedSemanticModels, semanticModelDataPreviewLimit);
+                if (packing != null) {
+                    dataSamples = packing.pack(PromptSection.DATA_SAMPLES, dataSamples, null);
+                }
             }
 
             Map<String, Object> variables = new HashMap<>();
@@ -176,6 +198,12 @@ class Text2SqlContentInjector implements ContentInjector {
                     })
                     .filter(Objects::nonNull)
                     .toList();
+            if (packing != null) {
+                histories = packing.histories(histories);
+                if (packedListener != null) {
+                    packedListener.accept(packing);
+                }
+            }
             if (histories.isEmpty()) {
                 return PROMPT_TEMPLATE.apply(variables).toUserMessage();
             } else {
@@ -0,0 +1,90 @@
+package ai.dat.benchmarks;
+
+import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.DatSchemaUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试的公共数据：语义模型、语义SQL、问题与文档片段
+ *
+ * @Author JunjieM
+ * @Date 2025/10/29
+ */
+public final class BenchmarkFixtures {
+
+    private static final String SEMANTIC_MODELS_RESOURCE = "benchmarks/semantic_models.yaml";
+
+    /**
+     * 覆盖单表、多表关联、过滤、时间粒度与排序分页的语义SQL
+     */
+    public static final Map<String, String> SEMANTIC_SQLS;
+
+    static {
+        Map<String, String> sqls = new LinkedHashMap<>();
+        sqls.put("single", "SELECT status, SUM(order_amount) AS total_amount FROM orders "
+                + "WHERE status <> 'closed' GROUP BY status");
+        sqls.put("join", "SELECT customers.region, SUM(orders.order_amount) AS total_amount, "
+                + "COUNT(DISTINCT orders.customer_id) AS buyers "
+                + "FROM orders JOIN customers ON orders.customer_id = customers.customer_id "
+                + "WHERE customers.level = 'vip' GROUP BY customers.region ORDER BY total_amount DESC");
+        sqls.put("three_way", "SELECT customers.region, products.category, orders.order_month, "
+                + "AVG(orders.avg_order_amount) AS avg_amount, SUM(orders.quantity) AS quantity "
+                + "FROM orders JOIN customers ON orders.customer_id = customers.customer_id "
+                + "JOIN products ON orders.product_id = products.product_id "
+                + "WHERE orders.order_date >= DATE '2024-03-01' AND products.category IN ('Books', 'Electronics') "
+                + "GROUP BY customers.region, products.category, orders.order_month "
+                + "ORDER BY customers.region, orders.order_month LIMIT 100");
+        SEMANTIC_SQLS = Map.copyOf(sqls);
+    }
+
+    public static final List<String> QUESTIONS = List.of(
+            "每个区域VIP客户的订单总金额是多少？",
+            "2024年3月以来各类目商品的平均订单金额",
+            "最近一个月已支付订单的数量",
+            "How many distinct buyers ordered electronics last quarter?"
+    );
+
+    private BenchmarkFixtures() {
+    }
+
+    public static List<SemanticModel> semanticModels() {
+        try (InputStream in = BenchmarkFixtures.class.getClassLoader()
+                .getResourceAsStream(SEMANTIC_MODELS_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing benchmark resource: " + SEMANTIC_MODELS_RESOURCE);
+            }
+            String yamlContent = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return DatSchemaUtil.getSemanticModels(yamlContent, List.of());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load benchmark semantic models", e);
+        }
+    }
+
+    public static SemanticModel semanticModel(String name) {
+        return semanticModels().stream()
+                .filter(m -> m.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown semantic model: " + name));
+    }
+
+    /**
+     * 生成指定数量的文档片段（模拟召回的候选内容）
+     */
+    public static List<String> documents(int size) {
+        List<String> docs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            docs.add("指标口径 " + i + "：订单总金额为已支付与已发货订单金额之和，按下单日期统计，"
+                    + "区域取自客户档案，VIP客户为客户等级为vip的客户。Metric " + i
+                    + " counts distinct buyers per product category and month.");
+        }
+        return docs;
+    }
+}
@@ -0,0 +1,38 @@
+package ai.dat.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试入口，默认以 JSON 格式输出结果到当前目录的 jmh-result-&lt;版本&gt;.json，
+ * 便于跨版本比较（例如使用 JMH Visualizer 或 jq 对比两个版本的结果文件）。
+ * <p>
+ * 其余参数与 JMH 命令行一致，例如：
+ * <pre>
+ * java -jar dat-benchmarks/target/benchmarks.jar SemanticSqlConverter -p pushdown=true
+ * java -jar dat-benchmarks/target/benchmarks.jar -rf csv -rff result.csv
+ * </pre>
+ *
+ * @Author JunjieM
+ * @Date 2025/10/29
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> argList = new ArrayList<>(Arrays.asList(args));
+        if (!argList.contains("-rf")) {
+            argList.add("-rf");
+            argList.add("json");
+        }
+        if (!argList.contains("-rff")) {
+            String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+            argList.add("-rff");
+            argList.add("jmh-result-" + (version == null ? "dev" : version) + ".json");
+        }
+        org.openjdk.jmh.Main.main(argList.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,66 @@
+package ai.dat.benchmarks;
+
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import ai.dat.core.contentstore.utils.ContentStoreUtil;
+import ai.dat.core.semantic.data.SemanticModel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.segment.TextSegment;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 召回内容（JSON文本片段）反序列化为语义模型与问题SQL对
+ *
+ * @Author JunjieM
+ * @Date 2025/10/29
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentStoreUtilBenchmark {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    @Param({"10", "50"})
+    public int segments;
+
+    private List<TextSegment> semanticModelSegments;
+    private List<TextSegment> questionSqlPairSegments;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        List<SemanticModel> semanticModels = BenchmarkFixtures.semanticModels();
+        List<String> semanticSqls = List.copyOf(BenchmarkFixtures.SEMANTIC_SQLS.values());
+        semanticModelSegments = new ArrayList<>(segments);
+        questionSqlPairSegments = new ArrayList<>(segments);
+        for (int i = 0; i < segments; i++) {
+            SemanticModel semanticModel = semanticModels.get(i % semanticModels.size());
+            // 模型名称不同，避免被去重
+            String json = JSON_MAPPER.writeValueAsString(semanticModel)
+                    .replace("\"name\":\"" + semanticModel.getName() + "\"",
+                            "\"name\":\"" + semanticModel.getName() + "_" + i + "\"");
+            semanticModelSegments.add(TextSegment.from(json));
+            QuestionSqlPair pair = QuestionSqlPair.from(
+                    BenchmarkFixtures.QUESTIONS.get(i % BenchmarkFixtures.QUESTIONS.size()),
+                    semanticSqls.get(i % semanticSqls.size()));
+            questionSqlPairSegments.add(TextSegment.from(JSON_MAPPER.writeValueAsString(pair)));
+        }
+    }
+
+    @Benchmark
+    public List<SemanticModel> toSemanticModels() {
+        return ContentStoreUtil.toSemanticModels(semanticModelSegments);
+    }
+
+    @Benchmark
+    public List<QuestionSqlPair> toQuestionSqlPairs() {
+        return ContentStoreUtil.toQuestionSqlPairs(questionSqlPairSegments);
+    }
+}
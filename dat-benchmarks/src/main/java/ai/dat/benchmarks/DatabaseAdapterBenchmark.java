@@ -0,0 +1,46 @@
+package ai.dat.benchmarks;
+
+import ai.dat.adapter.duckdb.DuckDBDataSource;
+import ai.dat.adapter.duckdb.DuckDBDatabaseAdapter;
+import ai.dat.core.adapter.DatabaseAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询结果的行映射（JDBC ResultSet 转换为 List&lt;Map&gt;），使用内存 DuckDB，
+ * 数据由 range() 生成，不依赖外部数据库
+ *
+ * @Author JunjieM
+ * @Date 2025/10/29
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseAdapterBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private DatabaseAdapter databaseAdapter;
+    private String sql;
+
+    @Setup
+    public void setup() {
+        databaseAdapter = new DuckDBDatabaseAdapter(new DuckDBDataSource(null));
+        sql = "SELECT i AS id, 'name_' || i AS name, (i % 97) * 3.5 AS amount, "
+                + "DATE '2024-01-01' + CAST(i % 365 AS INTEGER) AS created_date, "
+                + "i % 2 = 0 AS flag FROM range(" + rows + ") t(i)";
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> executeQuery() throws SQLException {
+        return databaseAdapter.executeQuery(sql);
+    }
+}
@@ -0,0 +1,57 @@
+package ai.dat.benchmarks;
+
+import ai.dat.core.configuration.Configuration;
+import ai.dat.embedder.inprocess.BgeSmallZhV15EmbeddingModelFactory;
+import ai.dat.reranker.onnx.MsMarcoMiniLmL6V2ScoringModelFactory;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.scoring.ScoringModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内 ONNX 模型：交叉编码器重排序（ms-marco-MiniLM-L6-v2）与向量化（bge-small-zh-v1.5）的吞吐量
+ *
+ * @Author JunjieM
+ * @Date 2025/10/29
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InProcessModelBenchmark {
+
+    @Param({"8", "32"})
+    public int segments;
+
+    private ScoringModel scoringModel;
+    private EmbeddingModel embeddingModel;
+    private List<TextSegment> textSegments;
+    private String query;
+
+    @Setup
+    public void setup() {
+        Configuration config = Configuration.fromMap(Map.of());
+        scoringModel = new MsMarcoMiniLmL6V2ScoringModelFactory().create(config);
+        embeddingModel = new BgeSmallZhV15EmbeddingModelFactory().create(config);
+        textSegments = BenchmarkFixtures.documents(segments).stream().map(TextSegment::from).toList();
+        query = BenchmarkFixtures.QUESTIONS.get(0);
+    }
+
+    @Benchmark
+    public Response<List<Double>> scoreAll() {
+        return scoringModel.scoreAll(textSegments, query);
+    }
+
+    @Benchmark
+    public Response<List<Embedding>> embedAll() {
+        return embeddingModel.embedAll(textSegments);
+    }
+}
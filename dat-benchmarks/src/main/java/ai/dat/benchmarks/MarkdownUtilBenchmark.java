@@ -0,0 +1,49 @@
+package ai.dat.benchmarks;
+
+import ai.dat.core.utils.MarkdownUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询结果渲染为 Markdown 表格（写入提示词与回答时的热点）
+ *
+ * @Author JunjieM
+ * @Date 2025/10/29
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarkdownUtilBenchmark {
+
+    @Param({"10", "1000"})
+    public int rows;
+
+    private List<Map<String, Object>> data;
+
+    @Setup
+    public void setup() {
+        data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("region", i % 2 == 0 ? "North" : "South");
+            row.put("category", "category_" + (i % 13));
+            row.put("total_amount", (i % 97) * 3.5);
+            row.put("buyers", i % 1000L);
+            row.put("remark", i % 10 == 0 ? null : "备注 | 第" + i + "行");
+            data.add(row);
+        }
+    }
+
+    @Benchmark
+    public String toTable() {
+        return MarkdownUtil.toTable(data);
+    }
+}
@@ -0,0 +1,144 @@
+package ai.dat.benchmarks;
+
+import ai.dat.core.configuration.Configuration;
+import ai.dat.core.contentstore.ContentType;
+import ai.dat.storer.duckdb.DuckDBEmbeddingStoreFactory;
+import ai.dat.storer.duckdb.VectorQuantization;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * DuckDB嵌入存储的量化检索：与精确检索（NONE）比较单次检索耗时，
+ * 并在准备阶段输出量化检索相对精确检索的 recall@10
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuantizedSearchBenchmark {
+
+    private static final int DIMENSION = 512;
+    private static final int CLUSTERS = 64;
+    private static final int QUERIES = 100;
+    private static final int MAX_RESULTS = 10;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"NONE", "INT8", "BINARY"})
+    public String quantization;
+
+    @Param({"10000", "50000"})
+    public int vectors;
+
+    private Path directory;
+    private EmbeddingStore<TextSegment> embeddingStore;
+    private List<Embedding> queries;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("dat-quantized-search");
+        String filePath = directory.resolve("embeddings.duckdb").toString();
+        EmbeddingStore<TextSegment> exactStore = create(filePath, VectorQuantization.NONE.name());
+        Random random = new Random(42);
+        float[][] centroids = new float[CLUSTERS][];
+        for (int i = 0; i < CLUSTERS; i++) {
+            centroids[i] = gaussian(random, 1f);
+        }
+        for (int start = 0; start < vectors; start += BATCH_SIZE) {
+            int size = Math.min(BATCH_SIZE, vectors - start);
+            List<Embedding> embeddings = new ArrayList<>(size);
+            List<TextSegment> textSegments = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                embeddings.add(Embedding.from(near(random, centroids[random.nextInt(CLUSTERS)])));
+                textSegments.add(TextSegment.from("segment " + (start + i)));
+            }
+            exactStore.addAll(embeddings, textSegments);
+        }
+        queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(Embedding.from(near(random, centroids[random.nextInt(CLUSTERS)])));
+        }
+        embeddingStore = VectorQuantization.NONE.name().equals(quantization)
+                ? exactStore : create(filePath, quantization);
+        // 量化检索相对精确检索的召回率，同一文件同一张表
+        double recall = 0d;
+        for (Embedding query : queries) {
+            Set<String> exactIds = ids(exactStore.search(request(query)));
+            Set<String> ids = ids(embeddingStore.search(request(query)));
+            recall += exactIds.isEmpty() ? 1d
+                    : (double) ids.stream().filter(exactIds::contains).count() / exactIds.size();
+        }
+        System.out.printf("%n%s recall@%d over %d vectors: %.4f%n",
+                quantization, MAX_RESULTS, vectors, recall / queries.size());
+        next = 0;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public EmbeddingSearchResult<TextSegment> search() {
+        Embedding query = queries.get(next);
+        next = (next + 1) % queries.size();
+        return embeddingStore.search(request(query));
+    }
+
+    private static EmbeddingStore<TextSegment> create(String filePath, String quantization) {
+        return new DuckDBEmbeddingStoreFactory().create("bench", ContentType.DOC, Configuration.fromMap(Map.of(
+                DuckDBEmbeddingStoreFactory.FILE_PATH.key(), filePath,
+                DuckDBEmbeddingStoreFactory.QUANTIZATION.key(), quantization,
+                DuckDBEmbeddingStoreFactory.QUANTIZATION_RECALL_SAMPLE_RATE.key(), 0.0)));
+    }
+
+    private static EmbeddingSearchRequest request(Embedding query) {
+        return EmbeddingSearchRequest.builder()
+                .queryEmbedding(query)
+                .maxResults(MAX_RESULTS)
+                .build();
+    }
+
+    private static Set<String> ids(EmbeddingSearchResult<TextSegment> result) {
+        return result.matches().stream().map(EmbeddingMatch::embeddingId).collect(Collectors.toSet());
+    }
+
+    private static float[] near(Random random, float[] centroid) {
+        float[] noise = gaussian(random, 0.5f);
+        for (int i = 0; i < DIMENSION; i++) {
+            noise[i] += centroid[i];
+        }
+        return noise;
+    }
+
+    private static float[] gaussian(Random random, float sigma) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian() * sigma;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,47 @@
+package ai.dat.benchmarks;
+
+import ai.dat.adapter.duckdb.DuckDBSemanticAdapter;
+import ai.dat.core.adapter.SemanticAdapter;
+import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.SemanticModelUtil;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 语义模型数据集SQL的生成与语义模型视图的序列化（构建提示词时的热点）
+ *
+ * @Author JunjieM
+ * @Date 2025/10/29
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SemanticModelUtilBenchmark {
+
+    @Param({"orders", "customers"})
+    public String model;
+
+    private SemanticAdapter semanticAdapter;
+    private SemanticModel semanticModel;
+
+    @Setup
+    public void setup() {
+        semanticAdapter = new DuckDBSemanticAdapter();
+        semanticModel = BenchmarkFixtures.semanticModel(model);
+    }
+
+    @Benchmark
+    public String semanticModelSql() throws SqlParseException {
+        return SemanticModelUtil.semanticModelSql(semanticAdapter, semanticModel);
+    }
+
+    @Benchmark
+    public String toSemanticModelViewText() {
+        return SemanticModelUtil.toSemanticModelViewText(semanticModel, semanticAdapter);
+    }
+}
@@ -0,0 +1,49 @@
+package ai.dat.benchmarks;
+
+import ai.dat.adapter.duckdb.DuckDBSemanticAdapter;
+import ai.dat.core.semantic.SemanticSqlConverter;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 语义SQL转换为方言SQL（解析、改写、展开语义模型）
+ *
+ * @Author JunjieM
+ * @Date 2025/10/29
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SemanticSqlConverterBenchmark {
+
+    @Param({"single", "join", "three_way"})
+    public String query;
+
+    @Param({"true", "false"})
+    public boolean pushdown;
+
+    private SemanticSqlConverter converter;
+    private String semanticSql;
+
+    @Setup
+    public void setup() {
+        converter = new SemanticSqlConverter(new DuckDBSemanticAdapter(),
+                BenchmarkFixtures.semanticModels(), pushdown);
+        semanticSql = BenchmarkFixtures.SEMANTIC_SQLS.get(query);
+    }
+
+    @Benchmark
+    public String convert() throws SqlParseException {
+        return converter.convert(semanticSql);
+    }
+
+    @Benchmark
+    public String convertFormat() throws SqlParseException {
+        return converter.convertFormat(semanticSql);
+    }
+}
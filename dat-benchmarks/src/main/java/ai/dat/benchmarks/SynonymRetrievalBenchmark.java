@@ -0,0 +1,86 @@
+package ai.dat.benchmarks;
+
+import ai.dat.core.configuration.Configuration;
+import ai.dat.core.contentstore.data.WordSynonymPair;
+import ai.dat.core.contentstore.utils.SynonymDictionary;
+import ai.dat.embedder.inprocess.BgeSmallZhV15EmbeddingModelFactory;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 词与近义词检索：向量检索（问题向量化 + 向量库检索）与词典匹配（Aho-Corasick）的单次检索耗时
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SynonymRetrievalBenchmark {
+
+    @Param({"100", "1000"})
+    public int pairs;
+
+    private List<WordSynonymPair> synonymPairs;
+    private EmbeddingModel embeddingModel;
+    private InMemoryEmbeddingStore<TextSegment> embeddingStore;
+    private SynonymDictionary dictionary;
+    private String question;
+
+    @Setup
+    public void setup() {
+        synonymPairs = synonymPairs(pairs);
+        embeddingModel = new BgeSmallZhV15EmbeddingModelFactory().create(Configuration.fromMap(Map.of()));
+        embeddingStore = new InMemoryEmbeddingStore<>();
+        List<TextSegment> textSegments = synonymPairs.stream()
+                .map(pair -> TextSegment.from(pair.getWord() + " " + String.join(" ", pair.getSynonyms())))
+                .toList();
+        embeddingStore.addAll(embeddingModel.embedAll(textSegments).content(), textSegments);
+        dictionary = SynonymDictionary.build(synonymPairs);
+        question = BenchmarkFixtures.QUESTIONS.get(0);
+    }
+
+    @Benchmark
+    public EmbeddingSearchResult<TextSegment> vector() {
+        Embedding embedding = embeddingModel.embed(question).content();
+        return embeddingStore.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(embedding)
+                .maxResults(5)
+                .minScore(0.6)
+                .build());
+    }
+
+    @Benchmark
+    public List<WordSynonymPair> dictionary() {
+        return dictionary.match(question);
+    }
+
+    @Benchmark
+    public SynonymDictionary buildDictionary() {
+        return SynonymDictionary.build(synonymPairs);
+    }
+
+    private static List<WordSynonymPair> synonymPairs(int size) {
+        List<WordSynonymPair> synonymPairs = new ArrayList<>(size);
+        synonymPairs.add(WordSynonymPair.from("VIP客户", "贵宾客户", "大客户"));
+        synonymPairs.add(WordSynonymPair.from("订单总金额", "GMV", "成交总额"));
+        synonymPairs.add(WordSynonymPair.from("区域", "大区", "地区"));
+        for (int i = synonymPairs.size(); i < size; i++) {
+            synonymPairs.add(WordSynonymPair.from("业务术语" + i, "term_" + i, "同义词" + i));
+        }
+        return synonymPairs;
+    }
+}
@@ -3,6 +3,11 @@ package ai.dat.cli;
 import ai.dat.cli.commands.*;
 import ai.dat.cli.provider.VersionProvider;
 import ai.dat.cli.utils.AnsiUtil;
+import ai.dat.core.metrics.DatMetrics;
+import ai.dat.core.tracing.DatTracing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.autoconfigure.AutoConfiguredOpenTelemetrySdk;
 import lombok.extern.slf4j.Slf4j;
 import org.fusesource.jansi.AnsiConsole;
 import picocli.CommandLine;
@@ -14,6 +19,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 /**
@@ -35,7 +41,11 @@ import java.util.concurrent.Callable;
                 ServerCommand.class,
                 CleanCommand.class,
                 ListCommand.class,
-                SeedCommand.class
+                SeedCommand.class,
+                RollupCommand.class,
+                AccelerateCommand.class,
+                BenchCommand.class,
+                DaemonCommand.class
         }
 )
 public class DatCli implements Callable<Integer> {
@@ -68,12 +78,49 @@ public class DatCli implements Callable<Integer> {
         }
     }
 
+    /**
+     * 记录本次运行的问数流程指标，退出时写入日志
+     */
+    private static void registerMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DatMetrics.addRegistry(meterRegistry);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            String metrics = DatMetrics.dump(meterRegistry);
+            if (!metrics.isEmpty()) {
+                log.info("DAT metrics:\n{}", metrics);
+            }
+        }, "dat-metrics-dump"));
+    }
+
+    /**
+     * 配置了追踪导出器（系统属性 otel.traces.exporter 或环境变量 OTEL_TRACES_EXPORTER）时启用链路追踪，
+     * 其余配置沿用 OpenTelemetry SDK 自动配置的属性（如 otel.exporter.otlp.endpoint）
+     */
+    private static void registerTracing() {
+        String exporter = System.getProperty("otel.traces.exporter", System.getenv("OTEL_TRACES_EXPORTER"));
+        if (exporter == null || exporter.isBlank() || "none".equalsIgnoreCase(exporter.trim())) {
+            return;
+        }
+        OpenTelemetrySdk openTelemetrySdk = AutoConfiguredOpenTelemetrySdk.builder()
+                .addPropertiesSupplier(() -> Map.of(
+                        "otel.service.name", "dat",
+                        "otel.metrics.exporter", "none",
+                        "otel.logs.exporter", "none"))
+                .build()
+                .getOpenTelemetrySdk();
+        DatTracing.setOpenTelemetry(openTelemetrySdk);
+        Runtime.getRuntime().addShutdownHook(new Thread(openTelemetrySdk::close, "dat-tracing-shutdown"));
+        log.info("Tracing enabled, traces exporter: {}", exporter);
+    }
+
     public static void main(String[] args) {
         // 检测系统编码
         String osName = System.getProperty("os.name").toLowerCase();
         String systemEncoding = Charset.defaultCharset().displayName();
         log.info("OS: {}, System encoding: {}", osName, systemEncoding);
 
+        registerMetrics();
+        registerTracing();
         printBanner();
         AnsiConsole.systemInstall(); // enable colors on Windows
         int exitCode = new CommandLine(new DatCli()).execute(args);
@@ -0,0 +1,100 @@
+package ai.dat.cli.commands;
+
+import ai.dat.boot.ProjectAccelerator;
+import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.cli.provider.VersionProvider;
+import ai.dat.cli.utils.AnsiUtil;
+import ai.dat.core.data.project.DatProject;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Accelerate project commands
+ *
+ * @Author JunjieM
+ * @Date 2025/10/26
+ */
+@Command(
+        name = "accelerate",
+        mixinStandardHelpOptions = true,
+        versionProvider = VersionProvider.class,
+        description = "Extract the accelerated semantic models of DAT project into the local DuckDB file " +
+                      "(requires the project to be built)"
+)
+@Slf4j
+public class AccelerateCommand implements Callable<Integer> {
+
+    @Option(names = {"-p", "--project-path"},
+            description = "Project path (default: current directory)",
+            defaultValue = ".")
+    private String projectPath;
+
+    @Option(names = {"-var", "--variable"},
+            arity = "1..*",
+            description = "Dynamic variable, key-value pairs in format key=value")
+    private Map<String, Object> variables;
+
+    @Option(names = {"--full"},
+            description = "Full refresh, ignore the watermarks of the incremental extraction")
+    private boolean full;
+
+    @ArgGroup(exclusive = true)
+    SelectAndExclude selectAndExclude;
+
+    static class SelectAndExclude {
+        @Option(names = {"-s", "--select"},
+                description = "Selected semantic model names (comma-separated)")
+        String select;
+
+        @Option(names = {"-e", "--exclude"},
+                description = "Excluded semantic model names (comma-separated)")
+        String exclude;
+    }
+
+    @Override
+    public Integer call() {
+        try {
+            Path path = Paths.get(projectPath).toAbsolutePath();
+            log.info("Start extract the accelerated semantic models of the project: {}", path);
+            System.out.println("📁 Project path: " + path);
+            DatProject project = ProjectUtil.loadProject(path);
+            ProjectAccelerator accelerator = new ProjectAccelerator(path, project, variables);
+            accelerator.setFullRefresh(full);
+            System.out.println("🛠️ Dynamic variables: " + variables);
+            log.info("Extract...");
+            if (selectAndExclude != null
+                    && selectAndExclude.select != null && !selectAndExclude.select.trim().isEmpty()) {
+                List<String> selects = Arrays.stream(selectAndExclude.select.split(",")).map(String::trim).toList();
+                log.info("Selected semantic models: {}", selects);
+                System.out.println(AnsiUtil.string("@|fg(yellow) 🎯 Selected semantic models: " + selects + "|@"));
+                accelerator.refreshSelect(selects);
+            } else if (selectAndExclude != null
+                    && selectAndExclude.exclude != null && !selectAndExclude.exclude.trim().isEmpty()) {
+                List<String> excludes = Arrays.stream(selectAndExclude.exclude.split(",")).map(String::trim).toList();
+                log.info("Excluded semantic models: {}", excludes);
+                System.out.println(AnsiUtil.string("@|fg(yellow) 🚫 Excluded semantic models: " + excludes + "|@"));
+                accelerator.refreshExclude(excludes);
+            } else {
+                accelerator.refreshAll();
+            }
+            System.out.println(AnsiUtil.string("@|fg(green) ✅ Accelerate completed|@"));
+            log.info("Accelerate completed");
+            return 0;
+        } catch (Exception e) {
+            log.error("Project accelerate failed", e);
+
+            System.err.println(AnsiUtil.string(
+                    "@|fg(red) ❌ Accelerate failed: " + e.getMessage() + "|@"));
+            return 1;
+        }
+    }
+}
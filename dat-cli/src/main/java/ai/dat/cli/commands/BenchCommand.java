@@ -0,0 +1,375 @@
+package ai.dat.cli.commands;
+
+import ai.dat.boot.ProjectRunner;
+import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.cli.provider.VersionProvider;
+import ai.dat.cli.utils.AnsiUtil;
+import ai.dat.cli.utils.TablePrinter;
+import ai.dat.core.agent.data.StreamAction;
+import ai.dat.core.agent.data.StreamEvent;
+import ai.dat.core.data.project.DatProject;
+import ai.dat.core.data.project.LlmConfig;
+import ai.dat.core.exception.BusyException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bench project commands
+ *
+ * @Author JunjieM
+ * @Date 2025/10/30
+ */
+@Command(
+        name = "bench",
+        mixinStandardHelpOptions = true,
+        versionProvider = VersionProvider.class,
+        description = "Replay a question corpus against DAT project concurrently and report the throughput, " +
+                      "the latency per stage, the heap and the thread counts " +
+                      "(use the `stub` LLM/embedding providers and DuckDB to avoid the external calls)"
+)
+@Slf4j
+public class BenchCommand implements Callable<Integer> {
+
+    private final static ObjectMapper JSON_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final static String STUB_PROVIDER = "stub";
+    private final static String DUCKDB_PROVIDER = "duckdb";
+
+    private final static String TOTAL = "<total>";
+    private final static String FIRST_EVENT = "<first event>";
+
+    @Option(names = {"-p", "--project-path"},
+            description = "Project path (default: current directory)",
+            defaultValue = ".")
+    private String projectPath;
+
+    @Option(names = {"-a", "--agent"},
+            description = "Agent name (default: default)",
+            defaultValue = "default")
+    private String agentName;
+
+    @Option(names = {"-var", "--variable"},
+            arity = "1..*",
+            description = "Dynamic variable, key-value pairs in format key=value")
+    private Map<String, Object> variables;
+
+    @Option(names = {"-q", "--questions"},
+            required = true,
+            description = "Question corpus file, one question per line (blank lines and lines starting with # are ignored)")
+    private String questionsFile;
+
+    @Option(names = {"-c", "--concurrency"},
+            description = "Number of concurrent conversations (default: 10)",
+            defaultValue = "10")
+    private int concurrency;
+
+    @Option(names = {"-n", "--requests"},
+            description = "Number of measured questions (default: the size of the question corpus)")
+    private Integer requests;
+
+    @Option(names = {"-w", "--warmup"},
+            description = "Number of warmup questions excluded from the report (default: 0)",
+            defaultValue = "0")
+    private int warmup;
+
+    @Option(names = {"-o", "--output"},
+            description = "Write the report as JSON to the file")
+    private String output;
+
+    @Override
+    public Integer call() {
+        try {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("The concurrency must be greater than 0");
+            }
+            if (warmup < 0) {
+                throw new IllegalArgumentException("The warmup cannot be negative");
+            }
+            Path path = Paths.get(projectPath).toAbsolutePath();
+            List<String> questions = loadQuestions(Paths.get(questionsFile).toAbsolutePath());
+            int measured = requests == null ? questions.size() : requests;
+            if (measured < 1) {
+                throw new IllegalArgumentException("The requests must be greater than 0");
+            }
+            log.info("Bench project: {}, Agent: {}", path, agentName);
+            System.out.println("📁 Project path: " + path);
+            System.out.println("🤖 Agent: " + agentName);
+            System.out.println("🛠️ Dynamic variables: " + variables);
+            System.out.println("❓ Questions: " + questions.size() + ", Requests: " + measured
+                    + ", Warmup: " + warmup + ", Concurrency: " + concurrency);
+            checkProviders(ProjectUtil.loadProject(path));
+
+            ProjectRunner runner = new ProjectRunner(path, agentName, variables);
+            if (warmup > 0) {
+                System.out.println("🔥 Warmup...");
+                run(runner, questions, warmup, new Recorder());
+            }
+            System.out.println("🚀 Bench...");
+            Recorder recorder = new Recorder();
+            Map<String, Object> report = run(runner, questions, measured, recorder);
+            print(report);
+            if (output != null) {
+                Path outputPath = Paths.get(output).toAbsolutePath();
+                Files.writeString(outputPath, JSON_MAPPER.writeValueAsString(report));
+                System.out.println("📝 Report: " + outputPath);
+            }
+            System.out.println(AnsiUtil.string("@|fg(green) ✅ Bench completed|@"));
+            return 0;
+        } catch (Exception e) {
+            log.error("Bench project failed", e);
+            System.err.println(AnsiUtil.string(
+                    "@|fg(red) ❌ Bench failed: " + e.getMessage() + "|@"));
+            return 1;
+        }
+    }
+
+    private static List<String> loadQuestions(Path file) throws IOException {
+        List<String> questions = Files.readAllLines(file).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .toList();
+        if (questions.isEmpty()) {
+            throw new IllegalArgumentException("The question corpus is empty: " + file);
+        }
+        return questions;
+    }
+
+    private static void checkProviders(DatProject project) {
+        List<String> llmProviders = Optional.ofNullable(project.getLlms()).orElse(Collections.emptyList())
+                .stream().map(LlmConfig::getProvider).distinct().toList();
+        if (llmProviders.stream().anyMatch(provider -> !STUB_PROVIDER.equals(provider))) {
+            System.out.println(AnsiUtil.string("@|fg(yellow) ⚠️ The LLM providers " + llmProviders
+                    + " are not all `" + STUB_PROVIDER + "`, the bench will call the real LLMs|@"));
+        }
+        if (!STUB_PROVIDER.equals(project.getEmbedding().getProvider())) {
+            System.out.println(AnsiUtil.string("@|fg(yellow) ⚠️ The embedding provider `"
+                    + project.getEmbedding().getProvider() + "` is not `" + STUB_PROVIDER + "`|@"));
+        }
+        if (project.getDb() == null || !DUCKDB_PROVIDER.equals(project.getDb().getProvider())) {
+            System.out.println(AnsiUtil.string("@|fg(yellow) ⚠️ The database provider is not `"
+                    + DUCKDB_PROVIDER + "`, the latency includes the external database|@"));
+        }
+    }
+
+    private Map<String, Object> run(ProjectRunner runner, List<String> questions,
+                                    int total, Recorder recorder) throws InterruptedException {
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long heapBefore = memoryBean.getHeapMemoryUsage().getUsed();
+        int threadsBefore = threadBean.getThreadCount();
+        threadBean.resetPeakThreadCount();
+
+        AtomicLong maxHeap = new AtomicLong(heapBefore);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "dat-bench-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> maxHeap.accumulateAndGet(
+                memoryBean.getHeapMemoryUsage().getUsed(), Math::max), 0, 100, TimeUnit.MILLISECONDS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        AtomicInteger next = new AtomicInteger(0);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                executor.execute(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < total) {
+                        ask(runner, questions.get(index % questions.size()), recorder);
+                        int done = recorder.completed();
+                        if (done % 100 == 0) {
+                            System.out.println("⏳ " + done + "/" + total);
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                log.debug("Waiting for the bench to finish");
+            }
+        } finally {
+            executor.shutdownNow();
+            sampler.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("agent", agentName);
+        report.put("concurrency", concurrency);
+        report.put("requests", total);
+        report.put("succeeded", recorder.succeeded.get());
+        report.put("failed", recorder.failed.get());
+        report.put("rejected", recorder.rejected.get());
+        report.put("elapsed_seconds", round(elapsedSeconds));
+        report.put("throughput_per_second", round(recorder.completed() / elapsedSeconds));
+        report.put("latency_ms", recorder.latencies());
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        jvm.put("heap_used_before_mb", toMb(heapBefore));
+        jvm.put("heap_used_max_mb", toMb(maxHeap.get()));
+        jvm.put("heap_used_after_mb", toMb(memoryBean.getHeapMemoryUsage().getUsed()));
+        jvm.put("heap_max_mb", toMb(memoryBean.getHeapMemoryUsage().getMax()));
+        jvm.put("threads_before", threadsBefore);
+        jvm.put("threads_peak", threadBean.getPeakThreadCount());
+        jvm.put("threads_after", threadBean.getThreadCount());
+        jvm.put("gc_count", gcCount() - gcCountBefore);
+        jvm.put("gc_time_ms", gcTime() - gcTimeBefore);
+        report.put("jvm", jvm);
+        return report;
+    }
+
+    /**
+     * 提问并记录各阶段耗时：阶段以事件名称划分，
+     * 阶段耗时为上一阶段最后一个事件到本阶段最后一个事件的时间
+     */
+    private static void ask(ProjectRunner runner, String question, Recorder recorder) {
+        long start = System.nanoTime();
+        StreamAction action;
+        try {
+            action = runner.ask(question);
+        } catch (BusyException e) {
+            recorder.rejected.incrementAndGet();
+            return;
+        } catch (Exception e) {
+            log.warn("Bench ask failed: {}", question, e);
+            recorder.failed.incrementAndGet();
+            return;
+        }
+        Map<String, Long> stages = new LinkedHashMap<>();
+        boolean failed = false;
+        try {
+            String stage = null;
+            long stageStart = start;
+            long last = start;
+            for (StreamEvent event : action) {
+                if (event == null) break;
+                long now = System.nanoTime();
+                String name = event.name();
+                if (stage == null) {
+                    stages.put(FIRST_EVENT, now - start);
+                } else if (!stage.equals(name)) {
+                    stages.merge(stage, last - stageStart, Long::sum);
+                    stageStart = last;
+                }
+                if (RunCommand.isException(name)) {
+                    failed = true;
+                }
+                stage = name;
+                last = now;
+            }
+            if (stage != null) {
+                stages.merge(stage, last - stageStart, Long::sum);
+            }
+        } catch (Exception e) {
+            log.warn("Bench ask failed: {}", question, e);
+            failed = true;
+        } finally {
+            action.cancel("The bench request finished");
+        }
+        stages.put(TOTAL, System.nanoTime() - start);
+        recorder.record(stages, failed);
+    }
+
+    private static void print(Map<String, Object> report) {
+        System.out.println(AnsiUtil.string("@|bold,fg(cyan) 📊 Summary|@"));
+        Map<String, Object> summary = new LinkedHashMap<>(report);
+        summary.remove("latency_ms");
+        summary.remove("jvm");
+        TablePrinter.printTable(summary);
+        System.out.println(AnsiUtil.string("@|bold,fg(cyan) ⏱️ Latency (ms)|@"));
+        TablePrinter.printTable(report.get("latency_ms"));
+        System.out.println(AnsiUtil.string("@|bold,fg(cyan) ☕ JVM|@"));
+        TablePrinter.printTable(report.get("jvm"));
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(c -> c > 0).sum();
+    }
+
+    private static long gcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(t -> t > 0).sum();
+    }
+
+    private static double toMb(long bytes) {
+        return round(bytes / 1024.0 / 1024.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * 线程安全的耗时记录
+     */
+    private static class Recorder {
+        private final AtomicInteger succeeded = new AtomicInteger(0);
+        private final AtomicInteger failed = new AtomicInteger(0);
+        private final AtomicInteger rejected = new AtomicInteger(0);
+        private final Map<String, List<Long>> samples = new LinkedHashMap<>();
+
+        private void record(Map<String, Long> stages, boolean failed) {
+            (failed ? this.failed : this.succeeded).incrementAndGet();
+            synchronized (samples) {
+                stages.forEach((stage, nanos) ->
+                        samples.computeIfAbsent(stage, k -> new ArrayList<>()).add(nanos));
+            }
+        }
+
+        private int completed() {
+            return succeeded.get() + failed.get() + rejected.get();
+        }
+
+        /**
+         * 各阶段耗时的统计，总耗时与首个事件耗时排在最前
+         */
+        private List<Map<String, Object>> latencies() {
+            Map<String, List<Long>> copy;
+            synchronized (samples) {
+                copy = new LinkedHashMap<>();
+                Optional.ofNullable(samples.get(TOTAL)).ifPresent(v -> copy.put(TOTAL, v));
+                Optional.ofNullable(samples.get(FIRST_EVENT)).ifPresent(v -> copy.put(FIRST_EVENT, v));
+                samples.forEach((k, v) -> copy.putIfAbsent(k, new ArrayList<>(v)));
+            }
+            List<Map<String, Object>> latencies = new ArrayList<>();
+            copy.forEach((stage, values) -> {
+                long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("stage", stage);
+                row.put("count", sorted.length);
+                row.put("mean", round(Arrays.stream(sorted).average().orElse(0) / 1_000_000.0));
+                row.put("p50", percentile(sorted, 50));
+                row.put("p95", percentile(sorted, 95));
+                row.put("p99", percentile(sorted, 99));
+                row.put("max", round(sorted[sorted.length - 1] / 1_000_000.0));
+                latencies.add(row);
+            });
+            return latencies;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return round(sorted[Math.max(0, rank - 1)] / 1_000_000.0);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package ai.dat.cli.commands;
 
 import ai.dat.boot.ProjectBuilder;
+import ai.dat.boot.ProjectBundle;
+import ai.dat.boot.data.BundleManifest;
+import ai.dat.cli.daemon.DaemonClient;
 import ai.dat.cli.provider.VersionProvider;
 import ai.dat.cli.utils.AnsiUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -41,26 +44,55 @@ public class BuildCommand implements Callable<Integer> {
             description = "Dynamic variable, key-value pairs in format key=value")
     private Map<String, Object> variables;
 
+    @Option(names = {"--daemon"},
+            description = "Build through the project daemon (started on demand) that keeps project runtimes warm")
+    private boolean daemon;
+
+    @Option(names = {"-e", "--export"},
+            description = "Export the build output as a prebuilt project bundle file for zero-build server startup")
+    private String export;
+
     @Override
     public Integer call() {
         try {
             Path path = Paths.get(projectPath).toAbsolutePath();
             log.info("Start build the project: {}", path);
             System.out.println("📁 Project path: " + path);
-            ProjectBuilder builder = new ProjectBuilder(path);
             System.out.println("🛠️ Dynamic variables: " + variables);
-            if (force) {
-                log.info("Force rebuild...");
-                builder.forceRebuild(variables);
+            if (daemon) {
+                System.out.println("🔥 Daemon socket: " + DaemonClient.socketPath(path));
+                log.info("Build through the daemon...");
+                DaemonClient.build(path, force, variables);
                 System.out.println(AnsiUtil.string(
-                        "@|fg(green) ✅ Force rebuild completed|@"));
-                log.info("Force rebuild completed");
+                        "@|fg(green) ✅ " + (force ? "Force rebuild" : "Incremental build") + " completed|@"));
+                log.info("Build through the daemon completed");
             } else {
-                log.info("Incremental build...");
-                builder.build(variables);
-                System.out.println(AnsiUtil.string(
-                        "@|fg(green) ✅ Incremental build completed|@"));
-                log.info("Incremental build completed");
+                if (DaemonClient.isRunning(path)) {
+                    System.out.println(AnsiUtil.string("@|fg(yellow) ⚠️ A DAT daemon is running for the project, "
+                            + "use '--daemon' to reuse it or 'dat daemon stop' to stop it|@"));
+                }
+                ProjectBuilder builder = new ProjectBuilder(path);
+                if (force) {
+                    log.info("Force rebuild...");
+                    builder.forceRebuild(variables);
+                    System.out.println(AnsiUtil.string(
+                            "@|fg(green) ✅ Force rebuild completed|@"));
+                    log.info("Force rebuild completed");
+                } else {
+                    log.info("Incremental build...");
+                    builder.build(variables);
+                    System.out.println(AnsiUtil.string(
+                            "@|fg(green) ✅ Incremental build completed|@"));
+                    log.info("Incremental build completed");
+                }
+            }
+            if (export != null) {
+                Path bundlePath = Paths.get(export).toAbsolutePath();
+                log.info("Export the project bundle: {}", bundlePath);
+                BundleManifest manifest = new ProjectBundle(path).export(bundlePath);
+                System.out.println(AnsiUtil.string("@|fg(green) 📦 Project bundle exported: " + bundlePath
+                        + " (fingerprint: " + manifest.getFingerprint()
+                        + ", files: " + manifest.getFiles().size() + ")|@"));
             }
             return 0;
         } catch (Exception e) {
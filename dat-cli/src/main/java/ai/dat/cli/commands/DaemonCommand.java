@@ -0,0 +1,40 @@
+package ai.dat.cli.commands;
+
+import ai.dat.cli.commands.daemon.DaemonServeCommand;
+import ai.dat.cli.commands.daemon.DaemonStartCommand;
+import ai.dat.cli.commands.daemon.DaemonStatusCommand;
+import ai.dat.cli.commands.daemon.DaemonStopCommand;
+import ai.dat.cli.provider.VersionProvider;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine.Command;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Project daemon commands
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Command(
+        name = "daemon",
+        mixinStandardHelpOptions = true,
+        versionProvider = VersionProvider.class,
+        description = "Start and manage the DAT project daemon that keeps project runtimes warm",
+        subcommands = {
+                DaemonStartCommand.class,
+                DaemonStopCommand.class,
+                DaemonStatusCommand.class,
+                DaemonServeCommand.class
+        }
+)
+@Slf4j
+public class DaemonCommand implements Callable<Integer> {
+
+    @Override
+    public Integer call() {
+        System.out.println("🔥 DAT Daemon Management");
+        System.out.println("Use 'dat daemon --help' show available commands");
+        return 0;
+    }
+}
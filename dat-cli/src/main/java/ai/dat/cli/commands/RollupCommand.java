@@ -0,0 +1,95 @@
+package ai.dat.cli.commands;
+
+import ai.dat.boot.ProjectRollupMaterializer;
+import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.cli.provider.VersionProvider;
+import ai.dat.cli.utils.AnsiUtil;
+import ai.dat.core.data.project.DatProject;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Rollup project commands
+ *
+ * @Author JunjieM
+ * @Date 2025/10/25
+ */
+@Command(
+        name = "rollup",
+        mixinStandardHelpOptions = true,
+        versionProvider = VersionProvider.class,
+        description = "Materialize the rollups declared by the semantic models of DAT project " +
+                      "(requires the project to be built)"
+)
+@Slf4j
+public class RollupCommand implements Callable<Integer> {
+
+    @Option(names = {"-p", "--project-path"},
+            description = "Project path (default: current directory)",
+            defaultValue = ".")
+    private String projectPath;
+
+    @Option(names = {"-var", "--variable"},
+            arity = "1..*",
+            description = "Dynamic variable, key-value pairs in format key=value")
+    private Map<String, Object> variables;
+
+    @ArgGroup(exclusive = true)
+    SelectAndExclude selectAndExclude;
+
+    static class SelectAndExclude {
+        @Option(names = {"-s", "--select"},
+                description = "Selected rollup names or semantic_model.rollup names (comma-separated)")
+        String select;
+
+        @Option(names = {"-e", "--exclude"},
+                description = "Excluded rollup names or semantic_model.rollup names (comma-separated)")
+        String exclude;
+    }
+
+    @Override
+    public Integer call() {
+        try {
+            Path path = Paths.get(projectPath).toAbsolutePath();
+            log.info("Start materialize the rollups of the project: {}", path);
+            System.out.println("📁 Project path: " + path);
+            DatProject project = ProjectUtil.loadProject(path);
+            ProjectRollupMaterializer materializer = new ProjectRollupMaterializer(path, project, variables);
+            System.out.println("🛠️ Dynamic variables: " + variables);
+            log.info("Materialize...");
+            if (selectAndExclude != null
+                    && selectAndExclude.select != null && !selectAndExclude.select.trim().isEmpty()) {
+                List<String> selects = Arrays.stream(selectAndExclude.select.split(",")).map(String::trim).toList();
+                log.info("Selected rollups: {}", selects);
+                System.out.println(AnsiUtil.string("@|fg(yellow) 🎯 Selected rollups: " + selects + "|@"));
+                materializer.materializeSelect(selects);
+            } else if (selectAndExclude != null
+                    && selectAndExclude.exclude != null && !selectAndExclude.exclude.trim().isEmpty()) {
+                List<String> excludes = Arrays.stream(selectAndExclude.exclude.split(",")).map(String::trim).toList();
+                log.info("Excluded rollups: {}", excludes);
+                System.out.println(AnsiUtil.string("@|fg(yellow) 🚫 Excluded rollups: " + excludes + "|@"));
+                materializer.materializeExclude(excludes);
+            } else {
+                materializer.materializeAll();
+            }
+            System.out.println(AnsiUtil.string("@|fg(green) ✅ Rollup completed|@"));
+            log.info("Rollup completed");
+            return 0;
+        } catch (Exception e) {
+            log.error("Project rollup failed", e);
+
+            System.err.println(AnsiUtil.string(
+                    "@|fg(red) ❌ Rollup failed: " + e.getMessage() + "|@"));
+            return 1;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package ai.dat.cli.commands;
 
 import ai.dat.boot.ProjectRunner;
 import ai.dat.boot.utils.ProjectUtil;
-import ai.dat.boot.utils.QuestionSqlPairCacheUtil;
+import ai.dat.cli.daemon.DaemonClient;
+import ai.dat.cli.daemon.DaemonProjectSession;
+import ai.dat.cli.daemon.ProjectSession;
 import ai.dat.cli.processor.InputProcessor;
 import ai.dat.cli.provider.VersionProvider;
 import ai.dat.cli.utils.AnsiUtil;
@@ -10,6 +12,9 @@ import ai.dat.cli.utils.TablePrinter;
 import ai.dat.core.agent.data.StreamAction;
 import ai.dat.core.agent.data.StreamEvent;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
+import ai.dat.core.conversation.ConversationStore;
+import ai.dat.core.conversation.InMemoryConversationStore;
+import ai.dat.core.factories.InMemoryConversationStoreFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.NonNull;
@@ -19,6 +24,7 @@ import org.jline.reader.UserInterruptException;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
@@ -50,6 +56,11 @@ public class RunCommand implements Callable<Integer> {
 
     private final static String CONVERSATION_ID = UUID.randomUUID().toString();
 
+    private final static ConversationStore CONVERSATION_STORE = new InMemoryConversationStore(
+            InMemoryConversationStoreFactory.MAX_MESSAGES.defaultValue(),
+            InMemoryConversationStoreFactory.TTL.defaultValue(),
+            InMemoryConversationStoreFactory.MAX_SIZE.defaultValue().getBytes());
+
     // the keys whose values should be highlighted
     private static final String[] EXCEPTION_KEYS =
             new String[]{
@@ -74,6 +85,10 @@ public class RunCommand implements Callable<Integer> {
             description = "Dynamic variable, key-value pairs in format key=value")
     private Map<String, Object> variables;
 
+    @Option(names = {"--daemon"},
+            description = "Run through the project daemon (started on demand) that keeps project runtimes warm")
+    private boolean daemon;
+
     @Override
     public Integer call() {
         Path path = Paths.get(projectPath).toAbsolutePath();
@@ -83,8 +98,8 @@ public class RunCommand implements Callable<Integer> {
         System.out.println("🛠️ Dynamic variables: " + variables);
         System.out.println("🆔 Conversation ID: " + CONVERSATION_ID);
         Path historyFilePath = path.resolve(ProjectUtil.DAT_DIR_NAME + "/" + RUN_COMMAND_HISTORY);
-        try (InputProcessor processor = new InputProcessor(historyFilePath)) {
-            ProjectRunner runner = new ProjectRunner(path, agentName, variables);
+        try (InputProcessor processor = new InputProcessor(historyFilePath);
+             ProjectSession runner = openSession(path)) {
             printHelp(); // 打印帮助信息
             int round = 1;
             while (true) {
@@ -123,7 +138,7 @@ public class RunCommand implements Callable<Integer> {
                 }
                 System.out.println("Question: [" + question + "]");
                 System.out.println("🤖 Dealing with ask...");
-                List<QuestionSqlPair> histories = QuestionSqlPairCacheUtil.get(CONVERSATION_ID);
+                List<QuestionSqlPair> histories = CONVERSATION_STORE.get(CONVERSATION_ID);
                 StreamAction action = runner.ask(question, histories);
                 print(processor, runner, question, action);
                 round += 1;
@@ -138,7 +153,19 @@ public class RunCommand implements Callable<Integer> {
         }
     }
 
-    public void print(InputProcessor processor, ProjectRunner runner, String question, StreamAction action) {
+    private ProjectSession openSession(Path path) throws IOException {
+        if (daemon) {
+            System.out.println("🔥 Daemon socket: " + DaemonClient.socketPath(path));
+            return DaemonProjectSession.open(path, agentName, variables);
+        }
+        if (DaemonClient.isRunning(path)) {
+            System.out.println(AnsiUtil.string("@|fg(yellow) ⚠️ A DAT daemon is running for the project, "
+                    + "use '--daemon' to reuse it or 'dat daemon stop' to stop it|@"));
+        }
+        return ProjectSession.local(new ProjectRunner(path, agentName, variables));
+    }
+
+    public void print(InputProcessor processor, ProjectSession runner, String question, StreamAction action) {
         String sql = NOT_GENERATE;
         String previousEvent = "";
         boolean previousIncremental = false;
@@ -179,10 +206,10 @@ public class RunCommand implements Callable<Integer> {
         if (!isAccurateSql && !NOT_GENERATE.equals(sql)) {
             sql = "/* Incorrect SQL */ " + sql;
         }
-        QuestionSqlPairCacheUtil.add(CONVERSATION_ID, QuestionSqlPair.from(question, sql));
+        CONVERSATION_STORE.add(CONVERSATION_ID, QuestionSqlPair.from(question, sql));
     }
 
-    private void print(InputProcessor processor, ProjectRunner runner, StreamEvent event) {
+    private void print(InputProcessor processor, ProjectSession runner, StreamEvent event) {
         event.getIncrementalContent().ifPresent(content ->
                 System.out.print(AnsiUtil.string("@|fg(blue) " + content + "|@")));
         event.getSemanticSql().ifPresent(content ->
@@ -205,7 +232,7 @@ public class RunCommand implements Callable<Integer> {
         event.getMessages().forEach((k, v) -> print(event, k, v));
     }
 
-    private void printHitlAiRequest(String request, InputProcessor processor, ProjectRunner runner, Long timeout) {
+    private void printHitlAiRequest(String request, InputProcessor processor, ProjectSession runner, Long timeout) {
         System.out.println(AnsiUtil.string("@|fg(magenta) 🤖 AI: " + request + "|@"));
         String response;
         if (timeout != null) {
@@ -228,7 +255,7 @@ public class RunCommand implements Callable<Integer> {
         }
     }
 
-    private void printHitlToolApproval(String request, InputProcessor processor, ProjectRunner runner, Long timeout) {
+    private void printHitlToolApproval(String request, InputProcessor processor, ProjectSession runner, Long timeout) {
         System.out.println(AnsiUtil.string("@|fg(yellow) ⚠️ " + request + "|@"));
         String prompt = "(y/n) [User input/press Enter to use the y]:";
         String response;
@@ -0,0 +1,66 @@
+package ai.dat.cli.commands.daemon;
+
+import ai.dat.cli.daemon.DaemonClient;
+import ai.dat.cli.daemon.DaemonServer;
+import ai.dat.cli.provider.VersionProvider;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Run project daemon in the foreground (started by 'dat daemon start')
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Command(
+        name = "serve",
+        hidden = true,
+        mixinStandardHelpOptions = true,
+        versionProvider = VersionProvider.class,
+        description = "Run the DAT project daemon in the foreground"
+)
+@Slf4j
+public class DaemonServeCommand implements Callable<Integer> {
+
+    @Option(names = {"-p", "--project-path"},
+            description = "Project path (default: current directory)",
+            defaultValue = ".")
+    private String projectPath;
+
+    @Option(names = {"--idle-timeout"},
+            description = "Stop the daemon after being idle for the minutes, 0 means never (default: "
+                    + DaemonClient.DEFAULT_IDLE_TIMEOUT_MINUTES + ")",
+            defaultValue = "" + DaemonClient.DEFAULT_IDLE_TIMEOUT_MINUTES)
+    private int idleTimeout;
+
+    @Override
+    public Integer call() {
+        try {
+            Path path = Paths.get(projectPath).toAbsolutePath();
+            ignoreHangup();
+            new DaemonServer(path, Duration.ofMinutes(Math.max(idleTimeout, 0))).serve();
+            return 0;
+        } catch (Exception e) {
+            log.error("DAT daemon failed", e);
+            System.err.println("❌ DAT daemon failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * 关闭启动守护进程的终端时不随之退出
+     */
+    private static void ignoreHangup() {
+        try {
+            sun.misc.Signal.handle(new sun.misc.Signal("HUP"), sun.misc.SignalHandler.SIG_IGN);
+        } catch (IllegalArgumentException e) {
+            // Windows 没有 SIGHUP
+        }
+    }
+}
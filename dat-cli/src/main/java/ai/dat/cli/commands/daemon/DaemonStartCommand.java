@@ -0,0 +1,65 @@
+package ai.dat.cli.commands.daemon;
+
+import ai.dat.cli.daemon.DaemonClient;
+import ai.dat.cli.provider.VersionProvider;
+import ai.dat.cli.utils.AnsiUtil;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+
+/**
+ * Start project daemon commands
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Command(
+        name = "start",
+        mixinStandardHelpOptions = true,
+        versionProvider = VersionProvider.class,
+        description = "Start the DAT project daemon in the background"
+)
+@Slf4j
+public class DaemonStartCommand implements Callable<Integer> {
+
+    @Option(names = {"-p", "--project-path"},
+            description = "Project path (default: current directory)",
+            defaultValue = ".")
+    private String projectPath;
+
+    @Option(names = {"--idle-timeout"},
+            description = "Stop the daemon after being idle for the minutes, 0 means never (default: "
+                    + DaemonClient.DEFAULT_IDLE_TIMEOUT_MINUTES + ")",
+            defaultValue = "" + DaemonClient.DEFAULT_IDLE_TIMEOUT_MINUTES)
+    private int idleTimeout;
+
+    @Override
+    public Integer call() {
+        try {
+            Path path = Paths.get(projectPath).toAbsolutePath();
+            System.out.println("📁 Project path: " + path);
+            if (idleTimeout < 0) {
+                throw new IllegalArgumentException("The idle timeout must be greater than or equal to 0");
+            }
+            if (DaemonClient.isRunning(path)) {
+                System.out.println(AnsiUtil.string(
+                        "@|fg(yellow) ⚠️ DAT daemon is already running, socket: "
+                                + DaemonClient.socketPath(path) + "|@"));
+                return 0;
+            }
+            long pid = DaemonClient.start(path, idleTimeout);
+            System.out.println(AnsiUtil.string("@|fg(green) ✅ DAT daemon started, pid: " + pid
+                    + ", socket: " + DaemonClient.socketPath(path) + "|@"));
+            return 0;
+        } catch (Exception e) {
+            log.error("Start DAT daemon failed", e);
+            System.err.println(AnsiUtil.string(
+                    "@|fg(red) ❌ Start daemon failed: " + e.getMessage() + "|@"));
+            return 1;
+        }
+    }
+}
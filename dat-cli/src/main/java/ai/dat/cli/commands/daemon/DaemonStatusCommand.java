@@ -0,0 +1,56 @@
+package ai.dat.cli.commands.daemon;
+
+import ai.dat.cli.daemon.DaemonClient;
+import ai.dat.cli.provider.VersionProvider;
+import ai.dat.cli.utils.AnsiUtil;
+import ai.dat.cli.utils.TablePrinter;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Project daemon status commands
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Command(
+        name = "status",
+        mixinStandardHelpOptions = true,
+        versionProvider = VersionProvider.class,
+        description = "Show the DAT project daemon status"
+)
+@Slf4j
+public class DaemonStatusCommand implements Callable<Integer> {
+
+    @Option(names = {"-p", "--project-path"},
+            description = "Project path (default: current directory)",
+            defaultValue = ".")
+    private String projectPath;
+
+    @Override
+    public Integer call() {
+        try {
+            Path path = Paths.get(projectPath).toAbsolutePath();
+            System.out.println("📁 Project path: " + path);
+            Map<String, Object> status = DaemonClient.status(path);
+            if (status == null) {
+                System.out.println(AnsiUtil.string("@|fg(yellow) ⚠️ DAT daemon is not running|@"));
+                return 0;
+            }
+            System.out.println(AnsiUtil.string("@|fg(green) ✅ DAT daemon is running|@"));
+            TablePrinter.printTable(status);
+            return 0;
+        } catch (Exception e) {
+            log.error("Get DAT daemon status failed", e);
+            System.err.println(AnsiUtil.string(
+                    "@|fg(red) ❌ Get daemon status failed: " + e.getMessage() + "|@"));
+            return 1;
+        }
+    }
+}
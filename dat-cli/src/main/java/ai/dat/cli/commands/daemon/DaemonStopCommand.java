@@ -0,0 +1,52 @@
+package ai.dat.cli.commands.daemon;
+
+import ai.dat.cli.daemon.DaemonClient;
+import ai.dat.cli.provider.VersionProvider;
+import ai.dat.cli.utils.AnsiUtil;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+
+/**
+ * Stop project daemon commands
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Command(
+        name = "stop",
+        mixinStandardHelpOptions = true,
+        versionProvider = VersionProvider.class,
+        description = "Stop the DAT project daemon"
+)
+@Slf4j
+public class DaemonStopCommand implements Callable<Integer> {
+
+    @Option(names = {"-p", "--project-path"},
+            description = "Project path (default: current directory)",
+            defaultValue = ".")
+    private String projectPath;
+
+    @Override
+    public Integer call() {
+        try {
+            Path path = Paths.get(projectPath).toAbsolutePath();
+            System.out.println("📁 Project path: " + path);
+            if (DaemonClient.stop(path)) {
+                System.out.println(AnsiUtil.string("@|fg(green) ✅ DAT daemon stopped|@"));
+            } else {
+                System.out.println(AnsiUtil.string("@|fg(yellow) ⚠️ DAT daemon is not running|@"));
+            }
+            return 0;
+        } catch (Exception e) {
+            log.error("Stop DAT daemon failed", e);
+            System.err.println(AnsiUtil.string(
+                    "@|fg(red) ❌ Stop daemon failed: " + e.getMessage() + "|@"));
+            return 1;
+        }
+    }
+}
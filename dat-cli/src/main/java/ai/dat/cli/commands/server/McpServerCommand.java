@@ -1,6 +1,8 @@
 package ai.dat.cli.commands.server;
 
 import ai.dat.boot.ProjectBuilder;
+import ai.dat.boot.ProjectBundle;
+import ai.dat.boot.data.BundleManifest;
 import ai.dat.cli.provider.VersionProvider;
 import ai.dat.server.mcp.Application;
 import lombok.extern.slf4j.Slf4j;
@@ -76,6 +78,14 @@ public class McpServerCommand implements Callable<Integer> {
             description = "Dynamic variable, key-value pairs in format key=value")
     private Map<String, Object> variables;
 
+    @Option(names = {"-b", "--bundle"},
+            description = "Start from the prebuilt project bundle exported by 'dat build --export', skip the build")
+    private String bundle;
+
+    @Option(names = {"--no-watch"},
+            description = "Don't watch the project files for changes and hot reload")
+    private boolean noWatch;
+
     @Override
     public Integer call() {
         try {
@@ -84,8 +94,15 @@ public class McpServerCommand implements Callable<Integer> {
             System.out.println("📁 Project path: " + path);
             System.out.println("🛠️ Dynamic variables: " + variables);
 
-            ProjectBuilder builder = new ProjectBuilder(path);
-            builder.build(variables);
+            if (bundle != null) {
+                Path bundlePath = Paths.get(bundle).toAbsolutePath();
+                System.out.println("📦 Project bundle: " + bundlePath);
+                BundleManifest manifest = new ProjectBundle(path).install(bundlePath);
+                System.out.println("🔑 Content store fingerprint: " + manifest.getFingerprint());
+            } else {
+                ProjectBuilder builder = new ProjectBuilder(path);
+                builder.build(variables);
+            }
 
             System.out.println();
             System.out.println("🚀 Starting DAT MCP Server...");
@@ -101,6 +118,8 @@ public class McpServerCommand implements Callable<Integer> {
                 add("--server.port=" + port);
                 add("--server.address=" + host);
                 add("--dat.server.project-path=" + projectPath);
+                add("--dat.server.skip-build=" + (bundle != null));
+                add("--dat.server.watch=" + !noWatch);
             }};
             if (variables != null && !variables.isEmpty()) {
                 variables.forEach((k, v) -> argsList.add("--dat.server.variables." + k + "=" + v));
@@ -0,0 +1,267 @@
+package ai.dat.cli.daemon;
+
+import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.cli.DatCli;
+import ai.dat.cli.provider.VersionProvider;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 守护进程客户端：连接项目的守护进程（未运行时启动，版本不一致时重启）并转发请求
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Slf4j
+public final class DaemonClient {
+
+    /**
+     * 协议版本，消息格式不兼容时递增
+     */
+    public static final int PROTOCOL_VERSION = 1;
+
+    public static final int DEFAULT_IDLE_TIMEOUT_MINUTES = 30;
+
+    private static final String SOCKET_FILE_NAME = "daemon.sock";
+    private static final String LOG_FILE_NAME = "daemon.log";
+
+    /**
+     * 本地套接字路径的长度受系统限制（Linux为108字节），超出时改用临时目录
+     */
+    private static final int MAX_SOCKET_PATH_LENGTH = 100;
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(30);
+    private static final long POLL_INTERVAL_MILLIS = 200;
+
+    private DaemonClient() {
+    }
+
+    public static Path socketPath(@NonNull Path projectPath) {
+        Path absolutePath = projectPath.toAbsolutePath().normalize();
+        Path socketPath = absolutePath.resolve(ProjectUtil.DAT_DIR_NAME).resolve(SOCKET_FILE_NAME);
+        if (socketPath.toString().getBytes(StandardCharsets.UTF_8).length <= MAX_SOCKET_PATH_LENGTH) {
+            return socketPath;
+        }
+        return Path.of(System.getProperty("java.io.tmpdir"))
+                .resolve("dat-daemon-" + sha256(absolutePath.toString()).substring(0, 16) + ".sock");
+    }
+
+    public static Path logPath(@NonNull Path projectPath) {
+        return projectPath.toAbsolutePath().normalize().resolve(ProjectUtil.DAT_DIR_NAME).resolve(LOG_FILE_NAME);
+    }
+
+    /**
+     * 连接项目正在运行的守护进程（未握手）
+     *
+     * @return 连接，守护进程未运行时返回null
+     */
+    public static DaemonConnection connect(@NonNull Path projectPath) throws IOException {
+        Path socketPath = socketPath(projectPath);
+        if (!Files.exists(socketPath)) {
+            return null;
+        }
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            // 套接字文件残留（守护进程异常退出）
+            channel.close();
+            return null;
+        }
+        return new DaemonConnection(channel);
+    }
+
+    public static boolean isRunning(@NonNull Path projectPath) {
+        try (DaemonConnection connection = connect(projectPath)) {
+            return connection != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static DaemonMessage hello(@NonNull DaemonConnection connection) throws IOException {
+        return connection.request(DaemonMessage.builder()
+                .type(DaemonMessage.HELLO)
+                .version(VersionProvider.version())
+                .protocol(PROTOCOL_VERSION)
+                .build());
+    }
+
+    private static boolean isCompatible(DaemonMessage hello) {
+        return hello.is(DaemonMessage.HELLO)
+                && Integer.valueOf(PROTOCOL_VERSION).equals(hello.getProtocol())
+                && VersionProvider.version().equals(hello.getVersion());
+    }
+
+    /**
+     * 连接并握手，守护进程未运行时启动，版本与当前CLI不一致时重启
+     */
+    public static DaemonConnection connectOrStart(@NonNull Path projectPath,
+                                                  int idleTimeoutMinutes) throws IOException {
+        DaemonConnection connection = connect(projectPath);
+        if (connection != null) {
+            DaemonMessage hello;
+            try {
+                hello = hello(connection);
+            } catch (IOException e) {
+                connection.close();
+                throw e;
+            }
+            if (isCompatible(hello)) {
+                return connection;
+            }
+            log.warn("The DAT daemon version {} (protocol {}) does not match the CLI version {} (protocol {}), restart it",
+                    hello.getVersion(), hello.getProtocol(), VersionProvider.version(), PROTOCOL_VERSION);
+            try (connection) {
+                connection.request(DaemonMessage.of(DaemonMessage.STOP));
+            }
+            waitUntilStopped(projectPath);
+        }
+        start(projectPath, idleTimeoutMinutes);
+        connection = connect(projectPath);
+        if (connection == null) {
+            throw new IOException("Failed to connect to the DAT daemon, see log: " + logPath(projectPath));
+        }
+        DaemonMessage hello = hello(connection);
+        if (!isCompatible(hello)) {
+            connection.close();
+            throw new IOException("The DAT daemon version " + hello.getVersion()
+                    + " does not match the CLI version " + VersionProvider.version());
+        }
+        return connection;
+    }
+
+    /**
+     * 在后台启动守护进程（沿用当前JVM的启动参数与类路径），等待其可以连接
+     *
+     * @return 守护进程的进程ID
+     */
+    public static long start(@NonNull Path projectPath, int idleTimeoutMinutes) throws IOException {
+        Path path = projectPath.toAbsolutePath().normalize();
+        Path logPath = logPath(path);
+        Files.createDirectories(logPath.getParent());
+        String java = ProcessHandle.current().info().command()
+                .orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), DatCli.class.getName(),
+                "daemon", "serve", "-p", path.toString(), "--idle-timeout", String.valueOf(idleTimeoutMinutes)));
+        Process process = new ProcessBuilder(command)
+                .directory(path.toFile())
+                .redirectInput(ProcessBuilder.Redirect.from(new File(isWindows() ? "NUL" : "/dev/null")))
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(logPath.toFile()))
+                .redirectErrorStream(true)
+                .start();
+        log.info("Starting the DAT daemon for project: {}, pid: {}", path, process.pid());
+        long deadline = System.currentTimeMillis() + START_TIMEOUT.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("The DAT daemon exited during startup (exit code "
+                        + process.exitValue() + "), see log: " + logPath);
+            }
+            if (isRunning(path)) {
+                return process.pid();
+            }
+            sleep();
+        }
+        process.destroy();
+        throw new IOException("Timed out waiting for the DAT daemon to start, see log: " + logPath);
+    }
+
+    /**
+     * 停止守护进程并等待其退出
+     *
+     * @return 守护进程未运行时返回false
+     */
+    public static boolean stop(@NonNull Path projectPath) throws IOException {
+        try (DaemonConnection connection = connect(projectPath)) {
+            if (connection == null) {
+                return false;
+            }
+            connection.request(DaemonMessage.of(DaemonMessage.STOP));
+        }
+        waitUntilStopped(projectPath);
+        return true;
+    }
+
+    /**
+     * @return 守护进程的状态，未运行时返回null
+     */
+    public static Map<String, Object> status(@NonNull Path projectPath) throws IOException {
+        try (DaemonConnection connection = connect(projectPath)) {
+            if (connection == null) {
+                return null;
+            }
+            return connection.request(DaemonMessage.of(DaemonMessage.STATUS)).getStatus();
+        }
+    }
+
+    /**
+     * 由守护进程构建项目
+     */
+    public static void build(@NonNull Path projectPath, boolean force,
+                             Map<String, Object> variables) throws IOException {
+        try (DaemonConnection connection = connectOrStart(projectPath, DEFAULT_IDLE_TIMEOUT_MINUTES)) {
+            DaemonMessage reply = connection.request(DaemonMessage.builder()
+                    .type(DaemonMessage.BUILD)
+                    .force(force)
+                    .variables(variables)
+                    .build());
+            if (reply.is(DaemonMessage.ERROR)) {
+                throw new RuntimeException(reply.getMessage());
+            }
+        }
+    }
+
+    private static void waitUntilStopped(Path projectPath) throws IOException {
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            if (!isRunning(projectPath)) {
+                return;
+            }
+            sleep();
+        }
+        throw new IOException("Timed out waiting for the DAT daemon to stop");
+    }
+
+    private static void sleep() throws IOException {
+        try {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the DAT daemon", e);
+        }
+    }
+
+    private static boolean isWindows() {
+        return System.getProperty("os.name").toLowerCase().contains("win");
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
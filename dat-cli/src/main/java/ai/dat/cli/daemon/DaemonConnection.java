@@ -0,0 +1,90 @@
+package ai.dat.cli.daemon;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 守护进程连接：基于本地套接字通道按行收发JSON消息。
+ * <p>
+ * 读写直接作用于通道（不经过 {@code Channels.newInputStream}），
+ * 一个线程阻塞读取时，另一个线程仍可写出（如流式输出事件的同时接收用户的人机交互回复）
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public class DaemonConnection implements Closeable {
+
+    static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final SocketChannel channel;
+    private final BufferedReader reader;
+    private final Object writeLock = new Object();
+
+    public DaemonConnection(@NonNull SocketChannel channel) {
+        this.channel = channel;
+        this.reader = new BufferedReader(new InputStreamReader(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                int n = read(b, 0, 1);
+                return n <= 0 ? -1 : b[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return len == 0 ? 0 : channel.read(ByteBuffer.wrap(b, off, len));
+            }
+        }, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 发送一条消息（线程安全）
+     */
+    public void send(@NonNull DaemonMessage message) throws IOException {
+        byte[] line = (JSON_MAPPER.writeValueAsString(message) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        synchronized (writeLock) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * 阻塞读取下一条消息
+     *
+     * @return 消息，对端关闭连接时返回null
+     */
+    public DaemonMessage receive() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        return JSON_MAPPER.readValue(line, DaemonMessage.class);
+    }
+
+    /**
+     * 发送请求并读取回复，仅用于没有并发读取的连接
+     */
+    public DaemonMessage request(@NonNull DaemonMessage message) throws IOException {
+        send(message);
+        DaemonMessage reply = receive();
+        if (reply == null) {
+            throw new EOFException("The DAT daemon closed the connection");
+        }
+        return reply;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,185 @@
+package ai.dat.cli.daemon;
+
+import ai.dat.core.agent.data.EventOption;
+import ai.dat.core.agent.data.StreamEvent;
+import ai.dat.core.configuration.ConfigOption;
+import ai.dat.core.configuration.ConfigOptions;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 流事件在守护进程协议中的表示：守护进程把 {@link StreamEvent} 展开为各个字段，
+ * 客户端再还原为 {@link StreamEvent}，沿用本地运行时的输出方式
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DaemonEvent {
+
+    private static final ConfigOption<String> INCREMENTAL = stringOption("__incremental__");
+    private static final ConfigOption<String> SEMANTIC_SQL = stringOption("__semantic_sql__");
+    private static final ConfigOption<String> QUERY_SQL = stringOption("__query_sql__");
+    private static final ConfigOption<List<Map<String, Object>>> QUERY_DATA =
+            ConfigOptions.key("__query_data__").mapObjectType().asList().noDefaultValue();
+    private static final ConfigOption<String> TOOL_EXECUTION_ID = stringOption("__tool_execution_id__");
+    private static final ConfigOption<String> TOOL_EXECUTION_NAME = stringOption("__tool_execution_name__");
+    private static final ConfigOption<String> TOOL_EXECUTION_ARGUMENTS = stringOption("__tool_execution_arguments__");
+    private static final ConfigOption<String> TOOL_EXECUTION_RESULT = stringOption("__tool_execution_result__");
+    private static final ConfigOption<String> HITL_AI_REQUEST = stringOption("__hitl_ai_request__");
+    private static final ConfigOption<String> HITL_TOOL_APPROVAL = stringOption("__hitl_tool_approval__");
+    private static final ConfigOption<Long> HITL_WAIT_TIMEOUT =
+            ConfigOptions.key("__hitl_wait_timeout__").longType().noDefaultValue();
+
+    private String name;
+
+    private String incrementalContent;
+
+    private String semanticSql;
+
+    private String querySql;
+
+    private List<Map<String, Object>> queryData;
+
+    private String toolExecutionId;
+
+    private String toolExecutionName;
+
+    private String toolExecutionArguments;
+
+    private String toolExecutionResult;
+
+    private String hitlAiRequest;
+
+    private String hitlToolApproval;
+
+    private Long hitlWaitTimeout;
+
+    /**
+     * 其余消息，非字符串的值以JSON字符串传输
+     */
+    private Map<String, String> messages;
+
+    public static DaemonEvent from(@NonNull StreamEvent event) {
+        DaemonEventBuilder builder = DaemonEvent.builder().name(event.name());
+        event.getIncrementalContent().ifPresent(builder::incrementalContent);
+        event.getSemanticSql().ifPresent(builder::semanticSql);
+        event.getQuerySql().ifPresent(builder::querySql);
+        event.getQueryData().ifPresent(builder::queryData);
+        event.getToolExecutionRequest().ifPresent(request -> builder
+                .toolExecutionId(request.id())
+                .toolExecutionName(request.name())
+                .toolExecutionArguments(request.arguments()));
+        event.getToolExecutionResult().ifPresent(builder::toolExecutionResult);
+        event.getHitlAiRequest().ifPresent(builder::hitlAiRequest);
+        event.getHitlToolApproval().ifPresent(builder::hitlToolApproval);
+        event.getHitlWaitTimeout().ifPresent(builder::hitlWaitTimeout);
+        Map<String, Object> messages = event.getMessages();
+        if (!messages.isEmpty()) {
+            builder.messages(messages.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, e -> toText(e.getValue()))));
+        }
+        return builder.build();
+    }
+
+    public StreamEvent toStreamEvent() {
+        Set<ConfigOption<?>> dataOptions = new HashSet<>();
+        EventOption.EventOptionBuilder optionBuilder = EventOption.builder().name(name);
+        if (incrementalContent != null) {
+            optionBuilder.incrementalOption(INCREMENTAL);
+            dataOptions.add(INCREMENTAL);
+        }
+        if (semanticSql != null) {
+            optionBuilder.semanticSqlOption(SEMANTIC_SQL);
+            dataOptions.add(SEMANTIC_SQL);
+        }
+        if (querySql != null) {
+            optionBuilder.querySqlOption(QUERY_SQL);
+            dataOptions.add(QUERY_SQL);
+        }
+        if (queryData != null) {
+            optionBuilder.queryDataOption(QUERY_DATA);
+            dataOptions.add(QUERY_DATA);
+        }
+        if (toolExecutionName != null) {
+            optionBuilder.toolExecutionIdOption(TOOL_EXECUTION_ID)
+                    .toolExecutionNameOption(TOOL_EXECUTION_NAME)
+                    .toolExecutionArgumentsOption(TOOL_EXECUTION_ARGUMENTS);
+            dataOptions.addAll(List.of(TOOL_EXECUTION_ID, TOOL_EXECUTION_NAME, TOOL_EXECUTION_ARGUMENTS));
+        }
+        if (toolExecutionResult != null) {
+            optionBuilder.toolExecutionResultOption(TOOL_EXECUTION_RESULT);
+            dataOptions.add(TOOL_EXECUTION_RESULT);
+        }
+        if (hitlAiRequest != null) {
+            optionBuilder.hitlAiRequestOption(HITL_AI_REQUEST);
+            dataOptions.add(HITL_AI_REQUEST);
+        }
+        if (hitlToolApproval != null) {
+            optionBuilder.hitlToolApprovalOption(HITL_TOOL_APPROVAL);
+            dataOptions.add(HITL_TOOL_APPROVAL);
+        }
+        if (hitlWaitTimeout != null) {
+            optionBuilder.hitlWaitTimeoutOption(HITL_WAIT_TIMEOUT);
+            dataOptions.add(HITL_WAIT_TIMEOUT);
+        }
+        Map<ConfigOption<String>, String> messageOptions = new LinkedHashMap<>();
+        if (messages != null) {
+            messages.forEach((key, value) -> messageOptions.put(stringOption(key), value));
+            dataOptions.addAll(messageOptions.keySet());
+        }
+        StreamEvent event = StreamEvent.from(optionBuilder.dataOptions(dataOptions).build());
+        setIfPresent(event, INCREMENTAL, incrementalContent);
+        setIfPresent(event, SEMANTIC_SQL, semanticSql);
+        setIfPresent(event, QUERY_SQL, querySql);
+        setIfPresent(event, QUERY_DATA, queryData);
+        setIfPresent(event, TOOL_EXECUTION_ID, toolExecutionId);
+        setIfPresent(event, TOOL_EXECUTION_NAME, toolExecutionName);
+        setIfPresent(event, TOOL_EXECUTION_ARGUMENTS, toolExecutionArguments);
+        setIfPresent(event, TOOL_EXECUTION_RESULT, toolExecutionResult);
+        setIfPresent(event, HITL_AI_REQUEST, hitlAiRequest);
+        setIfPresent(event, HITL_TOOL_APPROVAL, hitlToolApproval);
+        setIfPresent(event, HITL_WAIT_TIMEOUT, hitlWaitTimeout);
+        messageOptions.forEach((option, value) -> setIfPresent(event, option, value));
+        return event;
+    }
+
+    private static <T> void setIfPresent(StreamEvent event, ConfigOption<T> option, T value) {
+        if (value != null) {
+            event.set(option, value);
+        }
+    }
+
+    private static ConfigOption<String> stringOption(String key) {
+        return ConfigOptions.key(key).stringType().noDefaultValue();
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof String text) {
+            return text;
+        }
+        try {
+            return DaemonConnection.JSON_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(value);
+        }
+    }
+}
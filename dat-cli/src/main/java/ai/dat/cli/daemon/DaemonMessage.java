@@ -0,0 +1,96 @@
+package ai.dat.cli.daemon;
+
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 守护进程协议消息（每行一个JSON对象），按 type 区分用途，未用到的字段为null
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DaemonMessage {
+
+    /**
+     * 握手：客户端发送，守护进程回复自身的版本
+     */
+    public static final String HELLO = "hello";
+    public static final String STATUS = "status";
+    public static final String STOP = "stop";
+    public static final String BUILD = "build";
+    /**
+     * 打开问数会话：为连接借出一个项目运行时（ProjectRunner）
+     */
+    public static final String OPEN = "open";
+    public static final String ASK = "ask";
+    public static final String USER_RESPONSE = "user_response";
+    public static final String USER_APPROVAL = "user_approval";
+    public static final String EVENT = "event";
+    public static final String FINISHED = "finished";
+    public static final String OK = "ok";
+    public static final String ERROR = "error";
+
+    private String type;
+
+    /**
+     * DAT CLI 版本
+     */
+    private String version;
+
+    /**
+     * 协议版本
+     */
+    private Integer protocol;
+
+    private Long pid;
+
+    private String agent;
+
+    private Map<String, Object> variables;
+
+    private Boolean force;
+
+    private String question;
+
+    private List<QuestionSqlPair> histories;
+
+    private String response;
+
+    private Boolean approval;
+
+    private DaemonEvent event;
+
+    private String message;
+
+    private Map<String, Object> status;
+
+    public static DaemonMessage of(String type) {
+        return DaemonMessage.builder().type(type).build();
+    }
+
+    public static DaemonMessage ok(String message) {
+        return DaemonMessage.builder().type(OK).message(message).build();
+    }
+
+    public static DaemonMessage error(String message) {
+        return DaemonMessage.builder().type(ERROR).message(message).build();
+    }
+
+    public boolean is(String type) {
+        return type.equals(this.type);
+    }
+}
@@ -0,0 +1,147 @@
+package ai.dat.cli.daemon;
+
+import ai.dat.core.agent.data.StreamAction;
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 转发到守护进程的问数会话：守护进程为连接借出一个预热的项目运行时，
+ * 后台线程读取守护进程推送的事件并放入本地的 {@link StreamAction}
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Slf4j
+public class DaemonProjectSession implements ProjectSession {
+
+    private static final DaemonMessage DISCONNECTED =
+            DaemonMessage.error("The connection to the DAT daemon was closed");
+
+    private final DaemonConnection connection;
+    private final BlockingQueue<DaemonMessage> replies = new LinkedBlockingQueue<>();
+    private volatile StreamAction action;
+
+    private DaemonProjectSession(DaemonConnection connection) {
+        this.connection = connection;
+        Thread reader = new Thread(this::read, "dat-daemon-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * 连接守护进程（按需启动）并打开会话
+     */
+    public static DaemonProjectSession open(@NonNull Path projectPath, @NonNull String agentName,
+                                            Map<String, Object> variables) throws IOException {
+        DaemonConnection connection = DaemonClient.connectOrStart(projectPath,
+                DaemonClient.DEFAULT_IDLE_TIMEOUT_MINUTES);
+        DaemonProjectSession session = new DaemonProjectSession(connection);
+        try {
+            session.request(DaemonMessage.builder()
+                    .type(DaemonMessage.OPEN)
+                    .agent(agentName)
+                    .variables(variables)
+                    .build());
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+        return session;
+    }
+
+    @Override
+    public StreamAction ask(@NonNull String question, @NonNull List<QuestionSqlPair> histories) {
+        StreamAction action = new StreamAction();
+        this.action = action;
+        request(DaemonMessage.builder()
+                .type(DaemonMessage.ASK)
+                .question(question)
+                .histories(histories)
+                .build());
+        return action;
+    }
+
+    @Override
+    public void userResponse(@NonNull String response) {
+        send(DaemonMessage.builder().type(DaemonMessage.USER_RESPONSE).response(response).build());
+    }
+
+    @Override
+    public void userApproval(@NonNull Boolean approval) {
+        send(DaemonMessage.builder().type(DaemonMessage.USER_APPROVAL).approval(approval).build());
+    }
+
+    @Override
+    public void close() {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            log.debug("Failed to close the DAT daemon connection", e);
+        }
+    }
+
+    private void request(DaemonMessage message) {
+        send(message);
+        DaemonMessage reply;
+        try {
+            reply = replies.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the DAT daemon", e);
+        }
+        if (reply.is(DaemonMessage.ERROR)) {
+            throw new RuntimeException(reply.getMessage());
+        }
+    }
+
+    private void send(DaemonMessage message) {
+        try {
+            connection.send(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to send the request to the DAT daemon", e);
+        }
+    }
+
+    private void read() {
+        try {
+            DaemonMessage message;
+            while ((message = connection.receive()) != null) {
+                if (message.is(DaemonMessage.EVENT)) {
+                    StreamAction current = action;
+                    if (current != null && message.getEvent() != null) {
+                        current.add(message.getEvent().toStreamEvent());
+                    }
+                } else if (message.is(DaemonMessage.FINISHED)) {
+                    StreamAction current = action;
+                    if (current != null) {
+                        current.finished();
+                    }
+                } else {
+                    replies.offer(message);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Failed to read from the DAT daemon connection", e);
+        }
+        // 连接断开：结束未完成的流，唤醒等待回复的请求
+        StreamAction current = action;
+        if (current != null && !current.isFinished()) {
+            current.add(DaemonEvent.builder()
+                    .name("exception")
+                    .messages(Map.of("message", DISCONNECTED.getMessage()))
+                    .build()
+                    .toStreamEvent());
+            current.finished();
+        }
+        replies.offer(DISCONNECTED);
+    }
+}
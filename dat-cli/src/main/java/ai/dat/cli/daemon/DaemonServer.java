@@ -0,0 +1,447 @@
+package ai.dat.cli.daemon;
+
+import ai.dat.boot.ProjectAccelerator;
+import ai.dat.boot.ProjectBuilder;
+import ai.dat.boot.ProjectRunner;
+import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.cli.provider.VersionProvider;
+import ai.dat.core.agent.data.StreamAction;
+import ai.dat.core.agent.data.StreamEvent;
+import ai.dat.core.factories.SharedModelRegistry;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 项目守护进程：在项目的本地套接字上接收CLI的请求，
+ * 复用已加载的项目运行时（模型、连接池、内容存储），避免每次命令都冷启动。
+ * <p>
+ * 每个问数连接独占借出的一个运行时（人机交互的回复需要回到同一个Agent），
+ * 连接关闭后清空Agent的会话状态再归还，项目文件发生变化时丢弃旧的运行时；
+ * 没有连接且空闲超过指定时长后自动退出
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Slf4j
+public class DaemonServer {
+
+    /**
+     * 同一Agent与动态变量保留的空闲运行时数量上限
+     */
+    private static final int MAX_IDLE_RUNNERS_PER_AGENT = 2;
+
+    private static final Set<String> IGNORED_DIR_NAMES = Set.of(ProjectUtil.DAT_DIR_NAME, "logs");
+
+    private final Path projectPath;
+    private final Path socketPath;
+    private final Duration idleTimeout;
+    private final long startedAt = System.currentTimeMillis();
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private volatile long lastActiveAt = System.currentTimeMillis();
+
+    private final Map<RunnerKey, Deque<PooledRunner>> idleRunners = new HashMap<>();
+    /**
+     * 构建与运行时的创建互斥（都会增量构建项目）
+     */
+    private final Object buildLock = new Object();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "dat-daemon-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dat-daemon-idle-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running;
+    private ServerSocketChannel serverChannel;
+
+    /**
+     * @param projectPath 项目路径
+     * @param idleTimeout 空闲超时，为0时不自动退出
+     */
+    public DaemonServer(@NonNull Path projectPath, @NonNull Duration idleTimeout) {
+        this.projectPath = projectPath.toAbsolutePath().normalize();
+        this.socketPath = DaemonClient.socketPath(this.projectPath);
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * 监听本地套接字并处理请求，直到收到停止请求或空闲超时
+     */
+    public void serve() throws IOException {
+        if (DaemonClient.isRunning(projectPath)) {
+            throw new IllegalStateException("A DAT daemon is already running for the project: " + projectPath);
+        }
+        Files.createDirectories(socketPath.getParent());
+        Files.deleteIfExists(socketPath); // 清理异常退出残留的套接字文件
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+        running = true;
+        log.info("DAT daemon {} started for project: {}, socket: {}, idle timeout: {}",
+                VersionProvider.version(), projectPath, socketPath, idleTimeout);
+        if (!idleTimeout.isZero()) {
+            long interval = Math.max(1, Math.min(idleTimeout.toSeconds(), 30));
+            scheduler.scheduleWithFixedDelay(this::checkIdle, interval, interval, TimeUnit.SECONDS);
+        }
+        ProjectAccelerator.scheduleRefresh(ProjectUtil.loadProject(projectPath), projectPath);
+        try {
+            while (running) {
+                SocketChannel channel;
+                try {
+                    channel = serverChannel.accept();
+                } catch (IOException e) {
+                    if (!running) {
+                        break;
+                    }
+                    throw e;
+                }
+                executor.execute(() -> handle(channel));
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * 停止监听，之后 {@link #serve()} 返回
+     */
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the DAT daemon socket", e);
+        }
+    }
+
+    private void shutdown() {
+        running = false;
+        scheduler.shutdownNow();
+        ProjectAccelerator.cancelRefresh(projectPath);
+        executor.shutdownNow();
+        List<PooledRunner> runners = new ArrayList<>();
+        synchronized (idleRunners) {
+            idleRunners.values().forEach(runners::addAll);
+            idleRunners.clear();
+        }
+        runners.forEach(pooled -> pooled.runner().close());
+        try {
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            log.warn("Failed to delete the DAT daemon socket file: {}", socketPath, e);
+        }
+        log.info("DAT daemon stopped for project: {}", projectPath);
+    }
+
+    private void checkIdle() {
+        if (activeConnections.get() == 0
+                && System.currentTimeMillis() - lastActiveAt >= idleTimeout.toMillis()) {
+            log.info("DAT daemon has been idle for {}, stop it", idleTimeout);
+            stop();
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        activeConnections.incrementAndGet();
+        lastActiveAt = System.currentTimeMillis();
+        Session session = null;
+        try (DaemonConnection connection = new DaemonConnection(channel)) {
+            session = new Session(connection);
+            DaemonMessage message;
+            while ((message = connection.receive()) != null) {
+                lastActiveAt = System.currentTimeMillis();
+                if (!session.handle(message)) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("DAT daemon connection closed", e);
+        } finally {
+            if (session != null) {
+                session.close();
+            }
+            lastActiveAt = System.currentTimeMillis();
+            activeConnections.decrementAndGet();
+        }
+    }
+
+    private Map<String, Object> status() {
+        int runners;
+        synchronized (idleRunners) {
+            runners = idleRunners.values().stream().mapToInt(Deque::size).sum();
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("version", VersionProvider.version());
+        status.put("pid", ProcessHandle.current().pid());
+        status.put("projectPath", projectPath.toString());
+        status.put("socket", socketPath.toString());
+        status.put("uptimeSeconds", (System.currentTimeMillis() - startedAt) / 1000);
+        status.put("idleTimeoutMinutes", idleTimeout.toMinutes());
+        status.put("activeConnections", activeConnections.get());
+        status.put("idleRunners", runners);
+        status.put("sharedModels", SharedModelRegistry.size());
+        return status;
+    }
+
+    private void build(boolean force, Map<String, Object> variables) throws IOException {
+        synchronized (buildLock) {
+            ProjectBuilder builder = new ProjectBuilder(projectPath);
+            if (force) {
+                builder.forceRebuild(variables);
+            } else {
+                builder.build(variables);
+            }
+        }
+    }
+
+    /**
+     * 借出运行时：优先复用项目文件未变化的空闲运行时，否则新建
+     */
+    private PooledRunner borrow(RunnerKey key) {
+        synchronized (buildLock) {
+            String stamp = projectStamp();
+            List<PooledRunner> stale = new ArrayList<>();
+            PooledRunner reused = null;
+            synchronized (idleRunners) {
+                Deque<PooledRunner> runners = idleRunners.getOrDefault(key, new ArrayDeque<>());
+                while (reused == null && !runners.isEmpty()) {
+                    PooledRunner pooled = runners.poll();
+                    if (pooled.stamp().equals(stamp)) {
+                        reused = pooled;
+                    } else {
+                        stale.add(pooled);
+                    }
+                }
+            }
+            try {
+                if (reused != null) {
+                    log.debug("Reuse the warm project runner, agent: {}", key.agent());
+                    return reused;
+                }
+                log.info("Create the project runner, agent: {}", key.agent());
+                return new PooledRunner(new ProjectRunner(projectPath, key.agent(), key.variables()), stamp);
+            } finally {
+                // 新运行时创建后再关闭旧的，未变化的共享模型得以保留
+                stale.forEach(pooled -> pooled.runner().close());
+            }
+        }
+    }
+
+    /**
+     * 归还运行时：清空Agent的会话状态（对话记忆、人机交互回复等）后放回空闲池，避免泄漏到下一个会话
+     */
+    private void giveBack(RunnerKey key, PooledRunner pooled) {
+        try {
+            pooled.runner().reset();
+        } catch (RuntimeException e) {
+            log.warn("Failed to reset the project runner, close it", e);
+            pooled.runner().close();
+            return;
+        }
+        synchronized (idleRunners) {
+            Deque<PooledRunner> runners = idleRunners.computeIfAbsent(key, k -> new ArrayDeque<>());
+            if (running && runners.size() < MAX_IDLE_RUNNERS_PER_AGENT) {
+                runners.push(pooled);
+                return;
+            }
+        }
+        pooled.runner().close();
+    }
+
+    /**
+     * 项目文件（不含 .dat 与日志目录）的路径、大小与修改时间摘要，用于判断运行时是否过期
+     */
+    private String projectStamp() {
+        long[] stamp = {0, 0};
+        try {
+            Files.walkFileTree(projectPath, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(projectPath) && IGNORED_DIR_NAMES.contains(dir.getFileName().toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    stamp[0]++;
+                    stamp[1] = 31 * stamp[1] + Objects.hash(projectPath.relativize(file).toString(),
+                            attrs.size(), attrs.lastModifiedTime().toMillis());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to scan the project files: {}", projectPath, e);
+            return UUID.randomUUID().toString(); // 无法判断时不复用
+        }
+        return stamp[0] + ":" + Long.toHexString(stamp[1]);
+    }
+
+    private record RunnerKey(String agent, Map<String, Object> variables) {
+    }
+
+    private record PooledRunner(ProjectRunner runner, String stamp) {
+    }
+
+    /**
+     * 一个连接上的会话
+     */
+    private class Session {
+
+        private final DaemonConnection connection;
+        private RunnerKey key;
+        private PooledRunner pooled;
+        private volatile StreamAction action;
+        /**
+         * 转发当前问数事件的任务，结束后Agent的事件流才不再被读取
+         */
+        private volatile CompletableFuture<Void> streaming;
+
+        private Session(DaemonConnection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * @return 是否继续处理该连接上的消息
+         */
+        private boolean handle(DaemonMessage message) throws IOException {
+            try {
+                switch (String.valueOf(message.getType())) {
+                    case DaemonMessage.HELLO -> connection.send(DaemonMessage.builder()
+                            .type(DaemonMessage.HELLO)
+                            .version(VersionProvider.version())
+                            .protocol(DaemonClient.PROTOCOL_VERSION)
+                            .pid(ProcessHandle.current().pid())
+                            .build());
+                    case DaemonMessage.STATUS -> connection.send(DaemonMessage.builder()
+                            .type(DaemonMessage.STATUS)
+                            .status(status())
+                            .build());
+                    case DaemonMessage.STOP -> {
+                        connection.send(DaemonMessage.ok("DAT daemon is stopping"));
+                        stop();
+                        return false;
+                    }
+                    case DaemonMessage.BUILD -> {
+                        build(Boolean.TRUE.equals(message.getForce()), message.getVariables());
+                        connection.send(DaemonMessage.ok("Build completed"));
+                    }
+                    case DaemonMessage.OPEN -> open(message);
+                    case DaemonMessage.ASK -> ask(message);
+                    case DaemonMessage.USER_RESPONSE -> runner().userResponse(message.getResponse());
+                    case DaemonMessage.USER_APPROVAL -> runner().userApproval(message.getApproval());
+                    default -> connection.send(DaemonMessage.error("Unknown request type: " + message.getType()));
+                }
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("Failed to handle the DAT daemon request: {}", message.getType(), e);
+                connection.send(DaemonMessage.error(e.getMessage()));
+            }
+            return true;
+        }
+
+        private void open(DaemonMessage message) throws IOException {
+            if (pooled != null) {
+                throw new IllegalStateException("The project session has been opened");
+            }
+            String agent = Optional.ofNullable(message.getAgent()).orElse("default");
+            Map<String, Object> variables = message.getVariables() == null
+                    ? null : new HashMap<>(message.getVariables());
+            RunnerKey runnerKey = new RunnerKey(agent, variables);
+            pooled = borrow(runnerKey);
+            key = runnerKey;
+            connection.send(DaemonMessage.ok(null));
+        }
+
+        private void ask(DaemonMessage message) throws IOException {
+            StreamAction previous = action;
+            if (previous != null && !previous.isFinished()) {
+                throw new IllegalStateException("The previous question is still being answered");
+            }
+            StreamAction current = runner().ask(message.getQuestion(),
+                    Optional.ofNullable(message.getHistories()).orElse(List.of()));
+            action = current;
+            connection.send(DaemonMessage.ok(null));
+            streaming = CompletableFuture.runAsync(() -> stream(current), executor);
+        }
+
+        private void stream(StreamAction current) {
+            boolean connected = true;
+            for (StreamEvent event : current) {
+                if (event == null) break;
+                if (!connected) continue; // 客户端已断开，等待流结束
+                try {
+                    connection.send(DaemonMessage.builder()
+                            .type(DaemonMessage.EVENT)
+                            .event(DaemonEvent.from(event))
+                            .build());
+                } catch (IOException e) {
+                    connected = false;
+                    current.cancel("The DAT client disconnected");
+                }
+            }
+            if (connected) {
+                try {
+                    connection.send(DaemonMessage.of(DaemonMessage.FINISHED));
+                } catch (IOException e) {
+                    log.debug("Failed to send the finished message", e);
+                }
+            }
+        }
+
+        private ProjectRunner runner() {
+            if (pooled == null) {
+                throw new IllegalStateException("The project session has not been opened");
+            }
+            return pooled.runner();
+        }
+
+        /**
+         * 连接关闭：中止未结束的流，流结束且事件转发完毕后归还运行时
+         */
+        private void close() {
+            if (pooled == null) {
+                return;
+            }
+            RunnerKey runnerKey = key;
+            PooledRunner runner = pooled;
+            pooled = null;
+            StreamAction current = action;
+            if (current != null && !current.isFinished()) {
+                current.cancel("The DAT client disconnected");
+            }
+            CompletableFuture<Void> task = streaming;
+            if (task != null) {
+                task.whenComplete((r, e) -> giveBack(runnerKey, runner));
+            } else {
+                giveBack(runnerKey, runner);
+            }
+        }
+    }
+}
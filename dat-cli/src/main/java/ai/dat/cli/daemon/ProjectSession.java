@@ -0,0 +1,53 @@
+package ai.dat.cli.daemon;
+
+import ai.dat.boot.ProjectRunner;
+import ai.dat.core.agent.data.StreamAction;
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * 交互式问数会话：在当前进程中运行项目，或转发到项目的守护进程
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public interface ProjectSession extends AutoCloseable {
+
+    StreamAction ask(@NonNull String question, @NonNull List<QuestionSqlPair> histories);
+
+    void userResponse(@NonNull String response);
+
+    void userApproval(@NonNull Boolean approval);
+
+    @Override
+    void close();
+
+    /**
+     * 在当前进程中运行项目的会话
+     */
+    static ProjectSession local(@NonNull ProjectRunner runner) {
+        return new ProjectSession() {
+            @Override
+            public StreamAction ask(@NonNull String question, @NonNull List<QuestionSqlPair> histories) {
+                return runner.ask(question, histories);
+            }
+
+            @Override
+            public void userResponse(@NonNull String response) {
+                runner.userResponse(response);
+            }
+
+            @Override
+            public void userApproval(@NonNull Boolean approval) {
+                runner.userApproval(approval);
+            }
+
+            @Override
+            public void close() {
+                runner.close();
+            }
+        };
+    }
+}
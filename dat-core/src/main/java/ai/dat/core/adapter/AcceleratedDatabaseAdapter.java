@@ -0,0 +1,229 @@
+package ai.dat.core.adapter;
+
+import ai.dat.core.adapter.data.AnsiSqlType;
+import ai.dat.core.adapter.data.ColumnMetadata;
+import ai.dat.core.adapter.data.QueryPlan;
+import ai.dat.core.adapter.data.Table;
+import ai.dat.core.semantic.SemanticSqlConverter;
+import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.CancellationToken;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * 带本地加速的数据库适配器（装饰器）。
+ * <p>
+ * 生成方言SQL时，如果语义SQL引用的语义模型全部已加速且新鲜（见 {@link AccelerationRegistry#fresh}），
+ * 则把语义模型改写为读取DuckDB中的抽取表，使用DuckDB方言生成SQL并在DuckDB上执行；
+ * 否则（抽取缺失、陈旧或DuckDB执行失败）回退到源数据库。
+ *
+ * @Author JunjieM
+ * @Date 2025/10/26
+ */
+@Slf4j
+public class AcceleratedDatabaseAdapter implements DatabaseAdapter {
+
+    private static final int MAX_SQL_BINDINGS = 1000;
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    @Getter
+    private final DatabaseAdapter delegate;
+    @Getter
+    private final DatabaseAdapter accelerator;
+    @Getter
+    private final AccelerationRegistry registry;
+
+    /**
+     * 在DuckDB上执行的方言SQL -> 生成它的语义SQL及语义模型（用于执行失败时回退到源数据库）
+     */
+    private final Map<String, SqlBinding> sqlBindings = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SqlBinding> eldest) {
+            return size() > MAX_SQL_BINDINGS;
+        }
+    };
+
+    public AcceleratedDatabaseAdapter(@NonNull DatabaseAdapter delegate,
+                                      @NonNull DatabaseAdapter accelerator,
+                                      @NonNull AccelerationRegistry registry) {
+        this.delegate = delegate;
+        this.accelerator = accelerator;
+        this.registry = registry;
+    }
+
+    // -------------------------------------- semantic ------------------------------------------
+
+    @Override
+    public SemanticAdapter semanticAdapter() {
+        return delegate.semanticAdapter();
+    }
+
+    @Override
+    public String generateSql(String semanticSql, List<SemanticModel> semanticModels) {
+        Optional<List<SemanticModel>> acceleratedModels = acceleratedModels(semanticSql, semanticModels);
+        if (acceleratedModels.isPresent()) {
+            try {
+                String sql = accelerator.generateSql(semanticSql, acceleratedModels.get());
+                synchronized (sqlBindings) {
+                    sqlBindings.put(QueryResultCache.normalize(sql), new SqlBinding(semanticSql, semanticModels));
+                }
+                registry.recordAccelerated();
+                return sql;
+            } catch (Exception e) {
+                log.warn("Failed to generate the accelerated SQL, fall back to the source database: {}",
+                        e.getMessage());
+                registry.recordFallback();
+            }
+        }
+        return delegate.generateSql(semanticSql, semanticModels);
+    }
+
+    @Override
+    public List<Map<String, Object>> executeQuery(String sql) throws SQLException {
+        return executeQuery(sql, null, CancellationToken.NONE);
+    }
+
+    @Override
+    public List<Map<String, Object>> executeQuery(String sql, Duration timeout,
+                                                  CancellationToken cancellationToken) throws SQLException {
+        SqlBinding binding = binding(sql);
+        if (binding == null) {
+            return delegate.executeQuery(sql, timeout, cancellationToken);
+        }
+        try {
+            return accelerator.executeQuery(sql, timeout, cancellationToken);
+        } catch (SQLException e) {
+            if (cancellationToken.isCancelled()) {
+                throw e;
+            }
+            log.warn("Failed to execute the accelerated SQL, fall back to the source database: {}",
+                    e.getMessage());
+            registry.recordFallback();
+            return delegate.executeQuery(delegate.generateSql(binding.semanticSql, binding.semanticModels),
+                    timeout, cancellationToken);
+        }
+    }
+
+    @Override
+    public void streamQuery(String sql, RowHandler rowHandler) throws SQLException {
+        (binding(sql) == null ? delegate : accelerator).streamQuery(sql, rowHandler);
+    }
+
+    @Override
+    public List<ColumnMetadata> getColumnMetadata(String sql) throws SQLException {
+        return binding(sql) == null ? delegate.getColumnMetadata(sql) : accelerator.getColumnMetadata(sql);
+    }
+
+    @Override
+    public AnsiSqlType toAnsiSqlType(int columnType, String columnTypeName, int precision, int scale) {
+        return delegate.toAnsiSqlType(columnType, columnTypeName, precision, scale);
+    }
+
+    @Override
+    public String limitClause(int limit) {
+        return delegate.limitClause(limit);
+    }
+
+    // -------------------------------------- seed ------------------------------------------
+
+    @Override
+    public void initTable(Table table, List<List<String>> data) throws SQLException {
+        delegate.initTable(table, data);
+    }
+
+    // -------------------------------------- rollup ------------------------------------------
+
+    @Override
+    public long createTableAs(String tableName, String sql) throws SQLException {
+        return delegate.createTableAs(tableName, sql);
+    }
+
+    // -------------------------------------- acceleration ------------------------------------------
+
+    @Override
+    public void appendTable(Table table, List<List<String>> data) throws SQLException {
+        delegate.appendTable(table, data);
+    }
+
+    @Override
+    public long executeUpdate(String sql) throws SQLException {
+        return delegate.executeUpdate(sql);
+    }
+
+    @Override
+    public long executeUpdates(List<String> sqls) throws SQLException {
+        return delegate.executeUpdates(sqls);
+    }
+
+    // -------------------------------------- cost guard ------------------------------------------
+
+    @Override
+    public Optional<QueryPlan> explain(String sql) throws SQLException {
+        return binding(sql) == null ? delegate.explain(sql) : accelerator.explain(sql);
+    }
+
+    /**
+     * 语义SQL引用的语义模型全部已加速且新鲜时，返回改写为读取抽取表的语义模型
+     */
+    private Optional<List<SemanticModel>> acceleratedModels(String semanticSql, List<SemanticModel> semanticModels) {
+        Set<String> names;
+        try {
+            names = new SemanticSqlConverter(delegate.semanticAdapter(), semanticModels)
+                    .referencedSemanticModels(semanticSql);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+        List<SemanticModel> referenced = semanticModels.stream()
+                .filter(m -> names.contains(m.getName()))
+                .toList();
+        if (referenced.isEmpty() || referenced.stream().noneMatch(m -> m.getConfig().isAccelerated())) {
+            return Optional.empty();
+        }
+        List<SemanticModel> acceleratedModels = new ArrayList<>(referenced.size());
+        for (SemanticModel semanticModel : referenced) {
+            Optional<AccelerationRegistry.AccelerationState> state = registry.fresh(semanticModel);
+            if (state.isEmpty()) {
+                registry.recordFallback();
+                return Optional.empty();
+            }
+            acceleratedModels.add(acceleratedModel(semanticModel, state.get().table()));
+        }
+        return Optional.of(acceleratedModels);
+    }
+
+    /**
+     * 读取抽取表的语义模型副本：抽取表的列名即元素名称，且时间维度已应用其粒度
+     */
+    private SemanticModel acceleratedModel(SemanticModel semanticModel, String table) {
+        SemanticModel copy;
+        try {
+            copy = JSON_MAPPER.readValue(JSON_MAPPER.writeValueAsString(semanticModel), SemanticModel.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+        copy.setModel("SELECT * FROM " + accelerator.semanticAdapter().quoteIdentifier(table));
+        Stream.of(copy.getEntities(), copy.getDimensions(), copy.getMeasures())
+                .flatMap(Collection::stream)
+                .forEach(e -> e.setExpr(null));
+        copy.setRollups(List.of());
+        return copy;
+    }
+
+    private SqlBinding binding(String sql) {
+        synchronized (sqlBindings) {
+            return sqlBindings.get(QueryResultCache.normalize(sql));
+        }
+    }
+
+    private record SqlBinding(String semanticSql, List<SemanticModel> semanticModels) {
+    }
+}
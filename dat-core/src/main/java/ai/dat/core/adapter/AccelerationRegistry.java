@@ -0,0 +1,180 @@
+package ai.dat.core.adapter;
+
+import ai.dat.core.semantic.data.Element;
+import ai.dat.core.semantic.data.SemanticModel;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 本地加速的抽取状态注册表：按数据库连接标识共享，
+ * 记录每个语义模型抽取到DuckDB的时间、行数、水位线与定义指纹，用于路由时的新鲜度检查
+ *
+ * @Author JunjieM
+ * @Date 2025/10/26
+ */
+public class AccelerationRegistry {
+
+    private static final Map<String, AccelerationRegistry> REGISTRIES = new ConcurrentHashMap<>();
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    @Getter
+    private final String name;
+    @Getter
+    private final Duration defaultMaxStaleness;
+
+    private volatile Map<String, AccelerationState> states = Collections.emptyMap();
+
+    private final AtomicLong accelerated = new AtomicLong(0);
+    private final AtomicLong fallbacks = new AtomicLong(0);
+    private final AtomicLong stale = new AtomicLong(0);
+
+    public AccelerationRegistry(@NonNull String name, @NonNull Duration defaultMaxStaleness) {
+        Preconditions.checkArgument(!defaultMaxStaleness.isNegative() && !defaultMaxStaleness.isZero(),
+                "defaultMaxStaleness must be greater than 0");
+        this.name = name;
+        this.defaultMaxStaleness = defaultMaxStaleness;
+    }
+
+    /**
+     * 按连接标识获取进程内共享的注册表，不存在或配置发生变化时创建新的实例
+     */
+    public static AccelerationRegistry getOrCreate(@NonNull String connectionId,
+                                                   @NonNull Duration defaultMaxStaleness) {
+        return REGISTRIES.compute(connectionId, (k, v) ->
+                v != null && v.defaultMaxStaleness.equals(defaultMaxStaleness) ? v
+                        : new AccelerationRegistry(connectionId, defaultMaxStaleness));
+    }
+
+    public static List<Map<String, Object>> allMetrics() {
+        return REGISTRIES.values().stream()
+                .sorted(Comparator.comparing(AccelerationRegistry::getName))
+                .map(AccelerationRegistry::metrics)
+                .toList();
+    }
+
+    /**
+     * 抽取定义指纹：语义模型的（已渲染）模型SQL、元素定义及水位线任一变化时，已抽取的数据不再可用
+     */
+    public static String fingerprint(@NonNull SemanticModel semanticModel) {
+        List<Element> elements = Stream.of(semanticModel.getEntities(), semanticModel.getDimensions(),
+                        semanticModel.getMeasures())
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparing(Element::getName))
+                .collect(Collectors.toList());
+        String watermark = semanticModel.getConfig().getAcceleration() == null ? null
+                : semanticModel.getConfig().getAcceleration().getWatermark();
+        try {
+            String content = semanticModel.getModel() + "\n"
+                             + watermark + "\n"
+                             + JSON_MAPPER.writeValueAsString(elements);
+            return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Calculate the acceleration fingerprint failed", e);
+        }
+    }
+
+    /**
+     * 重新加载全部抽取状态
+     */
+    public void reload(@NonNull Collection<AccelerationState> accelerationStates) {
+        this.states = accelerationStates.stream()
+                .collect(Collectors.toUnmodifiableMap(AccelerationState::semanticModel, s -> s,
+                        (a, b) -> a.refreshedAt() >= b.refreshedAt() ? a : b));
+    }
+
+    /**
+     * 更新单个语义模型的抽取状态
+     */
+    public synchronized void update(@NonNull AccelerationState accelerationState) {
+        Map<String, AccelerationState> newStates = new HashMap<>(states);
+        newStates.put(accelerationState.semanticModel(), accelerationState);
+        this.states = Collections.unmodifiableMap(newStates);
+    }
+
+    public Collection<AccelerationState> states() {
+        return states.values();
+    }
+
+    public Optional<AccelerationState> state(@NonNull String semanticModelName) {
+        return Optional.ofNullable(states.get(semanticModelName));
+    }
+
+    /**
+     * 新鲜度检查：语义模型开启了加速、已抽取、定义指纹一致且抽取时间未超过最大陈旧时间
+     *
+     * @param semanticModel 已渲染的语义模型
+     * @return 可用的抽取状态
+     */
+    public Optional<AccelerationState> fresh(@NonNull SemanticModel semanticModel) {
+        if (!semanticModel.getConfig().isAccelerated()) {
+            return Optional.empty();
+        }
+        AccelerationState state = states.get(semanticModel.getName());
+        if (state == null) {
+            return Optional.empty();
+        }
+        Duration maxStaleness = semanticModel.getConfig().getAcceleration()
+                .getMaxStalenessDuration().orElse(defaultMaxStaleness);
+        if (!state.fingerprint().equals(fingerprint(semanticModel))
+            || System.currentTimeMillis() - state.refreshedAt() > maxStaleness.toMillis()) {
+            stale.incrementAndGet();
+            return Optional.empty();
+        }
+        return Optional.of(state);
+    }
+
+    void recordAccelerated() {
+        accelerated.incrementAndGet();
+    }
+
+    void recordFallback() {
+        fallbacks.incrementAndGet();
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("name", name);
+        metrics.put("semantic_models", states.size());
+        metrics.put("default_max_staleness_ms", defaultMaxStaleness.toMillis());
+        metrics.put("accelerated", accelerated.get());
+        metrics.put("fallbacks", fallbacks.get());
+        metrics.put("stale", stale.get());
+        return metrics;
+    }
+
+    /**
+     * 语义模型的抽取状态
+     *
+     * @param semanticModel 语义模型名称
+     * @param table         DuckDB中的表名
+     * @param fingerprint   抽取时的定义指纹
+     * @param refreshedAt   抽取完成的时间戳（毫秒）
+     * @param rowCount      抽取的行数
+     * @param watermark     已抽取数据的最大水位线值，未配置水位线或没有数据时为null
+     * @param watermarkType 水位线值的ANSI SQL类型，用于生成增量抽取条件中的字面量
+     */
+    public record AccelerationState(@JsonProperty("semantic_model") String semanticModel,
+                                    @JsonProperty("table") String table,
+                                    @JsonProperty("fingerprint") String fingerprint,
+                                    @JsonProperty("refreshed_at") long refreshedAt,
+                                    @JsonProperty("row_count") long rowCount,
+                                    @JsonProperty("watermark") String watermark,
+                                    @JsonProperty("watermark_type") String watermarkType) {
+    }
+}
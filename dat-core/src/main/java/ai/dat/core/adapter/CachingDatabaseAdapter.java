@@ -0,0 +1,181 @@
+package ai.dat.core.adapter;
+
+import ai.dat.core.adapter.data.AnsiSqlType;
+import ai.dat.core.adapter.data.ColumnMetadata;
+import ai.dat.core.adapter.data.QueryPlan;
+import ai.dat.core.adapter.data.Table;
+import ai.dat.core.semantic.SemanticSqlConverter;
+import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.CancellationToken;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 带查询结果缓存的数据库适配器（装饰器）。
+ * <p>
+ * 生成方言SQL时记录其引用的语义模型，执行时按语义模型配置的 cache_ttl（取最小值，未配置则使用默认值）
+ * 缓存结果；非语义SQL生成的方言SQL使用默认有效期。
+ *
+ * @Author JunjieM
+ * @Date 2025/10/22
+ */
+@Slf4j
+public class CachingDatabaseAdapter implements DatabaseAdapter {
+
+    private static final int MAX_SQL_BINDINGS = 1000;
+
+    @Getter
+    private final DatabaseAdapter delegate;
+    @Getter
+    private final QueryResultCache cache;
+    private final Duration defaultTtl;
+
+    private final Map<String, SqlBinding> sqlBindings = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SqlBinding> eldest) {
+            return size() > MAX_SQL_BINDINGS;
+        }
+    };
+
+    public CachingDatabaseAdapter(@NonNull DatabaseAdapter delegate,
+                                  @NonNull QueryResultCache cache,
+                                  @NonNull Duration defaultTtl) {
+        Preconditions.checkArgument(!defaultTtl.isNegative(), "defaultTtl cannot be negative");
+        this.delegate = delegate;
+        this.cache = cache;
+        this.defaultTtl = defaultTtl;
+    }
+
+    // -------------------------------------- semantic ------------------------------------------
+
+    @Override
+    public SemanticAdapter semanticAdapter() {
+        return delegate.semanticAdapter();
+    }
+
+    @Override
+    public String generateSql(String semanticSql, List<SemanticModel> semanticModels) {
+        String sql = delegate.generateSql(semanticSql, semanticModels);
+        try {
+            Set<String> names = new SemanticSqlConverter(delegate.semanticAdapter(), semanticModels)
+                    .referencedSemanticModels(semanticSql);
+            Duration ttl = semanticModels.stream()
+                    .filter(m -> names.contains(m.getName()))
+                    .map(m -> m.getConfig().getCacheTtlDuration().orElse(defaultTtl))
+                    .min(Comparator.naturalOrder())
+                    .orElse(defaultTtl);
+            synchronized (sqlBindings) {
+                sqlBindings.put(QueryResultCache.normalize(sql), new SqlBinding(names, ttl));
+            }
+        } catch (Exception e) {
+            log.debug("Failed to resolve the semantic models referenced by the semantic SQL, " +
+                      "the default cache TTL is used: {}", e.getMessage());
+        }
+        return sql;
+    }
+
+    @Override
+    public List<Map<String, Object>> executeQuery(String sql) throws SQLException {
+        return executeQuery(sql, null, CancellationToken.NONE);
+    }
+
+    @Override
+    public List<Map<String, Object>> executeQuery(String sql, Duration timeout,
+                                                  CancellationToken cancellationToken) throws SQLException {
+        SqlBinding binding;
+        synchronized (sqlBindings) {
+            binding = sqlBindings.get(QueryResultCache.normalize(sql));
+        }
+        Duration ttl = binding == null ? defaultTtl : binding.ttl;
+        Set<String> semanticModels = binding == null ? Collections.emptySet() : binding.semanticModels;
+        return cache.get(sql, ttl, semanticModels, timeout, cancellationToken,
+                () -> delegate.executeQuery(sql, timeout, cancellationToken));
+    }
+
+    /**
+     * 流式查询用于抽取大结果集，不经过缓存
+     */
+    @Override
+    public void streamQuery(String sql, RowHandler rowHandler) throws SQLException {
+        delegate.streamQuery(sql, rowHandler);
+    }
+
+    @Override
+    public List<ColumnMetadata> getColumnMetadata(String sql) throws SQLException {
+        return delegate.getColumnMetadata(sql);
+    }
+
+    @Override
+    public AnsiSqlType toAnsiSqlType(int columnType, String columnTypeName, int precision, int scale) {
+        return delegate.toAnsiSqlType(columnType, columnTypeName, precision, scale);
+    }
+
+    @Override
+    public String limitClause(int limit) {
+        return delegate.limitClause(limit);
+    }
+
+    // -------------------------------------- seed ------------------------------------------
+
+    @Override
+    public void initTable(Table table, List<List<String>> data) throws SQLException {
+        delegate.initTable(table, data);
+        QueryResultCache.invalidateAll();
+    }
+
+    // -------------------------------------- rollup ------------------------------------------
+
+    @Override
+    public long createTableAs(String tableName, String sql) throws SQLException {
+        long rowCount = delegate.createTableAs(tableName, sql);
+        QueryResultCache.invalidateAll();
+        return rowCount;
+    }
+
+    // -------------------------------------- acceleration ------------------------------------------
+
+    @Override
+    public void appendTable(Table table, List<List<String>> data) throws SQLException {
+        delegate.appendTable(table, data);
+        QueryResultCache.invalidateAll();
+    }
+
+    @Override
+    public long executeUpdate(String sql) throws SQLException {
+        long count = delegate.executeUpdate(sql);
+        QueryResultCache.invalidateAll();
+        return count;
+    }
+
+    @Override
+    public long executeUpdates(List<String> sqls) throws SQLException {
+        long count = delegate.executeUpdates(sqls);
+        QueryResultCache.invalidateAll();
+        return count;
+    }
+
+    // -------------------------------------- cost guard ------------------------------------------
+
+    @Override
+    public Optional<QueryPlan> explain(String sql) throws SQLException {
+        return delegate.explain(sql);
+    }
+
+    // -------------------------------------- cache ------------------------------------------
+
+    /**
+     * 使引用了指定语义模型的缓存结果失效
+     */
+    public void invalidateSemanticModels(@NonNull Collection<String> semanticModelNames) {
+        cache.invalidateSemanticModels(semanticModelNames);
+    }
+
+    private record SqlBinding(Set<String> semanticModels, Duration ttl) {
+    }
+}
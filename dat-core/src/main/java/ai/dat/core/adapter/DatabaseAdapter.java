@@ -2,12 +2,16 @@ package ai.dat.core.adapter;
 
 import ai.dat.core.adapter.data.AnsiSqlType;
 import ai.dat.core.adapter.data.ColumnMetadata;
+import ai.dat.core.adapter.data.QueryPlan;
 import ai.dat.core.adapter.data.Table;
 import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.CancellationToken;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * 数据库适配器接口类
@@ -24,6 +28,41 @@ public interface DatabaseAdapter {
 
     List<Map<String, Object>> executeQuery(String sql) throws SQLException;
 
+    /**
+     * 执行查询，超时或取消时中止正在执行的语句
+     *
+     * @param sql               方言SQL查询
+     * @param timeout           查询超时，null或0表示不限制
+     * @param cancellationToken 取消令牌
+     */
+    default List<Map<String, Object>> executeQuery(String sql, Duration timeout,
+                                                   CancellationToken cancellationToken) throws SQLException {
+        if (cancellationToken.isCancelled()) {
+            throw new SQLException("The query was cancelled: " + cancellationToken.getReason(), "57014");
+        }
+        return executeQuery(sql);
+    }
+
+    /**
+     * 流式执行查询：逐行处理，不在内存中保留整个结果集（如抽取大表）
+     *
+     * @param sql        方言SQL查询
+     * @param rowHandler 行处理
+     */
+    default void streamQuery(String sql, RowHandler rowHandler) throws SQLException {
+        for (Map<String, Object> row : executeQuery(sql)) {
+            rowHandler.handle(row);
+        }
+    }
+
+    /**
+     * 流式查询的行处理
+     */
+    @FunctionalInterface
+    interface RowHandler {
+        void handle(Map<String, Object> row) throws SQLException;
+    }
+
     List<ColumnMetadata> getColumnMetadata(String sql) throws SQLException;
 
     default AnsiSqlType toAnsiSqlType(int columnType, String columnTypeName, int precision, int scale) {
@@ -36,4 +75,65 @@ public interface DatabaseAdapter {
 
     void initTable(Table table, List<List<String>> data) throws SQLException;
 
+    // -------------------------------------- rollup ------------------------------------------
+
+    /**
+     * 将查询结果物化为表（已存在则先删除）
+     *
+     * @param tableName 表名
+     * @param sql       方言SQL查询
+     * @return 物化的行数
+     */
+    default long createTableAs(String tableName, String sql) throws SQLException {
+        throw new UnsupportedOperationException(
+                getClass().getSimpleName() + " does not support materializing the query result into a table");
+    }
+
+    // -------------------------------------- acceleration ------------------------------------------
+
+    /**
+     * 向已存在的表追加数据
+     *
+     * @param table 表（列的顺序与数据一致）
+     * @param data  数据
+     */
+    default void appendTable(Table table, List<List<String>> data) throws SQLException {
+        throw new UnsupportedOperationException(
+                getClass().getSimpleName() + " does not support appending data to a table");
+    }
+
+    /**
+     * 执行DDL/DML语句
+     *
+     * @param sql 方言SQL语句
+     * @return 影响的行数
+     */
+    default long executeUpdate(String sql) throws SQLException {
+        throw new UnsupportedOperationException(
+                getClass().getSimpleName() + " does not support executing update statements");
+    }
+
+    /**
+     * 在一个事务中依次执行DDL/DML语句，任一语句失败时回滚全部语句
+     *
+     * @param sqls 方言SQL语句
+     * @return 影响的总行数
+     */
+    default long executeUpdates(List<String> sqls) throws SQLException {
+        throw new UnsupportedOperationException(
+                getClass().getSimpleName() + " does not support executing update statements in a transaction");
+    }
+
+    // -------------------------------------- cost guard ------------------------------------------
+
+    /**
+     * 使用数据库的EXPLAIN估算查询的行数与代价（不执行查询）
+     *
+     * @param sql 方言SQL查询
+     * @return 查询计划估算，数据库不支持时为空
+     */
+    default Optional<QueryPlan> explain(String sql) throws SQLException {
+        return Optional.empty();
+    }
+
 }
\ No newline at end of file
@@ -3,10 +3,18 @@ package ai.dat.core.adapter;
 import ai.dat.core.adapter.data.AnsiSqlType;
 import ai.dat.core.adapter.data.Column;
 import ai.dat.core.adapter.data.ColumnMetadata;
+import ai.dat.core.adapter.data.QueryPlan;
 import ai.dat.core.adapter.data.Table;
+import ai.dat.core.metrics.DatMetrics;
+import ai.dat.core.semantic.RollupRegistry;
 import ai.dat.core.semantic.SemanticSqlConverter;
 import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.tracing.DatTracing;
+import ai.dat.core.utils.CancellationToken;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.sql.parser.SqlParseException;
 import org.apache.commons.lang3.StringUtils;
@@ -14,10 +22,17 @@ import org.apache.commons.lang3.StringUtils;
 import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.*;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @Author JunjieM
@@ -26,9 +41,38 @@ import java.util.Map;
 @Slf4j
 public abstract class GenericSqlDatabaseAdapter implements DatabaseAdapter {
 
+    /**
+     * 查询超时的兜底调度：部分驱动不支持 Statement.setQueryTimeout，超时后主动 Statement.cancel
+     */
+    private static final ScheduledExecutorService QUERY_TIMEOUT_SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "dat-query-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    protected static final int STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * 物化查询结果时临时表名的后缀
+     */
+    protected static final String STAGING_TABLE_SUFFIX = "__staging";
+
     protected final SemanticAdapter semanticAdapter;
     protected final DataSource dataSource;
 
+    /**
+     * 是否将谓词和LIMIT下推到语义模型子查询
+     */
+    @Setter
+    protected boolean pushdown = true;
+
+    /**
+     * 已物化的rollup状态，设置后满足条件的聚合查询会路由到rollup表
+     */
+    @Setter
+    protected RollupRegistry rollupRegistry;
+
     public GenericSqlDatabaseAdapter(SemanticAdapter semanticAdapter, DataSource dataSource) {
         this.semanticAdapter = semanticAdapter;
         this.dataSource = dataSource;
@@ -43,38 +87,162 @@ public abstract class GenericSqlDatabaseAdapter implements DatabaseAdapter {
 
     @Override
     public String generateSql(@NonNull String semanticSql, @NonNull List<SemanticModel> semanticModels) {
-        SemanticSqlConverter converter = new SemanticSqlConverter(semanticAdapter, semanticModels);
+        SemanticSqlConverter converter =
+                new SemanticSqlConverter(semanticAdapter, semanticModels, pushdown, rollupRegistry);
+        Timer.Sample sample = Timer.start(DatMetrics.registry());
+        String outcome = DatMetrics.ERROR;
         try {
-            return converter.convert(semanticSql);
+            String sql = DatTracing.trace("DatabaseAdapter.generateSql", () -> converter.convert(semanticSql));
+            outcome = DatMetrics.SUCCESS;
+            return sql;
         } catch (SqlParseException e) {
             throw new RuntimeException("Semantic SQL to dialect SQL failed: " + e.getMessage(), e);
+        } finally {
+            sample.stop(DatMetrics.timer(DatMetrics.SEMANTIC_TO_SQL, "outcome", outcome));
         }
     }
 
     @Override
     public List<Map<String, Object>> executeQuery(String sql) throws SQLException {
+        return executeQuery(sql, null, CancellationToken.NONE);
+    }
+
+    @Override
+    public List<Map<String, Object>> executeQuery(String sql, Duration timeout,
+                                                  @NonNull CancellationToken cancellationToken) throws SQLException {
+        Span span = DatTracing.startSpan("DatabaseAdapter.executeQuery")
+                .setAttribute(DatTracing.ADAPTER, getClass().getSimpleName());
+        return DatTracing.trace(span, () -> doExecuteQuery(sql, timeout, cancellationToken));
+    }
+
+    private List<Map<String, Object>> doExecuteQuery(String sql, Duration timeout,
+                                                     CancellationToken cancellationToken) throws SQLException {
+        // 已取消时不再执行（部分驱动在语句执行前调用 Statement.cancel 无效）
+        checkInterrupted(timeout, false, cancellationToken, null);
+        boolean hasTimeout = timeout != null && !timeout.isNegative() && !timeout.isZero();
+        AtomicBoolean timedOut = new AtomicBoolean(false);
         List<Map<String, Object>> results = new ArrayList<>();
+        String adapter = getClass().getSimpleName();
+        Timer.Sample sample = Timer.start(DatMetrics.registry());
+        String outcome = DatMetrics.ERROR;
+        long bytes = 0;
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            ResultSetMetaData md = rs.getMetaData();
-            int columnCount = md.getColumnCount();
-            while (rs.next()) {
-                Map<String, Object> row = new LinkedHashMap<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    String columnName = md.getColumnLabel(i);
-                    Object value = rs.getObject(i);
-                    value = handleSpecificTypes(value, md.getColumnType(i));
-                    row.put(columnName, value);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            ScheduledFuture<?> timeoutTask = null;
+            if (hasTimeout) {
+                setQueryTimeout(stmt, timeout);
+                timeoutTask = QUERY_TIMEOUT_SCHEDULER.schedule(() -> {
+                    timedOut.set(true);
+                    cancelStatement(stmt);
+                }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            try (CancellationToken.Registration ignored = cancellationToken.onCancel(() -> cancelStatement(stmt));
+                 ResultSet rs = stmt.executeQuery()) {
+                ResultSetMetaData md = rs.getMetaData();
+                int columnCount = md.getColumnCount();
+                while (rs.next()) {
+                    if (cancellationToken.isCancelled() || timedOut.get()) {
+                        break;
+                    }
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= columnCount; i++) {
+                        String columnName = md.getColumnLabel(i);
+                        Object value = rs.getObject(i);
+                        value = handleSpecificTypes(value, md.getColumnType(i));
+                        row.put(columnName, value);
+                        bytes += DatMetrics.estimateSize(value);
+                    }
+                    results.add(row);
+                }
+            } finally {
+                if (timeoutTask != null) {
+                    timeoutTask.cancel(false);
                 }
-                results.add(row);
             }
+            outcome = DatMetrics.SUCCESS;
+        } catch (SQLException e) {
+            checkInterrupted(timeout, timedOut.get(), cancellationToken, e);
+            throw e;
+        } finally {
+            if (cancellationToken.isCancelled() || timedOut.get()) {
+                outcome = DatMetrics.INTERRUPTED;
+            }
+            sample.stop(DatMetrics.timer(DatMetrics.JDBC_QUERY, "adapter", adapter, "outcome", outcome));
+            DatMetrics.summary(DatMetrics.JDBC_ROWS, "rows", "adapter", adapter).record(results.size());
+            DatMetrics.summary(DatMetrics.JDBC_BYTES, "bytes", "adapter", adapter).record(bytes);
+            Span.current().setAttribute(DatTracing.ROWS, (long) results.size());
         }
+        checkInterrupted(timeout, timedOut.get(), cancellationToken, null);
         return results;
     }
 
+    private void setQueryTimeout(Statement stmt, Duration timeout) {
+        try {
+            stmt.setQueryTimeout((int) Math.max(1, (timeout.toMillis() + 999) / 1000));
+        } catch (SQLException e) {
+            log.debug("The driver does not support the query timeout, fall back to cancel the statement: {}",
+                    e.getMessage());
+        }
+    }
+
+    private void cancelStatement(Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            log.warn("Failed to cancel the statement: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 查询被超时或取消中止时，统一抛出对应的异常（驱动抛出的异常信息各不相同）
+     */
+    private void checkInterrupted(Duration timeout, boolean timedOut, CancellationToken cancellationToken,
+                                  SQLException cause) throws SQLException {
+        if (cancellationToken.isCancelled()) {
+            throw new SQLException("The query was cancelled: " + cancellationToken.getReason(), "57014", cause);
+        }
+        if (timedOut || (timeout != null && cause instanceof SQLTimeoutException)) {
+            throw new SQLTimeoutException("The query timed out after " + timeout.toMillis() + " ms",
+                    "57014", cause);
+        }
+    }
+
     protected abstract Object handleSpecificTypes(Object value, int columnType);
 
+    @Override
+    public void streamQuery(String sql, RowHandler rowHandler) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            // 部分驱动（如PostgreSQL）只有在事务中才按fetchSize分批读取，否则一次读取全部结果
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(streamFetchSize());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    ResultSetMetaData md = rs.getMetaData();
+                    int columnCount = md.getColumnCount();
+                    while (rs.next()) {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int i = 1; i <= columnCount; i++) {
+                            row.put(md.getColumnLabel(i), handleSpecificTypes(rs.getObject(i), md.getColumnType(i)));
+                        }
+                        rowHandler.handle(row);
+                    }
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * 流式查询每次从数据库读取的行数
+     */
+    protected int streamFetchSize() {
+        return STREAM_FETCH_SIZE;
+    }
+
     @Override
     public List<ColumnMetadata> getColumnMetadata(String sql) throws SQLException {
         List<ColumnMetadata> columns = new ArrayList<>();
@@ -304,6 +472,132 @@ public abstract class GenericSqlDatabaseAdapter implements DatabaseAdapter {
      */
     protected abstract int toColumnType(String dataType);
 
+    // -------------------------------------- rollup ------------------------------------------
+
+    /**
+     * 先物化到临时表，成功后再替换目标表：查询失败时目标表保持不变，临时表被删除
+     */
+    @Override
+    public long createTableAs(String tableName, String sql) throws SQLException {
+        String stagingTableName = tableName + STAGING_TABLE_SUFFIX;
+        try (Connection conn = dataSource.getConnection()) {
+            dropTableIfExists(conn, stagingTableName);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(getCreateTableAsSql(stagingTableName, sql));
+                }
+                long rowCount;
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + quoteIdentifier(stagingTableName))) {
+                    rowCount = rs.next() ? rs.getLong(1) : 0L;
+                }
+                replaceTable(conn, stagingTableName, tableName);
+                return rowCount;
+            } catch (SQLException e) {
+                dropTableIfExists(conn, stagingTableName);
+                throw e;
+            }
+        }
+    }
+
+    protected String getCreateTableAsSql(String tableName, String sql) {
+        return String.format("CREATE TABLE %s AS %s", quoteIdentifier(tableName), sql);
+    }
+
+    /**
+     * 在一个事务中删除目标表并将临时表重命名为目标表，DDL支持事务的数据库（如PostgreSQL、DuckDB）
+     * 原子地完成替换，读取方不会看到目标表缺失
+     */
+    protected void replaceTable(Connection conn, String stagingTableName, String tableName) throws SQLException {
+        executeInTransaction(conn, List.of(getDropTableSqlIfExists(tableName),
+                getRenameTableSql(stagingTableName, tableName)));
+    }
+
+    protected String getRenameTableSql(String tableName, String newTableName) {
+        return String.format("ALTER TABLE %s RENAME TO %s",
+                quoteIdentifier(tableName), quoteIdentifier(newTableName));
+    }
+
+    // -------------------------------------- acceleration ------------------------------------------
+
+    @Override
+    public void appendTable(Table table, List<List<String>> data) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            insertTable(conn, table, data);
+        }
+    }
+
+    @Override
+    public long executeUpdate(String sql) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate(sql);
+        }
+    }
+
+    @Override
+    public long executeUpdates(List<String> sqls) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return executeInTransaction(conn, sqls);
+        }
+    }
+
+    protected long executeInTransaction(Connection conn, List<String> sqls) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            long count = 0;
+            for (String sql : sqls) {
+                count += Math.max(0, stmt.executeUpdate(sql));
+            }
+            conn.commit();
+            return count;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // -------------------------------------- cost guard ------------------------------------------
+
+    @Override
+    public Optional<QueryPlan> explain(String sql) throws SQLException {
+        String explainSql = getExplainSql(sql);
+        if (explainSql == null) {
+            return Optional.empty();
+        }
+        List<String> lines = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(explainSql)) {
+            int columnCount = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                List<String> values = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    values.add(rs.getString(i));
+                }
+                lines.add(String.join("\t", values));
+            }
+        }
+        return Optional.ofNullable(parseQueryPlan(String.join("\n", lines)));
+    }
+
+    /**
+     * 获取查询计划的EXPLAIN语句，返回null表示不支持
+     */
+    protected String getExplainSql(String sql) {
+        return null;
+    }
+
+    /**
+     * 解析EXPLAIN的结果（多行时以换行分隔，多列时以制表符分隔），无法解析时返回null
+     */
+    protected QueryPlan parseQueryPlan(String plan) {
+        return null;
+    }
+
     protected String quoteIdentifier(String identifier) {
         return semanticAdapter.quoteIdentifier(identifier);
     }
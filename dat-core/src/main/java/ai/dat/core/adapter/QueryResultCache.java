@@ -0,0 +1,369 @@
+package ai.dat.core.adapter;
+
+import ai.dat.core.utils.CancellationToken;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 方言SQL查询结果缓存：按连接标识共享，按字节数限制容量（LRU淘汰），
+ * 支持按引用的语义模型失效，并发的相同查询只访问一次数据库（single-flight）。
+ * <p>
+ * 失效时递增失效版本（整个缓存或语义模型），执行期间发生失效的查询结果不写入缓存，
+ * 避免失效前开始的查询在失效后写回旧数据
+ *
+ * @Author JunjieM
+ * @Date 2025/10/22
+ */
+@Slf4j
+public class QueryResultCache {
+
+    private static final Map<String, QueryResultCache> CACHES = new ConcurrentHashMap<>();
+
+    @Getter
+    private final String name;
+    @Getter
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<List<Map<String, Object>>>> inflight = new ConcurrentHashMap<>();
+    private long usedBytes = 0L;
+
+    /**
+     * 失效版本：整个缓存的失效版本与各语义模型的失效版本，由 entries 的锁保护
+     */
+    private long epoch = 0L;
+    private final Map<String, Long> semanticModelEpochs = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong collapsed = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    @FunctionalInterface
+    public interface Query {
+        List<Map<String, Object>> execute() throws SQLException;
+    }
+
+    public QueryResultCache(@NonNull String name, long maxBytes) {
+        Preconditions.checkArgument(maxBytes > 0, "maxBytes must be greater than 0");
+        this.name = name;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 按连接标识获取进程内共享的缓存，不存在或容量发生变化时创建新的实例
+     */
+    public static QueryResultCache getOrCreate(@NonNull String connectionId, long maxBytes) {
+        return CACHES.compute(connectionId, (k, v) ->
+                v != null && v.maxBytes == maxBytes ? v : new QueryResultCache(connectionId, maxBytes));
+    }
+
+    /**
+     * 使进程内所有缓存中引用了指定语义模型的结果失效
+     */
+    public static void invalidateAllSemanticModels(@NonNull Collection<String> semanticModelNames) {
+        CACHES.values().forEach(cache -> cache.invalidateSemanticModels(semanticModelNames));
+    }
+
+    /**
+     * 使进程内全部缓存失效
+     */
+    public static void invalidateAll() {
+        CACHES.values().forEach(QueryResultCache::clear);
+    }
+
+    public static List<Map<String, Object>> allMetrics() {
+        return CACHES.values().stream()
+                .sorted(Comparator.comparing(QueryResultCache::getName))
+                .map(QueryResultCache::metrics)
+                .toList();
+    }
+
+    /**
+     * SQL归一化：去除首尾空白与末尾分号，合并字符串字面量和引号标识符以外的连续空白
+     * （不改变大小写，字面量和引号标识符内的内容保持原样）
+     */
+    public static String normalize(@NonNull String sql) {
+        String trimmed = sql.trim();
+        while (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        char quote = 0;
+        boolean whitespace = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (quote != 0) {
+                // 引号内（含 '' 转义）原样保留
+                if (c == quote) {
+                    quote = 0;
+                }
+                normalized.append(c);
+            } else if (Character.isWhitespace(c)) {
+                whitespace = true;
+            } else {
+                if (whitespace) {
+                    normalized.append(' ');
+                    whitespace = false;
+                }
+                if (c == '\'' || c == '"' || c == '`') {
+                    quote = c;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * 读取缓存，未命中则执行查询并写入缓存；同一SQL并发执行时只有一个调用真正访问数据库
+     *
+     * @param sql            方言SQL
+     * @param ttl            有效期，为0时不缓存（但仍合并并发请求）
+     * @param semanticModels 引用的语义模型名称，用于失效
+     * @param query          查询
+     * @return 查询结果（只读）
+     */
+    public List<Map<String, Object>> get(@NonNull String sql, @NonNull Duration ttl,
+                                         @NonNull Set<String> semanticModels,
+                                         @NonNull Query query) throws SQLException {
+        return get(sql, ttl, semanticModels, null, CancellationToken.NONE, query);
+    }
+
+    /**
+     * 读取缓存，未命中则执行查询并写入缓存；同一SQL并发执行时只有一个调用（leader）真正访问数据库，
+     * 其他调用（follower）等待其结果，等待受各自的超时和取消令牌约束。
+     * leader 被其自身的取消令牌中止时，等待中的 follower 重新竞争执行，不会因此失败
+     *
+     * @param sql               方言SQL
+     * @param ttl               有效期，为0时不缓存（但仍合并并发请求）
+     * @param semanticModels    引用的语义模型名称，用于失效
+     * @param timeout           等待合并查询结果的超时，null或0表示不限制
+     * @param cancellationToken 取消令牌
+     * @param query             查询
+     * @return 查询结果（只读）
+     */
+    public List<Map<String, Object>> get(@NonNull String sql, @NonNull Duration ttl,
+                                         @NonNull Set<String> semanticModels,
+                                         Duration timeout, @NonNull CancellationToken cancellationToken,
+                                         @NonNull Query query) throws SQLException {
+        String key = normalize(sql);
+        long deadline = timeout == null || timeout.isZero() || timeout.isNegative()
+                ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+        boolean counted = false;
+        while (true) {
+            long now = System.currentTimeMillis();
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    if (now < entry.expiresAt) {
+                        hits.incrementAndGet();
+                        return entry.data;
+                    }
+                    remove(key);
+                }
+            }
+            if (!counted) {
+                misses.incrementAndGet();
+                counted = true;
+            }
+
+            CompletableFuture<List<Map<String, Object>>> future = new CompletableFuture<>();
+            CompletableFuture<List<Map<String, Object>>> existing = inflight.putIfAbsent(key, future);
+            if (existing != null) {
+                collapsed.incrementAndGet();
+                Optional<List<Map<String, Object>>> data = await(existing, deadline, timeout, cancellationToken);
+                if (data.isPresent()) {
+                    return data.get();
+                }
+                // leader 被取消，重新竞争执行
+                continue;
+            }
+            long startEpoch = epoch(semanticModels);
+            try {
+                List<Map<String, Object>> data = Collections.unmodifiableList(query.execute());
+                if (!ttl.isZero() && !ttl.isNegative()) {
+                    put(key, data, semanticModels, startEpoch, System.currentTimeMillis() + ttl.toMillis());
+                }
+                future.complete(data);
+                return data;
+            } catch (SQLException | RuntimeException e) {
+                future.completeExceptionally(cancellationToken.isCancelled() ? new LeaderCancelledException() : e);
+                throw e;
+            } finally {
+                inflight.remove(key, future);
+            }
+        }
+    }
+
+    /**
+     * follower 等待 leader 的结果，leader 被取消时返回空
+     */
+    private Optional<List<Map<String, Object>>> await(CompletableFuture<List<Map<String, Object>>> future,
+                                                      long deadline, Duration timeout,
+                                                      CancellationToken cancellationToken) throws SQLException {
+        // 只取消自己的等待，不影响 leader 和其他 follower
+        CompletableFuture<List<Map<String, Object>>> waiter = future.thenApply(Function.identity());
+        try (CancellationToken.Registration ignored = cancellationToken.onCancel(() -> waiter.cancel(true))) {
+            long remaining = deadline - System.nanoTime();
+            if (deadline == Long.MAX_VALUE) {
+                return Optional.of(waiter.get());
+            }
+            return Optional.of(waiter.get(Math.max(0L, remaining), TimeUnit.NANOSECONDS));
+        } catch (CancellationException e) {
+            throw new SQLException("The query was cancelled: " + cancellationToken.getReason(), "57014");
+        } catch (TimeoutException e) {
+            throw new SQLTimeoutException("The query timed out after " + timeout.toMillis() + " ms", "57014");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the query result", "57014", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof LeaderCancelledException) {
+                return Optional.empty();
+            }
+            if (cause instanceof SQLException sqlException) {
+                throw new SQLException(sqlException.getMessage(), sqlException.getSQLState(), sqlException);
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    /**
+     * 查询引用的语义模型的失效版本：整个缓存与各语义模型的版本都只增不减，
+     * 任意一次相关的失效都会使其变大
+     */
+    private long epoch(Set<String> semanticModels) {
+        synchronized (entries) {
+            long sum = epoch;
+            for (String semanticModel : semanticModels) {
+                sum += semanticModelEpochs.getOrDefault(semanticModel, 0L);
+            }
+            return sum;
+        }
+    }
+
+    private void put(String key, List<Map<String, Object>> data, Set<String> semanticModels,
+                     long startEpoch, long expiresAt) {
+        long bytes = estimateBytes(key, data);
+        if (bytes > maxBytes) {
+            log.debug("Skip caching the query result of {} bytes, exceeds the cache size {} bytes", bytes, maxBytes);
+            return;
+        }
+        synchronized (entries) {
+            if (epoch(semanticModels) != startEpoch) {
+                log.debug("Skip caching the query result, the cache was invalidated during the query");
+                return;
+            }
+            remove(key);
+            entries.put(key, new Entry(data, Set.copyOf(semanticModels), bytes, expiresAt));
+            usedBytes += bytes;
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, Entry> eldest = iterator.next();
+                usedBytes -= eldest.getValue().bytes;
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.bytes;
+        }
+    }
+
+    public void invalidateSemanticModels(@NonNull Collection<String> semanticModelNames) {
+        synchronized (entries) {
+            semanticModelNames.forEach(name -> semanticModelEpochs.merge(name, 1L, Long::sum));
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next().getValue();
+                if (entry.semanticModels.stream().anyMatch(semanticModelNames::contains)) {
+                    usedBytes -= entry.bytes;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            epoch++;
+            entries.clear();
+            usedBytes = 0L;
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        long total = hits.get() + misses.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("name", name);
+        synchronized (entries) {
+            metrics.put("size", entries.size());
+            metrics.put("used_bytes", usedBytes);
+        }
+        metrics.put("max_bytes", maxBytes);
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("collapsed", collapsed.get());
+        metrics.put("evictions", evictions.get());
+        metrics.put("hit_ratio", total == 0 ? 0D : (double) hits.get() / total);
+        return metrics;
+    }
+
+    /**
+     * 粗略估算结果集占用的堆内存字节数
+     */
+    private static long estimateBytes(String key, List<Map<String, Object>> data) {
+        long bytes = 64L + 2L * key.length();
+        for (Map<String, Object> row : data) {
+            bytes += 48L;
+            for (Map.Entry<String, Object> e : row.entrySet()) {
+                bytes += 32L + 2L * e.getKey().length() + estimateBytes(e.getValue());
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0L;
+        } else if (value instanceof CharSequence cs) {
+            return 40L + 2L * cs.length();
+        } else if (value instanceof byte[] b) {
+            return 16L + b.length;
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return 24L;
+        }
+        return 64L;
+    }
+
+    /**
+     * leader 被其自身的取消令牌中止，follower 需要重新执行
+     */
+    private static class LeaderCancelledException extends RuntimeException {
+        LeaderCancelledException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private record Entry(List<Map<String, Object>> data, Set<String> semanticModels,
+                         long bytes, long expiresAt) {
+    }
+}
@@ -0,0 +1,31 @@
+package ai.dat.core.adapter.data;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 数据库EXPLAIN给出的查询计划估算
+ *
+ * @Author JunjieM
+ * @Date 2025/10/27
+ */
+@Data
+@Builder
+public class QueryPlan {
+
+    /**
+     * 估算的行数（计划中各节点估算行数的最大值）
+     */
+    private double estimatedRows;
+
+    /**
+     * 估算的代价（数据库自身的代价单位），数据库不提供时为null
+     */
+    private Double estimatedCost;
+
+    /**
+     * 原始的查询计划
+     */
+    private String plan;
+
+}
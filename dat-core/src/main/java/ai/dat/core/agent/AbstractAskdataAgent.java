@@ -5,19 +5,25 @@ import ai.dat.core.agent.data.StreamAction;
 import ai.dat.core.agent.data.StreamEvent;
 import ai.dat.core.contentstore.ContentStore;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
+import ai.dat.core.exception.QueryCostExceededException;
 import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.tracing.DatTracing;
+import ai.dat.core.utils.CancellationToken;
+import ai.dat.core.utils.ExecutorUtil;
+import ai.dat.core.utils.ExecutorUtil.ExecutorMode;
+import com.google.common.base.Preconditions;
+import io.opentelemetry.api.trace.Span;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.RejectedExecutionException;
 
 import static ai.dat.core.agent.DefaultEventOptions.*;
 
@@ -28,16 +34,30 @@ import static ai.dat.core.agent.DefaultEventOptions.*;
 @Slf4j
 public abstract class AbstractAskdataAgent implements AskdataAgent {
 
-    private static final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
-        private final AtomicInteger id = new AtomicInteger(0);
+    private static final String THREAD_NAME_PREFIX = "dat-agent-";
 
-        @Override
-        public Thread newThread(Runnable r) {
-            Thread thread = new Thread(r);
-            thread.setName("dat-agent-" + id.addAndGet(1));
-            return thread;
+    public static final int DEFAULT_MAX_THREADS = 256;
+
+    private static ExecutorMode executorMode = ExecutorMode.PLATFORM;
+    private static int executorMaxThreads = DEFAULT_MAX_THREADS;
+    private static volatile ExecutorService executor =
+            ExecutorUtil.newExecutor(THREAD_NAME_PREFIX, executorMode, executorMaxThreads);
+
+    /**
+     * 配置进程内所有Agent共享的执行线程池，配置未变化时不做任何操作，
+     * 旧线程池中在途的任务会继续执行完毕
+     */
+    public static synchronized void configureExecutor(@NonNull ExecutorMode mode, int maxThreads) {
+        Preconditions.checkArgument(maxThreads > 0, "maxThreads must be greater than 0");
+        if (executorMode == mode && executorMaxThreads == maxThreads) {
+            return;
         }
-    });
+        ExecutorService previous = executor;
+        executor = ExecutorUtil.newExecutor(THREAD_NAME_PREFIX, mode, maxThreads);
+        executorMode = mode;
+        executorMaxThreads = maxThreads;
+        previous.shutdown();
+    }
 
     protected final StreamAction action = new StreamAction();
 
@@ -45,6 +65,16 @@ public abstract class AbstractAskdataAgent implements AskdataAgent {
     protected final DatabaseAdapter databaseAdapter;
     protected final Map<String, Object> variables;
 
+    /**
+     * 查询代价守卫，为null时不检查
+     */
+    private QueryCostGuard queryCostGuard;
+
+    /**
+     * 查询超时，为null时不限制
+     */
+    private Duration queryTimeout;
+
     public AbstractAskdataAgent(@NonNull ContentStore contentStore,
                                 @NonNull DatabaseAdapter databaseAdapter,
                                 Map<String, Object> variables) {
@@ -59,6 +89,16 @@ public abstract class AbstractAskdataAgent implements AskdataAgent {
         this(contentStore, databaseAdapter, null);
     }
 
+    protected void setQueryCostGuard(QueryCostGuard queryCostGuard) {
+        this.queryCostGuard = queryCostGuard;
+    }
+
+    protected void setQueryTimeout(Duration queryTimeout) {
+        Preconditions.checkArgument(queryTimeout == null || !queryTimeout.isNegative(),
+                "queryTimeout cannot be negative");
+        this.queryTimeout = queryTimeout;
+    }
+
     @Override
     public ContentStore contentStore() {
         return contentStore;
@@ -71,19 +111,43 @@ public abstract class AbstractAskdataAgent implements AskdataAgent {
 
     public StreamAction ask(@NonNull String question, @NonNull List<QuestionSqlPair> histories) {
         action.start();
-        executor.execute(() -> {
-            try {
-                run(question, histories);
-            } catch (Exception e) {
-                log.error("Ask data exception", e);
-                action.add(StreamEvent.from(EXCEPTION_EVENT, MESSAGE, e.getMessage()));
-            } finally {
-                action.finished();
-            }
-        });
+        try {
+            CancellationToken cancellationToken = action.getCancellationToken();
+            executor.execute(() -> {
+                // 取消时中断执行线程，释放阻塞在LLM请求上的线程
+                Thread worker = Thread.currentThread();
+                Span span = DatTracing.startSpan("AskdataAgent.run")
+                        .setAttribute(DatTracing.AGENT, getClass().getSimpleName());
+                try (CancellationToken.Registration ignored = cancellationToken.onCancel(worker::interrupt)) {
+                    DatTracing.trace(span, () -> {
+                        run(question, histories);
+                        return null;
+                    });
+                } catch (Exception e) {
+                    if (cancellationToken.isCancelled()) {
+                        log.info("Ask data cancelled: {}", cancellationToken.getReason());
+                    } else {
+                        log.error("Ask data exception", e);
+                        action.add(StreamEvent.from(EXCEPTION_EVENT, MESSAGE, e.getMessage()));
+                    }
+                } finally {
+                    Thread.interrupted(); // 清除中断标记，避免影响线程池中的后续任务
+                    action.finished();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.error("Ask data rejected", e);
+            action.add(StreamEvent.from(EXCEPTION_EVENT, MESSAGE, "Ask data rejected: " + e.getMessage()));
+            action.finished();
+        }
         return action;
     }
 
+    @Override
+    public void reset() {
+        action.reset();
+    }
+
     protected abstract void run(String question, List<QuestionSqlPair> histories);
 
     protected List<Map<String, Object>> executeQuery(@NonNull String semanticSql,
@@ -91,14 +155,15 @@ public abstract class AbstractAskdataAgent implements AskdataAgent {
         String sql;
         try {
             sql = databaseAdapter.generateSql(semanticSql, semanticModels);
-            log.info("dialectSql: " + sql);
+            log.info("dialectSql: {}", sql);
             action.add(StreamEvent.from(SEMANTIC_TO_SQL_EVENT, SQL, sql));
         } catch (Exception e) {
             action.add(StreamEvent.from(SEMANTIC_TO_SQL_EVENT, ERROR, e.getMessage()));
             throw new RuntimeException(e);
         }
+        sql = guardQuery(sql);
         try {
-            List<Map<String, Object>> results = databaseAdapter.executeQuery(sql);
+            List<Map<String, Object>> results = executeDialectQuery(sql);
             action.add(StreamEvent.from(SQL_EXECUTE_EVENT, DATA, results));
             return results;
         } catch (SQLException e) {
@@ -106,4 +171,56 @@ public abstract class AbstractAskdataAgent implements AskdataAgent {
             throw new SQLException(e);
         }
     }
+
+    /**
+     * 执行方言SQL查询，应用Agent的查询超时，问数被取消时中止查询
+     */
+    protected List<Map<String, Object>> executeDialectQuery(@NonNull String sql) throws SQLException {
+        return databaseAdapter.executeQuery(sql, queryTimeout, action.getCancellationToken());
+    }
+
+    /**
+     * 执行前检查查询的估算行数与代价，超过阈值时发送代价守卫事件
+     *
+     * @param sql 方言SQL查询
+     * @return 实际执行的SQL（按LIMIT处理时为改写后的SQL）
+     * @throws QueryCostExceededException 拒绝执行或审批未通过
+     */
+    protected String guardQuery(@NonNull String sql) throws QueryCostExceededException {
+        if (queryCostGuard == null) {
+            return sql;
+        }
+        QueryCostGuard.Verdict verdict = queryCostGuard.check(databaseAdapter, sql);
+        if (verdict.decision() == QueryCostGuard.Decision.ALLOW) {
+            return sql;
+        }
+        log.info("Query cost guard {}: {}", verdict.decision(), verdict.reason());
+        StreamEvent event = StreamEvent.from(SQL_COST_GUARD_EVENT, DECISION, verdict.decision())
+                .set(ESTIMATED_ROWS, verdict.plan().getEstimatedRows())
+                .set(REASON, verdict.reason())
+                .set(SQL, verdict.sql());
+        if (verdict.plan().getEstimatedCost() != null) {
+            event.set(ESTIMATED_COST, verdict.plan().getEstimatedCost());
+        }
+        action.add(event);
+        return switch (verdict.decision()) {
+            case LIMIT -> verdict.sql();
+            case APPROVAL -> {
+                if (approveCostlyQuery(verdict)) {
+                    yield sql;
+                }
+                queryCostGuard.recordRejected();
+                throw new QueryCostExceededException(verdict.reason()
+                                                     + " The user did not approve the execution.");
+            }
+            default -> throw new QueryCostExceededException(verdict.reason());
+        };
+    }
+
+    /**
+     * 请求用户审批超过代价阈值的查询，默认不支持审批（视为拒绝），支持Human-in-the-loop的Agent可覆盖
+     */
+    protected boolean approveCostlyQuery(QueryCostGuard.Verdict verdict) {
+        return false;
+    }
 }
@@ -53,6 +53,16 @@ public abstract class AbstractHitlAskdataAgent extends AbstractAskdataAgent {
         userApprovalFuture.complete(approval);
     }
 
+    /**
+     * 丢弃上一个会话未消费的回复与审批
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        userResponseFuture = new CompletableFuture<>();
+        userApprovalFuture = new CompletableFuture<>();
+    }
+
     /**
      * wait user response
      *
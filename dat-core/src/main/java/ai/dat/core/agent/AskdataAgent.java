@@ -42,4 +42,11 @@ public interface AskdataAgent {
     default void userApproval(Boolean approval) {
         throw new UnsupportedFeatureException("Not supported yet.");
     }
+
+    /**
+     * 清空会话状态（对话记忆、未消费的事件与人机交互回复），
+     * Agent被新的会话复用前调用，不能在问数进行中调用
+     */
+    default void reset() {
+    }
 }
\ No newline at end of file
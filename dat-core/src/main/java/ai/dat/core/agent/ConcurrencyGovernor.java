@@ -0,0 +1,188 @@
+package ai.dat.core.agent;
+
+import ai.dat.core.exception.BusyException;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 并发准入控制：限制最大在途请求数，超出部分进入有界等待队列，
+ * 等待队列已满或等待超时则抛出 {@link BusyException} 快速失败
+ *
+ * @Author JunjieM
+ * @Date 2025/10/20
+ */
+public class ConcurrencyGovernor {
+
+    private static final Map<String, ConcurrencyGovernor> GOVERNORS = new ConcurrentHashMap<>();
+
+    @Getter
+    private final String name;
+    @Getter
+    private final int maxConcurrency;
+    @Getter
+    private final int maxQueueSize;
+    @Getter
+    private final Duration queueTimeout;
+
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicInteger queueDepth = new AtomicInteger(0);
+
+    private final AtomicLong admittedCount = new AtomicLong(0);
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+    private final AtomicLong timeoutCount = new AtomicLong(0);
+    private final AtomicLong totalWaitNanos = new AtomicLong(0);
+    private final AtomicLong maxWaitNanos = new AtomicLong(0);
+
+    public ConcurrencyGovernor(@NonNull String name, int maxConcurrency,
+                               int maxQueueSize, @NonNull Duration queueTimeout) {
+        Preconditions.checkArgument(maxConcurrency > 0,
+                "maxConcurrency must be greater than 0");
+        Preconditions.checkArgument(maxQueueSize >= 0,
+                "maxQueueSize must be greater than or equal to 0");
+        Preconditions.checkArgument(!queueTimeout.isNegative(),
+                "queueTimeout cannot be negative");
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueueSize = maxQueueSize;
+        this.queueTimeout = queueTimeout;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    /**
+     * 按名称获取进程内共享的准入控制器，不存在或配置发生变化时创建新的实例
+     */
+    public static ConcurrencyGovernor getOrCreate(@NonNull String name, int maxConcurrency,
+                                                  int maxQueueSize, @NonNull Duration queueTimeout) {
+        return GOVERNORS.compute(name, (k, v) -> {
+            if (v != null && v.maxConcurrency == maxConcurrency
+                && v.maxQueueSize == maxQueueSize && v.queueTimeout.equals(queueTimeout)) {
+                return v;
+            }
+            return new ConcurrencyGovernor(name, maxConcurrency, maxQueueSize, queueTimeout);
+        });
+    }
+
+    /**
+     * 所有共享准入控制器的指标快照
+     */
+    public static List<Map<String, Object>> allMetrics() {
+        return GOVERNORS.values().stream()
+                .sorted(Comparator.comparing(ConcurrencyGovernor::getName))
+                .map(ConcurrencyGovernor::metrics)
+                .toList();
+    }
+
+    /**
+     * 申请一个执行许可，必要时在有界队列中等待
+     *
+     * @return 执行许可，使用完毕必须释放
+     * @throws BusyException 等待队列已满或等待超时
+     */
+    public Permit acquire() {
+        if (permits.tryAcquire()) {
+            return admit(0L);
+        }
+        if (queueDepth.incrementAndGet() > maxQueueSize) {
+            queueDepth.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            throw new BusyException(String.format("'%s' is busy: %d in flight and %d queued, please retry later",
+                    name, inFlight.get(), maxQueueSize));
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new BusyException(String.format("'%s' is busy: waited more than %d ms for a free slot, " +
+                                                      "please retry later", name, queueTimeout.toMillis()));
+            }
+            return admit(System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusyException(String.format("'%s' interrupted while waiting for a free slot", name), e);
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+    }
+
+    /**
+     * 申请一个执行许可，不等待：没有空闲许可时立即拒绝，适用于不能阻塞调用线程的场景（如Servlet请求线程）
+     *
+     * @return 执行许可，使用完毕必须释放
+     * @throws BusyException 没有空闲许可
+     */
+    public Permit tryAcquire() {
+        if (permits.tryAcquire()) {
+            return admit(0L);
+        }
+        rejectedCount.incrementAndGet();
+        throw new BusyException(String.format("'%s' is busy: %d in flight, please retry later",
+                name, inFlight.get()));
+    }
+
+    private Permit admit(long waitNanos) {
+        inFlight.incrementAndGet();
+        admittedCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        return new Permit();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int queueDepth() {
+        return queueDepth.get();
+    }
+
+    public Map<String, Object> metrics() {
+        long admitted = admittedCount.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("name", name);
+        metrics.put("max_concurrency", maxConcurrency);
+        metrics.put("max_queue_size", maxQueueSize);
+        metrics.put("in_flight", inFlight.get());
+        metrics.put("queue_depth", queueDepth.get());
+        metrics.put("admitted", admitted);
+        metrics.put("rejected", rejectedCount.get());
+        metrics.put("timeout", timeoutCount.get());
+        metrics.put("avg_wait_ms", admitted == 0 ? 0D
+                : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get()) / 1000D / admitted);
+        metrics.put("max_wait_ms", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        return metrics;
+    }
+
+    /**
+     * 执行许可，重复释放是安全的
+     */
+    public class Permit implements AutoCloseable {
+
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit() {
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                permits.release();
+            }
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+}
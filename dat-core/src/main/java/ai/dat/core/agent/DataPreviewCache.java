@@ -0,0 +1,399 @@
+package ai.dat.core.agent;
+
+import ai.dat.core.adapter.DatabaseAdapter;
+import ai.dat.core.configuration.time.TimeUtils;
+import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.CancellationToken;
+import ai.dat.core.utils.MarkdownUtil;
+import ai.dat.core.utils.SemanticModelUtil;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.sql.parser.SqlParseException;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 语义模型数据预览缓存：预览结果（已渲染为Markdown表格）常驻内存，组装提示词时直接读取。
+ * <p>
+ * 未命中的预览并行查询，每个查询都有硬性超时，超时或失败的预览本次跳过；
+ * 已缓存的预览按刷新间隔在后台定期刷新，长时间未被使用的预览在刷新时移除。
+ * 同一进程内相同配置的Agent共享同一个缓存，缓存内按连接标识（数据库类型与连接配置的摘要）隔离，
+ * 不同连接的相同预览SQL互不可见，同一连接每次创建的数据库适配器共享预览；
+ * 没有连接标识时预览照常查询但不缓存。内容存储重建后需调用 {@link #invalidateAll()}。
+ *
+ * @Author JunjieM
+ * @Date 2025/10/23
+ */
+@Slf4j
+public class DataPreviewCache {
+
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(10);
+    public static final Duration DEFAULT_QUERY_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * 超过该刷新周期数未被使用的预览在刷新时移除
+     */
+    private static final int IDLE_REFRESH_CYCLES = 3;
+    private static final int LOADER_MAX_THREADS = 8;
+
+    private static final Map<String, DataPreviewCache> CACHES = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("dat-preview-refresh-"));
+    private static final ExecutorService LOADER = newLoader();
+
+    @Getter
+    private final String name;
+    @Getter
+    private final Duration refreshInterval;
+    @Getter
+    private final Duration queryTimeout;
+
+    /**
+     * 按连接标识隔离的预览
+     */
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> refreshTask;
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong timeouts = new AtomicLong(0);
+    private final AtomicLong failures = new AtomicLong(0);
+    private final AtomicLong refreshes = new AtomicLong(0);
+
+    public DataPreviewCache(@NonNull String name, @NonNull Duration refreshInterval,
+                            @NonNull Duration queryTimeout) {
+        Preconditions.checkArgument(!refreshInterval.isNegative(), "refreshInterval cannot be negative");
+        Preconditions.checkArgument(!queryTimeout.isNegative() && !queryTimeout.isZero(),
+                "queryTimeout must be greater than 0");
+        this.name = name;
+        this.refreshInterval = refreshInterval;
+        this.queryTimeout = queryTimeout;
+    }
+
+    /**
+     * 按名称获取进程内共享的缓存，不存在或配置发生变化时创建新的实例
+     */
+    public static DataPreviewCache getOrCreate(@NonNull String name, @NonNull Duration refreshInterval,
+                                               @NonNull Duration queryTimeout) {
+        return CACHES.compute(name, (k, v) -> {
+            if (v != null && v.refreshInterval.equals(refreshInterval) && v.queryTimeout.equals(queryTimeout)) {
+                return v;
+            }
+            if (v != null) {
+                v.stopRefresh();
+            }
+            DataPreviewCache cache = new DataPreviewCache(name, refreshInterval, queryTimeout);
+            cache.startRefresh();
+            return cache;
+        });
+    }
+
+    /**
+     * 按配置获取进程内共享的缓存，相同配置的Agent（不区分类型）共享同一个缓存
+     */
+    public static DataPreviewCache getOrCreate(@NonNull Duration refreshInterval, @NonNull Duration queryTimeout) {
+        String name = "refresh-interval=" + TimeUtils.formatWithHighestUnit(refreshInterval)
+                      + ",query-timeout=" + TimeUtils.formatWithHighestUnit(queryTimeout);
+        return getOrCreate(name, refreshInterval, queryTimeout);
+    }
+
+    /**
+     * 使用默认配置的进程内共享缓存
+     */
+    public static DataPreviewCache getDefault() {
+        return getOrCreate(DEFAULT_REFRESH_INTERVAL, DEFAULT_QUERY_TIMEOUT);
+    }
+
+    /**
+     * 使进程内全部缓存失效（内容存储重建后调用）
+     */
+    public static void invalidateAll() {
+        CACHES.values().forEach(DataPreviewCache::clear);
+    }
+
+    /**
+     * 所有共享缓存的指标快照
+     */
+    public static List<Map<String, Object>> allMetrics() {
+        return CACHES.values().stream()
+                .sorted(Comparator.comparing(DataPreviewCache::getName))
+                .map(DataPreviewCache::metrics)
+                .toList();
+    }
+
+    /**
+     * 获取语义模型的数据预览，未命中的预览并行查询并最多等待一个查询超时时间
+     *
+     * @param connectionId    连接标识，为null时不缓存
+     * @param databaseAdapter 数据库适配器
+     * @param semanticModels  已渲染（Jinja变量已替换）的语义模型
+     * @param limit           预览记录数
+     * @return 按语义模型顺序排列的数据预览（Markdown），无法获取的预览被跳过
+     */
+    public List<String> previews(String connectionId, @NonNull DatabaseAdapter databaseAdapter,
+                                 @NonNull List<SemanticModel> semanticModels, int limit) {
+        Preconditions.checkArgument(limit > 0, "limit must be greater than 0");
+        long now = System.currentTimeMillis();
+        Map<String, Entry> entries = connectionId == null ? new HashMap<>()
+                : connection(connectionId, databaseAdapter).entries;
+        List<Object> slots = new ArrayList<>(semanticModels.size());
+        for (SemanticModel semanticModel : semanticModels) {
+            String sql = previewSql(databaseAdapter, semanticModel, limit);
+            if (sql == null) {
+                continue;
+            }
+            Entry entry = entries.computeIfAbsent(sql,
+                    k -> new Entry(semanticModel.getName(), sql));
+            entry.accessedAt = now;
+            if (entry.preview != null) {
+                hits.incrementAndGet();
+                slots.add(entry.preview);
+            } else if (entry.failedAt > 0 && !refreshInterval.isZero()) {
+                // 失败的预览等待后台刷新重试，避免每个问题都访问数据库
+                misses.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                slots.add(load(databaseAdapter, entry));
+            }
+        }
+
+        long deadline = System.nanoTime() + queryTimeout.toNanos();
+        List<String> previews = new ArrayList<>(slots.size());
+        for (Object slot : slots) {
+            if (slot instanceof String preview) {
+                previews.add(preview);
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Future<String> future = (Future<String>) slot;
+            try {
+                String preview = future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (preview != null) {
+                    previews.add(preview);
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | CancellationException e) {
+                // 已在加载时记录
+            }
+        }
+        return previews;
+    }
+
+    /**
+     * 预热：在后台加载语义模型的数据预览，不等待结果；已缓存或等待重试的预览不再查询，
+     * 没有连接标识时不预热
+     */
+    public void warmUp(String connectionId, @NonNull DatabaseAdapter databaseAdapter,
+                       @NonNull List<SemanticModel> semanticModels, int limit) {
+        Preconditions.checkArgument(limit > 0, "limit must be greater than 0");
+        if (connectionId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, Entry> entries = connection(connectionId, databaseAdapter).entries;
+        for (SemanticModel semanticModel : semanticModels) {
+            String sql = previewSql(databaseAdapter, semanticModel, limit);
+            if (sql == null) {
+                continue;
+            }
+            Entry entry = entries.computeIfAbsent(sql,
+                    k -> new Entry(semanticModel.getName(), sql));
+            entry.accessedAt = now;
+            if (entry.preview == null && (entry.failedAt == 0 || refreshInterval.isZero())) {
+                scheduleTimeout(load(databaseAdapter, entry));
+            }
+        }
+    }
+
+    /**
+     * 后台刷新使用该连接最近一次使用的数据库适配器
+     */
+    private Connection connection(String connectionId, DatabaseAdapter databaseAdapter) {
+        Connection connection = connections.computeIfAbsent(connectionId, k -> new Connection());
+        connection.databaseAdapter = databaseAdapter;
+        return connection;
+    }
+
+    private static String previewSql(DatabaseAdapter databaseAdapter, SemanticModel semanticModel, int limit) {
+        String semanticModelSql;
+        try {
+            semanticModelSql = SemanticModelUtil.semanticModelSql(databaseAdapter.semanticAdapter(), semanticModel);
+        } catch (SqlParseException e) {
+            log.warn("Skip data preview for semantic model {} due to parse error. SQL template: {}",
+                    semanticModel.getName(), semanticModel.getModel(), e);
+            return null;
+        }
+        return "SELECT * FROM (" + semanticModelSql + ") AS __dat_semantic_model "
+               + databaseAdapter.limitClause(limit);
+    }
+
+    /**
+     * 加载预览，同一预览只有一个在途查询
+     */
+    private Future<String> load(DatabaseAdapter databaseAdapter, Entry entry) {
+        synchronized (entry) {
+            if (entry.loading != null && !entry.loading.isDone()) {
+                return entry.loading;
+            }
+            // 超时取消时同时中止数据库中正在执行的语句，而不只是中断加载线程
+            CancellationToken cancellationToken = new CancellationToken();
+            FutureTask<String> task = new FutureTask<>(() -> {
+                try {
+                    String preview = "#### " + entry.semanticModelName + "\n\n"
+                                     + MarkdownUtil.toTable(databaseAdapter.executeQuery(
+                                             entry.sql, queryTimeout, cancellationToken));
+                    entry.preview = preview;
+                    entry.failedAt = 0L;
+                    return preview;
+                } catch (Exception e) {
+                    if (Thread.currentThread().isInterrupted() || cancellationToken.isCancelled()) {
+                        throw e;
+                    }
+                    entry.failedAt = System.currentTimeMillis();
+                    failures.incrementAndGet();
+                    log.warn("Skip data preview for semantic model {} due to SQL error. SQL: {}",
+                            entry.semanticModelName, entry.sql, e);
+                    throw e;
+                }
+            }) {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    boolean cancelled = super.cancel(mayInterruptIfRunning);
+                    if (cancelled) {
+                        cancellationToken.cancel("The data preview query timed out");
+                        entry.failedAt = System.currentTimeMillis();
+                        timeouts.incrementAndGet();
+                        log.warn("Skip data preview for semantic model {} due to query timeout ({} ms). SQL: {}",
+                                entry.semanticModelName, queryTimeout.toMillis(), entry.sql);
+                    }
+                    return cancelled;
+                }
+            };
+            entry.loading = task;
+            try {
+                LOADER.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.cancel(false);
+            }
+            return task;
+        }
+    }
+
+    /**
+     * 后台加载的查询同样受硬性超时约束
+     */
+    private void scheduleTimeout(Future<String> future) {
+        SCHEDULER.schedule(() -> {
+            if (!future.isDone()) {
+                future.cancel(true);
+            }
+        }, queryTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void startRefresh() {
+        if (refreshInterval.isZero()) {
+            return;
+        }
+        long period = refreshInterval.toMillis();
+        refreshTask = SCHEDULER.scheduleWithFixedDelay(this::refresh, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopRefresh() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+    }
+
+    /**
+     * 后台刷新：重新查询近期使用过的预览（查询成功前保留旧的预览），移除长时间未使用的预览
+     */
+    private void refresh() {
+        try {
+            long now = System.currentTimeMillis();
+            long idleMillis = refreshInterval.toMillis() * IDLE_REFRESH_CYCLES;
+            for (Connection connection : connections.values()) {
+                connection.entries.values().removeIf(entry -> now - entry.accessedAt > idleMillis);
+                for (Entry entry : connection.entries.values()) {
+                    refreshes.incrementAndGet();
+                    scheduleTimeout(load(connection.databaseAdapter, entry));
+                }
+            }
+            // 不再使用的连接随之移除，不再持有其数据库适配器
+            connections.values().removeIf(connection -> connection.entries.isEmpty());
+        } catch (Exception e) {
+            log.warn("Refresh data previews of the cache '{}' failed", name, e);
+        }
+    }
+
+    public void clear() {
+        connections.clear();
+    }
+
+    public int size() {
+        return connections.values().stream().mapToInt(connection -> connection.entries.size()).sum();
+    }
+
+    public Map<String, Object> metrics() {
+        long total = hits.get() + misses.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("name", name);
+        metrics.put("connections", connections.size());
+        metrics.put("size", size());
+        metrics.put("refresh_interval_ms", refreshInterval.toMillis());
+        metrics.put("query_timeout_ms", queryTimeout.toMillis());
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("timeouts", timeouts.get());
+        metrics.put("failures", failures.get());
+        metrics.put("refreshes", refreshes.get());
+        metrics.put("hit_ratio", total == 0 ? 0D : (double) hits.get() / total);
+        return metrics;
+    }
+
+    private static ExecutorService newLoader() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(LOADER_MAX_THREADS, LOADER_MAX_THREADS,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemonThreadFactory("dat-preview-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String threadNamePrefix) {
+        AtomicInteger id = new AtomicInteger(0);
+        return r -> {
+            Thread thread = new Thread(r);
+            thread.setName(threadNamePrefix + id.addAndGet(1));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Connection {
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        private volatile DatabaseAdapter databaseAdapter;
+    }
+
+    private static class Entry {
+        private final String semanticModelName;
+        private final String sql;
+        private volatile String preview;
+        private volatile long failedAt;
+        private volatile long accessedAt;
+        private Future<String> loading;
+
+        private Entry(String semanticModelName, String sql) {
+            this.semanticModelName = semanticModelName;
+            this.sql = sql;
+        }
+    }
+}
@@ -7,31 +7,38 @@ import ai.dat.core.agent.data.StreamEvent;
 import ai.dat.core.contentstore.ContentStore;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
 import ai.dat.core.contentstore.data.WordSynonymPair;
+import ai.dat.core.contentstore.utils.ContentStoreUtil;
+import ai.dat.core.metrics.DatMetrics;
+import ai.dat.core.prompt.PromptContextPacker;
+import ai.dat.core.prompt.PromptSection;
+import ai.dat.core.prompt.ScoredSemanticModel;
 import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.ExecutorUtil;
 import ai.dat.core.utils.JinjaTemplateUtil;
-import ai.dat.core.utils.MarkdownUtil;
 import ai.dat.core.utils.SemanticModelUtil;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.model.output.structured.Description;
+import dev.langchain4j.rag.content.Content;
 import dev.langchain4j.service.*;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.calcite.sql.parser.SqlParseException;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import static ai.dat.core.agent.DefaultEventOptions.*;
@@ -61,6 +68,12 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 推测执行线程池，与Agent共享线程池分开，避免等待推测结果的Agent线程占满线程池
+     */
+    private static final ExecutorService SPECULATION_EXECUTOR =
+            ExecutorUtil.newExecutor("dat-speculation-", ExecutorUtil.ExecutorMode.PLATFORM, 64);
+
     private final List<SemanticModel> semanticModels;
 
     private final String language;
@@ -70,6 +83,14 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
     private final Integer maxHistories;
     private final String instruction;
     private final Integer semanticModelDataPreviewLimit;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final DataPreviewCache dataPreviewCache;
+    /**
+     * 数据预览缓存的连接标识，为null时数据预览不缓存
+     */
+    private final String dataPreviewConnectionId;
+    private final boolean speculativeExecution;
+    private final PromptContextPacker promptContextPacker;
 
     private final Assistant streamingAssistant;
 
@@ -93,8 +114,17 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
                                 String textToSqlRules,
                                 Integer maxHistories,
                                 String instruction,
-                                Integer semanticModelDataPreviewLimit) {
+                                Integer semanticModelDataPreviewLimit,
+                                SemanticAnswerCache semanticAnswerCache,
+                                DataPreviewCache dataPreviewCache,
+                                String dataPreviewConnectionId,
+                                Boolean speculativeExecution,
+                                PromptContextPacker promptContextPacker,
+                                QueryCostGuard queryCostGuard,
+                                Duration queryTimeout) {
         super(contentStore, databaseAdapter, variables);
+        setQueryCostGuard(queryCostGuard);
+        setQueryTimeout(queryTimeout);
         SemanticModelUtil.validateSemanticModels(semanticModels);
         this.semanticModels = semanticModels;
         this.language = Optional.ofNullable(language).orElse("English");
@@ -108,18 +138,31 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
         this.semanticModelDataPreviewLimit = Optional.ofNullable(semanticModelDataPreviewLimit).orElse(0);
         Preconditions.checkArgument(this.semanticModelDataPreviewLimit >= 0 && this.semanticModelDataPreviewLimit <= 20,
                 "semanticModelDataPreviewLimit must be between 0 and 20");
+        this.semanticAnswerCache = semanticAnswerCache;
+        this.dataPreviewCache = Optional.ofNullable(dataPreviewCache).orElseGet(DataPreviewCache::getDefault);
+        this.dataPreviewConnectionId = dataPreviewConnectionId;
+        this.speculativeExecution = Optional.ofNullable(speculativeExecution).orElse(false);
+        this.promptContextPacker = promptContextPacker;
+        if (this.semanticModelDataPreviewLimit > 0 && semanticModels != null && !semanticModels.isEmpty()) {
+            // 固定语义模型的数据预览提前在后台加载，同一连接已缓存的预览不再查询
+            this.dataPreviewCache.warmUp(dataPreviewConnectionId, databaseAdapter,
+                    renderSemanticModels(semanticModels), this.semanticModelDataPreviewLimit);
+        }
 
         this.streamingAssistant = AiServices.builder(Assistant.class)
-                .streamingChatModel(defaultStreamingModel)
+                .streamingChatModel(DatMetrics.metered(defaultStreamingModel, "assistance"))
                 .build();
         this.intentClassificationAssistant = AiServices.builder(Assistant.class)
-                .chatModel(Objects.requireNonNullElse(intentClassificationModel, defaultModel))
+                .chatModel(DatMetrics.metered(Objects.requireNonNullElse(intentClassificationModel, defaultModel),
+                        "intent_classification"))
                 .build();
         this.sqlGenerationReasoningAssistant = AiServices.builder(Assistant.class)
-                .streamingChatModel(Objects.requireNonNullElse(sqlGenerationReasoningModel, defaultStreamingModel))
+                .streamingChatModel(DatMetrics.metered(Objects.requireNonNullElse(sqlGenerationReasoningModel,
+                        defaultStreamingModel), "sql_generation_reasoning"))
                 .build();
         this.sqlGenerationAssistant = AiServices.builder(Assistant.class)
-                .chatModel(Objects.requireNonNullElse(sqlGenerationModel, defaultModel))
+                .chatModel(DatMetrics.metered(Objects.requireNonNullElse(sqlGenerationModel, defaultModel),
+                        "sql_generation"))
                 .build();
     }
 
@@ -128,7 +171,7 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
         return Set.of(EXCEPTION_EVENT, INTENT_CLASSIFICATION_EVENT,
                 MISLEADING_ASSISTANCE_EVENT, DATA_ASSISTANCE_EVENT,
                 SQL_GENERATION_REASONING_EVENT, SQL_GENERATE_EVENT,
-                SEMANTIC_TO_SQL_EVENT, SQL_EXECUTE_EVENT);
+                SEMANTIC_TO_SQL_EVENT, SQL_COST_GUARD_EVENT, SQL_EXECUTE_EVENT, PROMPT_CONTEXT_EVENT);
     }
 
     @Override
@@ -141,22 +184,99 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
         ContentStore contentStore = contentStore();
 
         List<SemanticModel> semanticModels = this.semanticModels;
+        List<ScoredSemanticModel> scoredSemanticModels;
         if (semanticModels == null || semanticModels.isEmpty()) {
-            semanticModels = contentStore.retrieveMdl(question);
+            if (promptContextPacker != null) {
+                // 保留相关性分数和命中的列，用于按Token预算裁剪
+                scoredSemanticModels = ContentStoreUtil.contents2ScoredSemanticModels(
+                        contentStore.retrieveMdlContents(question));
+                semanticModels = scoredSemanticModels.stream()
+                        .map(ScoredSemanticModel::semanticModel).collect(Collectors.toList());
+            } else {
+                semanticModels = contentStore.retrieveMdl(question);
+                scoredSemanticModels = null;
+            }
             Preconditions.checkArgument(!semanticModels.isEmpty(), "Retrieve semantic models is empty");
+        } else {
+            scoredSemanticModels = semanticModels.stream()
+                    .map(ScoredSemanticModel::of).collect(Collectors.toList());
         }
 
-        List<String> semantics = semanticModels.stream()
-                .map(semanticModel -> SemanticModelUtil.toSemanticModelViewText(
-                        semanticModel, databaseAdapter.semanticAdapter()))
-                .collect(Collectors.toList());
-        List<QuestionSqlPair> sqlSamples = contentStore.retrieveSql(question);
-        List<WordSynonymPair> synonyms = contentStore.retrieveSyn(question);
-        List<String> docs = contentStore.retrieveDoc(question);
+        // 语义答案缓存命中则直接转换和执行
+        String cacheScope = null;
+        float[] questionEmbedding = null;
+        if (semanticAnswerCache != null) {
+            cacheScope = SemanticAnswerCache.scope(semanticModels, histories, variables);
+            questionEmbedding = embedQuestion(question);
+            Optional<SemanticAnswerCache.Hit> hit = semanticAnswerCache.get(cacheScope, question, questionEmbedding);
+            if (hit.isPresent()) {
+                String semanticSql = hit.get().semanticSql();
+                log.info("semanticSql (cache {}): {}", hit.get().tier(), semanticSql);
+                action.add(StreamEvent.from(SQL_GENERATE_EVENT, SQL, semanticSql)
+                        .set(CACHE, hit.get().tier()));
+                try {
+                    executeQuery(semanticSql, renderSemanticModels(semanticModels));
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+                return;
+            }
+        }
+
+        List<String> semantics;
+        List<QuestionSqlPair> sqlSamples;
+        List<WordSynonymPair> synonyms;
+        List<String> docs;
+        List<SemanticModel> renderedSemanticModels = renderSemanticModels(semanticModels);
+        // 提示词中的语义模型，只收集这些模型的数据预览
+        List<SemanticModel> promptSemanticModels = renderedSemanticModels;
+        PromptContextPacker.Session packing = null;
+        if (promptContextPacker == null) {
+            semantics = semanticModels.stream()
+                    .map(semanticModel -> SemanticModelUtil.toSemanticModelViewText(
+                            semanticModel, databaseAdapter.semanticAdapter()))
+                    .collect(Collectors.toList());
+            sqlSamples = contentStore.retrieveSql(question);
+            synonyms = contentStore.retrieveSyn(question);
+            docs = contentStore.retrieveDoc(question);
+        } else {
+            // 按Token预算裁剪上下文，相关性最低的内容优先丢弃
+            packing = promptContextPacker.session();
+            List<PromptContextPacker.PackedSemanticModel> packedSemanticModels =
+                    packing.semanticModels(scoredSemanticModels, databaseAdapter.semanticAdapter());
+            semantics = packedSemanticModels.stream()
+                    .map(PromptContextPacker.PackedSemanticModel::viewText)
+                    .collect(Collectors.toList());
+            Set<String> promptSemanticModelNames = packedSemanticModels.stream()
+                    .map(o -> o.semanticModel().getName())
+                    .collect(Collectors.toSet());
+            promptSemanticModels = renderedSemanticModels.stream()
+                    .filter(o -> promptSemanticModelNames.contains(o.getName()))
+                    .collect(Collectors.toList());
+            List<Content> sqlContents = contentStore.retrieveSqlContents(question);
+            sqlSamples = packing.pack(PromptSection.SQL_SAMPLES,
+                    ContentStoreUtil.contents2QuestionSqlPairs(sqlContents), ContentStoreUtil.scores(sqlContents));
+            List<Content> synContents = contentStore.retrieveSynContents(question);
+            synonyms = packing.pack(PromptSection.SYNONYMS,
+                    ContentStoreUtil.contents2NounSynonymPairs(synContents), ContentStoreUtil.scores(synContents));
+            List<Content> docContents = contentStore.retrieveDocContents(question);
+            docs = packing.pack(PromptSection.DOCS,
+                    ContentStoreUtil.contents2Docs(docContents), ContentStoreUtil.scores(docContents));
+            histories = packing.histories(histories);
+        }
+
+        // 推测执行：与意图分类同时收集数据预览并开始SQL生成推理，推理内容在意图确认前先缓冲
+        Speculation speculation = null;
+        if (speculativeExecution && intentClassification
+            && (sqlGenerationReasoning || semanticModelDataPreviewLimit > 0)) {
+            speculation = speculate(semantics, promptSemanticModels, packing, sqlSamples, synonyms, docs,
+                    histories, questionTime, question);
+        }
 
         if (intentClassification) {
             IntentClassification intentClassification = intentClassification(semantics, sqlSamples,
                     synonyms, docs, histories, questionTime, question);
+            action.getCancellationToken().throwIfCancelled();
 
             StreamEvent event = StreamEvent.from(INTENT_CLASSIFICATION_EVENT)
                     .set(INTENT, intentClassification.intent);
@@ -174,6 +294,9 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
             Intent intent = intentClassification.intent;
             String userCompositeQuestion = null;
             if (Intent.MISLEADING_QUERY == intent || Intent.GENERAL == intent) {
+                if (speculation != null) {
+                    speculation.discard(); // 放弃推测的SQL生成推理
+                }
                 userCompositeQuestion = histories.stream()
                         .map(QuestionSqlPair::getQuestion)
                         .collect(Collectors.joining("\n"))
@@ -191,7 +314,7 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
                             future.completeExceptionally(e);
                         })
                         .start();
-                future.join();
+                action.getCancellationToken().await(future);
                 return;
             } else if (Intent.GENERAL == intent) {
                 TokenStream tokenStream = streamingAssistant.dataAssistance(
@@ -204,12 +327,60 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
                             future.completeExceptionally(e);
                         })
                         .start();
-                future.join();
+                action.getCancellationToken().await(future);
                 return;
             }
         }
 
-        List<SemanticModel> renderedSemanticModels = semanticModels.stream().map(m -> {
+        List<String> dataSamples;
+        ReasoningStream reasoningStream = null;
+        if (speculation != null) {
+            dataSamples = action.getCancellationToken().await(speculation.dataSamples);
+            if (SemanticAnswerCache.normalize(question).equals(SemanticAnswerCache.normalize(userQuestion))) {
+                reasoningStream = action.getCancellationToken().await(speculation.reasoning);
+            } else {
+                // 问题被重写，推测的推理基于原问题，需放弃后重新推理
+                speculation.discard();
+            }
+        } else {
+            dataSamples = dataSamples(promptSemanticModels, packing);
+        }
+        if (sqlGenerationReasoning && reasoningStream == null) {
+            reasoningStream = startSqlGenerationReasoning(semantics, dataSamples, sqlSamples, synonyms, docs,
+                    histories, questionTime, userQuestion);
+        }
+        String sqlGenerateReasoning = "";
+        if (reasoningStream != null) {
+            reasoningStream.confirm();
+            sqlGenerateReasoning = reasoningStream.await();
+        }
+
+        if (packing != null) {
+            action.add(StreamEvent.from(PROMPT_CONTEXT_EVENT, TOKENS, packing.totalTokens())
+                    .set(SECTIONS, packing.statsMaps()));
+        }
+
+        // 生成语义SQL
+        action.getCancellationToken().throwIfCancelled();
+        String semanticSql = generateSql(semantics, dataSamples, sqlSamples, synonyms, docs,
+                instruction, histories, questionTime, userQuestion, sqlGenerateReasoning);
+        log.info("semanticSql: {}", semanticSql);
+
+        // 转换和执行
+        try {
+            executeQuery(semanticSql, renderedSemanticModels);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+
+        // 只缓存执行成功的语义SQL
+        if (semanticAnswerCache != null) {
+            semanticAnswerCache.put(cacheScope, question, questionEmbedding, semanticSql);
+        }
+    }
+
+    private List<SemanticModel> renderSemanticModels(List<SemanticModel> semanticModels) {
+        return semanticModels.stream().map(m -> {
             try {
                 SemanticModel semanticModel = JSON_MAPPER.readValue(
                         JSON_MAPPER.writeValueAsString(m), SemanticModel.class);
@@ -219,44 +390,21 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
                 throw new RuntimeException(ex);
             }
         }).collect(Collectors.toList());
+    }
 
-        List<String> dataSamples = Collections.emptyList();
-        if (semanticModelDataPreviewLimit > 0) {
-            dataSamples = renderedSemanticModels.stream().map(m -> {
-                        String semanticModelSql;
-                        try {
-                            semanticModelSql = SemanticModelUtil.semanticModelSql(databaseAdapter.semanticAdapter(), m);
-                        } catch (SqlParseException e) {
-                            log.warn("Skip data preview for semantic model {} due to parse error. SQL template: {}",
-                                    m.getName(), m.getModel(), e);
-                            return null;
-                        }
-                        String sql = "SELECT * FROM (" + semanticModelSql + ") AS __dat_semantic_model "
-                                + databaseAdapter.limitClause(semanticModelDataPreviewLimit);
-                        List<Map<String, Object>> data;
-                        try {
-                            data = databaseAdapter.executeQuery(sql);
-                        } catch (SQLException e) {
-                            log.warn("Skip data preview for semantic model {} due to SQL error. SQL: {}",
-                                    m.getName(), sql, e);
-                            return null;
-                        }
-                        return "#### " + m.getName() + "\n\n" + MarkdownUtil.toTable(data);
-                    })
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+    /**
+     * 语义答案缓存相似度匹配所需的问题向量，复用检索时已经计算的问题向量；
+     * 相似度阈值为1（只精确匹配）或内容存储不支持向量化时返回null
+     */
+    private float[] embedQuestion(String question) {
+        if (semanticAnswerCache.getSimilarityThreshold() >= 1D) {
+            return null;
         }
-
-        // 生成语义SQL
-        String semanticSql = generateSql(action, semantics, dataSamples, sqlSamples, synonyms, docs,
-                instruction, histories, questionTime, userQuestion);
-        log.info("semanticSql: " + semanticSql);
-
-        // 转换和执行
         try {
-            executeQuery(semanticSql, renderedSemanticModels);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+            return contentStore.embedQuestion(question).map(Embedding::vector).orElse(null);
+        } catch (Exception e) {
+            log.warn("Embed question for semantic answer cache exception", e);
+            return null;
         }
     }
 
@@ -276,8 +424,71 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
         }
     }
 
-    private String generateSql(StreamAction action,
-                               List<String> semanticContexts,
+    private List<String> dataSamples(List<SemanticModel> renderedSemanticModels,
+                                     PromptContextPacker.Session packing) {
+        if (semanticModelDataPreviewLimit <= 0) {
+            return Collections.emptyList();
+        }
+        List<String> dataSamples = dataPreviewCache.previews(dataPreviewConnectionId, databaseAdapter,
+                renderedSemanticModels, semanticModelDataPreviewLimit);
+        // 数据预览与语义模型的顺序一致，按排名裁剪
+        return packing == null ? dataSamples : packing.pack(PromptSection.DATA_SAMPLES, dataSamples, null);
+    }
+
+    private Speculation speculate(List<String> semanticContexts,
+                                  List<SemanticModel> renderedSemanticModels,
+                                  PromptContextPacker.Session packing,
+                                  List<QuestionSqlPair> sqlSamples,
+                                  List<WordSynonymPair> synonyms,
+                                  List<String> docs,
+                                  List<QuestionSqlPair> histories,
+                                  String questionTime,
+                                  String question) {
+        Speculation speculation = new Speculation();
+        speculation.dataSamples = CompletableFuture.supplyAsync(
+                () -> dataSamples(renderedSemanticModels, packing), SPECULATION_EXECUTOR);
+        speculation.reasoning = speculation.dataSamples.thenApply(dataSamples -> {
+            if (!sqlGenerationReasoning || speculation.discarded) {
+                return null;
+            }
+            ReasoningStream reasoningStream = startSqlGenerationReasoning(semanticContexts, dataSamples,
+                    sqlSamples, synonyms, docs, histories, questionTime, question);
+            speculation.started = reasoningStream;
+            if (speculation.discarded) {
+                reasoningStream.discard();
+            }
+            return reasoningStream;
+        });
+        return speculation;
+    }
+
+    private ReasoningStream startSqlGenerationReasoning(List<String> semanticContexts,
+                                                        List<String> dataSamples,
+                                                        List<QuestionSqlPair> sqlSamples,
+                                                        List<WordSynonymPair> synonyms,
+                                                        List<String> docs,
+                                                        List<QuestionSqlPair> histories,
+                                                        String questionTime,
+                                                        String question) {
+        TokenStream tokenStream;
+        if (histories.isEmpty()) {
+            tokenStream = sqlGenerationReasoningAssistant.sqlGenerateReasoning(
+                    semanticContexts, dataSamples, sqlSamples, synonyms, docs, instruction,
+                    questionTime, question, language);
+        } else {
+            tokenStream = sqlGenerationReasoningAssistant.followupSqlGenerateReasoning(
+                    semanticContexts, dataSamples, sqlSamples, synonyms, docs, instruction,
+                    histories, questionTime, question, language);
+        }
+        ReasoningStream reasoningStream = new ReasoningStream(action);
+        tokenStream.onPartialResponse(reasoningStream::onPartialResponse)
+                .onCompleteResponse(r -> reasoningStream.onComplete())
+                .onError(reasoningStream::onError)
+                .start();
+        return reasoningStream;
+    }
+
+    private String generateSql(List<String> semanticContexts,
                                List<String> dataSamples,
                                List<QuestionSqlPair> sqlSamples,
                                List<WordSynonymPair> synonyms,
@@ -285,41 +496,16 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
                                String instruction,
                                List<QuestionSqlPair> histories,
                                String questionTime,
-                               String question) {
-        AtomicReference<String> sqlGenerateReasoning = new AtomicReference<>("");
-        if (sqlGenerationReasoning) {
-            TokenStream tokenStream;
-            if (histories.isEmpty()) {
-                tokenStream = sqlGenerationReasoningAssistant.sqlGenerateReasoning(
-                        semanticContexts, dataSamples, sqlSamples, synonyms, docs, instruction,
-                        questionTime, question, language);
-            } else {
-                tokenStream = sqlGenerationReasoningAssistant.followupSqlGenerateReasoning(
-                        semanticContexts, dataSamples, sqlSamples, synonyms, docs, instruction,
-                        histories, questionTime, question, language);
-            }
-            CompletableFuture<Void> future = new CompletableFuture<>();
-            tokenStream.onPartialResponse(c -> {
-                        action.add(StreamEvent.from(SQL_GENERATION_REASONING_EVENT, CONTENT, c));
-                        sqlGenerateReasoning.updateAndGet(s -> s + c);
-                    })
-                    .onCompleteResponse(c -> future.complete(null))
-                    .onError(e -> {
-                        action.add(StreamEvent.from(SQL_GENERATION_REASONING_EVENT, ERROR, e.getMessage()));
-                        sqlGenerateReasoning.set(""); // 异常则清空推理
-                    })
-                    .start();
-            future.join();
-        }
-
+                               String question,
+                               String sqlGenerateReasoning) {
         GenSql genSql;
         if (histories.isEmpty()) {
             genSql = sqlGenerationAssistant.sqlGenerate(textToSqlRules, semanticContexts,
-                    dataSamples, sqlSamples, synonyms, docs, instruction, questionTime, question, sqlGenerateReasoning.get());
+                    dataSamples, sqlSamples, synonyms, docs, instruction, questionTime, question, sqlGenerateReasoning);
         } else {
             genSql = sqlGenerationAssistant.followupSqlGenerate(textToSqlRules, semanticContexts,
                     dataSamples, sqlSamples, synonyms, docs, instruction, histories, questionTime, question,
-                    sqlGenerateReasoning.get());
+                    sqlGenerateReasoning);
         }
 
         action.add(StreamEvent.from(SQL_GENERATE_EVENT, SQL, genSql.sql));
@@ -327,6 +513,91 @@ public class DefaultAskdataAgent extends AbstractAskdataAgent {
         return genSql.sql;
     }
 
+    /**
+     * 推测执行的数据预览与SQL生成推理
+     */
+    private static class Speculation {
+        private CompletableFuture<List<String>> dataSamples;
+        private CompletableFuture<ReasoningStream> reasoning;
+        private volatile ReasoningStream started;
+        private volatile boolean discarded;
+
+        /**
+         * 放弃推测的推理：未开始的不再开始，已开始的丢弃缓冲及后续内容
+         * （TokenStream无法中止，已开始的请求在后台自然结束）
+         */
+        private void discard() {
+            discarded = true;
+            ReasoningStream reasoningStream = started;
+            if (reasoningStream != null) {
+                reasoningStream.discard();
+            }
+        }
+    }
+
+    /**
+     * SQL生成推理流：确认前的推理内容先缓冲，确认后按顺序输出；放弃后忽略全部内容
+     */
+    private static class ReasoningStream {
+        private final StreamAction action;
+        private final List<StreamEvent> buffer = new ArrayList<>();
+        private final StringBuilder reasoning = new StringBuilder();
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private boolean confirmed = false;
+        private boolean discarded = false;
+        private boolean failed = false;
+
+        private ReasoningStream(StreamAction action) {
+            this.action = action;
+        }
+
+        private synchronized void onPartialResponse(String content) {
+            if (discarded) {
+                return;
+            }
+            reasoning.append(content);
+            emit(StreamEvent.from(SQL_GENERATION_REASONING_EVENT, CONTENT, content));
+        }
+
+        private synchronized void onComplete() {
+            future.complete(null);
+        }
+
+        private synchronized void onError(Throwable e) {
+            if (!discarded) {
+                failed = true; // 异常则清空推理
+                emit(StreamEvent.from(SQL_GENERATION_REASONING_EVENT, ERROR, e.getMessage()));
+            }
+            future.complete(null);
+        }
+
+        private void emit(StreamEvent event) {
+            if (confirmed) {
+                action.add(event);
+            } else {
+                buffer.add(event);
+            }
+        }
+
+        private synchronized void confirm() {
+            buffer.forEach(action::add);
+            buffer.clear();
+            confirmed = true;
+        }
+
+        private synchronized void discard() {
+            buffer.clear();
+            discarded = true;
+        }
+
+        private String await() {
+            action.getCancellationToken().await(future);
+            synchronized (this) {
+                return failed ? "" : reasoning.toString();
+            }
+        }
+    }
+
     private static class GenSql {
         @Description("ANSI SQL query string")
         private String sql;
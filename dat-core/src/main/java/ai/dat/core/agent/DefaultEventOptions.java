@@ -97,10 +97,17 @@ public class DefaultEventOptions {
                     .noDefaultValue()
                     .withDescription("SQL");
 
+    public static final ConfigOption<SemanticAnswerCache.Tier> CACHE =
+            ConfigOptions.key("cache")
+                    .enumType(SemanticAnswerCache.Tier.class)
+                    .noDefaultValue()
+                    .withDescription("The semantic answer cache tier that the SQL hit, " +
+                            "absent when the SQL is generated by the LLM");
+
     public static final EventOption SQL_GENERATE_EVENT = EventOption.builder()
             .name("sql_generate")
             .semanticSqlOption(SQL)
-            .dataOptions(Set.of(SQL))
+            .dataOptions(Set.of(SQL, CACHE))
             .build();
 
     // ----------------------------- semantic_to_sql --------------------------
@@ -125,4 +132,56 @@ public class DefaultEventOptions {
             .queryDataOption(DATA)
             .dataOptions(Set.of(DATA, ERROR))
             .build();
+
+    // ----------------------------- sql_cost_guard --------------------------
+
+    public static final ConfigOption<QueryCostGuard.Decision> DECISION =
+            ConfigOptions.key("decision")
+                    .enumType(QueryCostGuard.Decision.class)
+                    .noDefaultValue()
+                    .withDescription("The decision of the query cost guard: REJECT, LIMIT or APPROVAL");
+
+    public static final ConfigOption<Double> ESTIMATED_ROWS =
+            ConfigOptions.key("estimated_rows")
+                    .doubleType()
+                    .noDefaultValue()
+                    .withDescription("The estimated rows of the query plan");
+
+    public static final ConfigOption<Double> ESTIMATED_COST =
+            ConfigOptions.key("estimated_cost")
+                    .doubleType()
+                    .noDefaultValue()
+                    .withDescription("The estimated cost of the query plan, absent when the database does not provide it");
+
+    public static final ConfigOption<String> REASON =
+            ConfigOptions.key("reason")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription("The reason why the query exceeds the thresholds");
+
+    public static final EventOption SQL_COST_GUARD_EVENT = EventOption.builder()
+            .name("sql_cost_guard")
+            .dataOptions(Set.of(DECISION, ESTIMATED_ROWS, ESTIMATED_COST, REASON, SQL))
+            .build();
+
+    // ----------------------------- prompt_context --------------------------
+
+    public static final ConfigOption<Integer> TOKENS =
+            ConfigOptions.key("tokens")
+                    .intType()
+                    .noDefaultValue()
+                    .withDescription("The estimated total tokens of the context sections in the prompt");
+
+    public static final ConfigOption<List<Map<String, Object>>> SECTIONS =
+            ConfigOptions.key("sections")
+                    .mapObjectType()
+                    .asList()
+                    .noDefaultValue()
+                    .withDescription("The token usage of each context section: section, items, kept_items, " +
+                            "tokens, budget and shortened_items");
+
+    public static final EventOption PROMPT_CONTEXT_EVENT = EventOption.builder()
+            .name("prompt_context")
+            .dataOptions(Set.of(TOKENS, SECTIONS))
+            .build();
 }
@@ -0,0 +1,234 @@
+package ai.dat.core.agent;
+
+import ai.dat.core.adapter.DatabaseAdapter;
+import ai.dat.core.adapter.data.QueryPlan;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 查询代价守卫：执行LLM生成的SQL之前，使用数据库的EXPLAIN估算行数与代价，
+ * 超过阈值时按配置的动作处理：
+ * <ul>
+ *     <li>REJECT：拒绝执行</li>
+ *     <li>LIMIT：改写为带LIMIT的查询后执行</li>
+ *     <li>APPROVAL：请求用户审批（Human-in-the-loop），不支持审批的Agent视为拒绝</li>
+ * </ul>
+ * 查询计划按SQL指纹（忽略字面量与空白差异）缓存，同一形状的查询在有效期内不重复EXPLAIN。
+ * 数据库不支持EXPLAIN或EXPLAIN失败时放行。同一进程内按名称共享。
+ *
+ * @Author JunjieM
+ * @Date 2025/10/27
+ */
+@Slf4j
+public class QueryCostGuard {
+
+    private static final Map<String, QueryCostGuard> GUARDS = new ConcurrentHashMap<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w\"`])\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static final int DEFAULT_PLAN_CACHE_MAX_ENTRIES = 1000;
+
+    public enum Action {
+        REJECT, LIMIT, APPROVAL
+    }
+
+    public enum Decision {
+        ALLOW, REJECT, LIMIT, APPROVAL
+    }
+
+    @Getter
+    private final String name;
+    @Getter
+    private final Double maxRows;
+    @Getter
+    private final Double maxCost;
+    @Getter
+    private final Action action;
+    @Getter
+    private final int limit;
+    @Getter
+    private final Duration planCacheTtl;
+
+    private final LinkedHashMap<String, CachedPlan> plans;
+
+    private final AtomicLong checks = new AtomicLong(0);
+    private final AtomicLong planCacheHits = new AtomicLong(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+    private final AtomicLong limited = new AtomicLong(0);
+    private final AtomicLong approvals = new AtomicLong(0);
+
+    public QueryCostGuard(@NonNull String name, Double maxRows, Double maxCost,
+                          @NonNull Action action, int limit, @NonNull Duration planCacheTtl) {
+        Preconditions.checkArgument(maxRows != null || maxCost != null,
+                "At least one of maxRows and maxCost must be set");
+        Preconditions.checkArgument(maxRows == null || maxRows > 0, "maxRows must be greater than 0");
+        Preconditions.checkArgument(maxCost == null || maxCost > 0, "maxCost must be greater than 0");
+        Preconditions.checkArgument(limit > 0, "limit must be greater than 0");
+        Preconditions.checkArgument(!planCacheTtl.isNegative(), "planCacheTtl cannot be negative");
+        this.name = name;
+        this.maxRows = maxRows;
+        this.maxCost = maxCost;
+        this.action = action;
+        this.limit = limit;
+        this.planCacheTtl = planCacheTtl;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPlan> eldest) {
+                return size() > DEFAULT_PLAN_CACHE_MAX_ENTRIES;
+            }
+        };
+    }
+
+    /**
+     * 按名称获取进程内共享的守卫，不存在或配置发生变化时创建新的实例
+     */
+    public static QueryCostGuard getOrCreate(@NonNull String name, Double maxRows, Double maxCost,
+                                             @NonNull Action action, int limit, @NonNull Duration planCacheTtl) {
+        return GUARDS.compute(name, (k, v) -> {
+            if (v != null && Objects.equals(v.maxRows, maxRows) && Objects.equals(v.maxCost, maxCost)
+                && v.action == action && v.limit == limit && v.planCacheTtl.equals(planCacheTtl)) {
+                return v;
+            }
+            return new QueryCostGuard(name, maxRows, maxCost, action, limit, planCacheTtl);
+        });
+    }
+
+    public static List<Map<String, Object>> allMetrics() {
+        return GUARDS.values().stream()
+                .sorted(Comparator.comparing(QueryCostGuard::getName))
+                .map(QueryCostGuard::metrics)
+                .toList();
+    }
+
+    /**
+     * SQL指纹：字符串与数值字面量替换为占位符、合并空白后的摘要
+     */
+    public static String fingerprint(@NonNull String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMERIC_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape.trim()).replaceAll(" ");
+        return Hashing.sha256().hashString(shape, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * 检查查询的估算行数与代价
+     *
+     * @param databaseAdapter 数据库适配器
+     * @param sql             方言SQL查询
+     * @return 检查结果
+     */
+    public Verdict check(@NonNull DatabaseAdapter databaseAdapter, @NonNull String sql) {
+        checks.incrementAndGet();
+        Optional<QueryPlan> plan = plan(databaseAdapter, sql);
+        if (plan.isEmpty()) {
+            return new Verdict(Decision.ALLOW, null, null, sql);
+        }
+        QueryPlan queryPlan = plan.get();
+        List<String> reasons = new ArrayList<>();
+        if (maxRows != null && queryPlan.getEstimatedRows() > maxRows) {
+            reasons.add(String.format("the estimated rows %.0f exceed the limit %.0f",
+                    queryPlan.getEstimatedRows(), maxRows));
+        }
+        if (maxCost != null && queryPlan.getEstimatedCost() != null && queryPlan.getEstimatedCost() > maxCost) {
+            reasons.add(String.format("the estimated cost %.2f exceeds the limit %.2f",
+                    queryPlan.getEstimatedCost(), maxCost));
+        }
+        if (reasons.isEmpty()) {
+            return new Verdict(Decision.ALLOW, queryPlan, null, sql);
+        }
+        String reason = "The query is too expensive: " + String.join(", ", reasons);
+        return switch (action) {
+            case REJECT -> {
+                rejected.incrementAndGet();
+                yield new Verdict(Decision.REJECT, queryPlan, reason
+                        + ". Please narrow the query, e.g. add filter conditions, aggregate the data "
+                        + "or avoid cross joins.", sql);
+            }
+            case LIMIT -> {
+                limited.incrementAndGet();
+                yield new Verdict(Decision.LIMIT, queryPlan, reason + ". The results are limited to "
+                        + limit + " rows.", "SELECT * FROM (" + sql + ") AS __dat_cost_guard "
+                        + databaseAdapter.limitClause(limit));
+            }
+            case APPROVAL -> {
+                approvals.incrementAndGet();
+                yield new Verdict(Decision.APPROVAL, queryPlan, reason + ".", sql);
+            }
+        };
+    }
+
+    /**
+     * 审批未通过时记录为拒绝
+     */
+    void recordRejected() {
+        rejected.incrementAndGet();
+    }
+
+    private Optional<QueryPlan> plan(DatabaseAdapter databaseAdapter, String sql) {
+        String key = databaseAdapter.semanticAdapter().getClass().getName() + ":" + fingerprint(sql);
+        long now = System.currentTimeMillis();
+        synchronized (plans) {
+            CachedPlan cached = plans.get(key);
+            if (cached != null && now - cached.createdAt <= planCacheTtl.toMillis()) {
+                planCacheHits.incrementAndGet();
+                return Optional.of(cached.plan);
+            }
+        }
+        Optional<QueryPlan> plan;
+        try {
+            plan = databaseAdapter.explain(sql);
+        } catch (Exception e) {
+            log.warn("Failed to explain the query, the cost guard is skipped: {}", e.getMessage());
+            return Optional.empty();
+        }
+        if (plan.isPresent() && !planCacheTtl.isZero()) {
+            synchronized (plans) {
+                plans.put(key, new CachedPlan(plan.get(), now));
+            }
+        }
+        return plan;
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("name", name);
+        metrics.put("max_rows", maxRows);
+        metrics.put("max_cost", maxCost);
+        metrics.put("action", action);
+        synchronized (plans) {
+            metrics.put("cached_plans", plans.size());
+        }
+        metrics.put("checks", checks.get());
+        metrics.put("plan_cache_hits", planCacheHits.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("limited", limited.get());
+        metrics.put("approvals", approvals.get());
+        return metrics;
+    }
+
+    private record CachedPlan(QueryPlan plan, long createdAt) {
+    }
+
+    /**
+     * 检查结果
+     *
+     * @param decision 处理决定
+     * @param plan     查询计划估算，未能获取时为null
+     * @param reason   超过阈值的原因，放行时为null
+     * @param sql      实际执行的SQL（LIMIT时为改写后的SQL）
+     */
+    public record Verdict(Decision decision, QueryPlan plan, String reason, String sql) {
+    }
+}
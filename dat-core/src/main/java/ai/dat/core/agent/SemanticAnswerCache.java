@@ -0,0 +1,261 @@
+package ai.dat.core.agent;
+
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import ai.dat.core.semantic.data.SemanticModel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 语义答案缓存：复用重复问题已生成的语义SQL，跳过意图分类、SQL推理与SQL生成的LLM调用。
+ * <p>
+ * 缓存范围（scope）由语义模型集合、历史问答与动态变量共同决定，同一范围内分两级命中：
+ * <ul>
+ *     <li>EXACT：归一化后的问题完全相同</li>
+ *     <li>SIMILAR：问题向量的余弦相似度不低于阈值（默认阈值为1，即只精确匹配）</li>
+ * </ul>
+ * 同一进程内按名称共享，内容存储重建后需调用 {@link #invalidateAll()} 使全部缓存失效。
+ *
+ * @Author JunjieM
+ * @Date 2025/10/21
+ */
+@Slf4j
+public class SemanticAnswerCache {
+
+    private static final Map<String, SemanticAnswerCache> CACHES = new ConcurrentHashMap<>();
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\p{P}\\s]+$");
+
+    public enum Tier {
+        EXACT, SIMILAR
+    }
+
+    @Getter
+    private final String name;
+    @Getter
+    private final int maxEntries;
+    @Getter
+    private final Duration ttl;
+    @Getter
+    private final double similarityThreshold;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final AtomicLong exactHits = new AtomicLong(0);
+    private final AtomicLong similarHits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    public SemanticAnswerCache(@NonNull String name, int maxEntries,
+                               @NonNull Duration ttl, double similarityThreshold) {
+        Preconditions.checkArgument(maxEntries > 0, "maxEntries must be greater than 0");
+        Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(), "ttl must be greater than 0");
+        Preconditions.checkArgument(similarityThreshold > 0 && similarityThreshold <= 1,
+                "similarityThreshold must be greater than 0 and less than or equal to 1");
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.similarityThreshold = similarityThreshold;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                boolean evict = size() > SemanticAnswerCache.this.maxEntries;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * 按名称获取进程内共享的缓存，不存在或配置发生变化时创建新的实例
+     */
+    public static SemanticAnswerCache getOrCreate(@NonNull String name, int maxEntries,
+                                                  @NonNull Duration ttl, double similarityThreshold) {
+        return CACHES.compute(name, (k, v) -> {
+            if (v != null && v.maxEntries == maxEntries && v.ttl.equals(ttl)
+                && v.similarityThreshold == similarityThreshold) {
+                return v;
+            }
+            return new SemanticAnswerCache(name, maxEntries, ttl, similarityThreshold);
+        });
+    }
+
+    /**
+     * 使进程内全部缓存失效（内容存储重建后调用）
+     */
+    public static void invalidateAll() {
+        CACHES.values().forEach(SemanticAnswerCache::clear);
+    }
+
+    /**
+     * 所有共享缓存的指标快照
+     */
+    public static List<Map<String, Object>> allMetrics() {
+        return CACHES.values().stream()
+                .sorted(Comparator.comparing(SemanticAnswerCache::getName))
+                .map(SemanticAnswerCache::metrics)
+                .toList();
+    }
+
+    /**
+     * 问题归一化：Unicode NFKC（全角转半角）、小写、合并空白、去除末尾标点（含中文标点）
+     */
+    public static String normalize(@NonNull String question) {
+        String normalized = Normalizer.normalize(question, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT).trim();
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        return TRAILING_PUNCTUATION.matcher(normalized).replaceAll("");
+    }
+
+    /**
+     * 计算缓存范围：语义模型集合、历史问答与动态变量任一不同则不共享缓存
+     */
+    public static String scope(@NonNull List<SemanticModel> semanticModels,
+                               @NonNull List<QuestionSqlPair> histories,
+                               Map<String, Object> variables) {
+        List<SemanticModel> sortedModels = semanticModels.stream()
+                .sorted(Comparator.comparing(SemanticModel::getName))
+                .toList();
+        List<List<String>> historyPairs = histories.stream()
+                .map(h -> Arrays.asList(h.getQuestion(), h.getSql()))
+                .toList();
+        try {
+            String content = JSON_MAPPER.writeValueAsString(sortedModels) + "\n"
+                             + JSON_MAPPER.writeValueAsString(historyPairs) + "\n"
+                             + JSON_MAPPER.writeValueAsString(Optional.ofNullable(variables)
+                    .map(TreeMap::new).orElseGet(TreeMap::new));
+            return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Calculate the semantic answer cache scope failed", e);
+        }
+    }
+
+    /**
+     * 查找缓存的语义SQL
+     *
+     * @param scope     缓存范围
+     * @param question  原始问题
+     * @param embedding 问题向量，为空时只查找EXACT级
+     * @return 命中结果
+     */
+    public Optional<Hit> get(@NonNull String scope, @NonNull String question, float[] embedding) {
+        String normalized = normalize(question);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry exact = entries.get(key(scope, normalized));
+            if (exact != null && !exact.isExpired(now)) {
+                exactHits.incrementAndGet();
+                return Optional.of(new Hit(Tier.EXACT, exact.semanticSql, 1D));
+            }
+            entries.values().removeIf(e -> e.isExpired(now));
+            if (embedding != null) {
+                Entry best = null;
+                double bestScore = similarityThreshold;
+                for (Entry entry : entries.values()) {
+                    if (!entry.scope.equals(scope) || entry.embedding == null) {
+                        continue;
+                    }
+                    double score = cosineSimilarity(embedding, entry.embedding);
+                    if (score >= bestScore) {
+                        best = entry;
+                        bestScore = score;
+                    }
+                }
+                if (best != null) {
+                    similarHits.incrementAndGet();
+                    log.debug("Semantic answer cache similar hit: '{}' ~ '{}' ({})",
+                            normalized, best.question, bestScore);
+                    return Optional.of(new Hit(Tier.SIMILAR, best.semanticSql, bestScore));
+                }
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(@NonNull String scope, @NonNull String question,
+                    float[] embedding, @NonNull String semanticSql) {
+        String normalized = normalize(question);
+        Entry entry = new Entry(scope, normalized, embedding, semanticSql,
+                System.currentTimeMillis() + ttl.toMillis());
+        synchronized (entries) {
+            entries.put(key(scope, normalized), entry);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        long hits = exactHits.get() + similarHits.get();
+        long total = hits + misses.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("name", name);
+        metrics.put("size", size());
+        metrics.put("max_entries", maxEntries);
+        metrics.put("exact_hits", exactHits.get());
+        metrics.put("similar_hits", similarHits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("evictions", evictions.get());
+        metrics.put("hit_ratio", total == 0 ? 0D : (double) hits / total);
+        return metrics;
+    }
+
+    private static String key(String scope, String normalizedQuestion) {
+        return scope + "\n" + normalizedQuestion;
+    }
+
+    private static double cosineSimilarity(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return 0D;
+        }
+        double dot = 0D, normA = 0D, normB = 0D;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0D || normB == 0D) {
+            return 0D;
+        }
+        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    private record Entry(String scope, String question, float[] embedding,
+                         String semanticSql, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    public record Hit(Tier tier, String semanticSql, double score) {
+    }
+}
@@ -1,9 +1,14 @@
 package ai.dat.core.agent.data;
 
+import ai.dat.core.metrics.DatMetrics;
+import ai.dat.core.utils.CancellationToken;
+import io.micrometer.core.instrument.DistributionSummary;
 import lombok.Getter;
 import lombok.NonNull;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -17,15 +22,29 @@ public class StreamAction implements Iterable<StreamEvent> {
     public static final EventOption FINISHED_EVENT = EventOption.builder()
             .name("__finished__").build();
 
+    /**
+     * 入队时队列中积压的事件数，持续增长说明消费（如SSE写出）跟不上生产
+     */
+    private static final DistributionSummary EVENT_QUEUE_DEPTH =
+            DatMetrics.summary(DatMetrics.EVENT_QUEUE_DEPTH, "events");
+
     private volatile boolean finished = false;
 
     private final BlockingQueue<StreamEvent> eventQueue = new LinkedBlockingQueue<>();
 
+    private final List<Runnable> finishedCallbacks = new ArrayList<>();
+
+    /**
+     * 本次流的取消令牌，每次开始时重新创建
+     */
+    private volatile CancellationToken cancellationToken = new CancellationToken();
+
     /**
      * 添加事件
      */
     public void add(StreamEvent event) {
         if (event != null && !finished) {
+            EVENT_QUEUE_DEPTH.record(eventQueue.size());
             eventQueue.offer(event);
         }
     }
@@ -35,6 +54,7 @@ public class StreamAction implements Iterable<StreamEvent> {
      */
     public void start() {
         finished = false;
+        cancellationToken = new CancellationToken();
         eventQueue.clear(); // 清空队列
     }
 
@@ -42,9 +62,50 @@ public class StreamAction implements Iterable<StreamEvent> {
      * 标记流结束
      */
     public void finished() {
-        finished = true;
+        List<Runnable> callbacks;
+        synchronized (finishedCallbacks) {
+            finished = true;
+            callbacks = new ArrayList<>(finishedCallbacks);
+            finishedCallbacks.clear();
+        }
         // 添加结束标记事件，用于唤醒等待的消费者
         eventQueue.offer(StreamEvent.from(FINISHED_EVENT));
+        callbacks.forEach(Runnable::run);
+    }
+
+    /**
+     * 清空未消费的事件与结束回调，并重新创建取消令牌，供Agent被新的会话复用
+     */
+    public void reset() {
+        synchronized (finishedCallbacks) {
+            finishedCallbacks.clear();
+        }
+        eventQueue.clear();
+        cancellationToken = new CancellationToken();
+    }
+
+    /**
+     * 取消未结束的流（如客户端断开），中止在途的查询与LLM等待，流随后结束
+     *
+     * @param reason 取消原因
+     */
+    public void cancel(String reason) {
+        if (!finished) {
+            cancellationToken.cancel(reason);
+        }
+    }
+
+    /**
+     * 注册流结束回调（只执行一次），如果流已结束则立即执行
+     */
+    public void onFinished(@NonNull Runnable callback) {
+        synchronized (finishedCallbacks) {
+            if (!finished) {
+                finishedCallbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
     }
 
     /**
@@ -3,13 +3,17 @@ package ai.dat.core.contentstore;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
 import ai.dat.core.contentstore.data.WordSynonymPair;
 import ai.dat.core.semantic.data.SemanticModel;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
 import dev.langchain4j.rag.content.aggregator.ContentAggregator;
 import dev.langchain4j.rag.content.aggregator.DefaultContentAggregator;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 内容存储接口类
@@ -34,6 +38,13 @@ public interface ContentStore {
 
     List<SemanticModel> retrieveMdl(String question);
 
+    /**
+     * 检索语义模型的内容，保留检索或重排序的相关性分数等元数据，供提示词上下文按相关性裁剪
+     */
+    default List<Content> retrieveMdlContents(String question) {
+        return getMdlContentRetriever().retrieve(Query.from(question));
+    }
+
     List<SemanticModel> allMdls();
 
     boolean isMdl(TextSegment textSegment);
@@ -62,6 +73,13 @@ public interface ContentStore {
 
     List<QuestionSqlPair> retrieveSql(String question);
 
+    /**
+     * 检索问题和SQL对的内容，保留检索或重排序的相关性分数等元数据，供提示词上下文按相关性裁剪
+     */
+    default List<Content> retrieveSqlContents(String question) {
+        return getSqlContentRetriever().retrieve(Query.from(question));
+    }
+
     boolean isSql(TextSegment textSegment);
 
     default void removeSql(String id) {
@@ -88,6 +106,15 @@ public interface ContentStore {
 
     List<WordSynonymPair> retrieveSyn(String question);
 
+    /**
+     * 检索词和同义词对的内容，保留检索或重排序的相关性分数等元数据，供提示词上下文按相关性裁剪
+     */
+    default List<Content> retrieveSynContents(String question) {
+        return getSynContentRetriever().retrieve(Query.from(question));
+    }
+
+    List<WordSynonymPair> allSyns();
+
     boolean isSyn(TextSegment textSegment);
 
     default void removeSyn(String id) {
@@ -114,6 +141,13 @@ public interface ContentStore {
 
     List<String> retrieveDoc(String question);
 
+    /**
+     * 检索业务知识的内容，保留检索或重排序的相关性分数等元数据，供提示词上下文按相关性裁剪
+     */
+    default List<Content> retrieveDocContents(String question) {
+        return getDocContentRetriever().retrieve(Query.from(question));
+    }
+
     boolean isDoc(TextSegment textSegment);
 
     default void removeDoc(String id) {
@@ -124,6 +158,23 @@ public interface ContentStore {
 
     void removeAllDocs();
 
+    // ---------------向量模型-------------------
+
+    /**
+     * 问题向量，复用检索时已经计算的结果，供语义答案缓存等使用，不支持向量化时返回空
+     */
+    default Optional<Embedding> embedQuestion(String question) {
+        return Optional.empty();
+    }
+
+    // ---------------持久化-------------------
+
+    /**
+     * 持久化批量增删后尚未保存的内容（如词法索引），一批变更结束后调用一次
+     */
+    default void flush() {
+    }
+
     // ---------------Remove All-------------------
 
     default void removeAll() {
@@ -1,10 +1,14 @@
 package ai.dat.core.contentstore;
 
 import ai.dat.core.contentstore.data.*;
+import ai.dat.core.contentstore.lexical.Bm25Index;
 import ai.dat.core.contentstore.utils.ContentStoreUtil;
+import ai.dat.core.contentstore.utils.SynonymDictionary;
+import ai.dat.core.metrics.DatMetrics;
 import ai.dat.core.semantic.data.SemanticModel;
 import ai.dat.core.semantic.view.ElementView;
 import ai.dat.core.semantic.view.SemanticModelView;
+import ai.dat.core.tracing.DatTracing;
 import ai.dat.core.utils.SemanticModelUtil;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -37,7 +41,11 @@ import dev.langchain4j.store.embedding.EmbeddingStore;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -49,10 +57,22 @@ import java.util.stream.Stream;
  * @Author JunjieM
  * @Date 2025/6/25
  */
+@Slf4j
 public class DefaultContentStore implements ContentStore {
 
     public static final String METADATA_CONTENT_TYPE = "content_type";
 
+    /**
+     * 列嵌入（CE）索引的语义模型文本片段对应的列名，检索时用于识别命中的列
+     */
+    public static final String METADATA_COLUMN = "column";
+
+    /**
+     * 向量化的文本与存储的文本片段不同时（如HyQE的问题、CE的列文本），记录向量化的文本，
+     * 没有持久化的词法索引时由此重建，与构建时索引的文本保持一致
+     */
+    private static final String METADATA_EMBEDDED_TEXT = "embedded_text";
+
     private static final Metadata MDL_METADATA = Metadata.from(METADATA_CONTENT_TYPE, ContentType.MDL.toString());
     private static final Metadata SQL_METADATA = Metadata.from(METADATA_CONTENT_TYPE, ContentType.SQL.toString());
     private static final Metadata SYN_METADATA = Metadata.from(METADATA_CONTENT_TYPE, ContentType.SYN.toString());
@@ -78,6 +98,24 @@ public class DefaultContentStore implements ContentStore {
     private final Integer rerankMaxResults;
     private final Double rerankMinScore;
 
+    private final ContentRetrievalMethod retrievalMethod;
+    private final Integer rrfK;
+
+    /**
+     * 词法索引的持久化目录，为null时词法索引只保存在内存中
+     */
+    private final Path lexicalIndexDir;
+
+    /**
+     * 各类内容的BM25词法索引，首次使用时加载，没有持久化的索引时由向量存储中的内容构建
+     */
+    private final Map<ContentType, Bm25Index> lexicalIndexes = new EnumMap<>(ContentType.class);
+
+    /**
+     * 有变更尚未持久化的词法索引，{@link #flush()} 时统一保存（非混合检索时删除已过期的持久化索引）
+     */
+    private final Set<ContentType> dirtyLexicalIndexes = EnumSet.noneOf(ContentType.class);
+
     // -------------------------------------------- Semantic Model -------------------------------------------------
     private final SemanticModelIndexingMethod mdlIndexingMethod;
 
@@ -89,6 +127,15 @@ public class DefaultContentStore implements ContentStore {
     private final Double mdlMinScore;
     // -------------------------------------------------------------------------------------------------------------
 
+    // -------------------------------------------- Word Synonym ---------------------------------------------------
+    private final WordSynonymRetrievalMethod synRetrievalMethod;
+
+    /**
+     * 词典匹配使用的词典，首次检索时由全部的词与近义词对构建，词与近义词对变更后重建
+     */
+    private volatile SynonymDictionary synonymDictionary;
+    // -------------------------------------------------------------------------------------------------------------
+
     // -------------------------------------------- Business Knowledge ---------------------------------------------
     private final BusinessKnowledgeIndexingMethod docIndexingMethod;
 
@@ -116,12 +163,15 @@ public class DefaultContentStore implements ContentStore {
                                Integer maxResults, Double minScore,
                                ScoringModel scoringModel, Boolean rerankMode,
                                Integer rerankMaxResults, Double rerankMinScore,
+                               ContentRetrievalMethod retrievalMethod, Integer rrfK, Path lexicalIndexDir,
 
                                SemanticModelIndexingMethod mdlIndexingMethod,
                                ChatModel mdlHyQEChatModel,
                                String mdlHyQEInstruction, Integer mdlHyQEQuestions,
                                Integer mdlMaxResults, Double mdlMinScore,
 
+                               WordSynonymRetrievalMethod synRetrievalMethod,
+
                                BusinessKnowledgeIndexingMethod docIndexingMethod,
                                Integer docGCEMaxChunkSize, Integer docGCEMaxChunkOverlap,
                                String docGCEChunkRegex,
@@ -130,7 +180,7 @@ public class DefaultContentStore implements ContentStore {
                                Integer docPCCEChildMaxChunkSize, String docPCCEChildChunkRegex,
                                Integer docMaxResults, Double docMinScore) {
         this.defaultChatModel = defaultChatModel;
-        this.embeddingModel = embeddingModel;
+        this.embeddingModel = new QuestionEmbeddingModel(DatMetrics.metered(embeddingModel));
         this.mdlEmbeddingStore = mdlEmbeddingStore;
         this.sqlEmbeddingStore = sqlEmbeddingStore;
         this.synEmbeddingStore = synEmbeddingStore;
@@ -141,7 +191,7 @@ public class DefaultContentStore implements ContentStore {
         this.minScore = Optional.ofNullable(minScore).orElse(0.6);
         Preconditions.checkArgument(this.minScore >= 0.0 && this.minScore <= 1.0,
                 "minScore must be between 0.0 and 1.0");
-        this.scoringModel = scoringModel;
+        this.scoringModel = DatMetrics.metered(scoringModel);
         this.rerankMode = Optional.ofNullable(rerankMode).orElse(false);
         Preconditions.checkArgument(!this.rerankMode || this.scoringModel != null,
                 "scoringModel cannot be null when rerankMode is true");
@@ -151,12 +201,16 @@ public class DefaultContentStore implements ContentStore {
                         && this.rerankMaxResults >= 1,
                 "rerankMaxResults must be between 1 and %s", rerankMaxResultsUpperLimit);
         this.rerankMinScore = rerankMinScore;
+        this.retrievalMethod = Optional.ofNullable(retrievalMethod).orElse(ContentRetrievalMethod.VECTOR);
+        this.rrfK = Optional.ofNullable(rrfK).orElse(60);
+        Preconditions.checkArgument(this.rrfK >= 1, "rrfK must be greater than or equal to 1");
+        this.lexicalIndexDir = lexicalIndexDir;
 
         // -------------------------------------------- Semantic Model ------------------------------------------
         this.mdlIndexingMethod = Optional.ofNullable(mdlIndexingMethod)
                 .orElse(SemanticModelIndexingMethod.CE);
         this.mdlHyQEAssistant = AiServices.builder(MdlHyQEAssistant.class)
-                .chatModel(Objects.requireNonNullElse(mdlHyQEChatModel, defaultChatModel))
+                .chatModel(DatMetrics.metered(Objects.requireNonNullElse(mdlHyQEChatModel, defaultChatModel), "hyqe"))
                 .build();
         this.mdlHyQEInstruction = Optional.ofNullable(mdlHyQEInstruction).orElse("");
         this.mdlHyQEQuestions = Optional.ofNullable(mdlHyQEQuestions).orElse(5);
@@ -170,6 +224,11 @@ public class DefaultContentStore implements ContentStore {
                 "mdlMinScore must be between 0.0 and 1.0");
         // -----------------------------------------------------------------------------------------------------
 
+        // -------------------------------------------- Word Synonym -------------------------------------------
+        this.synRetrievalMethod = Optional.ofNullable(synRetrievalMethod)
+                .orElse(WordSynonymRetrievalMethod.VECTOR);
+        // -----------------------------------------------------------------------------------------------------
+
         // -------------------------------------------- Business Knowledge -------------------------------------
         this.docIndexingMethod = Optional.ofNullable(docIndexingMethod)
                 .orElse(BusinessKnowledgeIndexingMethod.PCCE);
@@ -206,6 +265,11 @@ public class DefaultContentStore implements ContentStore {
         // -----------------------------------------------------------------------------------------------------
     }
 
+    @Override
+    public Optional<Embedding> embedQuestion(String question) {
+        return Optional.of(embeddingModel.embed(question).content());
+    }
+
     @Override
     public List<String> addMdls(List<SemanticModel> semanticModels) {
         if (SemanticModelIndexingMethod.HYQE == mdlIndexingMethod) {
@@ -236,7 +300,7 @@ public class DefaultContentStore implements ContentStore {
                     List<TextSegment> embedTextSegments = questions.stream().map(TextSegment::from).toList();
                     List<Embedding> embeddings = embeddingModel.embedAll(embedTextSegments).content();
                     List<TextSegment> textSegments = embeddings.stream().map(o -> textSegment).collect(Collectors.toList());
-                    return mdlEmbeddingStore.addAll(embeddings, textSegments).stream();
+                    return addAll(ContentType.MDL, mdlEmbeddingStore, embeddings, embedTextSegments, textSegments).stream();
                 })
                 .collect(Collectors.toList());
     }
@@ -253,13 +317,16 @@ public class DefaultContentStore implements ContentStore {
         return semanticModels.stream().flatMap(semanticModel -> {
                     SemanticModelUtil.validateSemanticModel(semanticModel);
                     SemanticModelView semanticModelView = SemanticModelUtil.toSemanticModelView(semanticModel);
-                    List<String> columnTexts = Stream.of(
+                    List<ElementView> columns = Stream.of(
                                     semanticModelView.getEntities().stream(),
                                     semanticModelView.getDimensions().stream(),
                                     semanticModelView.getMeasures().stream()
                             )
                             .flatMap(Function.identity())
-                            .map(o -> new SemanticModelColumnView(semanticModelView, (ElementView) o))
+                            .map(o -> (ElementView) o)
+                            .toList();
+                    List<String> columnTexts = columns.stream()
+                            .map(o -> new SemanticModelColumnView(semanticModelView, o))
                             .map(c -> {
                                 try {
                                     return JSON_MAPPER.writeValueAsString(c);
@@ -275,11 +342,13 @@ public class DefaultContentStore implements ContentStore {
                         throw new RuntimeException("Failed to serialize semantic model to JSON: "
                                 + e.getMessage(), e);
                     }
-                    TextSegment textSegment = TextSegment.from(json, MDL_METADATA);
+                    // 每列的文本片段记录列名，检索时可以只保留命中的列
+                    List<TextSegment> textSegments = columns.stream()
+                            .map(o -> TextSegment.from(json, MDL_METADATA.copy().put(METADATA_COLUMN, o.getName())))
+                            .collect(Collectors.toList());
                     List<TextSegment> embedTextSegments = columnTexts.stream().map(TextSegment::from).toList();
                     List<Embedding> embeddings = embeddingModel.embedAll(embedTextSegments).content();
-                    List<TextSegment> textSegments = embeddings.stream().map(o -> textSegment).collect(Collectors.toList());
-                    return mdlEmbeddingStore.addAll(embeddings, textSegments).stream();
+                    return addAll(ContentType.MDL, mdlEmbeddingStore, embeddings, embedTextSegments, textSegments).stream();
                 })
                 .collect(Collectors.toList());
     }
@@ -302,17 +371,13 @@ public class DefaultContentStore implements ContentStore {
                 .map(TextSegment::from)
                 .toList();
         List<Embedding> embeddings = embeddingModel.embedAll(embedTextSegments).content();
-        return mdlEmbeddingStore.addAll(embeddings, textSegments);
+        return addAll(ContentType.MDL, mdlEmbeddingStore, embeddings, embedTextSegments, textSegments);
     }
 
     @Override
     public ContentRetriever getMdlContentRetriever() {
-        return EmbeddingStoreContentRetriever.builder()
-                .embeddingModel(embeddingModel)
-                .embeddingStore(mdlEmbeddingStore)
-                .maxResults(mdlMaxResults)
-                .minScore(mdlMinScore)
-                .build();
+        return DatMetrics.metered(createContentRetriever(ContentType.MDL, mdlEmbeddingStore,
+                mdlMaxResults, mdlMinScore), "mdl");
     }
 
     @Override
@@ -330,25 +395,26 @@ public class DefaultContentStore implements ContentStore {
 
     @Override
     public List<SemanticModel> retrieveMdl(String question) {
-        Query query = Query.from(question);
-        List<Content> contents = getMdlContentRetriever().retrieve(query);
-        if (rerankMode && !contents.isEmpty()) {
-            contents = getMdlContentAggregator().aggregate(
-                    Collections.singletonMap(query, Collections.singletonList(contents)));
-        }
-        return ContentStoreUtil.contents2SemanticModels(contents);
+        return ContentStoreUtil.contents2SemanticModels(retrieveMdlContents(question));
+    }
+
+    @Override
+    public List<Content> retrieveMdlContents(String question) {
+        return DatTracing.trace(DatTracing.startSpan("ContentStore.retrieveMdl")
+                .setAttribute(DatTracing.CONTENT_TYPE, "mdl"), () -> {
+            Query query = Query.from(question);
+            List<Content> contents = getMdlContentRetriever().retrieve(query);
+            if (rerankMode && !contents.isEmpty()) {
+                contents = getMdlContentAggregator().aggregate(
+                        Collections.singletonMap(query, Collections.singletonList(contents)));
+            }
+            return contents;
+        });
     }
 
     @Override
     public List<SemanticModel> allMdls() {
-        EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
-                .queryEmbedding(embeddingModel.embed("N/A").content()) // 零向量
-                .minScore(0.0) // 匹配所有记录
-                .maxResults(Integer.MAX_VALUE) // 返回全部结果
-                .build();
-        List<TextSegment> textSegments = mdlEmbeddingStore.search(searchRequest)
-                .matches()
-                .stream()
+        List<TextSegment> textSegments = searchAll(mdlEmbeddingStore).stream()
                 .map(EmbeddingMatch::embedded)
                 .collect(Collectors.toList());
         return ContentStoreUtil.toSemanticModels(textSegments);
@@ -363,11 +429,13 @@ public class DefaultContentStore implements ContentStore {
     @Override
     public void removeMdls(Collection<String> ids) {
         mdlEmbeddingStore.removeAll(ids);
+        removeLexically(ContentType.MDL, mdlEmbeddingStore, ids);
     }
 
     @Override
     public void removeAllMdls() {
         mdlEmbeddingStore.removeAll();
+        removeAllLexically(ContentType.MDL);
     }
 
     @Override
@@ -388,17 +456,13 @@ public class DefaultContentStore implements ContentStore {
                     }
                     return TextSegment.from(json, SQL_METADATA);
                 }).collect(Collectors.toList());
-        return sqlEmbeddingStore.addAll(embeddings, textSegments);
+        return addAll(ContentType.SQL, sqlEmbeddingStore, embeddings, embedTextSegments, textSegments);
     }
 
     @Override
     public ContentRetriever getSqlContentRetriever() {
-        return EmbeddingStoreContentRetriever.builder()
-                .embeddingModel(embeddingModel)
-                .embeddingStore(sqlEmbeddingStore)
-                .maxResults(maxResults)
-                .minScore(minScore)
-                .build();
+        return DatMetrics.metered(createContentRetriever(ContentType.SQL, sqlEmbeddingStore,
+                maxResults, minScore), "sql");
     }
 
     @Override
@@ -416,13 +480,21 @@ public class DefaultContentStore implements ContentStore {
 
     @Override
     public List<QuestionSqlPair> retrieveSql(String question) {
-        Query query = Query.from(question);
-        List<Content> contents = getSqlContentRetriever().retrieve(query);
-        if (rerankMode && !contents.isEmpty()) {
-            contents = getSqlContentAggregator().aggregate(
-                    Collections.singletonMap(query, Collections.singletonList(contents)));
-        }
-        return ContentStoreUtil.contents2QuestionSqlPairs(contents);
+        return ContentStoreUtil.contents2QuestionSqlPairs(retrieveSqlContents(question));
+    }
+
+    @Override
+    public List<Content> retrieveSqlContents(String question) {
+        return DatTracing.trace(DatTracing.startSpan("ContentStore.retrieveSql")
+                .setAttribute(DatTracing.CONTENT_TYPE, "sql"), () -> {
+            Query query = Query.from(question);
+            List<Content> contents = getSqlContentRetriever().retrieve(query);
+            if (rerankMode && !contents.isEmpty()) {
+                contents = getSqlContentAggregator().aggregate(
+                        Collections.singletonMap(query, Collections.singletonList(contents)));
+            }
+            return contents;
+        });
     }
 
     @Override
@@ -434,38 +506,84 @@ public class DefaultContentStore implements ContentStore {
     @Override
     public void removeSqls(Collection<String> ids) {
         sqlEmbeddingStore.removeAll(ids);
+        removeLexically(ContentType.SQL, sqlEmbeddingStore, ids);
     }
 
     @Override
     public void removeAllSqls() {
         sqlEmbeddingStore.removeAll();
+        removeAllLexically(ContentType.SQL);
     }
 
     @Override
     public List<String> addSyns(List<WordSynonymPair> synonymPairs) {
         List<TextSegment> textSegments = synonymPairs.stream()
-                .map(pair -> {
-                    String json;
-                    try {
-                        json = JSON_MAPPER.writeValueAsString(pair);
-                    } catch (JsonProcessingException e) {
-                        throw new RuntimeException("Failed to serialize noun synonyms pair to JSON: "
-                                + e.getMessage(), e);
-                    }
-                    return TextSegment.from(json, SYN_METADATA);
-                }).collect(Collectors.toList());
+                .map(DefaultContentStore::toSynTextSegment)
+                .collect(Collectors.toList());
         List<Embedding> embeddings = embeddingModel.embedAll(textSegments).content();
-        return synEmbeddingStore.addAll(embeddings, textSegments);
+        List<String> ids = addAll(ContentType.SYN, synEmbeddingStore, embeddings, textSegments, textSegments);
+        synonymDictionary = null;
+        return ids;
+    }
+
+    private static TextSegment toSynTextSegment(WordSynonymPair pair) {
+        String json;
+        try {
+            json = JSON_MAPPER.writeValueAsString(pair);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize noun synonyms pair to JSON: "
+                    + e.getMessage(), e);
+        }
+        return TextSegment.from(json, SYN_METADATA);
     }
 
     @Override
     public ContentRetriever getSynContentRetriever() {
-        return EmbeddingStoreContentRetriever.builder()
-                .embeddingModel(embeddingModel)
-                .embeddingStore(synEmbeddingStore)
-                .maxResults(maxResults)
-                .minScore(minScore)
-                .build();
+        ContentRetriever vectorRetriever = createContentRetriever(ContentType.SYN, synEmbeddingStore,
+                maxResults, minScore);
+        ContentRetriever retriever = switch (synRetrievalMethod) {
+            case VECTOR -> vectorRetriever;
+            case DICTIONARY -> this::retrieveSynContentsByDictionary;
+            case HYBRID -> query -> {
+                List<Content> contents = new ArrayList<>(retrieveSynContentsByDictionary(query));
+                Set<String> texts = contents.stream()
+                        .map(content -> content.textSegment().text())
+                        .collect(Collectors.toSet());
+                vectorRetriever.retrieve(query).stream()
+                        .filter(content -> texts.add(content.textSegment().text()))
+                        .forEach(contents::add);
+                return contents;
+            };
+        };
+        return DatMetrics.metered(retriever, "syn");
+    }
+
+    private List<Content> retrieveSynContentsByDictionary(Query query) {
+        return synonymDictionary().match(query.text()).stream()
+                .map(pair -> Content.from(toSynTextSegment(pair)))
+                .collect(Collectors.toList());
+    }
+
+    private SynonymDictionary synonymDictionary() {
+        SynonymDictionary dictionary = synonymDictionary;
+        if (dictionary == null) {
+            synchronized (this) {
+                dictionary = synonymDictionary;
+                if (dictionary == null) {
+                    dictionary = SynonymDictionary.build(allSyns());
+                    synonymDictionary = dictionary;
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    @Override
+    public List<WordSynonymPair> allSyns() {
+        List<TextSegment> textSegments = searchAll(synEmbeddingStore).stream()
+                .map(EmbeddingMatch::embedded)
+                .collect(Collectors.toList());
+        return ContentStoreUtil.toNounSynonymPairs(textSegments);
     }
 
     @Override
@@ -483,13 +601,22 @@ public class DefaultContentStore implements ContentStore {
 
     @Override
     public List<WordSynonymPair> retrieveSyn(String question) {
-        Query query = Query.from(question);
-        List<Content> contents = getSynContentRetriever().retrieve(query);
-        if (rerankMode && !contents.isEmpty()) {
-            contents = getSynContentAggregator().aggregate(
-                    Collections.singletonMap(query, Collections.singletonList(contents)));
-        }
-        return ContentStoreUtil.contents2NounSynonymPairs(contents);
+        return ContentStoreUtil.contents2NounSynonymPairs(retrieveSynContents(question));
+    }
+
+    @Override
+    public List<Content> retrieveSynContents(String question) {
+        return DatTracing.trace(DatTracing.startSpan("ContentStore.retrieveSyn")
+                .setAttribute(DatTracing.CONTENT_TYPE, "syn"), () -> {
+            Query query = Query.from(question);
+            List<Content> contents = getSynContentRetriever().retrieve(query);
+            // 词典匹配是精确命中，不再重排序
+            if (rerankMode && !contents.isEmpty() && WordSynonymRetrievalMethod.DICTIONARY != synRetrievalMethod) {
+                contents = getSynContentAggregator().aggregate(
+                        Collections.singletonMap(query, Collections.singletonList(contents)));
+            }
+            return contents;
+        });
     }
 
     @Override
@@ -501,11 +628,15 @@ public class DefaultContentStore implements ContentStore {
     @Override
     public void removeSyns(Collection<String> ids) {
         synEmbeddingStore.removeAll(ids);
+        removeLexically(ContentType.SYN, synEmbeddingStore, ids);
+        synonymDictionary = null;
     }
 
     @Override
     public void removeAllSyns() {
         synEmbeddingStore.removeAll();
+        removeAllLexically(ContentType.SYN);
+        synonymDictionary = null;
     }
 
     @Override
@@ -543,7 +674,7 @@ public class DefaultContentStore implements ContentStore {
                 List<TextSegment> embedTextSegments = finalChildSplitter.split(Document.document(parentText));
                 List<Embedding> embeddings = embeddingModel.embedAll(embedTextSegments).content();
                 List<TextSegment> textSegments = embeddings.stream().map(o -> textSegment).collect(Collectors.toList());
-                return docEmbeddingStore.addAll(embeddings, textSegments).stream();
+                return addAll(ContentType.DOC, docEmbeddingStore, embeddings, embedTextSegments, textSegments).stream();
             });
         }).collect(Collectors.toList());
     }
@@ -557,7 +688,7 @@ public class DefaultContentStore implements ContentStore {
         List<Document> documents = docs.stream().map(doc -> Document.document(doc, DOC_METADATA)).collect(Collectors.toList());
         List<TextSegment> textSegments = splitter.splitAll(documents);
         List<Embedding> embeddings = embeddingModel.embedAll(textSegments).content();
-        return docEmbeddingStore.addAll(embeddings, textSegments);
+        return addAll(ContentType.DOC, docEmbeddingStore, embeddings, textSegments, textSegments);
     }
 
     private List<String> addDocsForFE(List<String> docs) {
@@ -565,17 +696,13 @@ public class DefaultContentStore implements ContentStore {
                 .map(doc -> TextSegment.from(doc, DOC_METADATA))
                 .collect(Collectors.toList());
         List<Embedding> embeddings = embeddingModel.embedAll(textSegments).content();
-        return docEmbeddingStore.addAll(embeddings, textSegments);
+        return addAll(ContentType.DOC, docEmbeddingStore, embeddings, textSegments, textSegments);
     }
 
     @Override
     public ContentRetriever getDocContentRetriever() {
-        return EmbeddingStoreContentRetriever.builder()
-                .embeddingModel(embeddingModel)
-                .embeddingStore(docEmbeddingStore)
-                .maxResults(docMaxResults)
-                .minScore(docMinScore)
-                .build();
+        return DatMetrics.metered(createContentRetriever(ContentType.DOC, docEmbeddingStore,
+                docMaxResults, docMinScore), "doc");
     }
 
     @Override
@@ -593,13 +720,21 @@ public class DefaultContentStore implements ContentStore {
 
     @Override
     public List<String> retrieveDoc(String question) {
-        Query query = Query.from(question);
-        List<Content> contents = getDocContentRetriever().retrieve(query);
-        if (rerankMode && !contents.isEmpty()) {
-            contents = getDocContentAggregator().aggregate(
-                    Collections.singletonMap(query, Collections.singletonList(contents)));
-        }
-        return ContentStoreUtil.contents2Docs(contents);
+        return ContentStoreUtil.contents2Docs(retrieveDocContents(question));
+    }
+
+    @Override
+    public List<Content> retrieveDocContents(String question) {
+        return DatTracing.trace(DatTracing.startSpan("ContentStore.retrieveDoc")
+                .setAttribute(DatTracing.CONTENT_TYPE, "doc"), () -> {
+            Query query = Query.from(question);
+            List<Content> contents = getDocContentRetriever().retrieve(query);
+            if (rerankMode && !contents.isEmpty()) {
+                contents = getDocContentAggregator().aggregate(
+                        Collections.singletonMap(query, Collections.singletonList(contents)));
+            }
+            return contents;
+        });
     }
 
     @Override
@@ -611,13 +746,170 @@ public class DefaultContentStore implements ContentStore {
     @Override
     public void removeDocs(Collection<String> ids) {
         docEmbeddingStore.removeAll(ids);
+        removeLexically(ContentType.DOC, docEmbeddingStore, ids);
     }
 
     @Override
     public void removeAllDocs() {
         docEmbeddingStore.removeAll();
+        removeAllLexically(ContentType.DOC);
+    }
+
+    private List<EmbeddingMatch<TextSegment>> searchAll(EmbeddingStore<TextSegment> embeddingStore) {
+        EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
+                .queryEmbedding(embeddingModel.embed("N/A").content()) // 零向量
+                .minScore(0.0) // 匹配所有记录
+                .maxResults(Integer.MAX_VALUE) // 返回全部结果
+                .build();
+        return embeddingStore.search(searchRequest).matches();
+    }
+
+    private ContentRetriever createContentRetriever(ContentType contentType,
+                                                    EmbeddingStore<TextSegment> embeddingStore,
+                                                    int maxResults, double minScore) {
+        ContentRetriever vectorRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .maxResults(maxResults)
+                .minScore(minScore)
+                .build();
+        if (ContentRetrievalMethod.HYBRID != retrievalMethod) {
+            return vectorRetriever;
+        }
+        return query -> {
+            List<Content> lexicalContents = lexicalIndex(contentType, embeddingStore)
+                    .search(query.text(), maxResults).stream()
+                    .map(match -> Content.from(match.textSegment()))
+                    .toList();
+            return ContentStoreUtil.fuseByReciprocalRank(
+                    List.of(vectorRetriever.retrieve(query), lexicalContents), rrfK, maxResults);
+        };
+    }
+
+    // -------------------------------------------- Lexical Index --------------------------------------------------
+
+    /**
+     * 只有混合检索时才维护词法索引
+     */
+    private boolean isLexicalIndexEnabled() {
+        return ContentRetrievalMethod.HYBRID == retrievalMethod;
+    }
+
+    /**
+     * 持久化有变更的词法索引，每个索引只写一次；非混合检索时不维护词法索引，
+     * 内容变更后删除之前混合检索时持久化的索引，避免切换回混合检索时加载过期的索引
+     */
+    @Override
+    public void flush() {
+        if (lexicalIndexDir == null) {
+            return;
+        }
+        Map<ContentType, Optional<Bm25Index>> dirtyIndexes = new EnumMap<>(ContentType.class);
+        synchronized (lexicalIndexes) {
+            dirtyLexicalIndexes.forEach(t -> dirtyIndexes.put(t, Optional.ofNullable(lexicalIndexes.get(t))));
+            dirtyLexicalIndexes.clear();
+        }
+        for (Map.Entry<ContentType, Optional<Bm25Index>> entry : dirtyIndexes.entrySet()) {
+            Path file = lexicalIndexFile(entry.getKey());
+            try {
+                if (entry.getValue().isPresent()) {
+                    entry.getValue().get().save(file);
+                } else {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to save the lexical index " + file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private List<String> addAll(ContentType contentType,
+                                EmbeddingStore<TextSegment> embeddingStore,
+                                List<Embedding> embeddings,
+                                List<TextSegment> embedTextSegments,
+                                List<TextSegment> textSegments) {
+        List<TextSegment> storedTextSegments = new ArrayList<>(textSegments.size());
+        for (int i = 0; i < textSegments.size(); i++) {
+            TextSegment textSegment = textSegments.get(i);
+            String embedText = embedTextSegments.get(i).text();
+            storedTextSegments.add(embedText.equals(textSegment.text()) ? textSegment :
+                    TextSegment.from(textSegment.text(),
+                            textSegment.metadata().copy().put(METADATA_EMBEDDED_TEXT, embedText)));
+        }
+        List<String> ids = embeddingStore.addAll(embeddings, storedTextSegments);
+        if (isLexicalIndexEnabled()) {
+            Bm25Index index = lexicalIndex(contentType, embeddingStore);
+            // 与向量化的文本保持一致，命中时返回存储的文本片段
+            for (int i = 0; i < ids.size(); i++) {
+                index.add(ids.get(i), embedTextSegments.get(i).text(), textSegments.get(i));
+            }
+        }
+        markLexicalIndexDirty(contentType);
+        return ids;
+    }
+
+    private void removeLexically(ContentType contentType,
+                                 EmbeddingStore<TextSegment> embeddingStore,
+                                 Collection<String> ids) {
+        if (isLexicalIndexEnabled()) {
+            lexicalIndex(contentType, embeddingStore).remove(ids);
+        }
+        markLexicalIndexDirty(contentType);
     }
 
+    private void removeAllLexically(ContentType contentType) {
+        if (isLexicalIndexEnabled()) {
+            synchronized (lexicalIndexes) {
+                lexicalIndexes.put(contentType, new Bm25Index());
+            }
+        }
+        markLexicalIndexDirty(contentType);
+    }
+
+    private void markLexicalIndexDirty(ContentType contentType) {
+        synchronized (lexicalIndexes) {
+            dirtyLexicalIndexes.add(contentType);
+        }
+    }
+
+    private Bm25Index lexicalIndex(ContentType contentType, EmbeddingStore<TextSegment> embeddingStore) {
+        synchronized (lexicalIndexes) {
+            return lexicalIndexes.computeIfAbsent(contentType, t -> loadLexicalIndex(t, embeddingStore));
+        }
+    }
+
+    private Bm25Index loadLexicalIndex(ContentType contentType, EmbeddingStore<TextSegment> embeddingStore) {
+        if (lexicalIndexDir != null) {
+            Path file = lexicalIndexFile(contentType);
+            if (Files.exists(file)) {
+                try {
+                    return Bm25Index.load(file);
+                } catch (IOException e) {
+                    log.warn("Failed to load the lexical index {}, rebuild it from the embedding store",
+                            file, e);
+                }
+            }
+        }
+        // 没有可用的持久化索引时，由向量存储中的文本片段构建，索引向量化的文本
+        Bm25Index index = new Bm25Index();
+        searchAll(embeddingStore).forEach(match -> {
+            TextSegment textSegment = match.embedded();
+            String embedText = textSegment.metadata().getString(METADATA_EMBEDDED_TEXT);
+            if (embedText == null) {
+                index.add(match.embeddingId(), textSegment.text(), textSegment);
+            } else {
+                index.add(match.embeddingId(), embedText, TextSegment.from(textSegment.text(),
+                        textSegment.metadata().copy().remove(METADATA_EMBEDDED_TEXT)));
+            }
+        });
+        return index;
+    }
+
+    private Path lexicalIndexFile(ContentType contentType) {
+        return lexicalIndexDir.resolve(contentType + ".json");
+    }
+    // -------------------------------------------------------------------------------------------------------------
+
     @Getter
     @JsonInclude(JsonInclude.Include.NON_NULL)
     static class SemanticModelColumnView {
@@ -0,0 +1,62 @@
+package ai.dat.core.contentstore;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 缓存单个问题向量的向量模型：一次提问中语义模型、SQL样例、同义词、文档的检索以及语义答案缓存
+ * 都对同一个问题向量化，只调用一次向量模型；批量向量化（构建内容存储）不缓存
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class QuestionEmbeddingModel implements EmbeddingModel {
+
+    private static final int MAX_QUESTIONS = 256;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(5);
+
+    private final EmbeddingModel delegate;
+
+    private final Cache<String, Embedding> embeddings = CacheBuilder.newBuilder()
+            .maximumSize(MAX_QUESTIONS)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+
+    QuestionEmbeddingModel(@NonNull EmbeddingModel delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response<Embedding> embed(String text) {
+        Embedding embedding = embeddings.getIfPresent(text);
+        if (embedding != null) {
+            return Response.from(embedding);
+        }
+        Response<Embedding> response = delegate.embed(text);
+        embeddings.put(text, response.content());
+        return response;
+    }
+
+    @Override
+    public Response<Embedding> embed(TextSegment textSegment) {
+        return embed(textSegment.text());
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return delegate.embedAll(textSegments);
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+}
@@ -0,0 +1,20 @@
+package ai.dat.core.contentstore.data;
+
+import lombok.Getter;
+
+/**
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Getter
+public enum ContentRetrievalMethod {
+    VECTOR("Embedding similarity search only."),
+    HYBRID("Embedding similarity search fused with BM25 lexical search by reciprocal rank fusion, " +
+            "helps with cryptic column names, metric codes and business terms.");
+
+    private final String description;
+
+    ContentRetrievalMethod(String description) {
+        this.description = description;
+    }
+}
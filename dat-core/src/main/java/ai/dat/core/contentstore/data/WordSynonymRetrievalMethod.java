@@ -0,0 +1,21 @@
+package ai.dat.core.contentstore.data;
+
+import lombok.Getter;
+
+/**
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Getter
+public enum WordSynonymRetrievalMethod {
+    VECTOR("Embedding similarity search over the word synonym pairs."),
+    DICTIONARY("Exact dictionary matching: finds every word and synonym occurring in the question " +
+            "in a single pass, without embedding the question."),
+    HYBRID("Dictionary matches first, followed by the embedding similarity search results.");
+
+    private final String description;
+
+    WordSynonymRetrievalMethod(String description) {
+        this.description = description;
+    }
+}
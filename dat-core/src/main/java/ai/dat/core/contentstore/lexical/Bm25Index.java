@@ -0,0 +1,201 @@
+package ai.dat.core.contentstore.lexical;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 进程内的BM25词法索引（倒排索引）：与向量存储使用相同的ID，
+ * 每条记录由参与打分的文本与检索命中时返回的文本片段组成
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public class Bm25Index {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Document> documents = new HashMap<>();
+    private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(@NonNull String id, @NonNull String text, @NonNull TextSegment textSegment) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        List<String> tokens = LexicalTokenizer.tokenize(text);
+        tokens.forEach(token -> termFrequencies.merge(token, 1, Integer::sum));
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            documents.put(id, new Document(text, textSegment, tokens.size(), termFrequencies.keySet()));
+            termFrequencies.forEach((term, tf) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(id, tf));
+            totalLength += tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(@NonNull Collection<String> ids) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::removeDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按BM25得分检索
+     *
+     * @param query      查询文本
+     * @param maxResults 最多返回的结果数
+     * @return 按得分从高到低排序的结果
+     */
+    public List<Match> search(String query, int maxResults) {
+        Set<String> terms = new LinkedHashSet<>(LexicalTokenizer.tokenize(query));
+        if (terms.isEmpty() || maxResults <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            int n = documents.size();
+            if (n == 0) {
+                return Collections.emptyList();
+            }
+            double avgLength = Math.max((double) totalLength / n, 1.0);
+            Map<String, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<String, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+                posting.forEach((id, tf) -> {
+                    double norm = K1 * (1 - B + B * documents.get(id).length() / avgLength);
+                    scores.merge(id, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                });
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                    .limit(maxResults)
+                    .map(e -> new Match(e.getKey(), e.getValue(), documents.get(e.getKey()).textSegment()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 持久化到文件（先写临时文件再替换，避免读到写了一半的索引）；
+     * 相同的文本片段只保存一份，倒排表在加载时重建
+     */
+    public void save(@NonNull Path file) throws IOException {
+        Map<TextSegment, Integer> segmentIndexes = new LinkedHashMap<>();
+        List<DocumentState> documentStates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            documents.forEach((id, document) -> {
+                Integer segment = segmentIndexes.computeIfAbsent(document.textSegment(), k -> segmentIndexes.size());
+                documentStates.add(new DocumentState(id, document.text(), segment));
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<SegmentState> segmentStates = segmentIndexes.keySet().stream()
+                .map(s -> new SegmentState(s.text(), s.metadata().toMap()))
+                .toList();
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tempFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            JSON_MAPPER.writeValue(tempFile.toFile(), new IndexState(segmentStates, documentStates));
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public static Bm25Index load(@NonNull Path file) throws IOException {
+        IndexState state = JSON_MAPPER.readValue(file.toFile(), IndexState.class);
+        List<TextSegment> textSegments = state.segments().stream()
+                .map(s -> TextSegment.from(s.text(), Metadata.from(s.metadata())))
+                .toList();
+        Bm25Index index = new Bm25Index();
+        state.documents().forEach(d -> index.add(d.id(), d.text(), textSegments.get(d.segment())));
+        return index;
+    }
+
+    private void removeDocument(String id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<String, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= document.length();
+    }
+
+    /**
+     * @param id          记录ID（与向量存储的ID一致）
+     * @param score       BM25得分
+     * @param textSegment 文本片段
+     */
+    public record Match(String id, double score, TextSegment textSegment) {
+    }
+
+    private record Document(String text, TextSegment textSegment, int length, Set<String> terms) {
+    }
+
+    private record IndexState(@JsonProperty("segments") List<SegmentState> segments,
+                              @JsonProperty("documents") List<DocumentState> documents) {
+    }
+
+    private record SegmentState(@JsonProperty("text") String text,
+                                @JsonProperty("metadata") Map<String, Object> metadata) {
+    }
+
+    private record DocumentState(@JsonProperty("id") String id,
+                                 @JsonProperty("text") String text,
+                                 @JsonProperty("segment") int segment) {
+    }
+}
@@ -0,0 +1,116 @@
+package ai.dat.core.contentstore.lexical;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 词法索引的分词器，同时适用于中文与英文：
+ * <ul>
+ *     <li>拉丁字母与数字组成的词：整体作为一个词，另外按下划线、驼峰与字母数字边界拆分出子词，
+ *     例如 orderAmt_2024 得到 orderamt_2024、order、amt、2024</li>
+ *     <li>中日韩文字：按相邻两个字切分（bigram），单独出现的一个字作为一个词</li>
+ * </ul>
+ * 分词前统一做NFKC规范化（全角转半角等），词统一为小写
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public final class LexicalTokenizer {
+
+    private LexicalTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < normalized.length()) {
+            char c = normalized.charAt(i);
+            if (isWordChar(c)) {
+                int start = i;
+                while (i < normalized.length() && isWordChar(normalized.charAt(i))) {
+                    i++;
+                }
+                addWordTokens(normalized.substring(start, i), tokens);
+            } else if (isCjkChar(c)) {
+                int start = i;
+                while (i < normalized.length() && isCjkChar(normalized.charAt(i))) {
+                    i++;
+                }
+                addCjkTokens(normalized.substring(start, i), tokens);
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addWordTokens(String word, List<String> tokens) {
+        String lowerWord = word.toLowerCase(Locale.ROOT);
+        if (lowerWord.chars().allMatch(c -> c == '_')) {
+            return;
+        }
+        tokens.add(lowerWord);
+        List<String> subwords = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= word.length(); i++) {
+            if (i == word.length() || isSubwordBoundary(word.charAt(i - 1), word.charAt(i),
+                    i + 1 < word.length() ? word.charAt(i + 1) : 0)) {
+                String subword = word.substring(start, i).replace("_", "");
+                if (!subword.isEmpty()) {
+                    subwords.add(subword.toLowerCase(Locale.ROOT));
+                }
+                start = i;
+            }
+        }
+        if (subwords.size() > 1) {
+            tokens.addAll(subwords);
+        }
+    }
+
+    /**
+     * 子词边界：下划线、小写到大写（orderAmt）、连续大写后接小写（GMVRate）、字母与数字之间
+     */
+    private static boolean isSubwordBoundary(char prev, char c, char next) {
+        if (c == '_' || prev == '_') {
+            return true;
+        }
+        if (Character.isDigit(prev) != Character.isDigit(c)) {
+            return true;
+        }
+        if (Character.isLowerCase(prev) && Character.isUpperCase(c)) {
+            return true;
+        }
+        return Character.isUpperCase(prev) && Character.isUpperCase(c) && Character.isLowerCase(next);
+    }
+
+    private static void addCjkTokens(String text, List<String> tokens) {
+        if (text.length() == 1) {
+            tokens.add(text);
+            return;
+        }
+        for (int i = 0; i + 1 < text.length(); i++) {
+            tokens.add(text.substring(i, i + 2));
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || (Character.isLetterOrDigit(c) && !isCjkChar(c));
+    }
+
+    private static boolean isCjkChar(char c) {
+        if (!Character.isLetterOrDigit(c)) {
+            return false;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -1,15 +1,24 @@
 package ai.dat.core.contentstore.utils;
 
+import ai.dat.core.contentstore.DefaultContentStore;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
 import ai.dat.core.contentstore.data.WordSynonymPair;
+import ai.dat.core.prompt.ScoredSemanticModel;
 import ai.dat.core.semantic.data.SemanticModel;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -52,6 +61,56 @@ public class ContentStoreUtil {
                 ));
     }
 
+    /**
+     * 语义模型内容转换为带相关性分数和命中列的语义模型，同一语义模型（列嵌入索引的多个列）合并为一个，
+     * 取最高的分数和全部命中的列，按首次出现的顺序排列
+     */
+    public static List<ScoredSemanticModel> contents2ScoredSemanticModels(List<Content> contents) {
+        Map<String, SemanticModel> parsed = new HashMap<>();
+        Map<String, SemanticModel> semanticModels = new LinkedHashMap<>();
+        Map<String, Double> scores = new HashMap<>();
+        Map<String, Set<String>> hitColumns = new HashMap<>();
+        for (Content content : contents) {
+            String text = content.textSegment().text();
+            SemanticModel semanticModel = parsed.computeIfAbsent(text, t -> {
+                try {
+                    return JSON_MAPPER.readValue(t, SemanticModel.class);
+                } catch (JsonProcessingException e) {
+                    return null;
+                }
+            });
+            if (semanticModel == null) {
+                continue;
+            }
+            String name = semanticModel.getName();
+            semanticModels.putIfAbsent(name, semanticModel);
+            Double score = score(content);
+            if (score != null) {
+                scores.merge(name, score, Math::max);
+            }
+            Set<String> columns = hitColumns.computeIfAbsent(name, n -> new LinkedHashSet<>());
+            Optional.ofNullable(content.textSegment().metadata().getString(DefaultContentStore.METADATA_COLUMN))
+                    .ifPresent(columns::add);
+        }
+        return semanticModels.values().stream()
+                .map(semanticModel -> new ScoredSemanticModel(semanticModel,
+                        scores.get(semanticModel.getName()), hitColumns.get(semanticModel.getName())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 内容的相关性分数，重排序分数优先，没有分数（如词典匹配、词法检索）时返回null
+     */
+    public static Double score(Content content) {
+        Object score = Optional.ofNullable(content.metadata().get(ContentMetadata.RERANKED_SCORE))
+                .orElseGet(() -> content.metadata().get(ContentMetadata.SCORE));
+        return score instanceof Number number ? number.doubleValue() : null;
+    }
+
+    public static List<Double> scores(List<Content> contents) {
+        return contents.stream().map(ContentStoreUtil::score).collect(Collectors.toList());
+    }
+
     public static List<QuestionSqlPair> contents2QuestionSqlPairs(List<Content> contents) {
         return toQuestionSqlPairs(toTextSegments(contents));
     }
@@ -95,4 +154,33 @@ public class ContentStoreUtil {
                 .map(TextSegment::text)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * 倒数排名融合（Reciprocal Rank Fusion）：文本片段在各个排名列表中的得分为 1 / (k + 排名)，
+     * 按得分之和排序；同一文本片段在一个列表中出现多次时只取最靠前的排名
+     *
+     * @param rankings   各个检索方式的结果（按相关性从高到低排序）
+     * @param k          平滑常数，越大排名靠后的结果权重越接近排名靠前的结果
+     * @param maxResults 最多返回的结果数
+     * @return 融合后的结果
+     */
+    public static List<Content> fuseByReciprocalRank(List<List<Content>> rankings, int k, int maxResults) {
+        // 按文本和元数据区分文本片段，列嵌入（CE）索引中同一语义模型的不同列是不同的文本片段
+        Map<TextSegment, Content> contents = new LinkedHashMap<>();
+        Map<TextSegment, Double> scores = new LinkedHashMap<>();
+        for (List<Content> ranking : rankings) {
+            Map<TextSegment, Integer> ranks = new LinkedHashMap<>();
+            for (Content content : ranking) {
+                TextSegment textSegment = content.textSegment();
+                ranks.putIfAbsent(textSegment, ranks.size() + 1);
+                contents.putIfAbsent(textSegment, content);
+            }
+            ranks.forEach((textSegment, rank) -> scores.merge(textSegment, 1.0 / (k + rank), Double::sum));
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<TextSegment, Double>comparingByValue().reversed())
+                .limit(maxResults)
+                .map(e -> contents.get(e.getKey()))
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,174 @@
+package ai.dat.core.contentstore.utils;
+
+import ai.dat.core.contentstore.data.WordSynonymPair;
+import lombok.NonNull;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * 词与近义词的词典匹配（Aho-Corasick 多模式自动机）：由全部的词与近义词对构建，
+ * 一次线性扫描找出问题中出现的所有词与近义词。
+ * <p>
+ * 匹配前统一做NFKC规范化（全角转半角等）与小写转换；
+ * 拉丁字母与数字组成的词要求在词边界上匹配，中日韩文字不要求边界
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public class SynonymDictionary {
+
+    private final List<WordSynonymPair> synonymPairs;
+    private final Node root = new Node();
+
+    private SynonymDictionary(List<WordSynonymPair> synonymPairs) {
+        this.synonymPairs = List.copyOf(synonymPairs);
+        for (int i = 0; i < this.synonymPairs.size(); i++) {
+            WordSynonymPair pair = this.synonymPairs.get(i);
+            insert(pair.getWord(), i);
+            for (String synonym : pair.getSynonyms()) {
+                insert(synonym, i);
+            }
+        }
+        buildFailureLinks();
+    }
+
+    public static SynonymDictionary build(@NonNull List<WordSynonymPair> synonymPairs) {
+        return new SynonymDictionary(synonymPairs);
+    }
+
+    public int size() {
+        return synonymPairs.size();
+    }
+
+    /**
+     * 找出问题中出现的词或近义词所属的词与近义词对，按首次出现的位置排序
+     *
+     * @param question 问题
+     * @return 词与近义词对
+     */
+    public List<WordSynonymPair> match(String question) {
+        if (question == null || question.isEmpty() || synonymPairs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String text = normalize(question);
+        // LinkedHashSet 保持首次匹配的顺序
+        Set<Integer> matched = new LinkedHashSet<>();
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (node != root && !node.children.containsKey(c)) {
+                node = node.failure;
+            }
+            node = node.children.getOrDefault(c, root);
+            for (Node output = node; output != root; output = output.outputLink) {
+                for (Pattern pattern : output.patterns) {
+                    if (atBoundary(text, i - pattern.length + 1, i, pattern)) {
+                        matched.add(pattern.pairIndex);
+                    }
+                }
+            }
+        }
+        return matched.stream().map(synonymPairs::get).toList();
+    }
+
+    /**
+     * 规范化：NFKC（全角转半角、兼容字符统一）、小写、连续空白合并为一个空格
+     */
+    static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(normalized.length());
+        boolean whitespace = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isWhitespace(c)) {
+                whitespace = true;
+                continue;
+            }
+            if (whitespace && !sb.isEmpty()) {
+                sb.append(' ');
+            }
+            whitespace = false;
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private void insert(String term, int pairIndex) {
+        String normalized = normalize(term);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Node node = root;
+        for (int i = 0; i < normalized.length(); i++) {
+            node = node.children.computeIfAbsent(normalized.charAt(i), k -> new Node());
+        }
+        node.patterns.add(new Pattern(pairIndex, normalized.length(),
+                isWordChar(normalized.charAt(0)), isWordChar(normalized.charAt(normalized.length() - 1))));
+    }
+
+    /**
+     * 按层（BFS）计算失配链接与输出链接（沿失配链接最近的一个有模式的节点）
+     */
+    private void buildFailureLinks() {
+        Deque<Node> queue = new ArrayDeque<>();
+        for (Node child : root.children.values()) {
+            child.failure = root;
+            child.outputLink = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                char c = entry.getKey();
+                Node child = entry.getValue();
+                Node failure = node.failure;
+                while (failure != root && !failure.children.containsKey(c)) {
+                    failure = failure.failure;
+                }
+                Node target = failure.children.get(c);
+                child.failure = target != null && target != child ? target : root;
+                child.outputLink = child.failure == root || !child.failure.patterns.isEmpty() ?
+                        child.failure : child.failure.outputLink;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static boolean atBoundary(String text, int start, int end, Pattern pattern) {
+        if (pattern.wordStart && start > 0 && isWordChar(text.charAt(start - 1))) {
+            return false;
+        }
+        return !pattern.wordEnd || end + 1 >= text.length() || !isWordChar(text.charAt(end + 1));
+    }
+
+    /**
+     * 是否为需要词边界的字符（拉丁字母、数字等，不含中日韩文字）
+     */
+    private static boolean isWordChar(char c) {
+        if (!Character.isLetterOrDigit(c)) {
+            return c == '_';
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script != Character.UnicodeScript.HAN
+                && script != Character.UnicodeScript.HIRAGANA
+                && script != Character.UnicodeScript.KATAKANA
+                && script != Character.UnicodeScript.HANGUL;
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Pattern> patterns = new ArrayList<>(1);
+        private Node failure;
+        private Node outputLink;
+    }
+
+    /**
+     * @param pairIndex 所属词与近义词对的下标
+     * @param length    规范化后的长度
+     * @param wordStart 首字符是否需要词边界
+     * @param wordEnd   尾字符是否需要词边界
+     */
+    private record Pattern(int pairIndex, int length, boolean wordStart, boolean wordEnd) {
+    }
+}
@@ -0,0 +1,29 @@
+package ai.dat.core.conversation;
+
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * 会话历史存储：按会话ID保存问题与SQL对，作为后续提问的上下文。
+ * 实现需要线程安全，并限制每个会话保留的条数
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public interface ConversationStore extends AutoCloseable {
+
+    /**
+     * 获取会话历史（按时间先后排序），不存在或已过期时返回空列表
+     */
+    List<QuestionSqlPair> get(@NonNull String conversationId);
+
+    void add(@NonNull String conversationId, @NonNull QuestionSqlPair questionSqlPair);
+
+    void remove(@NonNull String conversationId);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,218 @@
+package ai.dat.core.conversation;
+
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+/**
+ * 本地文件的会话历史存储：每个会话一个 JSON Lines 文件（文件名为会话ID的SHA-256），
+ * 新的问题与SQL对追加写入，条数达到 maxMessages 的两倍时压缩为最近的 maxMessages 条。
+ * <p>
+ * 会话历史不占用堆内存，服务重启后保留。会话在 ttl 内没有新的记录则过期，
+ * 读取时忽略并删除，后台定期清理过期的文件
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Slf4j
+public class FileConversationStore implements ConversationStore {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private static final String FILE_EXTENSION = ".jsonl";
+
+    private final Path dirPath;
+
+    private final int maxMessages;
+
+    private final long ttlMillis;
+
+    private final Striped<Lock> locks = Striped.lock(64);
+
+    private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dat-conversation-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FileConversationStore(@NonNull Path dirPath, int maxMessages, @NonNull Duration ttl) {
+        Preconditions.checkArgument(maxMessages > 0, "maxMessages must be greater than 0");
+        Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(), "ttl must be greater than 0");
+        this.dirPath = dirPath;
+        this.maxMessages = maxMessages;
+        this.ttlMillis = ttl.toMillis();
+        try {
+            Files.createDirectories(dirPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create the conversation store directory: " + dirPath, e);
+        }
+        long period = Math.max(TimeUnit.MINUTES.toMillis(1), Math.min(ttlMillis, TimeUnit.HOURS.toMillis(1)));
+        cleaner.scheduleWithFixedDelay(this::cleanExpired, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public List<QuestionSqlPair> get(@NonNull String conversationId) {
+        Path filePath = filePath(conversationId);
+        Lock lock = locks.get(filePath.getFileName().toString());
+        lock.lock();
+        try {
+            if (!Files.exists(filePath)) {
+                return Collections.emptyList();
+            }
+            if (isExpired(filePath)) {
+                Files.deleteIfExists(filePath);
+                return Collections.emptyList();
+            }
+            List<QuestionSqlPair> pairs = read(filePath);
+            return pairs.size() > maxMessages
+                    ? List.copyOf(pairs.subList(pairs.size() - maxMessages, pairs.size()))
+                    : Collections.unmodifiableList(pairs);
+        } catch (IOException e) {
+            log.warn("Failed to read the conversation history: {}", conversationId, e);
+            return Collections.emptyList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void add(@NonNull String conversationId, @NonNull QuestionSqlPair questionSqlPair) {
+        log.debug("conversationId: " + conversationId
+                + "\nquestion: " + questionSqlPair.getQuestion()
+                + "\nsql: " + questionSqlPair.getSql());
+        Path filePath = filePath(conversationId);
+        Lock lock = locks.get(filePath.getFileName().toString());
+        lock.lock();
+        try {
+            if (Files.exists(filePath) && isExpired(filePath)) {
+                Files.deleteIfExists(filePath);
+            }
+            List<QuestionSqlPair> pairs = Files.exists(filePath) ? read(filePath) : new ArrayList<>();
+            if (pairs.size() + 1 < 2 * maxMessages) {
+                Files.writeString(filePath, toLine(questionSqlPair), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                return;
+            }
+            // 压缩：只保留最近的 maxMessages 条，先写临时文件再原子替换
+            pairs.add(questionSqlPair);
+            StringBuilder content = new StringBuilder();
+            for (QuestionSqlPair pair : pairs.subList(pairs.size() - maxMessages, pairs.size())) {
+                content.append(toLine(pair));
+            }
+            Path tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+            Files.writeString(tempPath, content, StandardCharsets.UTF_8);
+            Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to save the conversation history: {}", conversationId, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(@NonNull String conversationId) {
+        Path filePath = filePath(conversationId);
+        Lock lock = locks.get(filePath.getFileName().toString());
+        lock.lock();
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            log.warn("Failed to remove the conversation history: {}", conversationId, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        cleaner.shutdownNow();
+    }
+
+    private void cleanExpired() {
+        try (Stream<Path> paths = Files.list(dirPath)) {
+            List<Path> expired = paths
+                    .filter(path -> path.getFileName().toString().endsWith(FILE_EXTENSION))
+                    .filter(this::isExpiredQuietly)
+                    .toList();
+            int cleaned = 0;
+            for (Path path : expired) {
+                // 加锁后再次检查，期间可能有新的记录写入
+                Lock lock = locks.get(path.getFileName().toString());
+                lock.lock();
+                try {
+                    if (isExpiredQuietly(path) && Files.deleteIfExists(path)) {
+                        cleaned++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (cleaned > 0) {
+                log.debug("Cleaned {} expired conversation histories", cleaned);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to clean the expired conversation histories in {}", dirPath, e);
+        }
+    }
+
+    private boolean isExpired(Path filePath) throws IOException {
+        return System.currentTimeMillis() - Files.getLastModifiedTime(filePath).toMillis() >= ttlMillis;
+    }
+
+    private boolean isExpiredQuietly(Path filePath) {
+        try {
+            return isExpired(filePath);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Path filePath(String conversationId) {
+        return dirPath.resolve(Hashing.sha256().hashString(conversationId, StandardCharsets.UTF_8)
+                + FILE_EXTENSION);
+    }
+
+    /**
+     * 读取全部记录，跳过不完整的行（如进程在写入时退出）
+     */
+    private static List<QuestionSqlPair> read(Path filePath) throws IOException {
+        List<QuestionSqlPair> pairs = new ArrayList<>();
+        for (String line : Files.readAllLines(filePath, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                pairs.add(JSON_MAPPER.readValue(line, QuestionSqlPair.class));
+            } catch (JsonProcessingException e) {
+                log.warn("Skip the malformed conversation history line in {}", filePath);
+            }
+        }
+        return pairs;
+    }
+
+    private static String toLine(QuestionSqlPair questionSqlPair) throws JsonProcessingException {
+        return JSON_MAPPER.writeValueAsString(questionSqlPair) + "\n";
+    }
+}
@@ -0,0 +1,151 @@
+package ai.dat.core.conversation;
+
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import com.google.common.base.Preconditions;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存中的会话历史存储：每个会话最多保留 maxMessages 条（丢弃最早的），
+ * 会话在 ttl 内没有访问则过期，全部会话按估算的字节数限制容量（淘汰最久未访问的会话）
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Slf4j
+public class InMemoryConversationStore implements ConversationStore {
+
+    private final int maxMessages;
+
+    private final long ttlMillis;
+
+    private final long maxBytes;
+
+    /**
+     * 按访问顺序排列，最久未访问的会话在前，因此过期的会话总是位于头部
+     */
+    private final LinkedHashMap<String, Conversation> conversations = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long usedBytes = 0L;
+
+    public InMemoryConversationStore(int maxMessages, @NonNull Duration ttl, long maxBytes) {
+        Preconditions.checkArgument(maxMessages > 0, "maxMessages must be greater than 0");
+        Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(), "ttl must be greater than 0");
+        Preconditions.checkArgument(maxBytes > 0, "maxBytes must be greater than 0");
+        this.maxMessages = maxMessages;
+        this.ttlMillis = ttl.toMillis();
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public List<QuestionSqlPair> get(@NonNull String conversationId) {
+        long now = System.currentTimeMillis();
+        synchronized (conversations) {
+            expire(now);
+            Conversation conversation = conversations.get(conversationId);
+            if (conversation == null) {
+                return Collections.emptyList();
+            }
+            conversation.accessedAt = now;
+            return List.copyOf(conversation.pairs);
+        }
+    }
+
+    @Override
+    public void add(@NonNull String conversationId, @NonNull QuestionSqlPair questionSqlPair) {
+        log.debug("conversationId: " + conversationId
+                + "\nquestion: " + questionSqlPair.getQuestion()
+                + "\nsql: " + questionSqlPair.getSql());
+        long now = System.currentTimeMillis();
+        synchronized (conversations) {
+            expire(now);
+            Conversation conversation = conversations.get(conversationId);
+            if (conversation == null) {
+                conversation = new Conversation(estimateBytes(conversationId));
+                conversations.put(conversationId, conversation);
+                usedBytes += conversation.bytes;
+            }
+            long bytes = estimateBytes(questionSqlPair);
+            conversation.accessedAt = now;
+            conversation.pairs.addLast(questionSqlPair);
+            conversation.bytes += bytes;
+            usedBytes += bytes;
+            while (conversation.pairs.size() > maxMessages) {
+                long removedBytes = estimateBytes(conversation.pairs.removeFirst());
+                conversation.bytes -= removedBytes;
+                usedBytes -= removedBytes;
+            }
+            // 超出容量时淘汰最久未访问的会话，当前会话位于尾部，最后才会被淘汰
+            Iterator<Map.Entry<String, Conversation>> iterator = conversations.entrySet().iterator();
+            while (usedBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, Conversation> eldest = iterator.next();
+                usedBytes -= eldest.getValue().bytes;
+                iterator.remove();
+                log.debug("Evict the conversation history: {}", eldest.getKey());
+            }
+        }
+    }
+
+    @Override
+    public void remove(@NonNull String conversationId) {
+        synchronized (conversations) {
+            Conversation removed = conversations.remove(conversationId);
+            if (removed != null) {
+                usedBytes -= removed.bytes;
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (conversations) {
+            return conversations.size();
+        }
+    }
+
+    public long usedBytes() {
+        synchronized (conversations) {
+            return usedBytes;
+        }
+    }
+
+    private void expire(long now) {
+        Iterator<Conversation> iterator = conversations.values().iterator();
+        while (iterator.hasNext()) {
+            Conversation eldest = iterator.next();
+            if (now - eldest.accessedAt < ttlMillis) {
+                break;
+            }
+            usedBytes -= eldest.bytes;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 粗略估算占用的堆内存字节数
+     */
+    private static long estimateBytes(String conversationId) {
+        return 128L + 2L * conversationId.length();
+    }
+
+    private static long estimateBytes(QuestionSqlPair questionSqlPair) {
+        return 96L + 2L * questionSqlPair.getQuestion().length() + 2L * questionSqlPair.getSql().length();
+    }
+
+    private static class Conversation {
+        private final ArrayDeque<QuestionSqlPair> pairs = new ArrayDeque<>();
+        private long bytes;
+        private long accessedAt;
+
+        private Conversation(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ai.dat.core.exception;
+
+/**
+ * 并发已满（在途数量与等待队列均已达到上限或等待超时）时抛出，调用方应快速失败并稍后重试
+ *
+ * @Author JunjieM
+ * @Date 2025/10/20
+ */
+public class BusyException extends RuntimeException {
+
+    public BusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public BusyException(String message) {
+        super(message);
+    }
+}
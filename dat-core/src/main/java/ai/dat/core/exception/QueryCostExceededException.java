@@ -0,0 +1,16 @@
+package ai.dat.core.exception;
+
+import java.sql.SQLException;
+
+/**
+ * 查询的估算行数或代价超过阈值被拒绝执行时抛出，消息中包含拒绝原因，会返回给Agent（LLM）用于修正查询
+ *
+ * @Author JunjieM
+ * @Date 2025/10/27
+ */
+public class QueryCostExceededException extends SQLException {
+
+    public QueryCostExceededException(String message) {
+        super(message);
+    }
+}
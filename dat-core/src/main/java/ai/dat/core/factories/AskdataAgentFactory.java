@@ -27,6 +27,22 @@ public interface AskdataAgentFactory extends Factory {
                         DatabaseAdapter databaseAdapter,
                         Map<String, Object> variables);
 
+    /**
+     * 创建Agent，并传入数据库的连接标识（数据库类型与连接配置的摘要）：
+     * 同一连接每次创建的数据库适配器可以共享进程内按连接隔离的缓存（如数据预览）
+     *
+     * @param connectionId 连接标识，为null时不共享
+     */
+    default AskdataAgent create(ReadableConfig config,
+                                List<SemanticModel> semanticModels,
+                                ContentStore contentStore,
+                                List<ChatModelInstance> chatModelInstances,
+                                DatabaseAdapter databaseAdapter,
+                                String connectionId,
+                                Map<String, Object> variables) {
+        return create(config, semanticModels, contentStore, chatModelInstances, databaseAdapter, variables);
+    }
+
     @Deprecated
     default AskdataAgent create(ReadableConfig config,
                                 List<SemanticModel> semanticModels,
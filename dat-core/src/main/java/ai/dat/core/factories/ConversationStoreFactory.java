@@ -0,0 +1,14 @@
+package ai.dat.core.factories;
+
+import ai.dat.core.configuration.ReadableConfig;
+import ai.dat.core.conversation.ConversationStore;
+
+/**
+ * 会话历史存储工厂接口类
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public interface ConversationStoreFactory extends Factory {
+    ConversationStore create(ReadableConfig config);
+}
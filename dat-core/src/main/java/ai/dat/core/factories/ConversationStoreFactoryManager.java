@@ -0,0 +1,27 @@
+package ai.dat.core.factories;
+
+import java.util.Set;
+
+/**
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public class ConversationStoreFactoryManager {
+    private static final FactoryManager<ConversationStoreFactory> factoryManager;
+
+    static {
+        factoryManager = new FactoryManager<>(ConversationStoreFactory.class, "conversation store");
+    }
+
+    public static ConversationStoreFactory getFactory(String identifier) {
+        return factoryManager.getFactory(identifier);
+    }
+
+    public static Set<String> getSupports() {
+        return factoryManager.getSupports();
+    }
+
+    public static boolean isSupported(String identifier) {
+        return factoryManager.isSupported(identifier);
+    }
+}
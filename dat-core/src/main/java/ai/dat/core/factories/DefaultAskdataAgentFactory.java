@@ -3,17 +3,25 @@ package ai.dat.core.factories;
 
 import ai.dat.core.adapter.DatabaseAdapter;
 import ai.dat.core.agent.AskdataAgent;
+import ai.dat.core.agent.DataPreviewCache;
 import ai.dat.core.agent.DefaultAskdataAgent;
+import ai.dat.core.agent.QueryCostGuard;
+import ai.dat.core.agent.SemanticAnswerCache;
 import ai.dat.core.configuration.ConfigOption;
 import ai.dat.core.configuration.ConfigOptions;
 import ai.dat.core.configuration.ReadableConfig;
 import ai.dat.core.contentstore.ContentStore;
 import ai.dat.core.factories.data.ChatModelInstance;
+import ai.dat.core.prompt.PromptContextPacker;
+import ai.dat.core.prompt.PromptSection;
 import ai.dat.core.semantic.data.SemanticModel;
 import ai.dat.core.utils.FactoryUtil;
 import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
 import lombok.NonNull;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -91,6 +99,20 @@ public class DefaultAskdataAgentFactory implements AskdataAgentFactory {
                     .withDescription("The maximum number of sample records to fetch from the database and show to the LLM. " +
                             "Value must be between 1 and 20");
 
+    public static final ConfigOption<Duration> DATA_PREVIEW_REFRESH_INTERVAL =
+            ConfigOptions.key("data-preview.refresh-interval")
+                    .durationType()
+                    .defaultValue(DataPreviewCache.DEFAULT_REFRESH_INTERVAL)
+                    .withDescription("The interval to refresh the cached data previews in the background, " +
+                            "0 means the cached data previews are never refreshed.");
+
+    public static final ConfigOption<Duration> DATA_PREVIEW_QUERY_TIMEOUT =
+            ConfigOptions.key("data-preview.query-timeout")
+                    .durationType()
+                    .defaultValue(DataPreviewCache.DEFAULT_QUERY_TIMEOUT)
+                    .withDescription("The hard timeout of each data preview query, " +
+                            "the data preview is skipped when the query times out.");
+
     public static final ConfigOption<String> TEXT_TO_SQL_RULES =
             ConfigOptions.key("text-to-sql-rules")
                     .stringType()
@@ -104,6 +126,141 @@ public class DefaultAskdataAgentFactory implements AskdataAgentFactory {
                     .noDefaultValue()
                     .withDescription("User instruction");
 
+    public static final ConfigOption<Boolean> SPECULATIVE_EXECUTION =
+            ConfigOptions.key("speculative-execution")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription("Whether to start the data preview and SQL generation reasoning at the same time " +
+                            "as the intent classification. The reasoning output is buffered until the intent is " +
+                            "confirmed as `TEXT_TO_SQL`, otherwise it is discarded. Only takes effect when " +
+                            "the intent classification is enabled.");
+
+    public static final ConfigOption<Boolean> PROMPT_BUDGET =
+            ConfigOptions.key("prompt-budget")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription("Whether to limit the estimated tokens of each context section in the " +
+                            "Text2SQL prompt. Sections exceeding the budget drop the least relevant items first " +
+                            "by the retrieval or rerank scores, semantic models are first shortened to the " +
+                            "columns hit by the column embedding (CE) retrieval.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_SEMANTIC_MODELS =
+            ConfigOptions.key("prompt-budget.semantic-models")
+                    .intType()
+                    .defaultValue(6000)
+                    .withDescription("The token budget of the semantic models, at least one semantic model is kept.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_DATA_SAMPLES =
+            ConfigOptions.key("prompt-budget.data-samples")
+                    .intType()
+                    .defaultValue(2000)
+                    .withDescription("The token budget of the semantic model data previews.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_SQL_SAMPLES =
+            ConfigOptions.key("prompt-budget.sql-samples")
+                    .intType()
+                    .defaultValue(2000)
+                    .withDescription("The token budget of the question and SQL samples.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_SYNONYMS =
+            ConfigOptions.key("prompt-budget.synonyms")
+                    .intType()
+                    .defaultValue(500)
+                    .withDescription("The token budget of the word synonyms.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_DOCS =
+            ConfigOptions.key("prompt-budget.docs")
+                    .intType()
+                    .defaultValue(2000)
+                    .withDescription("The token budget of the business knowledge docs.");
+
+    public static final ConfigOption<Integer> PROMPT_BUDGET_HISTORIES =
+            ConfigOptions.key("prompt-budget.histories")
+                    .intType()
+                    .defaultValue(1500)
+                    .withDescription("The token budget of the conversation histories, the most recent are kept first.");
+
+    public static final ConfigOption<Boolean> ANSWER_CACHE =
+            ConfigOptions.key("answer-cache")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription("Whether to cache the semantic SQL of successfully executed questions, " +
+                            "repeated questions skip the intent classification, SQL generation reasoning " +
+                            "and SQL generation LLM calls.");
+
+    public static final ConfigOption<Integer> ANSWER_CACHE_MAX_ENTRIES =
+            ConfigOptions.key("answer-cache.max-entries")
+                    .intType()
+                    .defaultValue(1000)
+                    .withDescription("The maximum number of entries in the semantic answer cache, " +
+                            "the least recently used entries are evicted first.");
+
+    public static final ConfigOption<Duration> ANSWER_CACHE_TTL =
+            ConfigOptions.key("answer-cache.ttl")
+                    .durationType()
+                    .defaultValue(Duration.ofHours(1))
+                    .withDescription("The time to live of the semantic answer cache entries.");
+
+    public static final ConfigOption<Double> ANSWER_CACHE_SIMILARITY_THRESHOLD =
+            ConfigOptions.key("answer-cache.similarity-threshold")
+                    .doubleType()
+                    .defaultValue(1.0)
+                    .withDescription("The minimum cosine similarity between question embeddings " +
+                            "for a similar hit of the semantic answer cache. " +
+                            "Value must be between 0 (exclusive) and 1, 1 means exact match only (default). " +
+                            "Similar questions may differ in filters or time ranges, " +
+                            "lower it only after verifying the hits on your own questions.");
+
+    public static final ConfigOption<Duration> QUERY_TIMEOUT =
+            ConfigOptions.key("query-timeout")
+                    .durationType()
+                    .defaultValue(Duration.ZERO)
+                    .withDescription("The timeout of each SQL query executed by the agent, the running statement " +
+                            "is cancelled when the query times out. 0 means no timeout.");
+
+    public static final ConfigOption<Boolean> COST_GUARD =
+            ConfigOptions.key("cost-guard")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription("Whether to estimate the rows and cost of the generated SQL with the database " +
+                            "EXPLAIN before executing it, queries exceeding the thresholds are handled " +
+                            "according to the `cost-guard.action`. Queries that cannot be explained are executed.");
+
+    public static final ConfigOption<Long> COST_GUARD_MAX_ROWS =
+            ConfigOptions.key("cost-guard.max-rows")
+                    .longType()
+                    .defaultValue(1000000L)
+                    .withDescription("The maximum estimated rows of the query plan.");
+
+    public static final ConfigOption<Double> COST_GUARD_MAX_COST =
+            ConfigOptions.key("cost-guard.max-cost")
+                    .doubleType()
+                    .noDefaultValue()
+                    .withDescription("The maximum estimated cost of the query plan, in the cost unit of the database. " +
+                            "Ignored for databases that do not provide the estimated cost.");
+
+    public static final ConfigOption<QueryCostGuard.Action> COST_GUARD_ACTION =
+            ConfigOptions.key("cost-guard.action")
+                    .enumType(QueryCostGuard.Action.class)
+                    .defaultValue(QueryCostGuard.Action.REJECT)
+                    .withDescription("The action for queries exceeding the thresholds: " +
+                            "`REJECT` returns the reason to the LLM, `LIMIT` limits the results to " +
+                            "`cost-guard.limit` rows, `APPROVAL` asks the user for approval " +
+                            "(only for agents with human-in-the-loop, otherwise rejected).");
+
+    public static final ConfigOption<Integer> COST_GUARD_LIMIT =
+            ConfigOptions.key("cost-guard.limit")
+                    .intType()
+                    .defaultValue(1000)
+                    .withDescription("The maximum number of rows returned when the action is `LIMIT`.");
+
+    public static final ConfigOption<Duration> COST_GUARD_PLAN_CACHE_TTL =
+            ConfigOptions.key("cost-guard.plan-cache-ttl")
+                    .durationType()
+                    .defaultValue(Duration.ofMinutes(10))
+                    .withDescription("The time to live of the query plans cached by SQL fingerprint, " +
+                            "0 means the query plans are not cached.");
+
     @Override
     public Set<ConfigOption<?>> requiredOptions() {
         return Collections.emptySet();
@@ -115,7 +272,13 @@ public class DefaultAskdataAgentFactory implements AskdataAgentFactory {
                 DEFAULT_LLM, LANGUAGE, INTENT_CLASSIFICATION, INTENT_CLASSIFICATION_LLM,
                 SQL_GENERATION_REASONING, SQL_GENERATION_REASONING_LLM,
                 SQL_GENERATION_LLM, MAX_HISTORIES, DATA_PREVIEW, DATA_PREVIEW_LIMIT,
-                TEXT_TO_SQL_RULES, INSTRUCTION
+                DATA_PREVIEW_REFRESH_INTERVAL, DATA_PREVIEW_QUERY_TIMEOUT,
+                TEXT_TO_SQL_RULES, INSTRUCTION, ANSWER_CACHE, ANSWER_CACHE_MAX_ENTRIES,
+                ANSWER_CACHE_TTL, ANSWER_CACHE_SIMILARITY_THRESHOLD, SPECULATIVE_EXECUTION,
+                QUERY_TIMEOUT, COST_GUARD, COST_GUARD_MAX_ROWS, COST_GUARD_MAX_COST, COST_GUARD_ACTION,
+                COST_GUARD_LIMIT, COST_GUARD_PLAN_CACHE_TTL, PROMPT_BUDGET, PROMPT_BUDGET_SEMANTIC_MODELS,
+                PROMPT_BUDGET_DATA_SAMPLES, PROMPT_BUDGET_SQL_SAMPLES, PROMPT_BUDGET_SYNONYMS, PROMPT_BUDGET_DOCS,
+                PROMPT_BUDGET_HISTORIES
         ));
     }
 
@@ -136,6 +299,17 @@ public class DefaultAskdataAgentFactory implements AskdataAgentFactory {
                                @NonNull List<ChatModelInstance> chatModelInstances,
                                @NonNull DatabaseAdapter databaseAdapter,
                                Map<String, Object> variables) {
+        return create(config, semanticModels, contentStore, chatModelInstances, databaseAdapter, null, variables);
+    }
+
+    @Override
+    public AskdataAgent create(@NonNull ReadableConfig config,
+                               List<SemanticModel> semanticModels,
+                               @NonNull ContentStore contentStore,
+                               @NonNull List<ChatModelInstance> chatModelInstances,
+                               @NonNull DatabaseAdapter databaseAdapter,
+                               String connectionId,
+                               Map<String, Object> variables) {
         Preconditions.checkArgument(!chatModelInstances.isEmpty(),
                 "chatModelInstances cannot be empty");
         FactoryUtil.validateFactoryOptions(this, config);
@@ -169,7 +343,8 @@ public class DefaultAskdataAgentFactory implements AskdataAgentFactory {
                 .sqlGenerationReasoning(sqlGenerationReasoning)
                 .sqlGenerationReasoningModel(sqlGenerationReasoningInstance.getStreamingChatModel())
                 .sqlGenerationModel(sqlGenerationInstance.getChatModel())
-                .maxHistories(maxHistories);
+                .maxHistories(maxHistories)
+                .speculativeExecution(config.get(SPECULATIVE_EXECUTION));
 
         config.getOptional(TEXT_TO_SQL_RULES).ifPresent(builder::textToSqlRules);
         config.getOptional(INSTRUCTION).ifPresent(builder::instruction);
@@ -182,11 +357,58 @@ public class DefaultAskdataAgentFactory implements AskdataAgentFactory {
         }
         if (dataPreview) {
             builder.semanticModelDataPreviewLimit(config.get(DATA_PREVIEW_LIMIT));
+            builder.dataPreviewCache(DataPreviewCache.getOrCreate(
+                    config.get(DATA_PREVIEW_REFRESH_INTERVAL), config.get(DATA_PREVIEW_QUERY_TIMEOUT)));
+            builder.dataPreviewConnectionId(connectionId);
+        }
+        if (config.get(ANSWER_CACHE)) {
+            builder.semanticAnswerCache(createSemanticAnswerCache(config));
+        }
+        if (!config.get(QUERY_TIMEOUT).isZero()) {
+            builder.queryTimeout(config.get(QUERY_TIMEOUT));
+        }
+        if (config.get(COST_GUARD)) {
+            builder.queryCostGuard(createQueryCostGuard(config));
+        }
+        if (config.get(PROMPT_BUDGET)) {
+            builder.promptContextPacker(createPromptContextPacker(config));
         }
 
         return builder.build();
     }
 
+    /**
+     * 相同配置的Agent在进程内共享同一个语义答案缓存
+     */
+    private SemanticAnswerCache createSemanticAnswerCache(ReadableConfig config) {
+        String name = IDENTIFIER + ":" + Hashing.sha256()
+                .hashString(new TreeMap<>(config.toMap()).toString(), StandardCharsets.UTF_8);
+        return SemanticAnswerCache.getOrCreate(name, config.get(ANSWER_CACHE_MAX_ENTRIES),
+                config.get(ANSWER_CACHE_TTL), config.get(ANSWER_CACHE_SIMILARITY_THRESHOLD));
+    }
+
+    /**
+     * 相同配置的Agent在进程内共享同一个查询代价守卫（及其查询计划缓存）
+     */
+    private QueryCostGuard createQueryCostGuard(ReadableConfig config) {
+        String name = IDENTIFIER + ":" + Hashing.sha256()
+                .hashString(new TreeMap<>(config.toMap()).toString(), StandardCharsets.UTF_8);
+        return QueryCostGuard.getOrCreate(name, config.get(COST_GUARD_MAX_ROWS).doubleValue(),
+                config.getOptional(COST_GUARD_MAX_COST).orElse(null), config.get(COST_GUARD_ACTION),
+                config.get(COST_GUARD_LIMIT), config.get(COST_GUARD_PLAN_CACHE_TTL));
+    }
+
+    private PromptContextPacker createPromptContextPacker(ReadableConfig config) {
+        Map<PromptSection, Integer> budgets = new EnumMap<>(PromptSection.class);
+        budgets.put(PromptSection.SEMANTIC_MODELS, config.get(PROMPT_BUDGET_SEMANTIC_MODELS));
+        budgets.put(PromptSection.DATA_SAMPLES, config.get(PROMPT_BUDGET_DATA_SAMPLES));
+        budgets.put(PromptSection.SQL_SAMPLES, config.get(PROMPT_BUDGET_SQL_SAMPLES));
+        budgets.put(PromptSection.SYNONYMS, config.get(PROMPT_BUDGET_SYNONYMS));
+        budgets.put(PromptSection.DOCS, config.get(PROMPT_BUDGET_DOCS));
+        budgets.put(PromptSection.HISTORIES, config.get(PROMPT_BUDGET_HISTORIES));
+        return new PromptContextPacker(budgets);
+    }
+
     private void validateConfigOptions(ReadableConfig config, Map<String, ChatModelInstance> instances) {
         config.getOptional(MAX_HISTORIES)
                 .ifPresent(n -> Preconditions.checkArgument(n > 0,
@@ -194,6 +416,42 @@ public class DefaultAskdataAgentFactory implements AskdataAgentFactory {
         config.getOptional(DATA_PREVIEW_LIMIT)
                 .ifPresent(n -> Preconditions.checkArgument(n >= 1 && n <= 20,
                         "'" + DATA_PREVIEW_LIMIT.key() + "' value must be between 1 and 20"));
+        config.getOptional(DATA_PREVIEW_REFRESH_INTERVAL)
+                .ifPresent(d -> Preconditions.checkArgument(!d.isNegative(),
+                        "'" + DATA_PREVIEW_REFRESH_INTERVAL.key() + "' value cannot be negative"));
+        config.getOptional(DATA_PREVIEW_QUERY_TIMEOUT)
+                .ifPresent(d -> Preconditions.checkArgument(!d.isNegative() && !d.isZero(),
+                        "'" + DATA_PREVIEW_QUERY_TIMEOUT.key() + "' value must be greater than 0"));
+        config.getOptional(ANSWER_CACHE_MAX_ENTRIES)
+                .ifPresent(n -> Preconditions.checkArgument(n > 0,
+                        "'" + ANSWER_CACHE_MAX_ENTRIES.key() + "' value must be greater than 0"));
+        config.getOptional(ANSWER_CACHE_TTL)
+                .ifPresent(d -> Preconditions.checkArgument(!d.isNegative() && !d.isZero(),
+                        "'" + ANSWER_CACHE_TTL.key() + "' value must be greater than 0"));
+        config.getOptional(ANSWER_CACHE_SIMILARITY_THRESHOLD)
+                .ifPresent(n -> Preconditions.checkArgument(n > 0 && n <= 1,
+                        "'" + ANSWER_CACHE_SIMILARITY_THRESHOLD.key() + "' value must be between 0 (exclusive) and 1"));
+        config.getOptional(QUERY_TIMEOUT)
+                .ifPresent(d -> Preconditions.checkArgument(!d.isNegative(),
+                        "'" + QUERY_TIMEOUT.key() + "' value cannot be negative"));
+        config.getOptional(COST_GUARD_MAX_ROWS)
+                .ifPresent(n -> Preconditions.checkArgument(n > 0,
+                        "'" + COST_GUARD_MAX_ROWS.key() + "' value must be greater than 0"));
+        config.getOptional(COST_GUARD_MAX_COST)
+                .ifPresent(n -> Preconditions.checkArgument(n > 0,
+                        "'" + COST_GUARD_MAX_COST.key() + "' value must be greater than 0"));
+        config.getOptional(COST_GUARD_LIMIT)
+                .ifPresent(n -> Preconditions.checkArgument(n > 0,
+                        "'" + COST_GUARD_LIMIT.key() + "' value must be greater than 0"));
+        config.getOptional(COST_GUARD_PLAN_CACHE_TTL)
+                .ifPresent(d -> Preconditions.checkArgument(!d.isNegative(),
+                        "'" + COST_GUARD_PLAN_CACHE_TTL.key() + "' value cannot be negative"));
+        for (ConfigOption<Integer> option : List.of(PROMPT_BUDGET_SEMANTIC_MODELS, PROMPT_BUDGET_DATA_SAMPLES,
+                PROMPT_BUDGET_SQL_SAMPLES, PROMPT_BUDGET_SYNONYMS, PROMPT_BUDGET_DOCS, PROMPT_BUDGET_HISTORIES)) {
+            config.getOptional(option)
+                    .ifPresent(n -> Preconditions.checkArgument(n > 0,
+                            "'" + option.key() + "' value must be greater than 0"));
+        }
         String llmNames = String.join(", ", instances.keySet());
         String errorMessageFormat = "'%s' value must be one of [%s]";
         config.getOptional(DEFAULT_LLM)
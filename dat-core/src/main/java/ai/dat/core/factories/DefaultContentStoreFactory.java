@@ -7,7 +7,9 @@ import ai.dat.core.contentstore.ContentStore;
 import ai.dat.core.contentstore.DefaultContentStore;
 import ai.dat.core.contentstore.data.BusinessKnowledgeIndexingMethod;
 import ai.dat.core.contentstore.data.BusinessKnowledgeIndexingParentMode;
+import ai.dat.core.contentstore.data.ContentRetrievalMethod;
 import ai.dat.core.contentstore.data.SemanticModelIndexingMethod;
+import ai.dat.core.contentstore.data.WordSynonymRetrievalMethod;
 import ai.dat.core.factories.data.ChatModelInstance;
 import ai.dat.core.scoring.LlmScoringModel;
 import ai.dat.core.utils.FactoryUtil;
@@ -20,6 +22,7 @@ import dev.langchain4j.store.embedding.EmbeddingStore;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -83,6 +86,32 @@ public class DefaultContentStoreFactory implements ContentStoreFactory {
                     .withDescription("The name of the LLM model when reranking using LLM. " +
                             "If not set, use the default-llm. (Note: score range [0, 10])");
 
+    public static final ConfigOption<ContentRetrievalMethod> RETRIEVAL_METHOD =
+            ConfigOptions.key("retrieval-method")
+                    .enumType(ContentRetrievalMethod.class)
+                    .defaultValue(ContentRetrievalMethod.VECTOR)
+                    .withDescription("Content retrieval method of semantic models, question SQL pairs, " +
+                            "word synonyms and business knowledge.\n" +
+                            Arrays.stream(ContentRetrievalMethod.values())
+                                    .map(e -> e.name() + ": " + e.getDescription())
+                                    .collect(Collectors.joining("\n")));
+
+    public static final ConfigOption<Integer> HYBRID_RRF_K =
+            ConfigOptions.key("hybrid.rrf-k")
+                    .intType()
+                    .defaultValue(60)
+                    .withDescription("The k constant of reciprocal rank fusion in HYBRID retrieval method, " +
+                            "must be greater than or equal to 1. The larger the value, " +
+                            "the closer the weight of lower ranked results is to that of higher ranked results.");
+
+    public static final ConfigOption<String> LEXICAL_INDEX_DIR =
+            ConfigOptions.key("lexical-index.dir")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription("The directory where the BM25 lexical index of the HYBRID retrieval " +
+                            "method is persisted. If not set, the lexical index is only kept in memory and " +
+                            "built from the embedding stores on first use.");
+
     // -------------------------------------------- Semantic Model -------------------------------------------------
     public static final ConfigOption<SemanticModelIndexingMethod> SEMANTIC_MODEL_INDEXING_METHOD =
             ConfigOptions.key("semantic-model.indexing-method")
@@ -127,6 +156,17 @@ public class DefaultContentStoreFactory implements ContentStoreFactory {
                             "If not set, use the min-score.");
     // -------------------------------------------------------------------------------------------------------------
 
+    // -------------------------------------------- Word Synonym ---------------------------------------------------
+    public static final ConfigOption<WordSynonymRetrievalMethod> WORD_SYNONYM_RETRIEVAL_METHOD =
+            ConfigOptions.key("word-synonym.retrieval-method")
+                    .enumType(WordSynonymRetrievalMethod.class)
+                    .defaultValue(WordSynonymRetrievalMethod.VECTOR)
+                    .withDescription("Word synonym retrieval method.\n" +
+                            Arrays.stream(WordSynonymRetrievalMethod.values())
+                                    .map(e -> e.name() + ": " + e.getDescription())
+                                    .collect(Collectors.joining("\n")));
+    // -------------------------------------------------------------------------------------------------------------
+
     // -------------------------------------------- Business Knowledge ---------------------------------------------
     public static final ConfigOption<BusinessKnowledgeIndexingMethod> BUSINESS_KNOWLEDGE_INDEXING_METHOD =
             ConfigOptions.key("business-knowledge.indexing-method")
@@ -294,6 +334,7 @@ public class DefaultContentStoreFactory implements ContentStoreFactory {
                 MAX_RESULTS, MIN_SCORE, DEFAULT_LLM,
                 RERANK_MODE, RERANK_MAX_RESULTS, RERANK_MIN_SCORE,
                 USE_LLM_RERANKING, RERANKING_LLM,
+                RETRIEVAL_METHOD, HYBRID_RRF_K, LEXICAL_INDEX_DIR,
 
                 SEMANTIC_MODEL_INDEXING_METHOD,
                 SEMANTIC_MODEL_INDEXING_HYQE_LLM,
@@ -302,6 +343,8 @@ public class DefaultContentStoreFactory implements ContentStoreFactory {
                 SEMANTIC_MODEL_RETRIEVAL_MAX_RESULTS,
                 SEMANTIC_MODEL_RETRIEVAL_MIN_SCORE,
 
+                WORD_SYNONYM_RETRIEVAL_METHOD,
+
                 BUSINESS_KNOWLEDGE_INDEXING_METHOD,
                 BUSINESS_KNOWLEDGE_INDEXING_GCE_MAX_CHUNK_SIZE,
                 BUSINESS_KNOWLEDGE_INDEXING_GCE_MAX_CHUNK_OVERLAP,
@@ -334,6 +377,9 @@ public class DefaultContentStoreFactory implements ContentStoreFactory {
                 BUSINESS_KNOWLEDGE_INDEXING_PCCE_CHILD_MAX_CHUNK_SIZE,
                 BUSINESS_KNOWLEDGE_INDEXING_PCCE_CHILD_CHUNK_REGEX,
 
+                // 切换为混合检索时重建，词法索引与向量化的文本保持一致
+                RETRIEVAL_METHOD,
+
                 // ------------------ Deprecated -------------------
                 SEMANTIC_MODEL_RETRIEVAL_STRATEGY,
                 SEMANTIC_MODEL_HYQE_LLM,
@@ -384,10 +430,14 @@ public class DefaultContentStoreFactory implements ContentStoreFactory {
                 .docEmbeddingStore(docEmbeddingStore)
                 .defaultChatModel(defaultInstance.getChatModel())
                 .mdlIndexingMethod(semanticModelIndexingMethod)
+                .retrievalMethod(config.get(RETRIEVAL_METHOD))
+                .rrfK(config.get(HYBRID_RRF_K))
+                .synRetrievalMethod(config.get(WORD_SYNONYM_RETRIEVAL_METHOD))
                 .docIndexingMethod(businessKnowledgeIndexingMethod);
 
         config.getOptional(MAX_RESULTS).ifPresent(builder::maxResults);
         config.getOptional(MIN_SCORE).ifPresent(builder::minScore);
+        config.getOptional(LEXICAL_INDEX_DIR).map(Path::of).ifPresent(builder::lexicalIndexDir);
 
         Optional.ofNullable(scoringModel).ifPresent(builder::scoringModel);
         config.getOptional(RERANK_MODE).ifPresent(builder::rerankMode);
@@ -499,6 +549,10 @@ public class DefaultContentStoreFactory implements ContentStoreFactory {
                 "'" + RERANK_MODE.key() + "' is true and '" + USE_LLM_RERANKING.key() + "' is false, " +
                         "reranking has not been set yet");
 
+        Integer rrfK = config.get(HYBRID_RRF_K);
+        Preconditions.checkArgument(rrfK >= 1,
+                "'" + HYBRID_RRF_K.key() + "' value must be greater than or equal to 1");
+
         Integer rerankMaxResults = config.get(RERANK_MAX_RESULTS);
         int rerankMaxResultsUpperLimit = Math.min(maxResults, 20);
         Preconditions.checkArgument(rerankMaxResults >= 1 && rerankMaxResults <= rerankMaxResultsUpperLimit,
@@ -0,0 +1,79 @@
+package ai.dat.core.factories;
+
+import ai.dat.core.configuration.ConfigOption;
+import ai.dat.core.configuration.ConfigOptions;
+import ai.dat.core.configuration.ReadableConfig;
+import ai.dat.core.conversation.ConversationStore;
+import ai.dat.core.conversation.FileConversationStore;
+import ai.dat.core.utils.FactoryUtil;
+import com.google.common.base.Preconditions;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public class FileConversationStoreFactory implements ConversationStoreFactory {
+
+    public static final String IDENTIFIER = "file";
+
+    public static final ConfigOption<String> DIR =
+            ConfigOptions.key("dir")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription("""
+                            The directory where the conversation histories are persisted, \
+                            one JSON Lines file per conversation.
+                            The project mode does not need to be filled in by default and is stored \
+                            in the project root directory under the .dat/conversations directory.
+                            """);
+
+    public static final ConfigOption<Integer> MAX_MESSAGES =
+            ConfigOptions.key("max-messages")
+                    .intType()
+                    .defaultValue(20)
+                    .withDescription("The maximum number of question SQL pairs kept per conversation, " +
+                            "the earliest ones are discarded when exceeded, must be greater than 0.");
+
+    public static final ConfigOption<Duration> TTL =
+            ConfigOptions.key("ttl")
+                    .durationType()
+                    .defaultValue(Duration.ofDays(7))
+                    .withDescription("A conversation without new question SQL pairs within the TTL expires " +
+                            "and its file is deleted, must be greater than 0.");
+
+    @Override
+    public String factoryIdentifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public Set<ConfigOption<?>> requiredOptions() {
+        return Set.of(DIR);
+    }
+
+    @Override
+    public Set<ConfigOption<?>> optionalOptions() {
+        return new LinkedHashSet<>(List.of(MAX_MESSAGES, TTL));
+    }
+
+    @Override
+    public ConversationStore create(ReadableConfig config) {
+        validateConfigOptions(config);
+        return new FileConversationStore(Paths.get(config.get(DIR)), config.get(MAX_MESSAGES), config.get(TTL));
+    }
+
+    private void validateConfigOptions(ReadableConfig config) {
+        FactoryUtil.validateFactoryOptions(this, config);
+        Preconditions.checkArgument(config.get(MAX_MESSAGES) > 0,
+                "'" + MAX_MESSAGES.key() + "' value must be greater than 0");
+        Duration ttl = config.get(TTL);
+        Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(),
+                "'" + TTL.key() + "' value must be greater than 0");
+    }
+}
@@ -0,0 +1,79 @@
+package ai.dat.core.factories;
+
+import ai.dat.core.configuration.ConfigOption;
+import ai.dat.core.configuration.ConfigOptions;
+import ai.dat.core.configuration.MemorySize;
+import ai.dat.core.configuration.ReadableConfig;
+import ai.dat.core.conversation.ConversationStore;
+import ai.dat.core.conversation.InMemoryConversationStore;
+import ai.dat.core.utils.FactoryUtil;
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public class InMemoryConversationStoreFactory implements ConversationStoreFactory {
+
+    public static final String IDENTIFIER = "memory";
+
+    public static final ConfigOption<Integer> MAX_MESSAGES =
+            ConfigOptions.key("max-messages")
+                    .intType()
+                    .defaultValue(20)
+                    .withDescription("The maximum number of question SQL pairs kept per conversation, " +
+                            "the earliest ones are discarded when exceeded, must be greater than 0.");
+
+    public static final ConfigOption<Duration> TTL =
+            ConfigOptions.key("ttl")
+                    .durationType()
+                    .defaultValue(Duration.ofHours(24))
+                    .withDescription("A conversation that has not been accessed within the TTL expires, " +
+                            "must be greater than 0.");
+
+    public static final ConfigOption<MemorySize> MAX_SIZE =
+            ConfigOptions.key("max-size")
+                    .memoryType()
+                    .defaultValue(MemorySize.ofMebiBytes(64))
+                    .withDescription("The maximum estimated heap size of all conversations, " +
+                            "the least recently accessed conversations are evicted when exceeded.");
+
+    @Override
+    public String factoryIdentifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public Set<ConfigOption<?>> requiredOptions() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Set<ConfigOption<?>> optionalOptions() {
+        return new LinkedHashSet<>(List.of(MAX_MESSAGES, TTL, MAX_SIZE));
+    }
+
+    @Override
+    public ConversationStore create(ReadableConfig config) {
+        validateConfigOptions(config);
+        return new InMemoryConversationStore(config.get(MAX_MESSAGES), config.get(TTL),
+                config.get(MAX_SIZE).getBytes());
+    }
+
+    private void validateConfigOptions(ReadableConfig config) {
+        FactoryUtil.validateFactoryOptions(this, config);
+        Preconditions.checkArgument(config.get(MAX_MESSAGES) > 0,
+                "'" + MAX_MESSAGES.key() + "' value must be greater than 0");
+        Duration ttl = config.get(TTL);
+        Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(),
+                "'" + TTL.key() + "' value must be greater than 0");
+        Preconditions.checkArgument(config.get(MAX_SIZE).getBytes() > 0,
+                "'" + MAX_SIZE.key() + "' value must be greater than 0");
+    }
+}
@@ -0,0 +1,87 @@
+package ai.dat.core.factories;
+
+import ai.dat.core.factories.SharedModelRegistry.Deferred;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.scoring.ScoringModel;
+import lombok.NonNull;
+
+import java.util.Set;
+
+/**
+ * 首次调用时才创建的模型：重排序模型（如进程内ONNX模型）、只在HyQE索引或LLM重排序时使用的LLM等
+ * 很少使用的模型不再拖慢Agent的创建。实际的模型由 {@link Deferred} 获取与释放
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public final class LazyModels {
+
+    private LazyModels() {
+    }
+
+    public static ScoringModel scoringModel(@NonNull Deferred<ScoringModel> deferred) {
+        return (segments, query) -> deferred.get().scoreAll(segments, query);
+    }
+
+    public static ChatModel chatModel(@NonNull Deferred<ChatModel> deferred) {
+        return new LazyChatModel(deferred);
+    }
+
+    public static StreamingChatModel streamingChatModel(@NonNull Deferred<StreamingChatModel> deferred) {
+        return new LazyStreamingChatModel(deferred);
+    }
+
+    private static class LazyChatModel implements ChatModel {
+
+        private final Deferred<ChatModel> deferred;
+
+        private LazyChatModel(Deferred<ChatModel> deferred) {
+            this.deferred = deferred;
+        }
+
+        @Override
+        public ChatResponse chat(ChatRequest chatRequest) {
+            return deferred.get().chat(chatRequest);
+        }
+
+        @Override
+        public ChatRequestParameters defaultRequestParameters() {
+            return deferred.get().defaultRequestParameters();
+        }
+
+        @Override
+        public Set<Capability> supportedCapabilities() {
+            return deferred.get().supportedCapabilities();
+        }
+    }
+
+    private static class LazyStreamingChatModel implements StreamingChatModel {
+
+        private final Deferred<StreamingChatModel> deferred;
+
+        private LazyStreamingChatModel(Deferred<StreamingChatModel> deferred) {
+            this.deferred = deferred;
+        }
+
+        @Override
+        public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+            deferred.get().chat(chatRequest, handler);
+        }
+
+        @Override
+        public ChatRequestParameters defaultRequestParameters() {
+            return deferred.get().defaultRequestParameters();
+        }
+
+        @Override
+        public Set<Capability> supportedCapabilities() {
+            return deferred.get().supportedCapabilities();
+        }
+    }
+}
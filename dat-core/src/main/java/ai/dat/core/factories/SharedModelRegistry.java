@@ -0,0 +1,188 @@
+package ai.dat.core.factories;
+
+import ai.dat.core.factories.data.FactoryDescriptor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * 进程内共享的模型实例注册表（引用计数）：按工厂标识与完整配置去重，
+ * 同一JVM内配置相同的模型（如进程内ONNX向量化模型、LLM的HTTP客户端）只创建一个实例，
+ * 由各个项目、Agent与内容存储共享，最后一个使用者释放时移除，实例实现了 {@link AutoCloseable} 时关闭。
+ * <p>
+ * 使用者可将获取到的实例绑定到自身（{@link #bind(Object, Collection)}），
+ * 用完后通过 {@link #releaseAll(Object)} 一次性释放
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Slf4j
+public final class SharedModelRegistry {
+
+    private static final Map<Key, Entry> ENTRIES = new HashMap<>();
+    private static final Map<Object, Entry> INSTANCES = new IdentityHashMap<>();
+    /**
+     * 使用者 -> 绑定的实例，使用者被回收时绑定关系随之移除（实例不会因此被释放）
+     */
+    private static final Map<Object, List<Object>> OWNERS = new WeakHashMap<>();
+
+    private SharedModelRegistry() {
+    }
+
+    /**
+     * 获取共享实例，不存在时创建，引用计数加1
+     *
+     * @param kind       实例类别（同一工厂可创建不同类别的实例，如同步与流式的LLM）
+     * @param descriptor 工厂描述
+     * @param creator    实例的创建方法
+     * @return 共享实例
+     */
+    public static <T> T acquire(@NonNull String kind,
+                                @NonNull FactoryDescriptor descriptor,
+                                @NonNull Supplier<T> creator) {
+        Key key = new Key(kind, descriptor.getIdentifier(), new TreeMap<>(descriptor.getConfig().toMap()));
+        Entry entry;
+        synchronized (SharedModelRegistry.class) {
+            entry = ENTRIES.computeIfAbsent(key, Entry::new);
+            entry.references++;
+        }
+        try {
+            // 在条目上加锁创建，同一配置只创建一次，不同配置的创建互不阻塞
+            synchronized (entry) {
+                if (entry.instance == null) {
+                    entry.instance = Objects.requireNonNull(creator.get(), "The created instance cannot be null");
+                    synchronized (SharedModelRegistry.class) {
+                        INSTANCES.put(entry.instance, entry);
+                    }
+                    log.debug("Created shared {} instance: {}", kind, descriptor.getIdentifier());
+                }
+                @SuppressWarnings("unchecked")
+                T instance = (T) entry.instance;
+                return instance;
+            }
+        } catch (RuntimeException | Error e) {
+            synchronized (SharedModelRegistry.class) {
+                if (--entry.references == 0 && entry.instance == null) {
+                    ENTRIES.remove(key, entry);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 延迟获取共享实例：首次使用时才获取，可以像共享实例一样绑定到使用者并释放
+     *
+     * @param creator 获取共享实例的方法，如 {@code () -> FactoryUtil.createScoringModel(descriptor)}
+     */
+    public static <T> Deferred<T> defer(@NonNull Supplier<T> creator) {
+        return new Deferred<>(creator);
+    }
+
+    /**
+     * 释放共享实例，引用计数减1，最后一个使用者释放时移除并关闭；
+     * 延迟获取的实例只在已获取时释放，不是由注册表创建的实例（或null）忽略
+     */
+    public static void release(Object instance) {
+        if (instance == null) {
+            return;
+        }
+        if (instance instanceof Deferred<?> deferred) {
+            deferred.release();
+            return;
+        }
+        Entry entry;
+        synchronized (SharedModelRegistry.class) {
+            entry = INSTANCES.get(instance);
+            if (entry == null || --entry.references > 0) {
+                return;
+            }
+            INSTANCES.remove(instance);
+            ENTRIES.remove(entry.key, entry);
+        }
+        if (instance instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close the shared {} instance: {}", entry.key.kind(), entry.key.identifier(), e);
+            }
+        }
+    }
+
+    /**
+     * 将获取到的共享实例绑定到使用者
+     */
+    public static void bind(@NonNull Object owner, @NonNull Collection<?> instances) {
+        synchronized (SharedModelRegistry.class) {
+            OWNERS.computeIfAbsent(owner, k -> new ArrayList<>()).addAll(instances);
+        }
+    }
+
+    /**
+     * 释放绑定到使用者的全部共享实例
+     */
+    public static void releaseAll(@NonNull Object owner) {
+        List<Object> instances;
+        synchronized (SharedModelRegistry.class) {
+            instances = OWNERS.remove(owner);
+        }
+        if (instances != null) {
+            instances.forEach(SharedModelRegistry::release);
+        }
+    }
+
+    /**
+     * 当前共享的实例数
+     */
+    public static int size() {
+        synchronized (SharedModelRegistry.class) {
+            return INSTANCES.size();
+        }
+    }
+
+    private record Key(String kind, String identifier, Map<String, String> config) {
+    }
+
+    /**
+     * 延迟获取的共享实例
+     */
+    public static final class Deferred<T> {
+        private final Supplier<T> creator;
+        private T instance;
+        private boolean released;
+
+        private Deferred(Supplier<T> creator) {
+            this.creator = creator;
+        }
+
+        public synchronized T get() {
+            if (released) {
+                throw new IllegalStateException("The shared instance has been released");
+            }
+            if (instance == null) {
+                instance = Objects.requireNonNull(creator.get(), "The created instance cannot be null");
+            }
+            return instance;
+        }
+
+        private synchronized void release() {
+            released = true;
+            if (instance != null) {
+                SharedModelRegistry.release(instance);
+                instance = null;
+            }
+        }
+    }
+
+    private static class Entry {
+        private final Key key;
+        private int references;
+        private Object instance;
+
+        private Entry(Key key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package ai.dat.core.metrics;
+
+import ai.dat.core.tracing.DatTracing;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.TokenUsage;
+import dev.langchain4j.model.scoring.ScoringModel;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * 问数流程的指标（Micrometer）：所有指标注册到进程内共享的组合注册表，
+ * 由宿主进程插入具体的实现（如 OpenAPI 服务的 Prometheus、CLI 的内存注册表），
+ * 未插入任何实现时记录为空操作
+ *
+ * @Author JunjieM
+ * @Date 2025/10/31
+ */
+public final class DatMetrics {
+
+    public static final String EMBEDDING = "dat.embedding";
+    public static final String EMBEDDING_SEGMENTS = "dat.embedding.segments";
+    public static final String RETRIEVAL = "dat.contentstore.retrieval";
+    public static final String RETRIEVAL_RESULTS = "dat.contentstore.retrieval.results";
+    public static final String RETRIEVAL_QUANTIZED_RECALL = "dat.contentstore.retrieval.quantized.recall";
+    public static final String RERANK = "dat.rerank";
+    public static final String RERANK_SEGMENTS = "dat.rerank.segments";
+    public static final String LLM = "dat.llm";
+    public static final String LLM_FIRST_TOKEN = "dat.llm.first.token";
+    public static final String LLM_TOKENS = "dat.llm.tokens";
+    public static final String TOOL = "dat.tool";
+    public static final String SEMANTIC_TO_SQL = "dat.semantic.to.sql";
+    public static final String JDBC_QUERY = "dat.jdbc.query";
+    public static final String JDBC_ROWS = "dat.jdbc.rows";
+    public static final String JDBC_BYTES = "dat.jdbc.bytes";
+    public static final String EVENT_QUEUE_DEPTH = "dat.event.queue.depth";
+    public static final String SSE_WRITE = "dat.sse.write";
+    public static final String PROJECT_RELOAD = "dat.project.reload";
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+    public static final String INTERRUPTED = "interrupted";
+
+    private static final CompositeMeterRegistry REGISTRY = new CompositeMeterRegistry();
+
+    private DatMetrics() {
+    }
+
+    public static MeterRegistry registry() {
+        return REGISTRY;
+    }
+
+    /**
+     * 插入指标注册表的实现，可以插入多个
+     */
+    public static void addRegistry(@NonNull MeterRegistry registry) {
+        REGISTRY.add(registry);
+    }
+
+    public static void removeRegistry(@NonNull MeterRegistry registry) {
+        REGISTRY.remove(registry);
+    }
+
+    public static Timer timer(@NonNull String name, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(REGISTRY);
+    }
+
+    public static DistributionSummary summary(@NonNull String name, String baseUnit, String... tags) {
+        return DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tags(tags)
+                .register(REGISTRY);
+    }
+
+    public static Counter counter(@NonNull String name, String... tags) {
+        return Counter.builder(name)
+                .tags(tags)
+                .register(REGISTRY);
+    }
+
+    public static ChatModel metered(ChatModel chatModel, @NonNull String operation) {
+        if (chatModel == null || chatModel instanceof MeteredChatModel) {
+            return chatModel;
+        }
+        return new MeteredChatModel(chatModel, operation);
+    }
+
+    public static StreamingChatModel metered(StreamingChatModel streamingChatModel, @NonNull String operation) {
+        if (streamingChatModel == null || streamingChatModel instanceof MeteredStreamingChatModel) {
+            return streamingChatModel;
+        }
+        return new MeteredStreamingChatModel(streamingChatModel, operation);
+    }
+
+    public static EmbeddingModel metered(EmbeddingModel embeddingModel) {
+        if (embeddingModel == null || embeddingModel instanceof MeteredEmbeddingModel) {
+            return embeddingModel;
+        }
+        return new MeteredEmbeddingModel(embeddingModel);
+    }
+
+    public static ScoringModel metered(ScoringModel scoringModel) {
+        if (scoringModel == null || scoringModel instanceof MeteredScoringModel) {
+            return scoringModel;
+        }
+        return new MeteredScoringModel(scoringModel);
+    }
+
+    /**
+     * 记录内容检索的耗时与召回数量，并创建追踪span
+     *
+     * @param retriever   内容检索器
+     * @param contentType 内容类型（MDL、SQL、SYN、DOC）
+     */
+    public static ContentRetriever metered(@NonNull ContentRetriever retriever, @NonNull String contentType) {
+        return query -> {
+            Timer.Sample sample = Timer.start(REGISTRY);
+            String outcome = ERROR;
+            try {
+                List<Content> contents = DatTracing.trace(DatTracing.startSpan("ContentRetriever.retrieve")
+                        .setAttribute(DatTracing.CONTENT_TYPE, contentType), () -> retriever.retrieve(query));
+                summary(RETRIEVAL_RESULTS, "contents", "type", contentType).record(contents.size());
+                outcome = SUCCESS;
+                return contents;
+            } finally {
+                sample.stop(timer(RETRIEVAL, "type", contentType, "outcome", outcome));
+            }
+        };
+    }
+
+    public static void recordTokens(@NonNull String operation, TokenUsage tokenUsage) {
+        if (tokenUsage == null) {
+            return;
+        }
+        if (tokenUsage.inputTokenCount() != null) {
+            counter(LLM_TOKENS, "operation", operation, "direction", "input")
+                    .increment(tokenUsage.inputTokenCount());
+        }
+        if (tokenUsage.outputTokenCount() != null) {
+            counter(LLM_TOKENS, "operation", operation, "direction", "output")
+                    .increment(tokenUsage.outputTokenCount());
+        }
+    }
+
+    /**
+     * 估算查询结果中单个值的字节数
+     */
+    public static long estimateSize(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String s) {
+            return s.length();
+        } else if (value instanceof byte[] bytes) {
+            return bytes.length;
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return 8;
+        }
+        return value.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * 以文本形式输出注册表中已记录的指标（如CLI退出时写入日志）
+     */
+    public static String dump(@NonNull MeterRegistry registry) {
+        return registry.getMeters().stream()
+                .sorted(Comparator.comparing((Meter m) -> m.getId().getName())
+                        .thenComparing(m -> m.getId().getTags().toString()))
+                .map(DatMetrics::format)
+                .filter(line -> !line.isEmpty())
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String format(Meter meter) {
+        Meter.Id id = meter.getId();
+        String tags = id.getTags().stream()
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(",", "{", "}"));
+        String name = id.getName() + tags;
+        if (meter instanceof Timer timer) {
+            if (timer.count() == 0) return "";
+            return String.format("%s count=%d mean=%.2fms max=%.2fms total=%.2fms", name, timer.count(),
+                    timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS),
+                    timer.totalTime(TimeUnit.MILLISECONDS));
+        } else if (meter instanceof DistributionSummary summary) {
+            if (summary.count() == 0) return "";
+            return String.format("%s count=%d mean=%.2f max=%.2f total=%.2f", name, summary.count(),
+                    summary.mean(), summary.max(), summary.totalAmount());
+        } else if (meter instanceof Counter counter) {
+            if (counter.count() == 0) return "";
+            return String.format("%s count=%.0f", name, counter.count());
+        }
+        return StreamSupport.stream(meter.measure().spliterator(), false)
+                .map(m -> m.getStatistic().getTagValueRepresentation() + "=" + m.getValue())
+                .collect(Collectors.joining(" ", name + " ", ""));
+    }
+}
@@ -0,0 +1,55 @@
+package ai.dat.core.metrics;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import ai.dat.core.tracing.DatTracing;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+
+import java.util.Set;
+
+/**
+ * 记录大模型调用耗时与token数，并创建追踪span的聊天模型
+ *
+ * @Author JunjieM
+ * @Date 2025/10/31
+ */
+class MeteredChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final String operation;
+
+    MeteredChatModel(@NonNull ChatModel delegate, @NonNull String operation) {
+        this.delegate = delegate;
+        this.operation = operation;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        Timer.Sample sample = Timer.start(DatMetrics.registry());
+        String outcome = DatMetrics.ERROR;
+        try {
+            ChatResponse chatResponse = DatTracing.trace(DatTracing.startSpan("ChatModel.chat")
+                    .setAttribute(DatTracing.OPERATION, operation), () -> delegate.chat(chatRequest));
+            DatMetrics.recordTokens(operation, chatResponse.tokenUsage());
+            outcome = DatMetrics.SUCCESS;
+            return chatResponse;
+        } finally {
+            sample.stop(DatMetrics.timer(DatMetrics.LLM,
+                    "operation", operation, "mode", "blocking", "outcome", outcome));
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+}
@@ -0,0 +1,45 @@
+package ai.dat.core.metrics;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import ai.dat.core.tracing.DatTracing;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * 记录向量化调用耗时与文本段数，并创建追踪span的向量模型
+ *
+ * @Author JunjieM
+ * @Date 2025/10/31
+ */
+class MeteredEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+
+    MeteredEmbeddingModel(@NonNull EmbeddingModel delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        Timer.Sample sample = Timer.start(DatMetrics.registry());
+        String outcome = DatMetrics.ERROR;
+        try {
+            Response<List<Embedding>> response = DatTracing.trace("EmbeddingModel.embedAll", () -> delegate.embedAll(textSegments));
+            DatMetrics.summary(DatMetrics.EMBEDDING_SEGMENTS, "segments").record(textSegments.size());
+            outcome = DatMetrics.SUCCESS;
+            return response;
+        } finally {
+            sample.stop(DatMetrics.timer(DatMetrics.EMBEDDING, "outcome", outcome));
+        }
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+}
@@ -0,0 +1,39 @@
+package ai.dat.core.metrics;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.scoring.ScoringModel;
+import ai.dat.core.tracing.DatTracing;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * 记录重排序调用耗时与文本段数，并创建追踪span的评分模型
+ *
+ * @Author JunjieM
+ * @Date 2025/10/31
+ */
+class MeteredScoringModel implements ScoringModel {
+
+    private final ScoringModel delegate;
+
+    MeteredScoringModel(@NonNull ScoringModel delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response<List<Double>> scoreAll(List<TextSegment> segments, String query) {
+        Timer.Sample sample = Timer.start(DatMetrics.registry());
+        String outcome = DatMetrics.ERROR;
+        try {
+            Response<List<Double>> response = DatTracing.trace("ScoringModel.scoreAll", () -> delegate.scoreAll(segments, query));
+            DatMetrics.summary(DatMetrics.RERANK_SEGMENTS, "segments").record(segments.size());
+            outcome = DatMetrics.SUCCESS;
+            return response;
+        } finally {
+            sample.stop(DatMetrics.timer(DatMetrics.RERANK, "outcome", outcome));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ai.dat.core.metrics;
+
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.CompleteToolCall;
+import dev.langchain4j.model.chat.response.PartialThinking;
+import dev.langchain4j.model.chat.response.PartialToolCall;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import ai.dat.core.tracing.DatTracing;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import lombok.NonNull;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 记录大模型流式调用耗时、首个token耗时与token数，并创建追踪span的流式聊天模型
+ *
+ * @Author JunjieM
+ * @Date 2025/10/31
+ */
+class MeteredStreamingChatModel implements StreamingChatModel {
+
+    private final StreamingChatModel delegate;
+    private final String operation;
+
+    MeteredStreamingChatModel(@NonNull StreamingChatModel delegate, @NonNull String operation) {
+        this.delegate = delegate;
+        this.operation = operation;
+    }
+
+    @Override
+    public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        Timer.Sample sample = Timer.start(DatMetrics.registry());
+        AtomicBoolean firstToken = new AtomicBoolean(true);
+        Context context = Context.current();
+        Span span = DatTracing.startSpan("StreamingChatModel.chat", context)
+                .setAttribute(DatTracing.OPERATION, operation);
+        StreamingChatResponseHandler meteredHandler = new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                markFirstToken();
+                inContext(h -> h.onPartialResponse(partialResponse));
+            }
+
+            @Override
+            public void onPartialThinking(PartialThinking partialThinking) {
+                markFirstToken();
+                inContext(h -> h.onPartialThinking(partialThinking));
+            }
+
+            @Override
+            public void onPartialToolCall(PartialToolCall partialToolCall) {
+                markFirstToken();
+                inContext(h -> h.onPartialToolCall(partialToolCall));
+            }
+
+            @Override
+            public void onCompleteToolCall(CompleteToolCall completeToolCall) {
+                inContext(h -> h.onCompleteToolCall(completeToolCall));
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                DatMetrics.recordTokens(operation, completeResponse.tokenUsage());
+                stop(DatMetrics.SUCCESS, null);
+                inContext(h -> h.onCompleteResponse(completeResponse));
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                stop(DatMetrics.ERROR, error);
+                inContext(h -> h.onError(error));
+            }
+
+            private void markFirstToken() {
+                if (firstToken.compareAndSet(true, false)) {
+                    sample.stop(DatMetrics.timer(DatMetrics.LLM_FIRST_TOKEN, "operation", operation));
+                    span.addEvent("first_token");
+                }
+            }
+
+            private void stop(String outcome, Throwable error) {
+                sample.stop(DatMetrics.timer(DatMetrics.LLM,
+                        "operation", operation, "mode", "streaming", "outcome", outcome));
+                DatTracing.end(span, error);
+            }
+
+            /**
+             * 回调在调用方的追踪上下文中执行（工具调用等后续span挂在调用方的span下）
+             */
+            private void inContext(Consumer<StreamingChatResponseHandler> callback) {
+                try (Scope ignored = context.makeCurrent()) {
+                    callback.accept(handler);
+                }
+            }
+        };
+        try (Scope ignored = span.makeCurrent()) {
+            delegate.chat(chatRequest, meteredHandler);
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+}
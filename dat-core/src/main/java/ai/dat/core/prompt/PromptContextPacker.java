@@ -0,0 +1,269 @@
+package ai.dat.core.prompt;
+
+import ai.dat.core.adapter.SemanticAdapter;
+import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.semantic.view.SemanticModelView;
+import ai.dat.core.utils.SemanticModelUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 按Token预算组装Text2SQL提示词的上下文：每个部分（语义模型、数据预览、SQL样例、同义词、文档、历史）
+ * 有各自的Token预算，超出时按检索或重排序的相关性分数优先丢弃最不相关的内容。
+ * <p>
+ * 语义模型超出预算时，先从最不相关的模型开始，将视图缩减为实体、默认时间维度和列嵌入（CE）检索命中的列，
+ * 仍然超出时再丢弃最不相关的模型（至少保留一个）。没有相关性分数时按检索的排名顺序，历史按时间由近到远。
+ * 保留的内容维持原来的顺序，每个部分使用的Token数通过 {@link Session#stats()} 获取
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public class PromptContextPacker {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private final TokenEstimator tokenEstimator;
+
+    /**
+     * 没有配置预算的部分不裁剪，只统计Token数
+     */
+    private final Map<PromptSection, Integer> budgets;
+
+    public PromptContextPacker(@NonNull TokenEstimator tokenEstimator,
+                               @NonNull Map<PromptSection, Integer> budgets) {
+        budgets.forEach((section, budget) -> Preconditions.checkArgument(budget != null && budget > 0,
+                "The token budget of %s must be greater than 0", section.getKey()));
+        this.tokenEstimator = tokenEstimator;
+        this.budgets = budgets.isEmpty() ? Collections.emptyMap() : new EnumMap<>(budgets);
+    }
+
+    public PromptContextPacker(@NonNull Map<PromptSection, Integer> budgets) {
+        this(TokenEstimator.DEFAULT, budgets);
+    }
+
+    public Integer budget(@NonNull PromptSection section) {
+        return budgets.get(section);
+    }
+
+    /**
+     * 每次提问创建一个会话，记录各部分的裁剪结果
+     */
+    public Session session() {
+        return new Session();
+    }
+
+    public record PackedSemanticModel(SemanticModel semanticModel, String viewText, boolean shortened) {
+    }
+
+    public record SectionStats(PromptSection section, int items, int keptItems,
+                               int tokens, Integer budget, int shortenedItems) {
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("section", section.getKey());
+            map.put("items", items);
+            map.put("kept_items", keptItems);
+            map.put("tokens", tokens);
+            if (budget != null) {
+                map.put("budget", budget);
+            }
+            if (shortenedItems > 0) {
+                map.put("shortened_items", shortenedItems);
+            }
+            return map;
+        }
+    }
+
+    public class Session {
+
+        private final Map<PromptSection, SectionStats> stats = new EnumMap<>(PromptSection.class);
+
+        private Session() {
+        }
+
+        /**
+         * 组装语义模型视图
+         *
+         * @param semanticModels  检索到的语义模型（按相关性从高到低排序）
+         * @param semanticAdapter 语义适配器
+         * @return 保留的语义模型及其视图文本
+         */
+        public List<PackedSemanticModel> semanticModels(@NonNull List<ScoredSemanticModel> semanticModels,
+                                                        SemanticAdapter semanticAdapter) {
+            int size = semanticModels.size();
+            String[] texts = new String[size];
+            int[] tokens = new int[size];
+            boolean[] shortened = new boolean[size];
+            boolean[] dropped = new boolean[size];
+            int total = 0;
+            for (int i = 0; i < size; i++) {
+                texts[i] = SemanticModelUtil.toSemanticModelViewText(
+                        semanticModels.get(i).semanticModel(), semanticAdapter);
+                tokens[i] = tokenEstimator.estimate(texts[i]);
+                total += tokens[i];
+            }
+            Integer budget = budgets.get(PromptSection.SEMANTIC_MODELS);
+            if (budget != null && total > budget) {
+                List<Integer> leastRelevantFirst = new ArrayList<>(priority(
+                        semanticModels.stream().map(ScoredSemanticModel::score).toList(), size));
+                Collections.reverse(leastRelevantFirst);
+                // 先缩减视图，只保留命中的列
+                for (int i : leastRelevantFirst) {
+                    if (total <= budget) {
+                        break;
+                    }
+                    ScoredSemanticModel semanticModel = semanticModels.get(i);
+                    if (semanticModel.hitColumns().isEmpty()) {
+                        continue;
+                    }
+                    String text = shortenedViewText(semanticModel, semanticAdapter);
+                    int shortenedTokens = tokenEstimator.estimate(text);
+                    if (shortenedTokens < tokens[i]) {
+                        total -= tokens[i] - shortenedTokens;
+                        texts[i] = text;
+                        tokens[i] = shortenedTokens;
+                        shortened[i] = true;
+                    }
+                }
+                // 再丢弃最不相关的模型
+                for (int i : leastRelevantFirst.subList(0, Math.max(0, size - 1))) {
+                    if (total <= budget) {
+                        break;
+                    }
+                    total -= tokens[i];
+                    dropped[i] = true;
+                }
+            }
+            List<PackedSemanticModel> packed = new ArrayList<>();
+            int shortenedItems = 0;
+            for (int i = 0; i < size; i++) {
+                if (!dropped[i]) {
+                    packed.add(new PackedSemanticModel(semanticModels.get(i).semanticModel(), texts[i], shortened[i]));
+                    if (shortened[i]) {
+                        shortenedItems++;
+                    }
+                }
+            }
+            recordStats(new SectionStats(PromptSection.SEMANTIC_MODELS, size, packed.size(),
+                    total, budget, shortenedItems));
+            return packed;
+        }
+
+        /**
+         * 按相关性组装一个部分的内容，放不下的内容跳过，继续尝试更小的内容
+         *
+         * @param section 部分
+         * @param items   内容（按相关性从高到低排序）
+         * @param scores  相关性分数，与内容一一对应；为null、数量不一致或存在缺失时按排名顺序
+         * @return 保留的内容，维持原来的顺序
+         */
+        public <T> List<T> pack(@NonNull PromptSection section, @NonNull List<T> items, List<Double> scores) {
+            return packByPriority(section, items, priority(scores, items.size()));
+        }
+
+        /**
+         * 历史按时间先后排序，越近的越相关
+         */
+        public <T> List<T> histories(@NonNull List<T> histories) {
+            List<Integer> priority = IntStream.range(0, histories.size()).boxed()
+                    .sorted(Comparator.reverseOrder()).toList();
+            return packByPriority(PromptSection.HISTORIES, histories, priority);
+        }
+
+        public synchronized List<SectionStats> stats() {
+            return List.copyOf(stats.values());
+        }
+
+        public synchronized int totalTokens() {
+            return stats.values().stream().mapToInt(SectionStats::tokens).sum();
+        }
+
+        public List<Map<String, Object>> statsMaps() {
+            return stats().stream().map(SectionStats::toMap).collect(Collectors.toList());
+        }
+
+        private <T> List<T> packByPriority(PromptSection section, List<T> items, List<Integer> priority) {
+            Integer budget = budgets.get(section);
+            int[] tokens = items.stream().mapToInt(item -> tokenEstimator.estimate(toText(item))).toArray();
+            boolean[] kept = new boolean[items.size()];
+            int total = 0;
+            for (int i : priority) {
+                if (budget == null || total + tokens[i] <= budget) {
+                    kept[i] = true;
+                    total += tokens[i];
+                }
+            }
+            List<T> packed = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                if (kept[i]) {
+                    packed.add(items.get(i));
+                }
+            }
+            recordStats(new SectionStats(section, items.size(), packed.size(), total, budget, 0));
+            return packed;
+        }
+
+        private synchronized void recordStats(SectionStats sectionStats) {
+            stats.put(sectionStats.section(), sectionStats);
+        }
+    }
+
+    /**
+     * 按相关性从高到低排列的下标，分数相同时排名靠前的优先
+     */
+    private static List<Integer> priority(List<Double> scores, int size) {
+        IntStream indexes = IntStream.range(0, size);
+        if (scores == null || scores.size() != size || scores.stream().anyMatch(score -> score == null)) {
+            return indexes.boxed().toList();
+        }
+        return indexes.boxed()
+                .sorted(Comparator.comparing((Integer i) -> scores.get(i)).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .toList();
+    }
+
+    /**
+     * 缩减后的视图保留全部实体（关联所需）、默认时间维度和命中的维度与度量
+     */
+    private static String shortenedViewText(ScoredSemanticModel semanticModel, SemanticAdapter semanticAdapter) {
+        SemanticModelView view = SemanticModelUtil.toSemanticModelView(
+                semanticModel.semanticModel(), semanticAdapter);
+        String aggTimeDimension = view.getDefaults().getAggTimeDimension();
+        view.setDimensions(view.getDimensions().stream()
+                .filter(o -> semanticModel.hitColumns().contains(o.getName())
+                             || o.getName().equals(aggTimeDimension))
+                .collect(Collectors.toList()));
+        view.setMeasures(view.getMeasures().stream()
+                .filter(o -> semanticModel.hitColumns().contains(o.getName()))
+                .collect(Collectors.toList()));
+        try {
+            return JSON_MAPPER.writeValueAsString(view);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize semantic model view to JSON: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    private static String toText(Object item) {
+        if (item instanceof String text) {
+            return text;
+        }
+        try {
+            return JSON_MAPPER.writeValueAsString(item);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(item);
+        }
+    }
+}
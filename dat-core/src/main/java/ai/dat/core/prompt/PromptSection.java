@@ -0,0 +1,25 @@
+package ai.dat.core.prompt;
+
+import lombok.Getter;
+
+/**
+ * Text2SQL提示词中按Token预算裁剪的上下文部分，key与提示词模板中的变量名一致
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Getter
+public enum PromptSection {
+    SEMANTIC_MODELS("semantic_models"),
+    DATA_SAMPLES("data_samples"),
+    SQL_SAMPLES("sql_samples"),
+    SYNONYMS("synonyms"),
+    DOCS("docs"),
+    HISTORIES("histories");
+
+    private final String key;
+
+    PromptSection(String key) {
+        this.key = key;
+    }
+}
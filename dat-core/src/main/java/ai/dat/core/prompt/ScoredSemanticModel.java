@@ -0,0 +1,22 @@
+package ai.dat.core.prompt;
+
+import ai.dat.core.semantic.data.SemanticModel;
+import lombok.NonNull;
+
+import java.util.Set;
+
+/**
+ * 检索到的语义模型及其相关性分数（重排序分数优先）和列嵌入（CE）检索命中的列名，
+ * 没有分数时为null，没有命中的列时为空集合
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public record ScoredSemanticModel(@NonNull SemanticModel semanticModel,
+                                  Double score,
+                                  @NonNull Set<String> hitColumns) {
+
+    public static ScoredSemanticModel of(@NonNull SemanticModel semanticModel) {
+        return new ScoredSemanticModel(semanticModel, null, Set.of());
+    }
+}
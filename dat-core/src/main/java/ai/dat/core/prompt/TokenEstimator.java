@@ -0,0 +1,47 @@
+package ai.dat.core.prompt;
+
+import dev.langchain4j.model.TokenCountEstimator;
+import lombok.NonNull;
+
+/**
+ * 提示词的Token数估算器，可以替换为模型对应的分词器以获得准确的Token数
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@FunctionalInterface
+public interface TokenEstimator {
+
+    /**
+     * 默认的启发式估算：CJK字符约1个Token，其他字符约4个字符1个Token
+     */
+    TokenEstimator DEFAULT = TokenEstimator::heuristic;
+
+    int estimate(String text);
+
+    static TokenEstimator of(@NonNull TokenCountEstimator tokenCountEstimator) {
+        return tokenCountEstimator::estimateTokenCountInText;
+    }
+
+    private static int heuristic(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int cjk = 0;
+        int others = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+            if (script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL) {
+                cjk++;
+            } else {
+                others++;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return cjk + (others + 3) / 4;
+    }
+}
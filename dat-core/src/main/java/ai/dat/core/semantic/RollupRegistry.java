@@ -0,0 +1,165 @@
+package ai.dat.core.semantic;
+
+import ai.dat.core.semantic.data.Element;
+import ai.dat.core.semantic.data.Rollup;
+import ai.dat.core.semantic.data.SemanticModel;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 已物化的rollup状态注册表：按数据库连接标识共享，
+ * 记录每个rollup的物化时间、行数与定义指纹，用于路由时的新鲜度检查
+ *
+ * @Author JunjieM
+ * @Date 2025/10/25
+ */
+public class RollupRegistry {
+
+    private static final Map<String, RollupRegistry> REGISTRIES = new ConcurrentHashMap<>();
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    @Getter
+    private final String name;
+    @Getter
+    private final Duration defaultMaxStaleness;
+
+    private volatile Map<String, RollupState> states = Collections.emptyMap();
+
+    private final AtomicLong routed = new AtomicLong(0);
+    private final AtomicLong stale = new AtomicLong(0);
+
+    public RollupRegistry(@NonNull String name, @NonNull Duration defaultMaxStaleness) {
+        Preconditions.checkArgument(!defaultMaxStaleness.isNegative() && !defaultMaxStaleness.isZero(),
+                "defaultMaxStaleness must be greater than 0");
+        this.name = name;
+        this.defaultMaxStaleness = defaultMaxStaleness;
+    }
+
+    /**
+     * 按连接标识获取进程内共享的注册表，不存在或配置发生变化时创建新的实例
+     */
+    public static RollupRegistry getOrCreate(@NonNull String connectionId, @NonNull Duration defaultMaxStaleness) {
+        return REGISTRIES.compute(connectionId, (k, v) ->
+                v != null && v.defaultMaxStaleness.equals(defaultMaxStaleness) ? v
+                        : new RollupRegistry(connectionId, defaultMaxStaleness));
+    }
+
+    public static List<Map<String, Object>> allMetrics() {
+        return REGISTRIES.values().stream()
+                .sorted(Comparator.comparing(RollupRegistry::getName))
+                .map(RollupRegistry::metrics)
+                .toList();
+    }
+
+    /**
+     * rollup定义指纹：语义模型的（已渲染）模型SQL、rollup定义及其引用元素的定义任一变化时，
+     * 已物化的rollup不再可用
+     */
+    public static String fingerprint(@NonNull SemanticModel semanticModel, @NonNull Rollup rollup) {
+        Set<String> names = new HashSet<>(rollup.getDimensions());
+        names.addAll(rollup.getMeasures());
+        if (rollup.getTimeDimension() != null) {
+            names.add(rollup.getTimeDimension());
+        }
+        List<Element> elements = Stream.of(semanticModel.getEntities(), semanticModel.getDimensions(),
+                        semanticModel.getMeasures())
+                .flatMap(Collection::stream)
+                .filter(e -> names.contains(e.getName()))
+                .sorted(Comparator.comparing(Element::getName))
+                .collect(Collectors.toList());
+        try {
+            String content = semanticModel.getModel() + "\n"
+                             + JSON_MAPPER.writeValueAsString(rollup) + "\n"
+                             + JSON_MAPPER.writeValueAsString(elements);
+            return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Calculate the rollup fingerprint failed", e);
+        }
+    }
+
+    /**
+     * 重新加载全部物化状态
+     */
+    public void reload(@NonNull Collection<RollupState> rollupStates) {
+        this.states = rollupStates.stream()
+                .collect(Collectors.toUnmodifiableMap(s -> key(s.semanticModel(), s.rollup()), s -> s,
+                        (a, b) -> a.refreshedAt() >= b.refreshedAt() ? a : b));
+    }
+
+    public Collection<RollupState> states() {
+        return states.values();
+    }
+
+    /**
+     * 新鲜度检查：已物化、定义指纹一致且物化时间未超过最大陈旧时间
+     *
+     * @param semanticModel 已渲染的语义模型
+     * @param rollup        rollup定义
+     * @return 可用的物化状态
+     */
+    public Optional<RollupState> fresh(@NonNull SemanticModel semanticModel, @NonNull Rollup rollup) {
+        RollupState state = states.get(key(semanticModel.getName(), rollup.getName()));
+        if (state == null) {
+            return Optional.empty();
+        }
+        Duration maxStaleness = rollup.getMaxStalenessDuration().orElse(defaultMaxStaleness);
+        if (!state.fingerprint().equals(fingerprint(semanticModel, rollup))
+            || System.currentTimeMillis() - state.refreshedAt() > maxStaleness.toMillis()) {
+            stale.incrementAndGet();
+            return Optional.empty();
+        }
+        return Optional.of(state);
+    }
+
+    void recordRouted() {
+        routed.incrementAndGet();
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("name", name);
+        metrics.put("rollups", states.size());
+        metrics.put("default_max_staleness_ms", defaultMaxStaleness.toMillis());
+        metrics.put("routed", routed.get());
+        metrics.put("stale", stale.get());
+        return metrics;
+    }
+
+    private static String key(String semanticModelName, String rollupName) {
+        return semanticModelName + "." + rollupName;
+    }
+
+    /**
+     * rollup的物化状态
+     *
+     * @param semanticModel 语义模型名称
+     * @param rollup        rollup名称
+     * @param table         物化的表名
+     * @param fingerprint   物化时的定义指纹
+     * @param refreshedAt   物化完成的时间戳（毫秒）
+     * @param rowCount      物化的行数，用于选择最小的rollup
+     */
+    public record RollupState(@JsonProperty("semantic_model") String semanticModel,
+                              @JsonProperty("rollup") String rollup,
+                              @JsonProperty("table") String table,
+                              @JsonProperty("fingerprint") String fingerprint,
+                              @JsonProperty("refreshed_at") long refreshedAt,
+                              @JsonProperty("row_count") long rowCount) {
+    }
+}
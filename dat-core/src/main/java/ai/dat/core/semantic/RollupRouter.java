@@ -0,0 +1,254 @@
+package ai.dat.core.semantic;
+
+import ai.dat.core.adapter.SemanticAdapter;
+import ai.dat.core.semantic.data.*;
+import lombok.NonNull;
+import org.apache.calcite.sql.*;
+import org.apache.calcite.sql.util.SqlBasicVisitor;
+
+import java.util.*;
+
+/**
+ * rollup路由：判断引用语义模型的聚合查询能否改为读取已物化的rollup表，并生成读取rollup表的子查询SQL。
+ * <p>
+ * 只有满足以下条件时才路由（外层查询保持不变，对rollup行再次聚合的结果与对明细行聚合一致）：
+ * <ul>
+ *     <li>语义模型在整个查询中只被引用一次，且是所在SELECT唯一的FROM项，该SELECT有GROUP BY、聚合或DISTINCT</li>
+ *     <li>SELECT中没有子查询、窗口函数和 *</li>
+ *     <li>引用的实体和维度都包含在rollup的维度（或时间维度）中</li>
+ *     <li>rollup的时间粒度能再聚合为时间维度的粒度（周只能聚合为周）</li>
+ *     <li>度量只出现在与其agg一致的聚合函数（SUM/MIN/MAX，不含DISTINCT）中，且包含在rollup的度量中</li>
+ *     <li>维度上只使用MIN、MAX或COUNT(DISTINCT)聚合</li>
+ *     <li>rollup新鲜（见 {@link RollupRegistry#fresh}）</li>
+ * </ul>
+ * 多个rollup可用时选择物化行数最少的。
+ *
+ * @Author JunjieM
+ * @Date 2025/10/25
+ */
+class RollupRouter {
+
+    private final SemanticAdapter semanticAdapter;
+    private final RollupRegistry rollupRegistry;
+
+    RollupRouter(@NonNull SemanticAdapter semanticAdapter, @NonNull RollupRegistry rollupRegistry) {
+        this.semanticAdapter = semanticAdapter;
+        this.rollupRegistry = rollupRegistry;
+    }
+
+    /**
+     * @param semanticModel 已渲染的语义模型
+     * @param select        引用语义模型的SELECT（语义模型是唯一的FROM项）
+     * @param alias         语义模型在FROM中的别名
+     * @param orderList     外层ORDER BY（SELECT是顶层查询时），可为null
+     * @return 路由结果
+     */
+    Optional<Route> route(@NonNull SemanticModel semanticModel, @NonNull SqlSelect select,
+                          @NonNull String alias, SqlNodeList orderList) {
+        if (semanticModel.getRollups().isEmpty()) {
+            return Optional.empty();
+        }
+        UsageChecker checker = new UsageChecker(semanticModel, alias);
+        for (SqlNode node : Arrays.asList(select.getSelectList(), select.getWhere(),
+                select.getGroup(), select.getHaving())) {
+            if (node != null) {
+                node.accept(checker);
+            }
+        }
+        // ORDER BY 中的标识符优先引用SELECT列表的别名
+        for (SqlNode item : select.getSelectList()) {
+            if (item.getKind() == SqlKind.AS && ((SqlCall) item).operand(1) instanceof SqlIdentifier id) {
+                checker.selectAliases.add(UsageChecker.lower(id.getSimple()));
+            }
+        }
+        checker.inOrderBy = true;
+        for (SqlNode node : Arrays.asList(select.getOrderList(), orderList)) {
+            if (node != null) {
+                node.accept(checker);
+            }
+        }
+        boolean aggregated = select.getGroup() != null || checker.aggregated || select.isDistinct();
+        if (!checker.eligible || !aggregated) {
+            return Optional.empty();
+        }
+        Route best = null;
+        for (Rollup rollup : semanticModel.getRollups()) {
+            Set<String> dimensions = new HashSet<>(rollup.getDimensions());
+            if (rollup.getTimeDimension() != null) {
+                dimensions.add(rollup.getTimeDimension());
+            }
+            if (!dimensions.containsAll(checker.dimensions)
+                || !new HashSet<>(rollup.getMeasures()).containsAll(checker.measures)
+                || !timeGranularityRollsUp(semanticModel, rollup)) {
+                continue;
+            }
+            Optional<RollupRegistry.RollupState> state = rollupRegistry.fresh(semanticModel, rollup);
+            if (state.isPresent() && (best == null || state.get().rowCount() < best.state.rowCount())) {
+                best = new Route(semanticModel, rollup, state.get());
+            }
+        }
+        if (best != null) {
+            rollupRegistry.recordRouted();
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * rollup的时间粒度必须能再聚合为时间维度自身的粒度（如周不能还原为月），否则聚合结果错误
+     */
+    private static boolean timeGranularityRollsUp(SemanticModel semanticModel, Rollup rollup) {
+        if (rollup.getTimeDimension() == null || rollup.getTimeGranularity() == null) {
+            return true;
+        }
+        return semanticModel.getDimensions().stream()
+                .filter(d -> d.getName().equals(rollup.getTimeDimension()))
+                .map(d -> d.getTypeParams().getTimeGranularity())
+                .findFirst()
+                .map(granularity -> rollup.getTimeGranularity().rollsUpTo(granularity))
+                .orElse(false);
+    }
+
+    /**
+     * 读取rollup表的子查询SQL，列名与语义模型子查询一致，时间维度还原为其自身的粒度
+     *
+     * @param route       路由结果
+     * @param columnNames 需要投影的元素名称（小写），为null时投影rollup的全部列
+     */
+    String rollupSql(@NonNull Route route, Set<String> columnNames) {
+        Rollup rollup = route.rollup;
+        List<String> selectFields = new ArrayList<>();
+        String firstSelectField = null;
+        List<String> names = new ArrayList<>(rollup.getDimensions());
+        if (rollup.getTimeDimension() != null) {
+            names.add(rollup.getTimeDimension());
+        }
+        names.addAll(rollup.getMeasures());
+        for (String name : names) {
+            String expr = semanticAdapter.quoteIdentifier(name);
+            if (name.equals(rollup.getTimeDimension()) && rollup.getTimeGranularity() != null) {
+                Dimension.TypeParams.TimeGranularity granularity = route.semanticModel.getDimensions().stream()
+                        .filter(d -> d.getName().equals(name))
+                        .map(d -> d.getTypeParams().getTimeGranularity())
+                        .findFirst().orElseThrow();
+                if (granularity != rollup.getTimeGranularity()) {
+                    expr = semanticAdapter.applyTimeGranularity(expr, granularity);
+                }
+            }
+            String selectField = expr + " AS " + semanticAdapter.quoteIdentifier(name);
+            firstSelectField = firstSelectField == null ? selectField : firstSelectField;
+            if (columnNames == null || columnNames.contains(name.toLowerCase(Locale.ROOT))) {
+                selectFields.add(selectField);
+            }
+        }
+        if (selectFields.isEmpty()) {
+            selectFields.add(firstSelectField);
+        }
+        return "SELECT " + String.join(", ", selectFields)
+               + " FROM " + semanticAdapter.quoteIdentifier(route.state.table());
+    }
+
+    record Route(SemanticModel semanticModel, Rollup rollup, RollupRegistry.RollupState state) {
+    }
+
+    /**
+     * 检查SELECT中对语义模型元素的引用方式，收集引用的维度与度量
+     */
+    private static class UsageChecker extends SqlBasicVisitor<Void> {
+        private final String alias;
+        private final Map<String, String> dimensionNames = new HashMap<>();
+        private final Map<String, Measure> measureMap = new HashMap<>();
+
+        private final Set<String> selectAliases = new HashSet<>();
+        private boolean inOrderBy = false;
+
+        private final Set<String> dimensions = new HashSet<>();
+        private final Set<String> measures = new HashSet<>();
+        private boolean eligible = true;
+        private boolean aggregated = false;
+
+        UsageChecker(SemanticModel semanticModel, String alias) {
+            this.alias = alias;
+            semanticModel.getEntities().forEach(e -> dimensionNames.put(lower(e.getName()), e.getName()));
+            semanticModel.getDimensions().forEach(d -> dimensionNames.put(lower(d.getName()), d.getName()));
+            semanticModel.getMeasures().forEach(m -> measureMap.put(lower(m.getName()), m));
+        }
+
+        @Override
+        public Void visit(SqlIdentifier id) {
+            if (inOrderBy && id.isSimple() && selectAliases.contains(lower(id.getSimple()))) {
+                return null;
+            }
+            String column = column(id);
+            if (column == null) {
+                eligible = false;
+            } else if (measureMap.containsKey(column)) {
+                eligible = false; // 度量只能出现在与其agg一致的聚合函数中
+            } else if (dimensionNames.containsKey(column)) {
+                dimensions.add(dimensionNames.get(column));
+            }
+            // 其他标识符（如SELECT列表的别名）不引用语义模型的元素
+            return null;
+        }
+
+        @Override
+        public Void visit(SqlCall call) {
+            if (call instanceof SqlSelect || call.getKind() == SqlKind.OVER) {
+                eligible = false;
+                return null;
+            }
+            if (call.getKind() == SqlKind.AS) {
+                call.operand(0).accept(this); // 别名不是对元素的引用
+                return null;
+            }
+            if (!call.getOperator().isAggregator()) {
+                return super.visit(call);
+            }
+            aggregated = true;
+            boolean distinct = call.getFunctionQuantifier() != null
+                               && call.getFunctionQuantifier().getValue() == SqlSelectKeyword.DISTINCT;
+            if (call.operandCount() == 1 && call.operand(0) instanceof SqlIdentifier id) {
+                String column = column(id);
+                Measure measure = column == null ? null : measureMap.get(column);
+                if (measure != null) {
+                    if (distinct || !matches(call.getKind(), measure.getAgg())) {
+                        eligible = false;
+                    } else {
+                        measures.add(measure.getName());
+                    }
+                    return null;
+                }
+            }
+            // 维度上的 MIN、MAX、COUNT(DISTINCT) 在rollup上结果不变，其他聚合（如COUNT(*)）会改变结果
+            if (call.getKind() == SqlKind.MIN || call.getKind() == SqlKind.MAX
+                || (call.getKind() == SqlKind.COUNT && distinct)) {
+                return super.visit(call);
+            }
+            eligible = false;
+            return null;
+        }
+
+        private String column(SqlIdentifier id) {
+            if (id.isStar()) {
+                return null;
+            } else if (id.names.size() == 1) {
+                return lower(id.names.get(0));
+            } else if (id.names.size() == 2 && id.names.get(0).equalsIgnoreCase(alias)) {
+                return lower(id.names.get(1));
+            }
+            return null;
+        }
+
+        private static boolean matches(SqlKind kind, Measure.AggregationType agg) {
+            return switch (agg) {
+                case SUM -> kind == SqlKind.SUM || kind == SqlKind.SUM0;
+                case MIN -> kind == SqlKind.MIN;
+                case MAX -> kind == SqlKind.MAX;
+                default -> false;
+            };
+        }
+
+        private static String lower(String name) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+    }
+}
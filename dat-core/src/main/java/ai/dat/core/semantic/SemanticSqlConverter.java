@@ -1,12 +1,20 @@
 package ai.dat.core.semantic;
 
 import ai.dat.core.adapter.SemanticAdapter;
+import ai.dat.core.semantic.data.Dimension;
+import ai.dat.core.semantic.data.Element;
+import ai.dat.core.semantic.data.Entity;
 import ai.dat.core.semantic.data.SemanticModel;
 import ai.dat.core.utils.SemanticModelUtil;
 import lombok.NonNull;
 import org.apache.calcite.sql.*;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.sql.parser.SqlParseException;
+import org.apache.calcite.sql.parser.SqlParserPos;
 import org.apache.calcite.sql.pretty.SqlPrettyWriter;
+import org.apache.calcite.sql.util.SqlBasicVisitor;
+import org.apache.calcite.sql.validate.SqlNameMatchers;
+import org.apache.calcite.sql.util.SqlShuttle;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,9 +32,34 @@ public class SemanticSqlConverter {
     private final SqlParserWrapper ansiSqlParser;
     private final SqlParserWrapper dialectSqlParser;
 
+    /**
+     * 是否将谓词和LIMIT下推到语义模型子查询
+     */
+    private final boolean pushdown;
+
+    /**
+     * 聚合查询路由到已物化的rollup表，为null时不路由
+     */
+    private final RollupRouter rollupRouter;
+
     public SemanticSqlConverter(@NonNull SemanticAdapter semanticAdapter,
                                 @NonNull List<SemanticModel> semanticModels) {
+        this(semanticAdapter, semanticModels, true);
+    }
+
+    public SemanticSqlConverter(@NonNull SemanticAdapter semanticAdapter,
+                                @NonNull List<SemanticModel> semanticModels,
+                                boolean pushdown) {
+        this(semanticAdapter, semanticModels, pushdown, null);
+    }
+
+    public SemanticSqlConverter(@NonNull SemanticAdapter semanticAdapter,
+                                @NonNull List<SemanticModel> semanticModels,
+                                boolean pushdown,
+                                RollupRegistry rollupRegistry) {
         this.semanticAdapter = semanticAdapter;
+        this.pushdown = pushdown;
+        this.rollupRouter = rollupRegistry == null ? null : new RollupRouter(semanticAdapter, rollupRegistry);
         this.semanticModels = semanticModels.stream()
                 .collect(Collectors.toMap(SemanticModel::getName, model -> model));
         this.sqlDialect = semanticAdapter.getSqlDialect();
@@ -97,6 +130,37 @@ public class SemanticSqlConverter {
         }
     }
 
+    /**
+     * 获取语义SQL引用的语义模型名称
+     *
+     * @param semanticSql 语义SQL
+     * @return 语义模型名称
+     * @throws SqlParseException SQL解析异常
+     */
+    public Set<String> referencedSemanticModels(@NonNull String semanticSql) throws SqlParseException {
+        semanticSql = semanticSql.trim();
+        semanticSql = semanticSql.endsWith(";") ?
+                semanticSql.substring(0, semanticSql.length() - 1) : semanticSql;
+        SqlNode sqlNode = ansiSqlParser.parseQuery(semanticSql);
+        List<SqlNode> sqlNodes = new ArrayList<>();
+        SqlNode query = sqlNode instanceof SqlOrderBy sqlOrderBy ? sqlOrderBy.query : sqlNode;
+        if (query instanceof SqlWith sqlWith) {
+            sqlWith.withList.getList().stream()
+                    .filter(Objects::nonNull)
+                    .map(node -> ((SqlWithItem) node).query)
+                    .forEach(sqlNodes::add);
+            sqlNodes.add(sqlWith.body);
+        } else {
+            sqlNodes.add(sqlNode);
+        }
+        Set<String> referencedTables = sqlNodes.stream()
+                .flatMap(node -> extractReferencedTables(node).stream())
+                .collect(Collectors.toSet());
+        return findUsedSemanticModels(referencedTables).stream()
+                .map(SemanticModel::getName)
+                .collect(Collectors.toSet());
+    }
+
     private String convertSelect(SqlNode sqlNode) throws SqlParseException {
         return "WITH " + getSemanticModelSqls(sqlNode).entrySet().stream()
                 .map(e -> e.getKey() + " AS (" + e.getValue() + ")")
@@ -135,7 +199,7 @@ public class SemanticSqlConverter {
                 .toList();
         List<SqlNode> sqlNodes = new ArrayList<>(withSqlNodes);
         sqlNodes.add(sqlWith.body);
-        return "WITH " + getSemanticModelSqls(sqlNodes).entrySet().stream()
+        return "WITH " + getSemanticModelSqls(sqlNodes, sqlNode).entrySet().stream()
                 .map(e -> e.getKey() + " AS (" + e.getValue() + ")")
                 .collect(Collectors.joining(",")) +
                 ", " + sqlNode2Sql(sqlNode).trim().substring(5); // 直接截掉开头的"WITH "（5个字符）;
@@ -235,7 +299,11 @@ public class SemanticSqlConverter {
         // 可以根据需要添加更多的节点类型处理
     }
 
-    private Map<String, String> getSemanticModelSqls(List<SqlNode> sqlNodes) throws SqlParseException {
+    /**
+     * @param sqlNodes 用于提取引用语义模型的SQL节点
+     * @param query    完整的语义SQL节点，用于列使用分析
+     */
+    private Map<String, String> getSemanticModelSqls(List<SqlNode> sqlNodes, SqlNode query) throws SqlParseException {
         // 提取所有SQL中引用的表名
         Set<String> referencedTables = sqlNodes.stream()
                 .flatMap(sqlNode -> extractReferencedTables(sqlNode).stream())
@@ -245,11 +313,338 @@ public class SemanticSqlConverter {
         if (usedModels.isEmpty()) {
             throw new IllegalArgumentException("No matching semantic model was found");
         }
-        return getSemanticModelSqls(usedModels);
+        Map<String, SoleSelect> soleSelects = soleSelects(query);
+        // 聚合查询路由到rollup表
+        Map<String, RollupRouter.Route> routes = rollupRoutes(query, usedModels, soleSelects);
+        // 列使用分析，只投影引用到的元素
+        Map<String, String> semanticModelSqls = getSemanticModelSqls(usedModels, referencedColumns(query), routes);
+        // 谓词和LIMIT下推（已路由到rollup表的语义模型不下推）
+        if (pushdown) {
+            Set<SemanticModel> pushdownModels = usedModels.stream()
+                    .filter(model -> !routes.containsKey(model.getName()))
+                    .collect(Collectors.toSet());
+            pushdownClauses(query, pushdownModels, soleSelects).forEach((name, clause) ->
+                    semanticModelSqls.computeIfPresent(quoteIdentifier(name), (k, sql) -> sql + clause));
+        }
+        return semanticModelSqls;
+    }
+
+    /**
+     * 为满足条件的语义模型选择可读取的rollup表（见 {@link RollupRouter}）
+     *
+     * @return 语义模型名称 -> 路由结果
+     */
+    private Map<String, RollupRouter.Route> rollupRoutes(SqlNode query, Set<SemanticModel> semanticModels,
+                                                         Map<String, SoleSelect> soleSelects) {
+        if (rollupRouter == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, RollupRouter.Route> routes = new HashMap<>();
+        for (SemanticModel semanticModel : semanticModels) {
+            SoleSelect soleSelect = soleSelects.get(semanticModel.getName());
+            if (soleSelect == null) {
+                continue;
+            }
+            SqlNodeList orderList = query instanceof SqlOrderBy orderBy && orderBy.query == soleSelect.select ?
+                    orderBy.orderList : null;
+            rollupRouter.route(semanticModel, soleSelect.select, soleSelect.alias, orderList)
+                    .ifPresent(route -> routes.put(semanticModel.getName(), route));
+        }
+        return routes;
+    }
+
+    /**
+     * 在整个查询中只被引用一次、且是所在SELECT唯一FROM项的表
+     *
+     * @return 表名 -> 所在SELECT与别名
+     */
+    private Map<String, SoleSelect> soleSelects(SqlNode query) {
+        SelectCollector collector = new SelectCollector();
+        query.accept(collector);
+
+        Map<String, List<SqlSelect>> occurrences = new HashMap<>();
+        Map<SqlSelect, String> soleAliases = new IdentityHashMap<>();
+        for (SqlSelect select : collector.selects) {
+            if (select.getFrom() == null) {
+                continue;
+            }
+            List<String[]> tableRefs = new ArrayList<>();
+            collectFromTables(select.getFrom(), tableRefs);
+            for (String[] tableRef : tableRefs) {
+                occurrences.computeIfAbsent(tableRef[0], k -> new ArrayList<>()).add(select);
+            }
+            if (tableRefs.size() == 1 && !(select.getFrom() instanceof SqlJoin)) {
+                soleAliases.put(select, tableRefs.get(0)[1]);
+            }
+        }
+        Map<String, SoleSelect> soleSelects = new HashMap<>();
+        occurrences.forEach((table, selects) -> {
+            if (selects.size() == 1 && soleAliases.containsKey(selects.get(0))) {
+                soleSelects.put(table, new SoleSelect(selects.get(0), soleAliases.get(selects.get(0))));
+            }
+        });
+        return soleSelects;
+    }
+
+    /**
+     * 计算可下推到语义模型子查询的 WHERE 和 LIMIT 子句（外层查询保持不变，下推的过滤条件是冗余且安全的）。
+     * <p>
+     * 只处理在整个查询中只被引用一次、且是所在SELECT唯一FROM项的语义模型：
+     * <ul>
+     *     <li>WHERE中形如"实体/维度 比较运算 字面量"的AND合取项，使用元素的expr改写后下推</li>
+     *     <li>顶层查询没有剩余WHERE条件、GROUP BY、HAVING、DISTINCT、ORDER BY、聚合和窗口函数
+     *     （以及无法识别的函数）时，下推LIMIT（含OFFSET）</li>
+     * </ul>
+     *
+     * @param query          完整的语义SQL节点
+     * @param semanticModels 使用的语义模型
+     * @param soleSelects    只被引用一次且是所在SELECT唯一FROM项的表
+     * @return 语义模型名称 -> 追加到子查询末尾的子句
+     */
+    private Map<String, String> pushdownClauses(SqlNode query, Set<SemanticModel> semanticModels,
+                                                Map<String, SoleSelect> soleSelects) {
+        SqlSelect topSelect = topLevelSelect(query);
+        Map<String, String> clauses = new HashMap<>();
+        for (SemanticModel semanticModel : semanticModels) {
+            SoleSelect soleSelect = soleSelects.get(semanticModel.getName());
+            if (soleSelect == null) {
+                continue;
+            }
+            SqlSelect select = soleSelect.select;
+            String alias = soleSelect.alias;
+
+            List<SqlNode> conjuncts = new ArrayList<>();
+            if (select.getWhere() != null) {
+                splitConjuncts(select.getWhere(), conjuncts);
+            }
+            List<String> filters = new ArrayList<>();
+            for (SqlNode conjunct : conjuncts) {
+                pushdownPredicate(conjunct, semanticModel, alias).ifPresent(filters::add);
+            }
+            StringBuilder clause = new StringBuilder();
+            if (!filters.isEmpty()) {
+                clause.append(" WHERE ").append(String.join(" AND ", filters));
+            }
+            if (select == topSelect && filters.size() == conjuncts.size()) {
+                pushdownLimit(query, select).ifPresent(clause::append);
+            }
+            if (!clause.isEmpty()) {
+                clauses.put(semanticModel.getName(), clause.toString());
+            }
+        }
+        return clauses;
+    }
+
+    /**
+     * 收集FROM中引用的表：[表名, 别名]
+     */
+    private void collectFromTables(SqlNode from, List<String[]> tableRefs) {
+        if (from instanceof SqlIdentifier identifier) {
+            if (identifier.isSimple()) {
+                tableRefs.add(new String[]{identifier.getSimple(), identifier.getSimple()});
+            }
+        } else if (from instanceof SqlJoin join) {
+            collectFromTables(join.getLeft(), tableRefs);
+            collectFromTables(join.getRight(), tableRefs);
+        } else if (from instanceof SqlBasicCall call && call.getKind() == SqlKind.AS
+                && call.operand(0) instanceof SqlIdentifier identifier && identifier.isSimple()) {
+            tableRefs.add(new String[]{identifier.getSimple(), ((SqlIdentifier) call.operand(1)).getSimple()});
+        }
+    }
+
+    private SqlSelect topLevelSelect(SqlNode query) {
+        if (query instanceof SqlSelect select) {
+            return select;
+        } else if (query instanceof SqlOrderBy orderBy && orderBy.query instanceof SqlSelect select) {
+            return select;
+        }
+        return null;
+    }
+
+    private void splitConjuncts(SqlNode condition, List<SqlNode> conjuncts) {
+        if (condition.getKind() == SqlKind.AND) {
+            for (SqlNode operand : ((SqlCall) condition).getOperandList()) {
+                splitConjuncts(operand, conjuncts);
+            }
+        } else {
+            conjuncts.add(condition);
+        }
+    }
+
+    private static final Set<SqlKind> PUSHDOWN_PREDICATE_KINDS = EnumSet.of(
+            SqlKind.EQUALS, SqlKind.NOT_EQUALS,
+            SqlKind.LESS_THAN, SqlKind.LESS_THAN_OR_EQUAL,
+            SqlKind.GREATER_THAN, SqlKind.GREATER_THAN_OR_EQUAL,
+            SqlKind.IN, SqlKind.NOT_IN, SqlKind.BETWEEN, SqlKind.LIKE,
+            SqlKind.IS_NULL, SqlKind.IS_NOT_NULL
+    );
+
+    /**
+     * 将"实体/维度 比较运算 字面量"形式的谓词改写为基于元素expr的谓词，其他谓词不下推
+     */
+    private Optional<String> pushdownPredicate(SqlNode predicate, SemanticModel semanticModel, String alias) {
+        if (!(predicate instanceof SqlCall call) || !PUSHDOWN_PREDICATE_KINDS.contains(call.getKind())) {
+            return Optional.empty();
+        }
+        SqlIdentifier column = null;
+        for (SqlNode operand : call.getOperandList()) {
+            if (operand instanceof SqlIdentifier identifier) {
+                if (column != null) {
+                    return Optional.empty();
+                }
+                column = identifier;
+            } else if (!isLiteral(operand)) {
+                return Optional.empty();
+            }
+        }
+        if (column == null) {
+            return Optional.empty();
+        }
+        String columnName;
+        if (column.names.size() == 1) {
+            columnName = column.names.get(0);
+        } else if (column.names.size() == 2 && column.names.get(0).equalsIgnoreCase(alias)) {
+            columnName = column.names.get(1);
+        } else {
+            return Optional.empty();
+        }
+        Optional<String> expr = pushdownExpr(semanticModel, columnName);
+        if (expr.isEmpty()) {
+            return Optional.empty();
+        }
+        SqlNode exprNode;
+        try {
+            exprNode = dialectSqlParser.parseExpression(expr.get());
+        } catch (SqlParseException e) {
+            return Optional.empty(); // 方言特有的表达式无法解析时不下推
+        }
+        SqlNode rewritten = call.accept(new SqlShuttle() {
+            @Override
+            public SqlNode visit(SqlIdentifier id) {
+                return exprNode;
+            }
+        });
+        return Optional.of("(" + sqlNode2Sql(rewritten) + ")");
+    }
+
+    /**
+     * 实体或维度在语义模型子查询中的表达式，度量不下推
+     */
+    private Optional<String> pushdownExpr(SemanticModel semanticModel, String columnName) {
+        for (Entity entity : semanticModel.getEntities()) {
+            if (entity.getName().equalsIgnoreCase(columnName)) {
+                return Optional.of(elementExpr(entity));
+            }
+        }
+        for (Dimension dimension : semanticModel.getDimensions()) {
+            if (dimension.getName().equalsIgnoreCase(columnName)) {
+                String expr = elementExpr(dimension);
+                if (Dimension.DimensionType.TIME == dimension.getType()) {
+                    expr = semanticAdapter.applyTimeGranularity(expr,
+                            dimension.getTypeParams().getTimeGranularity());
+                }
+                return Optional.of(expr);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String elementExpr(Element element) {
+        return element.getExpr() != null && !element.getExpr().isEmpty() ? element.getExpr() : element.getName();
+    }
+
+    private static boolean isLiteral(SqlNode node) {
+        if (node instanceof SqlLiteral) {
+            return true;
+        } else if (node instanceof SqlNodeList list) {
+            return list.getList().stream().allMatch(SemanticSqlConverter::isLiteral);
+        } else if (node instanceof SqlCall call
+                && (call.getKind() == SqlKind.MINUS_PREFIX || call.getKind() == SqlKind.PLUS_PREFIX)) {
+            return call.operandCount() == 1 && call.operand(0) instanceof SqlLiteral;
+        }
+        return false;
+    }
+
+    /**
+     * 顶层查询是对语义模型的简单投影（无ORDER BY、GROUP BY、HAVING、DISTINCT、聚合和窗口函数）时下推LIMIT
+     */
+    private Optional<String> pushdownLimit(SqlNode query, SqlSelect select) {
+        SqlNode offset = select.getOffset();
+        SqlNode fetch = select.getFetch();
+        if (query instanceof SqlOrderBy orderBy) {
+            if (orderBy.orderList != null && orderBy.orderList.size() > 0) {
+                return Optional.empty();
+            }
+            offset = orderBy.offset;
+            fetch = orderBy.fetch;
+        }
+        if (!(fetch instanceof SqlNumericLiteral fetchLiteral)
+            || (offset != null && !(offset instanceof SqlNumericLiteral))
+            || select.isDistinct()
+            || select.getGroup() != null
+            || select.getHaving() != null
+            || (select.getOrderList() != null && select.getOrderList().size() > 0)
+            || containsAggregateOrWindow(select.getSelectList())) {
+            return Optional.empty();
+        }
+        long limit = fetchLiteral.longValue(true);
+        if (offset != null) {
+            limit += ((SqlNumericLiteral) offset).longValue(true);
+        }
+        SqlPrettyWriter writer = new SqlPrettyWriter(SqlPrettyWriter.config().withDialect(sqlDialect));
+        sqlDialect.unparseOffsetFetch(writer, null,
+                SqlLiteral.createExactNumeric(String.valueOf(limit), SqlParserPos.ZERO));
+        String clause = writer.toString();
+        return clause.isBlank() ? Optional.empty() : Optional.of(" " + clause.trim());
+    }
+
+    private static boolean containsAggregateOrWindow(SqlNode node) {
+        if (node instanceof SqlNodeList list) {
+            return list.getList().stream().anyMatch(SemanticSqlConverter::containsAggregateOrWindow);
+        } else if (node instanceof SqlCall call) {
+            if (call.getKind() == SqlKind.OVER || isAggregateOrUnknownFunction(call.getOperator())) {
+                return true;
+            }
+            return call.getOperandList().stream()
+                    .filter(Objects::nonNull)
+                    .anyMatch(SemanticSqlConverter::containsAggregateOrWindow);
+        }
+        return false;
+    }
+
+    /**
+     * 解析器不解析函数（均为 {@link SqlUnresolvedFunction}），按名称在标准函数表中查找，
+     * 找不到的函数（如方言特有的聚合函数）视为可能是聚合函数
+     */
+    private static boolean isAggregateOrUnknownFunction(SqlOperator operator) {
+        if (operator.isAggregator()) {
+            return true;
+        }
+        if (!(operator instanceof SqlUnresolvedFunction function)) {
+            return false;
+        }
+        List<SqlOperator> operators = new ArrayList<>();
+        SqlStdOperatorTable.instance().lookupOperatorOverloads(function.getSqlIdentifier(), null,
+                SqlSyntax.FUNCTION, operators, SqlNameMatchers.withCaseSensitive(false));
+        return operators.isEmpty() || operators.stream().anyMatch(SqlOperator::isAggregator);
+    }
+
+    /**
+     * 列使用分析：收集语义SQL（SELECT列表、谓词、GROUP BY/ORDER BY、子查询等）中出现的全部标识符，
+     * 限定名的每一部分都计入（保守地多投影，不会少投影）。
+     * 出现无法确定引用列的用法（如 SELECT *、t.*、NATURAL JOIN）时返回null，表示投影全部元素
+     *
+     * @param sqlNode SQL节点
+     * @return 引用的列名（小写），为null时表示无法确定
+     */
+    private Set<String> referencedColumns(SqlNode sqlNode) {
+        ColumnUsageCollector collector = new ColumnUsageCollector();
+        sqlNode.accept(collector);
+        return collector.ambiguous ? null : collector.columns;
     }
 
     private Map<String, String> getSemanticModelSqls(SqlNode sqlNode) throws SqlParseException {
-        return getSemanticModelSqls(Collections.singletonList(sqlNode));
+        return getSemanticModelSqls(Collections.singletonList(sqlNode), sqlNode);
     }
 
     private Set<SemanticModel> findUsedSemanticModels(Set<String> referencedTables) {
@@ -263,10 +658,14 @@ public class SemanticSqlConverter {
         return usedModels;
     }
 
-    private Map<String, String> getSemanticModelSqls(Set<SemanticModel> semanticModels) throws SqlParseException {
+    private Map<String, String> getSemanticModelSqls(Set<SemanticModel> semanticModels,
+                                                    Set<String> columnNames,
+                                                    Map<String, RollupRouter.Route> routes) throws SqlParseException {
         Map<String, String> semanticModelSqls = new HashMap<>();
         for (SemanticModel semanticModel : semanticModels) {
-            String semanticModelSql = SemanticModelUtil.semanticModelSql(semanticAdapter, semanticModel);
+            RollupRouter.Route route = routes.get(semanticModel.getName());
+            String semanticModelSql = route != null ? rollupRouter.rollupSql(route, columnNames)
+                    : SemanticModelUtil.semanticModelSql(semanticAdapter, semanticModel, columnNames);
             semanticModelSqls.put(quoteIdentifier(semanticModel.getName()), semanticModelSql);
         }
         return semanticModelSqls;
@@ -279,4 +678,58 @@ public class SemanticSqlConverter {
     private String quoteIdentifier(String name) {
         return semanticAdapter.quoteIdentifier(name);
     }
+
+    private record SoleSelect(SqlSelect select, String alias) {
+    }
+
+    /**
+     * 收集SQL中的全部SELECT（含子查询和WITH项）
+     */
+    private static class SelectCollector extends SqlBasicVisitor<Void> {
+        private final List<SqlSelect> selects = new ArrayList<>();
+
+        @Override
+        public Void visit(SqlCall call) {
+            if (call instanceof SqlSelect select) {
+                selects.add(select);
+            }
+            return super.visit(call);
+        }
+    }
+
+    /**
+     * 收集SQL中引用的标识符
+     */
+    private static class ColumnUsageCollector extends SqlBasicVisitor<Void> {
+        private final Set<String> columns = new HashSet<>();
+        private boolean ambiguous = false;
+
+        @Override
+        public Void visit(SqlIdentifier id) {
+            if (id.isStar()) {
+                ambiguous = true; // SELECT * 或 t.*
+            } else {
+                id.names.forEach(name -> columns.add(name.toLowerCase(Locale.ROOT)));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(SqlCall call) {
+            if (call instanceof SqlJoin join && join.isNatural()) {
+                ambiguous = true; // NATURAL JOIN 隐式按同名列关联
+                return null;
+            }
+            if (call.getKind() == SqlKind.COUNT) {
+                // COUNT(*) 不引用任何列
+                for (SqlNode operand : call.getOperandList()) {
+                    if (operand != null && !(operand instanceof SqlIdentifier id && id.isStar())) {
+                        operand.accept(this);
+                    }
+                }
+                return null;
+            }
+            return super.visit(call);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package ai.dat.core.semantic.data;
+
+import ai.dat.core.configuration.time.TimeUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 语义模型的本地加速配置：开启后语义模型的数据会被定期抽取到本地嵌入式DuckDB文件，
+ * 引用的语义模型全部已加速且新鲜的查询改为在DuckDB上执行，否则回退到源数据库
+ *
+ * @Author JunjieM
+ * @Date 2025/10/26
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Acceleration {
+
+    public static final String TABLE_NAME_PREFIX = "dat_accel__";
+
+    private boolean enabled = true;
+
+    /**
+     * 增量刷新的水位线表达式（源数据库方言，基于模型SQL的列，例如：updated_at），
+     * 未设置时每次刷新全量抽取
+     */
+    private String watermark;
+
+    /**
+     * 允许的最大陈旧时间（例如：30m、1h、1d），超过后查询回退到源数据库，未设置时使用项目配置的默认值
+     */
+    @JsonProperty("max_staleness")
+    private String maxStaleness;
+
+    public void setMaxStaleness(String maxStaleness) {
+        if (maxStaleness != null) {
+            Duration duration = TimeUtils.parseDuration(maxStaleness);
+            Preconditions.checkArgument(!duration.isNegative() && !duration.isZero(),
+                    "The max_staleness of acceleration must be greater than 0: " + maxStaleness);
+        }
+        this.maxStaleness = maxStaleness;
+    }
+
+    @JsonIgnore
+    public Optional<Duration> getMaxStalenessDuration() {
+        return Optional.ofNullable(maxStaleness).map(TimeUtils::parseDuration);
+    }
+
+    /**
+     * 抽取到DuckDB的表名
+     */
+    public static String tableName(String semanticModelName) {
+        return TABLE_NAME_PREFIX + semanticModelName;
+    }
+}
@@ -101,6 +101,14 @@ public class Dimension extends Element {
                 return VALUE_MAP.get(value);
             }
 
+            /**
+             * 本粒度的时间区间能否完整地划分目标粒度的时间区间，即按本粒度聚合的结果能否再聚合为目标粒度。
+             * 周跨越月、季度和年的边界，只能聚合为周
+             */
+            public boolean rollsUpTo(@NonNull TimeGranularity target) {
+                return this.ordinal() <= target.ordinal() && (this != WEEK || target == WEEK);
+            }
+
             @Override
             public String toString() {
                 return value;
@@ -0,0 +1,95 @@
+package ai.dat.core.semantic.data;
+
+import ai.dat.core.configuration.time.TimeUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 语义模型的预聚合（rollup）表定义：按维度集合（及时间维度粒度）对度量预先聚合，
+ * 物化到目标数据库后，满足条件的语义SQL会被透明地路由到最小的可用rollup表
+ *
+ * @Author JunjieM
+ * @Date 2025/10/25
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Rollup {
+
+    public static final String TABLE_NAME_PREFIX = "dat_rollup__";
+
+    @NonNull
+    private String name;
+
+    private String description;
+
+    /**
+     * 物化的表名，未设置时为 dat_rollup__{语义模型名称}__{rollup名称}
+     */
+    private String table;
+
+    /**
+     * 分组的实体和分类维度
+     */
+    @NonNull
+    private List<String> dimensions = List.of();
+
+    /**
+     * 分组的时间维度
+     */
+    @JsonProperty("time_dimension")
+    private String timeDimension;
+
+    /**
+     * 时间维度的聚合粒度，不能比时间维度自身的粒度更粗，未设置时使用时间维度自身的粒度
+     */
+    @JsonProperty("time_granularity")
+    private Dimension.TypeParams.TimeGranularity timeGranularity;
+
+    /**
+     * 预聚合的度量（聚合类型只能是 sum、min、max）
+     */
+    @NonNull
+    private List<String> measures = List.of();
+
+    /**
+     * 允许的最大陈旧时间（例如：30m、1h、1d），超过后不再路由到该rollup，未设置时使用项目配置的默认值
+     */
+    @JsonProperty("max_staleness")
+    private String maxStaleness;
+
+    public void setTimeGranularity(String timeGranularity) {
+        this.timeGranularity = timeGranularity == null ? null
+                : Dimension.TypeParams.TimeGranularity.fromValue(timeGranularity);
+    }
+
+    public void setMaxStaleness(String maxStaleness) {
+        if (maxStaleness != null) {
+            Duration duration = TimeUtils.parseDuration(maxStaleness);
+            Preconditions.checkArgument(!duration.isNegative() && !duration.isZero(),
+                    "The max_staleness of rollup must be greater than 0: " + maxStaleness);
+        }
+        this.maxStaleness = maxStaleness;
+    }
+
+    @JsonIgnore
+    public Optional<Duration> getMaxStalenessDuration() {
+        return Optional.ofNullable(maxStaleness).map(TimeUtils::parseDuration);
+    }
+
+    /**
+     * 物化的表名
+     */
+    public String tableName(@NonNull String semanticModelName) {
+        return table != null && !table.isBlank() ? table : TABLE_NAME_PREFIX + semanticModelName + "__" + name;
+    }
+}
@@ -1,5 +1,7 @@
 package ai.dat.core.semantic.data;
 
+import ai.dat.core.configuration.time.TimeUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
@@ -8,10 +10,8 @@ import lombok.NonNull;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.time.Duration;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Setter
@@ -52,6 +52,12 @@ public class SemanticModel {
     @NonNull
     private List<Measure> measures = List.of();
 
+    @NonNull
+    private List<Rollup> rollups = List.of();
+
+    @NonNull
+    private Config config = new Config();
+
     @Setter
     @Getter
     @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -61,6 +67,41 @@ public class SemanticModel {
         private String aggTimeDimension = "";
     }
 
+    @Setter
+    @Getter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Config {
+        /**
+         * 查询结果缓存有效期（例如：30s、10m、1h），0表示不缓存，未设置时使用项目配置的默认值
+         */
+        @JsonProperty("cache_ttl")
+        private String cacheTtl;
+
+        public void setCacheTtl(String cacheTtl) {
+            if (cacheTtl != null) {
+                Duration duration = TimeUtils.parseDuration(cacheTtl);
+                Preconditions.checkArgument(!duration.isNegative(),
+                        "The cache_ttl of config cannot be negative: " + cacheTtl);
+            }
+            this.cacheTtl = cacheTtl;
+        }
+
+        @JsonIgnore
+        public Optional<Duration> getCacheTtlDuration() {
+            return Optional.ofNullable(cacheTtl).map(TimeUtils::parseDuration);
+        }
+
+        /**
+         * 本地加速配置，未设置时不加速
+         */
+        private Acceleration acceleration;
+
+        @JsonIgnore
+        public boolean isAccelerated() {
+            return acceleration != null && acceleration.isEnabled();
+        }
+    }
+
     public void setDefaults(Defaults defaults) {
         Defaults olds = this.defaults;
         this.defaults = defaults;
@@ -110,6 +151,15 @@ public class SemanticModel {
         }
     }
 
+    public void setRollups(@NonNull List<Rollup> rollups) {
+        Set<String> names = new HashSet<>();
+        for (Rollup rollup : rollups) {
+            Preconditions.checkArgument(names.add(rollup.getName()),
+                    String.format("There is duplicate rollup name in %s: '%s'", theSemanticModelStr(), rollup.getName()));
+        }
+        this.rollups = rollups;
+    }
+
     private void validateEnumValues() {
         List<String> incorrectNames = dimensions.stream()
                 .filter(d -> Dimension.DimensionType.TIME == d.getType())
@@ -0,0 +1,120 @@
+package ai.dat.core.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.baggage.Baggage;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import lombok.NonNull;
+
+/**
+ * 问数流程的链路追踪（OpenTelemetry）：默认不导出（no-op），
+ * 由宿主进程插入配置了导出器的 OpenTelemetry 实例后生效
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+public final class DatTracing {
+
+    public static final String INSTRUMENTATION_NAME = "ai.dat";
+
+    public static final AttributeKey<String> CONVERSATION_ID = AttributeKey.stringKey("dat.conversation.id");
+    public static final AttributeKey<String> AGENT = AttributeKey.stringKey("dat.agent");
+    public static final AttributeKey<String> CONTENT_TYPE = AttributeKey.stringKey("dat.content.type");
+    public static final AttributeKey<String> OPERATION = AttributeKey.stringKey("dat.llm.operation");
+    public static final AttributeKey<String> TOOL_NAME = AttributeKey.stringKey("dat.tool.name");
+    public static final AttributeKey<String> ADAPTER = AttributeKey.stringKey("dat.adapter");
+    public static final AttributeKey<Long> ROWS = AttributeKey.longKey("dat.rows");
+
+    private static volatile OpenTelemetry openTelemetry = OpenTelemetry.noop();
+    private static volatile Tracer tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+
+    private DatTracing() {
+    }
+
+    /**
+     * 插入 OpenTelemetry 实例（决定span的采样与导出）
+     */
+    public static void setOpenTelemetry(@NonNull OpenTelemetry openTelemetry) {
+        DatTracing.openTelemetry = openTelemetry;
+        DatTracing.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+    }
+
+    public static OpenTelemetry openTelemetry() {
+        return openTelemetry;
+    }
+
+    public static Tracer tracer() {
+        return tracer;
+    }
+
+    /**
+     * 将会话ID放入当前上下文（Baggage），之后在此上下文及其传播到的线程中创建的span都带有会话ID
+     */
+    public static Scope withConversationId(@NonNull String conversationId) {
+        return Baggage.current().toBuilder()
+                .put(CONVERSATION_ID.getKey(), conversationId)
+                .build()
+                .makeCurrent();
+    }
+
+    /**
+     * 以当前上下文为父创建span并开始
+     */
+    public static Span startSpan(@NonNull String name) {
+        return startSpan(name, Context.current());
+    }
+
+    public static Span startSpan(@NonNull String name, @NonNull Context parent) {
+        SpanBuilder builder = tracer.spanBuilder(name).setParent(parent);
+        String conversationId = Baggage.fromContext(parent).getEntryValue(CONVERSATION_ID.getKey());
+        if (conversationId != null) {
+            builder.setAttribute(CONVERSATION_ID, conversationId);
+        }
+        return builder.startSpan();
+    }
+
+    /**
+     * 结束span，有异常时记录异常并标记为错误
+     */
+    public static void end(@NonNull Span span, Throwable error) {
+        if (error != null) {
+            span.recordException(error);
+            span.setStatus(StatusCode.ERROR, String.valueOf(error.getMessage()));
+        }
+        span.end();
+    }
+
+    /**
+     * 在新的span中执行（执行期间span为当前span）
+     */
+    public static <T, E extends Throwable> T trace(@NonNull String name,
+                                                   @NonNull SpanCallable<T, E> callable) throws E {
+        return trace(startSpan(name), callable);
+    }
+
+    /**
+     * 在已开始的span中执行（执行期间span为当前span），执行完成后结束span
+     */
+    public static <T, E extends Throwable> T trace(@NonNull Span span,
+                                                   @NonNull SpanCallable<T, E> callable) throws E {
+        Throwable error = null;
+        try (Scope ignored = span.makeCurrent()) {
+            return callable.call();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            end(span, error);
+        }
+    }
+
+    @FunctionalInterface
+    public interface SpanCallable<T, E extends Throwable> {
+        T call() throws E;
+    }
+}
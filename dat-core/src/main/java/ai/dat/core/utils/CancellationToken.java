@@ -0,0 +1,122 @@
+package ai.dat.core.utils;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 取消令牌：一次请求（如一次问数）范围内共享，请求方（客户端断开、调用方放弃）取消后，
+ * 依次执行已注册的回调（中止JDBC语句、释放等待中的线程等）。
+ * <p>
+ * 回调在持有锁的情况下执行，{@link Registration#close()} 返回后对应的回调不会再被执行。
+ *
+ * @Author JunjieM
+ * @Date 2025/10/28
+ */
+@Slf4j
+public class CancellationToken {
+
+    /**
+     * 永不取消的令牌
+     */
+    public static final CancellationToken NONE = new CancellationToken() {
+        @Override
+        public void cancel(String reason) {
+        }
+
+        @Override
+        public Registration onCancel(@NonNull Runnable callback) {
+            return () -> {
+            };
+        }
+    };
+
+    private final List<Runnable> callbacks = new ArrayList<>();
+
+    private volatile boolean cancelled = false;
+    private volatile String reason;
+
+    /**
+     * 取消，只有第一次调用生效
+     *
+     * @param reason 取消原因
+     */
+    public void cancel(String reason) {
+        synchronized (callbacks) {
+            if (cancelled) {
+                return;
+            }
+            this.reason = reason;
+            this.cancelled = true;
+            for (Runnable callback : callbacks) {
+                try {
+                    callback.run();
+                } catch (Exception e) {
+                    log.warn("Cancellation callback exception", e);
+                }
+            }
+            callbacks.clear();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * 已取消时抛出 {@link CancellationException}
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException(reason);
+        }
+    }
+
+    /**
+     * 注册取消回调，已取消时立即执行
+     *
+     * @param callback 回调
+     * @return 注册句柄，关闭后回调不再执行
+     */
+    public Registration onCancel(@NonNull Runnable callback) {
+        synchronized (callbacks) {
+            if (!cancelled) {
+                callbacks.add(callback);
+                return () -> {
+                    synchronized (callbacks) {
+                        callbacks.remove(callback);
+                    }
+                };
+            }
+        }
+        callback.run();
+        return () -> {
+        };
+    }
+
+    /**
+     * 等待异步结果，取消时立即返回（抛出 {@link CancellationException}）
+     */
+    public <T> T await(@NonNull CompletableFuture<T> future) {
+        try (Registration ignored = onCancel(() -> future.cancel(true))) {
+            return future.join();
+        }
+    }
+
+    /**
+     * 取消回调的注册句柄
+     */
+    @FunctionalInterface
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
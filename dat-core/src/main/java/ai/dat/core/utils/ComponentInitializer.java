@@ -0,0 +1,177 @@
+package ai.dat.core.utils;
+
+import io.opentelemetry.context.Context;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 组件的并行初始化：互不依赖的组件（向量化模型、各类嵌入存储、LLM、数据库适配器等）同时创建，
+ * 有依赖的组件通过 {@link #join(CompletableFuture)} 等待其依赖，完成后记录每个组件的耗时。
+ * <p>
+ * 初始化失败时 {@link #rollback()} 等待其它组件创建完成，再清理已创建的组件
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Slf4j
+public class ComponentInitializer {
+
+    private static final ExecutorService EXECUTOR = Context.taskWrapping(
+            Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger id = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r);
+                    thread.setName("dat-init-" + id.addAndGet(1));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }));
+
+    private final String name;
+
+    private final long startTime = System.nanoTime();
+
+    private final List<Component<?>> components = new ArrayList<>();
+
+    public ComponentInitializer(@NonNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * 在后台开始创建组件
+     *
+     * @param componentName 组件名称
+     * @param creator       组件的创建方法
+     * @param cleaner       初始化失败时已创建组件的清理方法，可以为null
+     */
+    public <T> CompletableFuture<T> start(@NonNull String componentName,
+                                          @NonNull Supplier<T> creator,
+                                          Consumer<? super T> cleaner) {
+        Component<T> component = new Component<>(componentName, cleaner);
+        component.future = CompletableFuture.supplyAsync(() -> component.create(creator), EXECUTOR);
+        synchronized (components) {
+            components.add(component);
+        }
+        return component.future;
+    }
+
+    public <T> CompletableFuture<T> start(@NonNull String componentName, @NonNull Supplier<T> creator) {
+        return start(componentName, creator, null);
+    }
+
+    /**
+     * 在当前线程创建组件并记录耗时
+     */
+    public <T> T create(@NonNull String componentName, @NonNull Supplier<T> creator) {
+        Component<T> component = new Component<>(componentName, null);
+        component.future = CompletableFuture.completedFuture(component.create(creator));
+        synchronized (components) {
+            components.add(component);
+        }
+        return component.future.join();
+    }
+
+    /**
+     * 等待组件创建完成，创建失败时抛出原始异常
+     */
+    public <T> T join(@NonNull CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while initializing " + name, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * 初始化完成，记录每个组件的耗时
+     */
+    public void completed() {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        String timings;
+        synchronized (components) {
+            timings = components.stream()
+                    .map(component -> component.name + ": " + component.elapsedMillis + "ms")
+                    .collect(Collectors.joining(", "));
+        }
+        log.info("Initialized {} in {}ms ({})", name, (System.nanoTime() - startTime) / 1_000_000, timings);
+    }
+
+    /**
+     * 初始化失败，等待全部组件创建结束后清理已创建的组件
+     */
+    public void rollback() {
+        List<Component<?>> created;
+        synchronized (components) {
+            created = new ArrayList<>(components);
+        }
+        for (Component<?> component : created) {
+            component.cleanup();
+        }
+    }
+
+    private static class Component<T> {
+        private final String name;
+        private final Consumer<? super T> cleaner;
+        private CompletableFuture<T> future;
+        private volatile long elapsedMillis;
+
+        private Component(String name, Consumer<? super T> cleaner) {
+            this.name = name;
+            this.cleaner = cleaner;
+        }
+
+        private T create(Supplier<T> creator) {
+            long start = System.nanoTime();
+            try {
+                return creator.get();
+            } finally {
+                elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                log.debug("Initialized {} in {}ms", name, elapsedMillis);
+            }
+        }
+
+        private void cleanup() {
+            T instance;
+            try {
+                instance = future.join();
+            } catch (RuntimeException e) {
+                return;
+            }
+            if (cleaner != null && instance != null) {
+                try {
+                    cleaner.accept(instance);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to clean up the {}", name, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ai.dat.core.utils;
+
+import com.google.common.base.Preconditions;
+import io.opentelemetry.context.Context;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程池工具类
+ *
+ * @Author JunjieM
+ * @Date 2025/10/20
+ */
+@Slf4j
+public class ExecutorUtil {
+
+    public enum ExecutorMode {
+        /**
+         * 有界的平台线程池
+         */
+        PLATFORM,
+        /**
+         * 每个任务一个虚拟线程（需要 Java 21+，低版本运行时自动回退为 PLATFORM）
+         */
+        VIRTUAL
+    }
+
+    private ExecutorUtil() {
+    }
+
+    /**
+     * 创建有界线程池，线程数最多为 maxThreads，空闲线程60秒后回收；
+     * 提交任务时的追踪上下文会传播到执行线程
+     *
+     * @param threadNamePrefix 线程名前缀
+     * @param mode             线程池模式
+     * @param maxThreads       最大线程数（VIRTUAL模式下忽略，并发由调用方的准入控制约束）
+     * @return 线程池
+     */
+    public static ExecutorService newExecutor(@NonNull String threadNamePrefix,
+                                              @NonNull ExecutorMode mode,
+                                              int maxThreads) {
+        Preconditions.checkArgument(maxThreads > 0, "maxThreads must be greater than 0");
+        if (ExecutorMode.VIRTUAL == mode) {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            if (executor != null) {
+                return Context.taskWrapping(executor);
+            }
+            log.warn("Virtual threads are not supported by the current Java runtime ({}), " +
+                     "fall back to platform threads", System.getProperty("java.version"));
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new ThreadFactory() {
+            private final AtomicInteger id = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r);
+                thread.setName(threadNamePrefix + id.addAndGet(1));
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return Context.taskWrapping(executor);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import ai.dat.core.configuration.ConfigOption;
 import ai.dat.core.configuration.ReadableConfig;
 import ai.dat.core.contentstore.ContentStore;
 import ai.dat.core.contentstore.ContentType;
+import ai.dat.core.conversation.ConversationStore;
 import ai.dat.core.exception.ValidationException;
 import ai.dat.core.factories.*;
 import ai.dat.core.factories.data.ChatModelInstance;
@@ -20,6 +21,7 @@ import dev.langchain4j.store.embedding.EmbeddingStore;
 import lombok.NonNull;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 
@@ -53,34 +55,44 @@ public final class FactoryUtil {
 
     /**
      * Create Embedding Model
+     * <p>
+     * 同一进程内配置相同的模型共享同一实例（见 {@link SharedModelRegistry}），
+     * 用完后通过 {@link SharedModelRegistry#release(Object)} 释放
      *
      * @param factoryDescriptor
      * @return
      */
     public static EmbeddingModel createEmbeddingModel(@NonNull FactoryDescriptor factoryDescriptor) {
         EmbeddingModelFactory factory = EmbeddingModelFactoryManager.getFactory(factoryDescriptor.getIdentifier());
-        try {
-            return factory.create(factoryDescriptor.getConfig());
-        } catch (Exception e) {
-            throw new RuntimeException(String.format(ERROR_MESSAGE, "embedding model",
-                    factoryDescriptor.getIdentifier(), e.getMessage()), e);
-        }
+        return SharedModelRegistry.acquire("embedding model", factoryDescriptor, () -> {
+            try {
+                return factory.create(factoryDescriptor.getConfig());
+            } catch (Exception e) {
+                throw new RuntimeException(String.format(ERROR_MESSAGE, "embedding model",
+                        factoryDescriptor.getIdentifier(), e.getMessage()), e);
+            }
+        });
     }
 
     /**
      * Create Scoring (reranking) Model
+     * <p>
+     * 同一进程内配置相同的模型共享同一实例（见 {@link SharedModelRegistry}），
+     * 用完后通过 {@link SharedModelRegistry#release(Object)} 释放
      *
      * @param factoryDescriptor
      * @return
      */
     public static ScoringModel createScoringModel(@NonNull FactoryDescriptor factoryDescriptor) {
         ScoringModelFactory factory = ScoringModelFactoryManager.getFactory(factoryDescriptor.getIdentifier());
-        try {
-            return factory.create(factoryDescriptor.getConfig());
-        } catch (Exception e) {
-            throw new RuntimeException(String.format(ERROR_MESSAGE, "scoring (reranking) model",
-                    factoryDescriptor.getIdentifier(), e.getMessage()), e);
-        }
+        return SharedModelRegistry.acquire("scoring model", factoryDescriptor, () -> {
+            try {
+                return factory.create(factoryDescriptor.getConfig());
+            } catch (Exception e) {
+                throw new RuntimeException(String.format(ERROR_MESSAGE, "scoring (reranking) model",
+                        factoryDescriptor.getIdentifier(), e.getMessage()), e);
+            }
+        });
     }
 
     /**
@@ -105,34 +117,44 @@ public final class FactoryUtil {
 
     /**
      * Create Chat Model
+     * <p>
+     * 同一进程内配置相同的模型共享同一实例（见 {@link SharedModelRegistry}），
+     * 用完后通过 {@link SharedModelRegistry#release(Object)} 释放
      *
      * @param factoryDescriptor
      * @return
      */
     public static ChatModel createChatModel(@NonNull FactoryDescriptor factoryDescriptor) {
         ChatModelFactory factory = ChatModelFactoryManager.getFactory(factoryDescriptor.getIdentifier());
-        try {
-            return factory.create(factoryDescriptor.getConfig());
-        } catch (Exception e) {
-            throw new RuntimeException(String.format(ERROR_MESSAGE, "LLM (Large language model)",
-                    factoryDescriptor.getIdentifier(), e.getMessage()), e);
-        }
+        return SharedModelRegistry.acquire("chat model", factoryDescriptor, () -> {
+            try {
+                return factory.create(factoryDescriptor.getConfig());
+            } catch (Exception e) {
+                throw new RuntimeException(String.format(ERROR_MESSAGE, "LLM (Large language model)",
+                        factoryDescriptor.getIdentifier(), e.getMessage()), e);
+            }
+        });
     }
 
     /**
      * Create Streaming Chat Model
+     * <p>
+     * 同一进程内配置相同的模型共享同一实例（见 {@link SharedModelRegistry}），
+     * 用完后通过 {@link SharedModelRegistry#release(Object)} 释放
      *
      * @param factoryDescriptor
      * @return
      */
     public static StreamingChatModel createStreamingChatModel(@NonNull FactoryDescriptor factoryDescriptor) {
         ChatModelFactory factory = ChatModelFactoryManager.getFactory(factoryDescriptor.getIdentifier());
-        try {
-            return factory.createStream(factoryDescriptor.getConfig());
-        } catch (Exception e) {
-            throw new RuntimeException(String.format(ERROR_MESSAGE, "streaming LLM (Large language model)",
-                    factoryDescriptor.getIdentifier(), e.getMessage()), e);
-        }
+        return SharedModelRegistry.acquire("streaming chat model", factoryDescriptor, () -> {
+            try {
+                return factory.createStream(factoryDescriptor.getConfig());
+            } catch (Exception e) {
+                throw new RuntimeException(String.format(ERROR_MESSAGE, "streaming LLM (Large language model)",
+                        factoryDescriptor.getIdentifier(), e.getMessage()), e);
+            }
+        });
     }
 
     /**
@@ -151,6 +173,23 @@ public final class FactoryUtil {
         }
     }
 
+    /**
+     * Create Conversation Store
+     *
+     * @param factoryDescriptor
+     * @return
+     */
+    public static ConversationStore createConversationStore(@NonNull FactoryDescriptor factoryDescriptor) {
+        ConversationStoreFactory factory =
+                ConversationStoreFactoryManager.getFactory(factoryDescriptor.getIdentifier());
+        try {
+            return factory.create(factoryDescriptor.getConfig());
+        } catch (Exception e) {
+            throw new RuntimeException(String.format(ERROR_MESSAGE, "conversation store",
+                    factoryDescriptor.getIdentifier(), e.getMessage()), e);
+        }
+    }
+
     /**
      * Create Content Store
      *
@@ -169,30 +208,106 @@ public final class FactoryUtil {
                                                   @NonNull Map<String, FactoryDescriptor> chatModelFactoryDescriptors,
                                                   FactoryDescriptor rerankingFactoryDescriptor) {
         ContentStoreFactory factory = ContentStoreFactoryManager.getFactory(factoryDescriptor.getIdentifier());
-        EmbeddingModel embeddingModel = createEmbeddingModel(embeddingModelFactoryDescriptor);
-        EmbeddingStore<TextSegment> mdlEmbeddingStore = createEmbeddingStore(
-                storeId, ContentType.MDL, embeddingStoreFactoryDescriptor);
-        EmbeddingStore<TextSegment> sqlEmbeddingStore = createEmbeddingStore(
-                storeId, ContentType.SQL, embeddingStoreFactoryDescriptor);
-        EmbeddingStore<TextSegment> synEmbeddingStore = createEmbeddingStore(
-                storeId, ContentType.SYN, embeddingStoreFactoryDescriptor);
-        EmbeddingStore<TextSegment> docEmbeddingStore = createEmbeddingStore(
-                storeId, ContentType.DOC, embeddingStoreFactoryDescriptor);
-        List<ChatModelInstance> chatModelInstances = chatModelFactoryDescriptors.entrySet().stream()
-                .map(e -> ChatModelInstance.from(e.getKey(), createChatModel(e.getValue()),
-                        createStreamingChatModel(e.getValue())))
-                .collect(Collectors.toList());
-        ScoringModel scoringModel = Optional.ofNullable(rerankingFactoryDescriptor)
-                .map(FactoryUtil::createScoringModel)
-                .orElse(null);
+        // 向量化模型与四个嵌入存储互不依赖，并行创建
+        ComponentInitializer initializer = new ComponentInitializer("content store '" + storeId + "'");
+        CompletableFuture<EmbeddingModel> embeddingModelFuture = initializer.start("embedding model",
+                () -> createEmbeddingModel(embeddingModelFactoryDescriptor), SharedModelRegistry::release);
+        Map<ContentType, CompletableFuture<EmbeddingStore<TextSegment>>> embeddingStoreFutures =
+                new EnumMap<>(ContentType.class);
+        for (ContentType contentType : List.of(ContentType.MDL, ContentType.SQL, ContentType.SYN, ContentType.DOC)) {
+            embeddingStoreFutures.put(contentType, initializer.start(contentType.name() + " embedding store",
+                    () -> createEmbeddingStore(storeId, contentType, embeddingStoreFactoryDescriptor)));
+        }
+        // 内容存储只在HyQE索引、LLM重排序等场景使用LLM，重排序模型只在检索时使用，首次使用时才创建
+        List<Object> sharedModels = new ArrayList<>();
+        List<ChatModelInstance> chatModelInstances = createLazyChatModelInstances(
+                chatModelFactoryDescriptors, sharedModels);
+        ScoringModel scoringModel = null;
+        if (rerankingFactoryDescriptor != null) {
+            SharedModelRegistry.Deferred<ScoringModel> deferred =
+                    SharedModelRegistry.defer(() -> createScoringModel(rerankingFactoryDescriptor));
+            sharedModels.add(deferred);
+            scoringModel = LazyModels.scoringModel(deferred);
+        }
         try {
-            return factory.create(factoryDescriptor.getConfig(), embeddingModel,
-                    mdlEmbeddingStore, sqlEmbeddingStore, synEmbeddingStore, docEmbeddingStore,
-                    chatModelInstances, scoringModel);
-        } catch (Exception e) {
-            throw new RuntimeException(String.format(ERROR_MESSAGE, "content store",
-                    factoryDescriptor.getIdentifier(), e.getMessage()), e);
+            EmbeddingModel embeddingModel = initializer.join(embeddingModelFuture);
+            EmbeddingStore<TextSegment> mdlEmbeddingStore = initializer.join(embeddingStoreFutures.get(ContentType.MDL));
+            EmbeddingStore<TextSegment> sqlEmbeddingStore = initializer.join(embeddingStoreFutures.get(ContentType.SQL));
+            EmbeddingStore<TextSegment> synEmbeddingStore = initializer.join(embeddingStoreFutures.get(ContentType.SYN));
+            EmbeddingStore<TextSegment> docEmbeddingStore = initializer.join(embeddingStoreFutures.get(ContentType.DOC));
+            ScoringModel finalScoringModel = scoringModel;
+            ContentStore contentStore = initializer.create("content store", () -> {
+                try {
+                    return factory.create(factoryDescriptor.getConfig(), embeddingModel,
+                            mdlEmbeddingStore, sqlEmbeddingStore, synEmbeddingStore, docEmbeddingStore,
+                            chatModelInstances, finalScoringModel);
+                } catch (Exception e) {
+                    throw new RuntimeException(String.format(ERROR_MESSAGE, "content store",
+                            factoryDescriptor.getIdentifier(), e.getMessage()), e);
+                }
+            });
+            sharedModels.add(embeddingModel);
+            // 共享的模型随内容存储一起释放：SharedModelRegistry.releaseAll(contentStore)
+            SharedModelRegistry.bind(contentStore, sharedModels);
+            initializer.completed();
+            return contentStore;
+        } catch (RuntimeException e) {
+            initializer.rollback();
+            sharedModels.forEach(SharedModelRegistry::release);
+            throw e;
+        }
+    }
+
+    /**
+     * 并行创建LLM，失败时释放已创建的LLM
+     */
+    private static List<ChatModelInstance> createChatModelInstances(
+            Map<String, FactoryDescriptor> chatModelFactoryDescriptors, List<Object> sharedModels) {
+        ComponentInitializer initializer = new ComponentInitializer("LLMs");
+        Map<String, CompletableFuture<ChatModel>> chatModelFutures = new LinkedHashMap<>();
+        Map<String, CompletableFuture<StreamingChatModel>> streamingChatModelFutures = new LinkedHashMap<>();
+        chatModelFactoryDescriptors.forEach((name, descriptor) -> {
+            chatModelFutures.put(name, initializer.start("'" + name + "' LLM",
+                    () -> createChatModel(descriptor), SharedModelRegistry::release));
+            streamingChatModelFutures.put(name, initializer.start("'" + name + "' streaming LLM",
+                    () -> createStreamingChatModel(descriptor), SharedModelRegistry::release));
+        });
+        List<ChatModelInstance> chatModelInstances = new ArrayList<>();
+        try {
+            for (String name : chatModelFutures.keySet()) {
+                chatModelInstances.add(ChatModelInstance.from(name,
+                        initializer.join(chatModelFutures.get(name)),
+                        initializer.join(streamingChatModelFutures.get(name))));
+            }
+        } catch (RuntimeException e) {
+            initializer.rollback();
+            throw e;
         }
+        chatModelInstances.forEach(instance -> {
+            sharedModels.add(instance.getChatModel());
+            sharedModels.add(instance.getStreamingChatModel());
+        });
+        initializer.completed();
+        return chatModelInstances;
+    }
+
+    /**
+     * 创建首次调用时才创建的LLM
+     */
+    private static List<ChatModelInstance> createLazyChatModelInstances(
+            Map<String, FactoryDescriptor> chatModelFactoryDescriptors, List<Object> sharedModels) {
+        List<ChatModelInstance> chatModelInstances = new ArrayList<>();
+        chatModelFactoryDescriptors.forEach((name, descriptor) -> {
+            SharedModelRegistry.Deferred<ChatModel> chatModel =
+                    SharedModelRegistry.defer(() -> createChatModel(descriptor));
+            sharedModels.add(chatModel);
+            SharedModelRegistry.Deferred<StreamingChatModel> streamingChatModel =
+                    SharedModelRegistry.defer(() -> createStreamingChatModel(descriptor));
+            sharedModels.add(streamingChatModel);
+            chatModelInstances.add(ChatModelInstance.from(name,
+                    LazyModels.chatModel(chatModel), LazyModels.streamingChatModel(streamingChatModel)));
+        });
+        return chatModelInstances;
     }
 
     /**
@@ -232,18 +347,51 @@ public final class FactoryUtil {
                                                   @NonNull Map<String, FactoryDescriptor> chatModelFactoryDescriptors,
                                                   @NonNull FactoryDescriptor databaseAdapterFactoryDescriptor,
                                                   Map<String, Object> variables) {
+        return createAskdataAgent(factoryDescriptor, semanticModels, contentStore, chatModelFactoryDescriptors,
+                createDatabaseAdapter(databaseAdapterFactoryDescriptor), variables);
+    }
+
+    public static AskdataAgent createAskdataAgent(@NonNull FactoryDescriptor factoryDescriptor,
+                                                  List<SemanticModel> semanticModels,
+                                                  @NonNull ContentStore contentStore,
+                                                  @NonNull Map<String, FactoryDescriptor> chatModelFactoryDescriptors,
+                                                  @NonNull DatabaseAdapter databaseAdapter,
+                                                  Map<String, Object> variables) {
+        return createAskdataAgent(factoryDescriptor, semanticModels, contentStore, chatModelFactoryDescriptors,
+                databaseAdapter, null, variables);
+    }
+
+    /**
+     * Create Askdata Agent
+     *
+     * @param connectionId 数据库的连接标识，同一连接的Agent共享进程内按连接隔离的缓存，为null时不共享
+     */
+    public static AskdataAgent createAskdataAgent(@NonNull FactoryDescriptor factoryDescriptor,
+                                                  List<SemanticModel> semanticModels,
+                                                  @NonNull ContentStore contentStore,
+                                                  @NonNull Map<String, FactoryDescriptor> chatModelFactoryDescriptors,
+                                                  @NonNull DatabaseAdapter databaseAdapter,
+                                                  String connectionId,
+                                                  Map<String, Object> variables) {
         AskdataAgentFactory factory = AskdataAgentFactoryManager.getFactory(factoryDescriptor.getIdentifier());
-        DatabaseAdapter databaseAdapter = createDatabaseAdapter(databaseAdapterFactoryDescriptor);
-        List<ChatModelInstance> chatModelInstances = chatModelFactoryDescriptors.entrySet().stream()
-                .map(e -> ChatModelInstance.from(e.getKey(), createChatModel(e.getValue()),
-                        createStreamingChatModel(e.getValue())))
-                .collect(Collectors.toList());
+        List<Object> sharedModels = new ArrayList<>();
         try {
-            return factory.create(factoryDescriptor.getConfig(), semanticModels, contentStore,
-                    chatModelInstances, databaseAdapter, variables);
-        } catch (Exception e) {
-            throw new RuntimeException(String.format(ERROR_MESSAGE, "askdata agent",
-                    factoryDescriptor.getIdentifier(), e.getMessage()), e);
+            List<ChatModelInstance> chatModelInstances = createChatModelInstances(
+                    chatModelFactoryDescriptors, sharedModels);
+            AskdataAgent agent;
+            try {
+                agent = factory.create(factoryDescriptor.getConfig(), semanticModels, contentStore,
+                        chatModelInstances, databaseAdapter, connectionId, variables);
+            } catch (Exception e) {
+                throw new RuntimeException(String.format(ERROR_MESSAGE, "askdata agent",
+                        factoryDescriptor.getIdentifier(), e.getMessage()), e);
+            }
+            // 共享的模型随Agent一起释放：SharedModelRegistry.releaseAll(agent)
+            SharedModelRegistry.bind(agent, sharedModels);
+            return agent;
+        } catch (RuntimeException e) {
+            sharedModels.forEach(SharedModelRegistry::release);
+            throw e;
         }
     }
 
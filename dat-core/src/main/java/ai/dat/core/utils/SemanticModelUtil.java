@@ -5,6 +5,7 @@ import ai.dat.core.semantic.SqlParserWrapper;
 import ai.dat.core.semantic.data.Dimension;
 import ai.dat.core.semantic.data.Entity;
 import ai.dat.core.semantic.data.Measure;
+import ai.dat.core.semantic.data.Rollup;
 import ai.dat.core.semantic.data.SemanticModel;
 import ai.dat.core.semantic.view.SemanticModelView;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -15,9 +16,7 @@ import org.apache.calcite.sql.SqlDialect;
 import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.parser.SqlParseException;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -28,6 +27,17 @@ import java.util.stream.Collectors;
 public class SemanticModelUtil {
     private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
 
+    /**
+     * 预聚合的度量只支持可以再次聚合的 sum、min、max
+     */
+    public static final Set<Measure.AggregationType> ROLLUP_AGGREGATION_TYPES = EnumSet.of(
+            Measure.AggregationType.SUM, Measure.AggregationType.MIN, Measure.AggregationType.MAX);
+
+    /**
+     * 本地加速抽取数据中的水位线列名
+     */
+    public static final String WATERMARK_COLUMN_NAME = "__dat_watermark";
+
     private SemanticModelUtil() {
     }
 
@@ -57,6 +67,58 @@ public class SemanticModelUtil {
                         .matcher(sql).matches(),
                 String.format("The model of the semantic model '%s' is and can only be a SELECT statement " +
                         "(The end of an statement cannot contain ';')", name));
+        semanticModel.getRollups().forEach(rollup -> validateRollup(semanticModel, rollup));
+    }
+
+    private static void validateRollup(SemanticModel semanticModel, Rollup rollup) {
+        String name = semanticModel.getName();
+        String rollupName = rollup.getName();
+        Set<String> groupable = new HashSet<>();
+        semanticModel.getEntities().forEach(e -> groupable.add(e.getName()));
+        semanticModel.getDimensions().stream()
+                .filter(d -> Dimension.DimensionType.TIME != d.getType())
+                .forEach(d -> groupable.add(d.getName()));
+        List<String> unknownDimensions = rollup.getDimensions().stream()
+                .filter(d -> !groupable.contains(d)).toList();
+        Preconditions.checkArgument(unknownDimensions.isEmpty(),
+                String.format("The dimensions %s of the rollup '%s' do not exist or are not entities/categorical " +
+                              "dimensions in the semantic model '%s'", unknownDimensions, rollupName, name));
+        if (rollup.getTimeDimension() != null) {
+            Dimension timeDimension = semanticModel.getDimensions().stream()
+                    .filter(d -> d.getName().equals(rollup.getTimeDimension()))
+                    .findFirst().orElse(null);
+            Preconditions.checkArgument(timeDimension != null
+                                        && Dimension.DimensionType.TIME == timeDimension.getType(),
+                    String.format("The time_dimension '%s' of the rollup '%s' does not exist or type is not time " +
+                                  "in the semantic model '%s'", rollup.getTimeDimension(), rollupName, name));
+            Dimension.TypeParams.TimeGranularity granularity = timeDimension.getTypeParams().getTimeGranularity();
+            Preconditions.checkArgument(rollup.getTimeGranularity() == null
+                                        || rollup.getTimeGranularity().rollsUpTo(granularity),
+                    String.format("The time_granularity '%s' of the rollup '%s' cannot be coarser than or " +
+                                  "not evenly divide (e.g. week into month) the time_granularity '%s' " +
+                                  "of the time dimension '%s' in the semantic model '%s'",
+                            rollup.getTimeGranularity(), rollupName, granularity, timeDimension.getName(), name));
+        } else {
+            Preconditions.checkArgument(rollup.getTimeGranularity() == null,
+                    String.format("The time_granularity of the rollup '%s' in the semantic model '%s' " +
+                                  "requires the time_dimension", rollupName, name));
+        }
+        Preconditions.checkArgument(!rollup.getMeasures().isEmpty(),
+                String.format("The measures of the rollup '%s' in the semantic model '%s' cannot be empty",
+                        rollupName, name));
+        Map<String, Measure> measures = semanticModel.getMeasures().stream()
+                .collect(Collectors.toMap(Measure::getName, m -> m));
+        for (String measureName : rollup.getMeasures()) {
+            Measure measure = measures.get(measureName);
+            Preconditions.checkArgument(measure != null,
+                    String.format("The measure '%s' of the rollup '%s' does not exist in the semantic model '%s'",
+                            measureName, rollupName, name));
+            Preconditions.checkArgument(ROLLUP_AGGREGATION_TYPES.contains(measure.getAgg())
+                                        && measure.getNonAdditiveDimension() == null,
+                    String.format("The measure '%s' of the rollup '%s' in the semantic model '%s' cannot be " +
+                                  "pre-aggregated, only the agg of sum, min, max without non_additive_dimension " +
+                                  "is supported", measureName, rollupName, name));
+        }
     }
 
     public static SemanticModelView toSemanticModelView(@NonNull SemanticModel semanticModel) {
@@ -92,19 +154,39 @@ public class SemanticModelUtil {
      */
     public static String semanticModelSql(@NonNull SemanticAdapter semanticAdapter,
                                           @NonNull SemanticModel semanticModel) throws SqlParseException {
+        return semanticModelSql(semanticAdapter, semanticModel, null);
+    }
+
+    /**
+     * 获取语义模型的数据集SQL，只投影指定的实体、维度和度量
+     *
+     * @param semanticAdapter
+     * @param semanticModel
+     * @param columnNames     需要投影的元素名称（小写），为null时投影全部元素，
+     *                        没有匹配的元素时只投影第一个元素（保证行数不变）
+     * @return
+     * @throws SqlParseException
+     */
+    public static String semanticModelSql(@NonNull SemanticAdapter semanticAdapter,
+                                          @NonNull SemanticModel semanticModel,
+                                          Set<String> columnNames) throws SqlParseException {
         SqlDialect sqlDialect = semanticAdapter.getSqlDialect();
         SqlParserWrapper sqlParser = SqlParserWrapper.forDialect(sqlDialect);
         String semanticModelName = semanticModel.getName();
         StringBuilder sql = new StringBuilder();
         sql.append("SELECT ");
         List<String> selectFields = new ArrayList<>();
+        String firstSelectField = null;
         for (Entity entity : semanticModel.getEntities()) {
             String name = entity.getName();
             String expr = entity.getExpr() != null && !entity.getExpr().isEmpty() ?
                     entity.getExpr() : name;
             String selectField = expr + " AS " + semanticAdapter.quoteIdentifier(name);
 //            String selectField = expr2Sql(expr, sqlDialect) + " AS " + quoteIdentifier(name);
-            selectFields.add(selectField);
+            firstSelectField = firstSelectField == null ? selectField : firstSelectField;
+            if (isProjected(name, columnNames)) {
+                selectFields.add(selectField);
+            }
         }
         for (Dimension dimension : semanticModel.getDimensions()) {
             String name = dimension.getName();
@@ -116,7 +198,10 @@ public class SemanticModelUtil {
             }
             String selectField = expr + " AS " + semanticAdapter.quoteIdentifier(name);
 //            String selectField = expr2Sql(expr, sqlDialect) + " AS " + quoteIdentifier(name);
-            selectFields.add(selectField);
+            firstSelectField = firstSelectField == null ? selectField : firstSelectField;
+            if (isProjected(name, columnNames)) {
+                selectFields.add(selectField);
+            }
         }
         for (Measure measure : semanticModel.getMeasures()) {
             String name = measure.getName();
@@ -124,7 +209,13 @@ public class SemanticModelUtil {
                     measure.getExpr() : name;
             String selectField = expr + " AS " + semanticAdapter.quoteIdentifier(name);
 //            String selectField = expr2Sql(expr, sqlDialect) + " AS " + quoteIdentifier(name);
-            selectFields.add(selectField);
+            firstSelectField = firstSelectField == null ? selectField : firstSelectField;
+            if (isProjected(name, columnNames)) {
+                selectFields.add(selectField);
+            }
+        }
+        if (selectFields.isEmpty() && firstSelectField != null) {
+            selectFields.add(firstSelectField);
         }
         sql.append(String.join(", ", selectFields));
         String modelSql = semanticModel.getModel();
@@ -141,6 +232,91 @@ public class SemanticModelUtil {
         return sql.toString();
     }
 
+    /**
+     * 获取本地加速抽取语义模型数据的SQL：在语义模型数据集SQL的基础上，
+     * 追加水位线列 {@link #WATERMARK_COLUMN_NAME}，并按水位线条件过滤（增量抽取）
+     *
+     * @param semanticAdapter
+     * @param semanticModel   已渲染的语义模型
+     * @param watermark       水位线表达式（基于模型SQL的列），为null时不追加水位线列
+     * @param condition       水位线条件（例如：updated_at > TIMESTAMP '2025-10-01 00:00:00'），为null时全量抽取
+     * @return
+     * @throws SqlParseException
+     */
+    public static String extractSql(@NonNull SemanticAdapter semanticAdapter,
+                                    @NonNull SemanticModel semanticModel,
+                                    String watermark, String condition) throws SqlParseException {
+        String sql = semanticModelSql(semanticAdapter, semanticModel);
+        if (watermark == null || watermark.isBlank()) {
+            return sql;
+        }
+        sql = "SELECT " + watermark + " AS " + semanticAdapter.quoteIdentifier(WATERMARK_COLUMN_NAME) + ", "
+              + sql.substring("SELECT ".length());
+        return condition == null ? sql : sql + " WHERE " + condition;
+    }
+
+    /**
+     * 获取物化rollup表的聚合SQL：按rollup的维度（及时间维度粒度）分组，按度量的agg聚合
+     *
+     * @param semanticAdapter
+     * @param semanticModel   已渲染的语义模型
+     * @param rollup
+     * @return
+     * @throws SqlParseException
+     */
+    public static String rollupSql(@NonNull SemanticAdapter semanticAdapter,
+                                   @NonNull SemanticModel semanticModel,
+                                   @NonNull Rollup rollup) throws SqlParseException {
+        validateRollup(semanticModel, rollup);
+        SqlDialect sqlDialect = semanticAdapter.getSqlDialect();
+        SqlParserWrapper sqlParser = SqlParserWrapper.forDialect(sqlDialect);
+        Map<String, String> exprs = new HashMap<>();
+        semanticModel.getEntities().forEach(e -> exprs.put(e.getName(),
+                e.getExpr() != null && !e.getExpr().isEmpty() ? e.getExpr() : e.getName()));
+        semanticModel.getDimensions().forEach(d -> exprs.put(d.getName(),
+                d.getExpr() != null && !d.getExpr().isEmpty() ? d.getExpr() : d.getName()));
+        Map<String, Measure> measures = semanticModel.getMeasures().stream()
+                .collect(Collectors.toMap(Measure::getName, m -> m));
+
+        List<String> selectFields = new ArrayList<>();
+        List<String> groupFields = new ArrayList<>();
+        for (String dimension : rollup.getDimensions()) {
+            String expr = exprs.get(dimension);
+            selectFields.add(expr + " AS " + semanticAdapter.quoteIdentifier(dimension));
+            groupFields.add(expr);
+        }
+        if (rollup.getTimeDimension() != null) {
+            Dimension timeDimension = semanticModel.getDimensions().stream()
+                    .filter(d -> d.getName().equals(rollup.getTimeDimension()))
+                    .findFirst().orElseThrow();
+            Dimension.TypeParams.TimeGranularity granularity = rollup.getTimeGranularity() != null ?
+                    rollup.getTimeGranularity() : timeDimension.getTypeParams().getTimeGranularity();
+            String expr = semanticAdapter.applyTimeGranularity(exprs.get(timeDimension.getName()), granularity);
+            selectFields.add(expr + " AS " + semanticAdapter.quoteIdentifier(timeDimension.getName()));
+            groupFields.add(expr);
+        }
+        for (String measureName : rollup.getMeasures()) {
+            Measure measure = measures.get(measureName);
+            String expr = measure.getExpr() != null && !measure.getExpr().isEmpty() ?
+                    measure.getExpr() : measureName;
+            selectFields.add(measure.getAgg().name() + "(" + expr + ") AS "
+                             + semanticAdapter.quoteIdentifier(measureName));
+        }
+        SqlNode sqlNode = sqlParser.parseQuery(semanticModel.getModel());
+        StringBuilder sql = new StringBuilder();
+        sql.append("SELECT ").append(String.join(", ", selectFields))
+                .append(" FROM (").append(sqlNode2Sql(sqlNode, sqlDialect)).append(") AS ")
+                .append(semanticAdapter.quoteIdentifier("__dat_model"));
+        if (!groupFields.isEmpty()) {
+            sql.append(" GROUP BY ").append(String.join(", ", groupFields));
+        }
+        return sql.toString();
+    }
+
+    private static boolean isProjected(String name, Set<String> columnNames) {
+        return columnNames == null || columnNames.contains(name.toLowerCase(Locale.ROOT));
+    }
+
     private static String sqlNode2Sql(SqlNode sqlNode, SqlDialect sqlDialect) {
         return sqlNode.toSqlString(sqlDialect).getSql();
     }
@@ -0,0 +1,275 @@
+package ai.dat.core.adapter;
+
+import ai.dat.core.utils.CancellationToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 查询结果缓存：命中与有效期、并发合并（single-flight）、按字节数淘汰与失效
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class QueryResultCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+    private static final Set<String> ORDERS = Set.of("orders");
+    private static final List<Map<String, Object>> ROWS = List.of(Map.of("id", 1));
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void normalizeKeepsLiteralsAndQuotedIdentifiers() {
+        assertEquals("SELECT * FROM t WHERE a = 'x  y' AND \"b  c\" = 1",
+                QueryResultCache.normalize("  SELECT  *\n  FROM t\tWHERE a = 'x  y' AND \"b  c\" = 1 ;; "));
+        assertEquals("SELECT 'A' FROM t", QueryResultCache.normalize("SELECT 'A'  FROM t"));
+        assertNotEquals(QueryResultCache.normalize("SELECT 'a'"), QueryResultCache.normalize("SELECT 'A'"));
+    }
+
+    @Test
+    void cachesWithinTtl() throws SQLException {
+        QueryResultCache cache = new QueryResultCache("test", 1024 * 1024);
+        AtomicInteger executions = new AtomicInteger();
+        QueryResultCache.Query query = () -> {
+            executions.incrementAndGet();
+            return ROWS;
+        };
+
+        assertEquals(ROWS, cache.get("SELECT id FROM orders", TTL, ORDERS, query));
+        assertEquals(ROWS, cache.get("SELECT  id\nFROM orders;", TTL, ORDERS, query));
+        assertEquals(1, executions.get());
+        assertEquals(1L, cache.metrics().get("hits"));
+        assertEquals(1L, cache.metrics().get("misses"));
+
+        cache.get("SELECT id FROM orders", Duration.ZERO, ORDERS, query);
+        cache.get("SELECT id FROM customers", Duration.ZERO, Set.of(), query);
+        cache.get("SELECT id FROM customers", Duration.ZERO, Set.of(), query);
+        assertEquals(3, executions.get(), "A zero TTL must not cache the result");
+    }
+
+    @Test
+    void collapsesConcurrentQueries() throws Exception {
+        QueryResultCache cache = new QueryResultCache("test", 1024 * 1024);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        QueryResultCache.Query query = () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return ROWS;
+        };
+
+        // TTL为0：follower只能通过合并拿到结果
+        Future<List<Map<String, Object>>> leader = executor.submit(() ->
+                cache.get("SELECT id FROM orders", Duration.ZERO, ORDERS, query));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<List<Map<String, Object>>> follower = executor.submit(() ->
+                cache.get("SELECT id FROM orders", Duration.ZERO, ORDERS, query));
+        waitUntil(() -> (long) cache.metrics().get("collapsed") == 1L);
+        release.countDown();
+
+        assertEquals(ROWS, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(ROWS, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void followerRetriesWhenLeaderIsCancelled() throws Exception {
+        QueryResultCache cache = new QueryResultCache("test", 1024 * 1024);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CancellationToken leaderToken = new CancellationToken();
+
+        Future<List<Map<String, Object>>> leader = executor.submit(() ->
+                cache.get("SELECT id FROM orders", TTL, ORDERS, null, leaderToken, () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    waitUntil(leaderToken::isCancelled);
+                    throw new SQLException("cancelled", "57014");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<List<Map<String, Object>>> follower = executor.submit(() ->
+                cache.get("SELECT id FROM orders", TTL, ORDERS, null, CancellationToken.NONE, () -> {
+                    executions.incrementAndGet();
+                    return ROWS;
+                }));
+        waitUntil(() -> (long) cache.metrics().get("collapsed") == 1L);
+        leaderToken.cancel("The client disconnected");
+
+        Exception e = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(SQLException.class, e.getCause());
+        assertEquals(ROWS, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void followerTimesOut() throws Exception {
+        QueryResultCache cache = new QueryResultCache("test", 1024 * 1024);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<Map<String, Object>>> leader = executor.submit(() ->
+                cache.get("SELECT id FROM orders", TTL, ORDERS, () -> {
+                    started.countDown();
+                    await(release);
+                    return ROWS;
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        try {
+            SQLException e = assertThrows(SQLException.class, () ->
+                    cache.get("SELECT id FROM orders", TTL, ORDERS, Duration.ofMillis(100),
+                            CancellationToken.NONE, () -> ROWS));
+            assertInstanceOf(SQLTimeoutException.class, e);
+            assertEquals("57014", e.getSQLState());
+        } finally {
+            release.countDown();
+        }
+        assertEquals(ROWS, leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWithinByteBudget() throws SQLException {
+        List<Map<String, Object>> rows = List.of(Map.of("name", "x".repeat(100)));
+        // 容纳两个结果，不足三个
+        long bytes = 64L + 2L * "SELECT 1".length() + 48L + 32L + 2L * "name".length() + 40L + 2L * 100;
+        QueryResultCache cache = new QueryResultCache("test", bytes * 2 + bytes / 2);
+        AtomicInteger executions = new AtomicInteger();
+        QueryResultCache.Query query = () -> {
+            executions.incrementAndGet();
+            return rows;
+        };
+
+        cache.get("SELECT 1", TTL, Set.of(), query);
+        cache.get("SELECT 2", TTL, Set.of(), query);
+        cache.get("SELECT 1", TTL, Set.of(), query); // SELECT 2 成为最久未使用
+        cache.get("SELECT 3", TTL, Set.of(), query);
+        assertEquals(3, executions.get());
+        assertEquals(1L, cache.metrics().get("evictions"));
+        assertTrue((long) cache.metrics().get("used_bytes") <= cache.getMaxBytes());
+
+        cache.get("SELECT 1", TTL, Set.of(), query);
+        assertEquals(3, executions.get(), "SELECT 1 was used recently and must stay cached");
+        cache.get("SELECT 2", TTL, Set.of(), query);
+        assertEquals(4, executions.get(), "SELECT 2 was the least recently used and must be evicted");
+
+        QueryResultCache small = new QueryResultCache("small", 16);
+        small.get("SELECT 1", TTL, Set.of(), query);
+        small.get("SELECT 1", TTL, Set.of(), query);
+        assertEquals(6, executions.get(), "A result larger than the cache must not be cached");
+        assertEquals(0, small.metrics().get("size"));
+    }
+
+    @Test
+    void invalidatesBySemanticModel() throws SQLException {
+        QueryResultCache cache = new QueryResultCache("test", 1024 * 1024);
+        AtomicInteger executions = new AtomicInteger();
+        QueryResultCache.Query query = () -> {
+            executions.incrementAndGet();
+            return ROWS;
+        };
+        cache.get("SELECT id FROM orders", TTL, ORDERS, query);
+        cache.get("SELECT id FROM customers", TTL, Set.of("customers"), query);
+
+        cache.invalidateSemanticModels(ORDERS);
+        cache.get("SELECT id FROM orders", TTL, ORDERS, query);
+        cache.get("SELECT id FROM customers", TTL, Set.of("customers"), query);
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    void skipsResultOfQueryStartedBeforeInvalidation() throws Exception {
+        assertSkipsStaleResult(cache -> cache.invalidateSemanticModels(ORDERS));
+        assertSkipsStaleResult(QueryResultCache::clear);
+    }
+
+    @Test
+    void keepsResultWhenOtherSemanticModelIsInvalidated() throws Exception {
+        QueryResultCache cache = new QueryResultCache("test", 1024 * 1024);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<Map<String, Object>>> leader = executor.submit(() ->
+                cache.get("SELECT id FROM orders", TTL, ORDERS, () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return ROWS;
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        cache.invalidateSemanticModels(Set.of("customers"));
+        release.countDown();
+        leader.get(5, TimeUnit.SECONDS);
+
+        cache.get("SELECT id FROM orders", TTL, ORDERS, () -> {
+            executions.incrementAndGet();
+            return ROWS;
+        });
+        assertEquals(1, executions.get());
+    }
+
+    private void assertSkipsStaleResult(Consumer<QueryResultCache> invalidation)
+            throws Exception {
+        QueryResultCache cache = new QueryResultCache("test", 1024 * 1024);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<Map<String, Object>>> leader = executor.submit(() ->
+                cache.get("SELECT id FROM orders", TTL, ORDERS, () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return ROWS;
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        invalidation.accept(cache);
+        release.countDown();
+        assertEquals(ROWS, leader.get(5, TimeUnit.SECONDS));
+
+        assertEquals(0, cache.metrics().get("size"));
+        cache.get("SELECT id FROM orders", TTL, ORDERS, () -> {
+            executions.incrementAndGet();
+            return ROWS;
+        });
+        assertEquals(2, executions.get(), "The result read before the invalidation must not be cached");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the condition");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ai.dat.core.agent;
+
+import ai.dat.core.adapter.DatabaseAdapter;
+import ai.dat.core.adapter.SemanticAdapter;
+import ai.dat.core.adapter.data.AnsiSqlType;
+import ai.dat.core.adapter.data.ColumnMetadata;
+import ai.dat.core.adapter.data.Table;
+import ai.dat.core.semantic.data.Dimension;
+import ai.dat.core.semantic.data.SemanticModel;
+import org.apache.calcite.sql.SqlDialect;
+import org.apache.calcite.sql.dialect.DuckDBSqlDialect;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据预览缓存：按连接标识共享、没有连接标识时不缓存、预热跳过已缓存的预览
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class DataPreviewCacheTest {
+
+    private static final Duration QUERY_TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void sharesPreviewsAcrossAdaptersOfTheSameConnection() {
+        DataPreviewCache cache = new DataPreviewCache("test", Duration.ZERO, QUERY_TIMEOUT);
+        List<SemanticModel> semanticModels = List.of(semanticModel());
+
+        List<String> previews = cache.previews("duckdb:a", new TestDatabaseAdapter(), semanticModels, 5);
+        assertEquals(1, previews.size());
+        assertTrue(previews.get(0).startsWith("#### orders"));
+        // 每次会话新建的数据库适配器命中同一连接的预览
+        assertEquals(previews, cache.previews("duckdb:a", new TestDatabaseAdapter(), semanticModels, 5));
+        assertEquals(1, executions.get());
+
+        cache.previews("duckdb:b", new TestDatabaseAdapter(), semanticModels, 5);
+        assertEquals(2, executions.get(), "Different connections must not share previews");
+        assertEquals(2, cache.metrics().get("connections"));
+        assertEquals(1L, cache.metrics().get("hits"));
+    }
+
+    @Test
+    void doesNotCacheWithoutConnectionId() {
+        DataPreviewCache cache = new DataPreviewCache("test", Duration.ZERO, QUERY_TIMEOUT);
+        TestDatabaseAdapter databaseAdapter = new TestDatabaseAdapter();
+        List<SemanticModel> semanticModels = List.of(semanticModel());
+
+        assertEquals(1, cache.previews(null, databaseAdapter, semanticModels, 5).size());
+        assertEquals(1, cache.previews(null, databaseAdapter, semanticModels, 5).size());
+        assertEquals(2, executions.get());
+        assertEquals(0, cache.size());
+
+        cache.warmUp(null, databaseAdapter, semanticModels, 5);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void warmUpSkipsCachedPreviews() {
+        DataPreviewCache cache = new DataPreviewCache("test", Duration.ZERO, QUERY_TIMEOUT);
+        List<SemanticModel> semanticModels = List.of(semanticModel());
+
+        cache.warmUp("duckdb:a", new TestDatabaseAdapter(), semanticModels, 5);
+        waitUntil(() -> executions.get() == 1 && cache.previews("duckdb:a", new TestDatabaseAdapter(),
+                semanticModels, 5).size() == 1);
+        cache.warmUp("duckdb:a", new TestDatabaseAdapter(), semanticModels, 5);
+        cache.previews("duckdb:a", new TestDatabaseAdapter(), semanticModels, 5);
+        assertEquals(1, executions.get());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    private static SemanticModel semanticModel() {
+        SemanticModel semanticModel = new SemanticModel();
+        semanticModel.setModel("SELECT * FROM t_orders");
+        semanticModel.setName("orders");
+        semanticModel.setDescription("orders");
+        Dimension status = new Dimension();
+        status.setName("status");
+        status.setDescription("order status");
+        semanticModel.setDimensions(List.of(status));
+        return semanticModel;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the condition");
+            Thread.onSpinWait();
+        }
+    }
+
+    private class TestDatabaseAdapter implements DatabaseAdapter {
+
+        @Override
+        public SemanticAdapter semanticAdapter() {
+            return new SemanticAdapter() {
+                @Override
+                public SqlDialect getSqlDialect() {
+                    return new DuckDBSqlDialect(DuckDBSqlDialect.DEFAULT_CONTEXT.withIdentifierQuoteString(""));
+                }
+
+                @Override
+                public String applyTimeGranularity(String dateExpr, Dimension.TypeParams.TimeGranularity granularity) {
+                    return dateExpr;
+                }
+
+                @Override
+                public AnsiSqlType toAnsiSqlType(String columnTypeName) {
+                    return AnsiSqlType.UNKNOWN;
+                }
+            };
+        }
+
+        @Override
+        public String generateSql(String semanticSql, List<SemanticModel> semanticModels) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Map<String, Object>> executeQuery(String sql) {
+            executions.incrementAndGet();
+            return List.of(Map.of("status", "paid"));
+        }
+
+        @Override
+        public List<ColumnMetadata> getColumnMetadata(String sql) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String limitClause(int limit) {
+            return "LIMIT " + limit;
+        }
+
+        @Override
+        public void initTable(Table table, List<List<String>> data) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
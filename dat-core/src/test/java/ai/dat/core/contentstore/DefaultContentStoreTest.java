@@ -0,0 +1,71 @@
+package ai.dat.core.contentstore;
+
+import ai.dat.core.contentstore.data.ContentRetrievalMethod;
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 混合检索的词法索引：没有持久化的索引时由向量存储重建，索引与构建时相同的向量化文本
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class DefaultContentStoreTest {
+
+    private static final QuestionSqlPair SALES_BY_REGION = QuestionSqlPair.from(
+            "每个地区的销售额是多少", "SELECT region, SUM(amount) FROM sales GROUP BY region");
+
+    /**
+     * 问题与存储的文本正交，向量检索不会命中，只能由词法检索召回
+     */
+    private static final EmbeddingModel EMBEDDING_MODEL = textSegments -> Response.from(textSegments.stream()
+            .map(s -> s.text().equals(SALES_BY_REGION.getQuestion())
+                    ? Embedding.from(new float[]{1, 0}) : Embedding.from(new float[]{0, 1}))
+            .toList());
+
+    private final EmbeddingStore<TextSegment> sqlEmbeddingStore = new InMemoryEmbeddingStore<>();
+
+    @Test
+    void rebuildsLexicalIndexFromEmbeddedText() {
+        DefaultContentStore built = contentStore();
+        built.addSqls(List.of(SALES_BY_REGION));
+        List<QuestionSqlPair> sqlPairs = built.retrieveSql("地区销售额");
+        assertEquals(1, sqlPairs.size());
+        assertEquals(SALES_BY_REGION.getSql(), sqlPairs.get(0).getSql());
+        assertTrue(built.retrieveSql("GROUP BY region").isEmpty());
+
+        // 新的实例没有内存中的索引，也没有持久化的索引
+        DefaultContentStore reloaded = contentStore();
+        List<Content> contents = reloaded.retrieveSqlContents("地区销售额");
+        assertEquals(1, contents.size());
+        assertEquals(built.retrieveSqlContents("地区销售额").get(0).textSegment(), contents.get(0).textSegment(),
+                "The rebuilt index must return the stored text segment");
+        assertTrue(reloaded.retrieveSql("GROUP BY region").isEmpty(),
+                "The rebuilt index must not index the stored JSON");
+    }
+
+    private DefaultContentStore contentStore() {
+        return DefaultContentStore.builder()
+                .embeddingModel(EMBEDDING_MODEL)
+                .mdlEmbeddingStore(new InMemoryEmbeddingStore<>())
+                .sqlEmbeddingStore(sqlEmbeddingStore)
+                .synEmbeddingStore(new InMemoryEmbeddingStore<>())
+                .docEmbeddingStore(new InMemoryEmbeddingStore<>())
+                .defaultChatModel(new ChatModel() {
+                })
+                .retrievalMethod(ContentRetrievalMethod.HYBRID)
+                .build();
+    }
+}
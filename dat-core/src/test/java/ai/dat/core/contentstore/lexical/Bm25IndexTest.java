@@ -0,0 +1,92 @@
+package ai.dat.core.contentstore.lexical;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BM25词法索引：打分排序、删除、持久化与加载
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class Bm25IndexTest {
+
+    private static final TextSegment ORDERS = TextSegment.from("{\"name\":\"orders\"}",
+            Metadata.from("content_type", "MDL"));
+    private static final TextSegment CUSTOMERS = TextSegment.from("{\"name\":\"customers\"}",
+            Metadata.from("content_type", "MDL"));
+
+    @Test
+    void ranksByBm25Score() {
+        Bm25Index index = new Bm25Index();
+        index.add("1", "订单金额 order amount", ORDERS);
+        index.add("2", "客户名称 customer name", CUSTOMERS);
+        index.add("3", "订单数量 订单状态 order count", ORDERS);
+
+        List<Bm25Index.Match> matches = index.search("订单", 10);
+        assertEquals(List.of("3", "1"), matches.stream().map(Bm25Index.Match::id).toList(),
+                "The document with the higher term frequency ranks first");
+        assertTrue(matches.get(0).score() > matches.get(1).score());
+        assertSame(ORDERS, matches.get(0).textSegment());
+
+        assertEquals(List.of("2"), index.search("customer", 10).stream().map(Bm25Index.Match::id).toList());
+        assertEquals(1, index.search("order", 1).size());
+        assertTrue(index.search("unknown", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search("order", 0).isEmpty());
+    }
+
+    @Test
+    void indexesTheGivenTextRatherThanTheSegment() {
+        Bm25Index index = new Bm25Index();
+        index.add("1", "每个地区的销售额", ORDERS);
+        assertEquals(1, index.search("地区", 10).size());
+        assertTrue(index.search("orders", 10).isEmpty());
+    }
+
+    @Test
+    void replacesAndRemovesDocuments() {
+        Bm25Index index = new Bm25Index();
+        index.add("1", "order amount", ORDERS);
+        index.add("1", "customer name", CUSTOMERS);
+        assertEquals(1, index.size());
+        assertTrue(index.search("order", 10).isEmpty());
+        assertEquals(CUSTOMERS, index.search("customer", 10).get(0).textSegment());
+
+        index.add("2", "order amount", ORDERS);
+        index.remove(List.of("1", "unknown"));
+        assertEquals(1, index.size());
+        assertTrue(index.search("customer", 10).isEmpty());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.search("order", 10).isEmpty());
+    }
+
+    @Test
+    void savesAndLoads(@TempDir Path dir) throws IOException {
+        Bm25Index index = new Bm25Index();
+        index.add("1", "订单金额 order amount", ORDERS);
+        index.add("2", "订单状态 order status", ORDERS);
+        index.add("3", "客户名称 customer name", CUSTOMERS);
+        Path file = dir.resolve("lexical").resolve("MDL.json");
+        index.save(file);
+
+        Bm25Index loaded = Bm25Index.load(file);
+        assertEquals(3, loaded.size());
+        assertEquals(index.search("订单 status", 10), loaded.search("订单 status", 10));
+        assertEquals(CUSTOMERS, loaded.search("customer", 10).get(0).textSegment());
+        try (var files = Files.list(file.getParent())) {
+            assertEquals(List.of(file), files.toList(), "The temporary file must be replaced");
+        }
+    }
+}
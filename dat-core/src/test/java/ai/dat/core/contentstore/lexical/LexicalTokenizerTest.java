@@ -0,0 +1,43 @@
+package ai.dat.core.contentstore.lexical;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 词法索引分词：拉丁词与子词、中文bigram、规范化
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class LexicalTokenizerTest {
+
+    @Test
+    void splitsLatinWordsIntoSubwords() {
+        assertEquals(List.of("orderamt_2024", "order", "amt", "2024"), LexicalTokenizer.tokenize("orderAmt_2024"));
+        assertEquals(List.of("gmvrate", "gmv", "rate"), LexicalTokenizer.tokenize("GMVRate"));
+        assertEquals(List.of("amount"), LexicalTokenizer.tokenize("amount"));
+        assertEquals(List.of("order_id", "order", "id", "status"), LexicalTokenizer.tokenize("order_id, status"));
+    }
+
+    @Test
+    void splitsCjkTextIntoBigrams() {
+        assertEquals(List.of("订单", "单金", "金额"), LexicalTokenizer.tokenize("订单金额"));
+        assertEquals(List.of("单"), LexicalTokenizer.tokenize("单"));
+        assertEquals(List.of("各", "gmv", "排名"), LexicalTokenizer.tokenize("各GMV排名"));
+    }
+
+    @Test
+    void normalizesWidthAndCase() {
+        assertEquals(LexicalTokenizer.tokenize("gmv 2024"), LexicalTokenizer.tokenize("ＧＭＶ　２０２４"));
+    }
+
+    @Test
+    void ignoresPunctuationAndEmptyInput() {
+        assertEquals(List.of(), LexicalTokenizer.tokenize(null));
+        assertEquals(List.of(), LexicalTokenizer.tokenize(""));
+        assertEquals(List.of(), LexicalTokenizer.tokenize("__ ，。!?"));
+    }
+}
@@ -0,0 +1,80 @@
+package ai.dat.core.contentstore.utils;
+
+import ai.dat.core.contentstore.data.WordSynonymPair;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 词与近义词的词典匹配：多模式重叠、规范化、词边界与匹配顺序
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class SynonymDictionaryTest {
+
+    private static final WordSynonymPair VIP = WordSynonymPair.from("VIP客户", "贵宾客户", "大客户");
+    private static final WordSynonymPair GMV = WordSynonymPair.from("订单总金额", "GMV", "成交总额");
+    private static final WordSynonymPair REGION = WordSynonymPair.from("区域", "大区", "地区");
+    private static final WordSynonymPair CUSTOMER = WordSynonymPair.from("客户", "顾客");
+
+    private final SynonymDictionary dictionary = SynonymDictionary.build(List.of(VIP, GMV, REGION, CUSTOMER));
+
+    @Test
+    void matchesWordsAndSynonymsInOrderOfAppearance() {
+        assertEquals(List.of(REGION, GMV), dictionary.match("各地区上个月的成交总额是多少"));
+        assertEquals(List.of(GMV, REGION), dictionary.match("GMV按大区排名"));
+    }
+
+    @Test
+    void matchesOverlappingAndNestedPatterns() {
+        // "大客户" 包含 "客户"，"大区" 与 "区域" 重叠
+        assertEquals(List.of(VIP, CUSTOMER), dictionary.match("大客户数量"));
+        assertEquals(List.of(REGION), dictionary.match("华东大区域"));
+    }
+
+    @Test
+    void matchesEachPairOnce() {
+        assertEquals(List.of(CUSTOMER), dictionary.match("客户和顾客，客户"));
+    }
+
+    @Test
+    void normalizesWidthCaseAndWhitespace() {
+        assertEquals(List.of(GMV), dictionary.match("ｇｍｖ趋势"));
+        assertEquals(List.of(VIP, CUSTOMER), dictionary.match("vip客户"));
+        SynonymDictionary spaced = SynonymDictionary.build(List.of(WordSynonymPair.from("gross  margin", "毛利")));
+        assertEquals(1, spaced.match("Gross\tMargin by month").size());
+    }
+
+    @Test
+    void requiresWordBoundariesForLatinTerms() {
+        assertTrue(dictionary.match("GMVX trend").isEmpty());
+        assertTrue(dictionary.match("the_gmv").isEmpty());
+        assertEquals(List.of(GMV), dictionary.match("(GMV)"));
+        // 中文与拉丁字母相邻时仍是词边界
+        assertEquals(List.of(GMV), dictionary.match("本月GMV是多少"));
+    }
+
+    @Test
+    void matchesPatternsSharingSuffixes() {
+        // 失配链接：在 "abcd" 的分支上失败后继续匹配 "bce"
+        WordSynonymPair abcd = WordSynonymPair.from("甲乙丙丁", "子");
+        WordSynonymPair bce = WordSynonymPair.from("乙丙戊", "丑");
+        WordSynonymPair c = WordSynonymPair.from("丙", "寅");
+        SynonymDictionary suffixes = SynonymDictionary.build(List.of(abcd, bce, c));
+        assertEquals(List.of(c, bce), suffixes.match("甲乙丙戊"));
+        assertEquals(List.of(c, abcd), suffixes.match("甲乙丙丁"));
+    }
+
+    @Test
+    void handlesEmptyInputs() {
+        assertTrue(dictionary.match(null).isEmpty());
+        assertTrue(dictionary.match("").isEmpty());
+        assertTrue(SynonymDictionary.build(List.of()).match("客户").isEmpty());
+        List<String> blank = new ArrayList<>(List.of(" "));
+        assertTrue(SynonymDictionary.build(List.of(WordSynonymPair.from("  ", blank))).match("  ").isEmpty());
+    }
+}
@@ -0,0 +1,103 @@
+package ai.dat.core.conversation;
+
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存会话历史：条数上限、过期、按字节数淘汰最久未访问的会话
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class InMemoryConversationStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Test
+    void keepsTheLatestMessages() {
+        InMemoryConversationStore store = new InMemoryConversationStore(2, TTL, 1024 * 1024);
+        assertTrue(store.get("c1").isEmpty());
+        store.add("c1", pair(1));
+        store.add("c1", pair(2));
+        store.add("c1", pair(3));
+        store.add("c2", pair(4));
+
+        assertEquals(List.of("q2", "q3"), questions(store.get("c1")));
+        assertEquals(List.of("q4"), questions(store.get("c2")));
+        assertThrows(UnsupportedOperationException.class, () -> store.get("c1").add(pair(5)));
+
+        long usedBytes = store.usedBytes();
+        store.add("c1", pair(5));
+        assertEquals(usedBytes, store.usedBytes(), "Dropping the oldest message must release its bytes");
+    }
+
+    @Test
+    void expiresIdleConversations() throws InterruptedException {
+        InMemoryConversationStore store = new InMemoryConversationStore(10, Duration.ofMillis(500), 1024 * 1024);
+        store.add("idle", pair(1));
+        store.add("active", pair(2));
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(200);
+            assertEquals(1, store.get("active").size());
+        }
+        assertTrue(store.get("idle").isEmpty());
+        assertEquals(1, store.size());
+        assertEquals(List.of("q2"), questions(store.get("active")));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedConversationsWithinByteBudget() {
+        InMemoryConversationStore store = new InMemoryConversationStore(10, TTL, 1024 * 1024);
+        store.add("c1", pair(1));
+        long conversationBytes = store.usedBytes();
+
+        // 容纳两个会话，不足三个
+        InMemoryConversationStore small = new InMemoryConversationStore(10, TTL,
+                conversationBytes * 2 + conversationBytes / 2);
+        small.add("c1", pair(1));
+        small.add("c2", pair(2));
+        small.get("c1"); // c2 成为最久未访问
+        small.add("c3", pair(3));
+
+        assertEquals(2, small.size());
+        assertTrue(small.get("c2").isEmpty());
+        assertEquals(List.of("q1"), questions(small.get("c1")));
+        assertEquals(List.of("q3"), questions(small.get("c3")));
+        assertEquals(conversationBytes * 2, small.usedBytes());
+    }
+
+    @Test
+    void removesConversations() {
+        InMemoryConversationStore store = new InMemoryConversationStore(10, TTL, 1024 * 1024);
+        store.add("c1", pair(1));
+        store.add("c2", pair(2));
+        store.remove("c1");
+        store.remove("unknown");
+        assertTrue(store.get("c1").isEmpty());
+        assertEquals(1, store.size());
+
+        store.remove("c2");
+        assertEquals(0, store.size());
+        assertEquals(0L, store.usedBytes());
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryConversationStore(0, TTL, 1));
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryConversationStore(1, Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryConversationStore(1, TTL, 0));
+    }
+
+    private static QuestionSqlPair pair(int i) {
+        return QuestionSqlPair.from("q" + i, "SELECT " + i);
+    }
+
+    private static List<String> questions(List<QuestionSqlPair> pairs) {
+        return pairs.stream().map(QuestionSqlPair::getQuestion).toList();
+    }
+}
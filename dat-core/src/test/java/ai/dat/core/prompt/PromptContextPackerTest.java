@@ -0,0 +1,148 @@
+package ai.dat.core.prompt;
+
+import ai.dat.core.semantic.data.Dimension;
+import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.SemanticModelUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 提示词上下文按Token预算裁剪：按相关性保留、维持原顺序、语义模型先缩减再丢弃
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class PromptContextPackerTest {
+
+    /**
+     * 每个字符一个Token，便于计算
+     */
+    private static final TokenEstimator CHARS = String::length;
+
+    @Test
+    void keepsMostRelevantItemsInOriginalOrder() {
+        PromptContextPacker.Session session = new PromptContextPacker(CHARS,
+                Map.of(PromptSection.SQL_SAMPLES, 9)).session();
+        List<String> packed = session.pack(PromptSection.SQL_SAMPLES,
+                List.of("aaaa", "bbbbbbb", "cccc", "dd"), List.of(0.9, 0.8, 0.1, 0.7));
+
+        // 7个Token的bbbbbbb放不下时跳过，继续放入更小的dd，最不相关的cccc超出预算
+        assertEquals(List.of("aaaa", "dd"), packed);
+        PromptContextPacker.SectionStats stats = session.stats().get(0);
+        assertEquals(new PromptContextPacker.SectionStats(PromptSection.SQL_SAMPLES, 4, 2, 6, 9, 0), stats);
+        assertEquals(Map.of("section", "sql_samples", "items", 4, "kept_items", 2, "tokens", 6, "budget", 9),
+                stats.toMap());
+    }
+
+    @Test
+    void fallsBackToRankOrderWithoutScores() {
+        PromptContextPacker packer = new PromptContextPacker(CHARS, Map.of(PromptSection.DOCS, 8));
+        List<String> docs = List.of("aaaa", "bbbb", "cccc");
+        assertEquals(List.of("aaaa", "bbbb"), packer.session().pack(PromptSection.DOCS, docs, null));
+        assertEquals(List.of("aaaa", "bbbb"), packer.session().pack(PromptSection.DOCS, docs, List.of(0.1, 0.9)));
+        assertEquals(List.of("aaaa", "bbbb"),
+                packer.session().pack(PromptSection.DOCS, docs, Arrays.asList(0.1, null, 0.9)));
+        // 分数相同时排名靠前的优先
+        assertEquals(List.of("aaaa", "bbbb"),
+                packer.session().pack(PromptSection.DOCS, docs, List.of(0.5, 0.5, 0.5)));
+    }
+
+    @Test
+    void keepsMostRecentHistories() {
+        PromptContextPacker.Session session = new PromptContextPacker(CHARS,
+                Map.of(PromptSection.HISTORIES, 9)).session();
+        assertEquals(List.of("bbbb", "cccc"), session.histories(List.of("aaaa", "bbbb", "cccc")));
+    }
+
+    @Test
+    void countsTokensWithoutBudget() {
+        PromptContextPacker.Session session = new PromptContextPacker(CHARS, Map.of()).session();
+        assertEquals(List.of("aaaa", "bb"), session.pack(PromptSection.SYNONYMS, List.of("aaaa", "bb"), null));
+        assertEquals(List.of("c"), session.histories(List.of("c")));
+        assertEquals(7, session.totalTokens());
+        assertNull(session.stats().get(0).budget());
+        assertFalse(session.statsMaps().get(0).containsKey("budget"));
+    }
+
+    @Test
+    void shortensThenDropsLeastRelevantSemanticModels() {
+        SemanticModel m1 = semanticModel("m1");
+        SemanticModel m2 = semanticModel("m2");
+        List<ScoredSemanticModel> semanticModels = List.of(
+                new ScoredSemanticModel(m1, 0.5, Set.of("d1")),
+                new ScoredSemanticModel(m2, 0.9, Set.of("d1")));
+        int full = SemanticModelUtil.toSemanticModelViewText(m1).length();
+
+        // 预算为1时至少保留最相关的模型，且已缩减
+        List<PromptContextPacker.PackedSemanticModel> packed = pack(semanticModels, 1);
+        assertEquals(1, packed.size());
+        assertSame(m2, packed.get(0).semanticModel());
+        assertTrue(packed.get(0).shortened());
+        assertTrue(packed.get(0).viewText().contains("\"d1\""));
+        assertFalse(packed.get(0).viewText().contains("\"d2\""));
+        int shortened = packed.get(0).viewText().length();
+        assertTrue(shortened < full);
+
+        // 只缩减最不相关的模型
+        packed = pack(semanticModels, full + shortened);
+        assertEquals(List.of(true, false),
+                packed.stream().map(PromptContextPacker.PackedSemanticModel::shortened).toList());
+        // 两个模型都缩减
+        packed = pack(semanticModels, full + shortened - 1);
+        assertEquals(List.of(true, true),
+                packed.stream().map(PromptContextPacker.PackedSemanticModel::shortened).toList());
+        // 不超出预算时不裁剪
+        packed = pack(semanticModels, 2 * full);
+        assertEquals(List.of(m1, m2),
+                packed.stream().map(PromptContextPacker.PackedSemanticModel::semanticModel).toList());
+        assertFalse(packed.get(0).shortened() || packed.get(1).shortened());
+    }
+
+    @Test
+    void dropsSemanticModelsWithoutHitColumns() {
+        SemanticModel m1 = semanticModel("m1");
+        SemanticModel m2 = semanticModel("m2");
+        int full = SemanticModelUtil.toSemanticModelViewText(m1).length();
+        PromptContextPacker.Session session = new PromptContextPacker(CHARS,
+                Map.of(PromptSection.SEMANTIC_MODELS, full)).session();
+        List<PromptContextPacker.PackedSemanticModel> packed = session.semanticModels(
+                List.of(ScoredSemanticModel.of(m1), ScoredSemanticModel.of(m2)), null);
+        // 没有分数时按排名顺序，丢弃排在后面的模型
+        assertEquals(List.of(m1), packed.stream().map(PromptContextPacker.PackedSemanticModel::semanticModel).toList());
+        assertEquals(new PromptContextPacker.SectionStats(PromptSection.SEMANTIC_MODELS, 2, 1, full, full, 0),
+                session.stats().get(0));
+    }
+
+    @Test
+    void rejectsInvalidBudgets() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PromptContextPacker(CHARS, Map.of(PromptSection.DOCS, 0)));
+    }
+
+    private static List<PromptContextPacker.PackedSemanticModel> pack(List<ScoredSemanticModel> semanticModels,
+                                                                      int budget) {
+        return new PromptContextPacker(CHARS, Map.of(PromptSection.SEMANTIC_MODELS, budget))
+                .session().semanticModels(semanticModels, null);
+    }
+
+    private static SemanticModel semanticModel(String name) {
+        SemanticModel semanticModel = new SemanticModel();
+        semanticModel.setModel("SELECT * FROM " + name);
+        semanticModel.setName(name);
+        semanticModel.setDescription(name);
+        semanticModel.setDimensions(IntStream.rangeClosed(1, 5).mapToObj(i -> {
+            Dimension dimension = new Dimension();
+            dimension.setName("d" + i);
+            dimension.setDescription("dimension " + i);
+            return dimension;
+        }).toList());
+        return semanticModel;
+    }
+}
@@ -0,0 +1,235 @@
+package ai.dat.core.semantic;
+
+import ai.dat.core.adapter.SemanticAdapter;
+import ai.dat.core.adapter.data.AnsiSqlType;
+import ai.dat.core.semantic.calcite.DatSqlBetweenOperator;
+import ai.dat.core.semantic.data.Dimension;
+import ai.dat.core.semantic.data.Entity;
+import ai.dat.core.semantic.data.Measure;
+import ai.dat.core.semantic.data.SemanticModel;
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlDialect;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlWriter;
+import org.apache.calcite.sql.dialect.DuckDBSqlDialect;
+import org.apache.calcite.sql.dialect.MysqlSqlDialect;
+import org.apache.calcite.sql.dialect.OracleSqlDialect;
+import org.apache.calcite.sql.dialect.PostgresqlSqlDialect;
+import org.apache.calcite.sql.fun.SqlBetweenOperator;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 谓词与LIMIT下推的黄金测试：每种方言的期望SQL位于 src/test/resources/semantic/pushdown-{dialect}.sql，
+ * 每个用例以"-- 用例名"开头，下一行是期望的方言SQL（空白已规整为单个空格）
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class SemanticSqlConverterTest {
+
+    /**
+     * 用例名 -> 语义SQL
+     */
+    private static final Map<String, String> CASES = new LinkedHashMap<>();
+
+    static {
+        // 实体与维度的比较谓词使用元素expr下推，度量上的谓词保留在外层
+        CASES.put("push_conjuncts_by_expr",
+                "SELECT order_id, amount FROM orders WHERE status = 'paid' AND order_id > 100 AND amount > 10");
+        CASES.put("push_in_between_like_null",
+                "SELECT order_id FROM orders WHERE status IN ('paid', 'shipped') AND order_id BETWEEN 1 AND 9 "
+                + "AND region LIKE 'east%' AND region IS NOT NULL");
+        CASES.put("push_qualified_by_alias",
+                "SELECT o.order_id FROM orders AS o WHERE o.status <> 'cancelled'");
+        CASES.put("push_time_dimension_with_granularity",
+                "SELECT order_id FROM orders WHERE order_date >= DATE '2025-01-01'");
+        // 不下推：OR、函数、列与列比较
+        CASES.put("keep_disjunction",
+                "SELECT order_id FROM orders WHERE status = 'paid' OR region = 'east'");
+        CASES.put("keep_function_and_column_comparison",
+                "SELECT order_id FROM orders WHERE UPPER(status) = 'PAID' AND region = status");
+        // 不下推：语义模型被多处引用或与其他表JOIN
+        CASES.put("keep_joined_model",
+                "SELECT a.order_id FROM orders AS a JOIN orders AS b ON a.order_id = b.order_id "
+                + "WHERE a.status = 'paid'");
+        // LIMIT下推（OFFSET计入LIMIT）
+        CASES.put("push_limit",
+                "SELECT order_id, status FROM orders WHERE status = 'paid' LIMIT 10");
+        CASES.put("push_limit_with_offset",
+                "SELECT order_id FROM orders LIMIT 10 OFFSET 5");
+        CASES.put("push_limit_scalar_function",
+                "SELECT UPPER(status) AS status_upper FROM orders LIMIT 10");
+        // LIMIT不下推
+        CASES.put("keep_limit_order_by",
+                "SELECT order_id FROM orders ORDER BY order_id LIMIT 10");
+        CASES.put("keep_limit_group_by",
+                "SELECT status, SUM(amount) AS total FROM orders GROUP BY status LIMIT 10");
+        CASES.put("keep_limit_distinct",
+                "SELECT DISTINCT status FROM orders LIMIT 10");
+        CASES.put("keep_limit_aggregate",
+                "SELECT COUNT(*) AS cnt FROM orders LIMIT 10");
+        CASES.put("keep_limit_window",
+                "SELECT order_id, ROW_NUMBER() OVER (ORDER BY order_id) AS rn FROM orders LIMIT 10");
+        CASES.put("keep_limit_partial_where",
+                "SELECT order_id FROM orders WHERE status = 'paid' AND amount > 10 LIMIT 10");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> duckdb() {
+        return golden("duckdb", new DuckDBSqlDialect(DuckDBSqlDialect.DEFAULT_CONTEXT.withIdentifierQuoteString("")),
+                (expr, granularity) -> "DATE_TRUNC('" + granularity.name().toLowerCase() + "', " + expr + ")");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> mysql() {
+        // 与MySQL适配器的方言一致：BETWEEN不输出ASYMMETRIC
+        SqlDialect sqlDialect = new MysqlSqlDialect(MysqlSqlDialect.DEFAULT_CONTEXT.withIdentifierQuoteString("")) {
+            @Override
+            public void unparseCall(SqlWriter writer, SqlCall call, int leftPrec, int rightPrec) {
+                if (call.getKind() == SqlKind.BETWEEN) {
+                    SqlBetweenOperator operator = (SqlBetweenOperator) call.getOperator();
+                    new DatSqlBetweenOperator(operator.flag, operator.isNegated())
+                            .unparse(writer, call, leftPrec, rightPrec, false);
+                } else {
+                    super.unparseCall(writer, call, leftPrec, rightPrec);
+                }
+            }
+        };
+        return golden("mysql", sqlDialect, (expr, granularity) -> "DATE_FORMAT(" + expr + ", '%Y-%m-%d')");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> postgresql() {
+        return golden("postgresql",
+                new PostgresqlSqlDialect(PostgresqlSqlDialect.DEFAULT_CONTEXT.withIdentifierQuoteString("")),
+                (expr, granularity) -> "DATE_TRUNC('" + granularity.name().toLowerCase() + "', " + expr + ")");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> oracle() {
+        return golden("oracle", new OracleSqlDialect(OracleSqlDialect.DEFAULT_CONTEXT.withIdentifierQuoteString("")),
+                (expr, granularity) -> "TRUNC(" + expr + ", 'DD')");
+    }
+
+    @Test
+    void pushdownDisabled() throws SqlParseException {
+        TestSemanticAdapter semanticAdapter = new TestSemanticAdapter(
+                new DuckDBSqlDialect(DuckDBSqlDialect.DEFAULT_CONTEXT.withIdentifierQuoteString("")),
+                (expr, granularity) -> expr);
+        String sql = new SemanticSqlConverter(semanticAdapter, List.of(orders()), false)
+                .convert(CASES.get("push_limit"));
+        assertEquals("WITH orders AS (SELECT id AS order_id, order_status AS status "
+                     + "FROM (SELECT * FROM t_orders) AS __dat_model) "
+                     + "SELECT order_id, status FROM orders WHERE status = 'paid' FETCH NEXT 10 ROWS ONLY",
+                normalize(sql));
+    }
+
+    private Stream<DynamicTest> golden(String dialect, SqlDialect sqlDialect,
+                                       BiFunction<String, Dimension.TypeParams.TimeGranularity, String> granularity) {
+        Map<String, String> expected = expected("semantic/pushdown-" + dialect + ".sql");
+        SemanticSqlConverter converter = new SemanticSqlConverter(
+                new TestSemanticAdapter(sqlDialect, granularity), List.of(orders()), true);
+        assertEquals(CASES.keySet(), expected.keySet(), "The golden file does not match the cases");
+        return CASES.entrySet().stream().map(e -> DynamicTest.dynamicTest(e.getKey(), () ->
+                assertEquals(expected.get(e.getKey()), normalize(converter.convert(e.getValue())))));
+    }
+
+    /**
+     * 方言SQL中的换行与连续空白统一为一个空格
+     */
+    private static String normalize(String sql) {
+        return sql.trim().replaceAll("\\s+", " ");
+    }
+
+    private static Map<String, String> expected(String resource) {
+        try (InputStream in = SemanticSqlConverterTest.class.getClassLoader().getResourceAsStream(resource)) {
+            assertNotNull(in, resource);
+            Map<String, String> expected = new LinkedHashMap<>();
+            String name = null;
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                if (line.startsWith("-- ")) {
+                    name = line.substring(3).trim();
+                } else if (!line.isBlank() && name != null) {
+                    expected.put(name, line.trim());
+                    name = null;
+                }
+            }
+            return expected;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static SemanticModel orders() {
+        SemanticModel semanticModel = new SemanticModel();
+        semanticModel.setModel("SELECT * FROM t_orders");
+        semanticModel.setName("orders");
+        semanticModel.setDescription("orders");
+
+        Entity orderId = new Entity();
+        orderId.setName("order_id");
+        orderId.setDescription("order id");
+        orderId.setExpr("id");
+        orderId.setEntityType(Entity.EntityType.PRIMARY);
+        semanticModel.setEntities(List.of(orderId));
+
+        Dimension status = new Dimension();
+        status.setName("status");
+        status.setDescription("order status");
+        status.setExpr("order_status");
+        Dimension region = new Dimension();
+        region.setName("region");
+        region.setDescription("sales region");
+        Dimension orderDate = new Dimension();
+        orderDate.setName("order_date");
+        orderDate.setDescription("order date");
+        orderDate.setExpr("created_at");
+        orderDate.setDimensionType(Dimension.DimensionType.TIME);
+        Dimension.TypeParams typeParams = new Dimension.TypeParams();
+        typeParams.setTimeGranularity("day");
+        orderDate.setTypeParams(typeParams);
+        semanticModel.setDimensions(List.of(status, region, orderDate));
+
+        Measure amount = new Measure();
+        amount.setName("amount");
+        amount.setDescription("order amount");
+        amount.setExpr("total_amount");
+        amount.setAggregationType(Measure.AggregationType.SUM);
+        semanticModel.setMeasures(List.of(amount));
+        return semanticModel;
+    }
+
+    private record TestSemanticAdapter(SqlDialect sqlDialect,
+                                       BiFunction<String, Dimension.TypeParams.TimeGranularity, String> granularity)
+            implements SemanticAdapter {
+
+        @Override
+        public SqlDialect getSqlDialect() {
+            return sqlDialect;
+        }
+
+        @Override
+        public String applyTimeGranularity(String dateExpr, Dimension.TypeParams.TimeGranularity granularity) {
+            return this.granularity.apply(dateExpr, granularity);
+        }
+
+        @Override
+        public AnsiSqlType toAnsiSqlType(String columnTypeName) {
+            return AnsiSqlType.UNKNOWN;
+        }
+    }
+}
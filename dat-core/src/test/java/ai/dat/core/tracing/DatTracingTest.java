@@ -0,0 +1,200 @@
+package ai.dat.core.tracing;
+
+import ai.dat.core.adapter.GenericSqlDatabaseAdapter;
+import ai.dat.core.agent.AbstractAskdataAgent;
+import ai.dat.core.agent.data.EventOption;
+import ai.dat.core.agent.data.StreamAction;
+import ai.dat.core.contentstore.ContentStore;
+import ai.dat.core.contentstore.data.QuestionSqlPair;
+import ai.dat.core.metrics.DatMetrics;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 问数的span在Agent线程池中保持父子关系，并带有会话ID
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class DatTracingTest {
+
+    private static final String CONVERSATION_ID = "conversation-1";
+
+    private InMemorySpanExporter spanExporter;
+    private SdkTracerProvider tracerProvider;
+
+    @BeforeEach
+    void setUp() {
+        spanExporter = InMemorySpanExporter.create();
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(spanExporter))
+                .build();
+        DatTracing.setOpenTelemetry(OpenTelemetrySdk.builder().setTracerProvider(tracerProvider).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        DatTracing.setOpenTelemetry(OpenTelemetry.noop());
+        tracerProvider.close();
+    }
+
+    @Test
+    void agentSpansShareParentAcrossExecutor() throws InterruptedException {
+        TracedAgent agent = new TracedAgent();
+        StreamAction action;
+        try (Scope ignored = DatTracing.withConversationId(CONVERSATION_ID)) {
+            action = agent.ask("How many orders?");
+        }
+        CountDownLatch finished = new CountDownLatch(1);
+        action.onFinished(finished::countDown);
+        assertTrue(finished.await(10, TimeUnit.SECONDS), "The agent did not finish in time");
+
+        assertNull(agent.error, () -> "The agent failed: " + agent.error);
+        assertTrue(agent.threadName.startsWith("dat-agent-"), agent.threadName);
+
+        SpanData run = span("AskdataAgent.run");
+        SpanData chat = span("ChatModel.chat");
+        SpanData executeQuery = span("DatabaseAdapter.executeQuery");
+        assertEquals(run.getSpanId(), chat.getParentSpanId());
+        assertEquals(run.getSpanId(), executeQuery.getParentSpanId());
+        assertEquals(run.getTraceId(), chat.getTraceId());
+        assertEquals(run.getTraceId(), executeQuery.getTraceId());
+        for (SpanData span : List.of(run, chat, executeQuery)) {
+            assertEquals(CONVERSATION_ID, span.getAttributes().get(DatTracing.CONVERSATION_ID), span.getName());
+        }
+    }
+
+    private SpanData span(String name) {
+        List<SpanData> spans = spanExporter.getFinishedSpanItems().stream()
+                .filter(span -> name.equals(span.getName()))
+                .toList();
+        assertEquals(1, spans.size(), () -> "Expected one '" + name + "' span: " + spans);
+        return spans.get(0);
+    }
+
+    /**
+     * 在Agent线程中调用一次大模型并执行一次查询
+     */
+    private static class TracedAgent extends AbstractAskdataAgent {
+
+        private final ChatModel chatModel = DatMetrics.metered(new ChatModel() {
+            @Override
+            public ChatResponse doChat(ChatRequest chatRequest) {
+                return ChatResponse.builder().aiMessage(AiMessage.from("SELECT 1")).build();
+            }
+        }, "sql_generation");
+
+        private volatile String threadName;
+        private volatile Exception error;
+
+        TracedAgent() {
+            super(proxy(ContentStore.class, (method, args) -> {
+                throw new UnsupportedOperationException(method.getName());
+            }), new EmptyDatabaseAdapter(), null);
+        }
+
+        @Override
+        public Set<EventOption> eventOptions() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        protected void run(String question, List<QuestionSqlPair> histories) {
+            threadName = Thread.currentThread().getName();
+            try {
+                String sql = chatModel.chat(ChatRequest.builder().messages(UserMessage.from(question)).build())
+                        .aiMessage().text();
+                executeDialectQuery(sql);
+            } catch (Exception e) {
+                error = e;
+            }
+        }
+    }
+
+    /**
+     * 返回空结果集的数据库适配器，不需要真实的数据库
+     */
+    private static class EmptyDatabaseAdapter extends GenericSqlDatabaseAdapter {
+
+        EmptyDatabaseAdapter() {
+            super(null, emptyDataSource());
+        }
+
+        @Override
+        protected Object handleSpecificTypes(Object value, int columnType) {
+            return value;
+        }
+
+        @Override
+        protected int toColumnType(String dataType) {
+            return Types.VARCHAR;
+        }
+
+        @Override
+        public String limitClause(int limit) {
+            return "LIMIT " + limit;
+        }
+
+        private static DataSource emptyDataSource() {
+            ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) ->
+                    "getColumnCount".equals(method.getName()) ? 0 : null);
+            ResultSet resultSet = proxy(ResultSet.class, (method, args) -> switch (method.getName()) {
+                case "next" -> false;
+                case "getMetaData" -> metaData;
+                default -> null;
+            });
+            PreparedStatement statement = proxy(PreparedStatement.class, (method, args) ->
+                    "executeQuery".equals(method.getName()) ? resultSet : null);
+            Connection connection = proxy(Connection.class, (method, args) ->
+                    "prepareStatement".equals(method.getName()) ? statement : null);
+            return proxy(DataSource.class, (method, args) ->
+                    "getConnection".equals(method.getName()) ? connection : null);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Method method, Object[] args) throws SQLException;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> type.getSimpleName() + "Proxy";
+                    default -> handler.invoke(method, args);
+                });
+    }
+}
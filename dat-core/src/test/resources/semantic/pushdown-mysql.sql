@@ -0,0 +1,47 @@
+-- push_conjuncts_by_expr
+WITH orders AS (SELECT id AS order_id, order_status AS status, total_amount AS amount FROM (SELECT * FROM t_orders) AS __dat_model WHERE (order_status = 'paid') AND (id > 100)) SELECT order_id, amount FROM orders WHERE status = 'paid' AND order_id > 100 AND amount > 10
+
+-- push_in_between_like_null
+WITH orders AS (SELECT id AS order_id, order_status AS status, region AS region FROM (SELECT * FROM t_orders) AS __dat_model WHERE (order_status IN ('paid', 'shipped')) AND (id BETWEEN 1 AND 9) AND (region LIKE 'east%') AND (region IS NOT NULL)) SELECT order_id FROM orders WHERE status IN ('paid', 'shipped') AND order_id BETWEEN 1 AND 9 AND region LIKE 'east%' AND region IS NOT NULL
+
+-- push_qualified_by_alias
+WITH orders AS (SELECT id AS order_id, order_status AS status FROM (SELECT * FROM t_orders) AS __dat_model WHERE (order_status <> 'cancelled')) SELECT o.order_id FROM orders AS o WHERE o.status <> 'cancelled'
+
+-- push_time_dimension_with_granularity
+WITH orders AS (SELECT id AS order_id, DATE_FORMAT(created_at, '%Y-%m-%d') AS order_date FROM (SELECT * FROM t_orders) AS __dat_model WHERE (DATE_FORMAT(created_at, '%Y-%m-%d') >= DATE '2025-01-01')) SELECT order_id FROM orders WHERE order_date >= DATE '2025-01-01'
+
+-- keep_disjunction
+WITH orders AS (SELECT id AS order_id, order_status AS status, region AS region FROM (SELECT * FROM t_orders) AS __dat_model) SELECT order_id FROM orders WHERE status = 'paid' OR region = 'east'
+
+-- keep_function_and_column_comparison
+WITH orders AS (SELECT id AS order_id, order_status AS status, region AS region FROM (SELECT * FROM t_orders) AS __dat_model) SELECT order_id FROM orders WHERE UPPER(status) = 'PAID' AND region = status
+
+-- keep_joined_model
+WITH orders AS (SELECT id AS order_id, order_status AS status FROM (SELECT * FROM t_orders) AS __dat_model) SELECT a.order_id FROM orders AS a INNER JOIN orders AS b ON a.order_id = b.order_id WHERE a.status = 'paid'
+
+-- push_limit
+WITH orders AS (SELECT id AS order_id, order_status AS status FROM (SELECT * FROM t_orders) AS __dat_model WHERE (order_status = 'paid') LIMIT 10) SELECT order_id, status FROM orders WHERE status = 'paid' LIMIT 10
+
+-- push_limit_with_offset
+WITH orders AS (SELECT id AS order_id FROM (SELECT * FROM t_orders) AS __dat_model LIMIT 15) SELECT order_id FROM orders LIMIT 10 OFFSET 5
+
+-- push_limit_scalar_function
+WITH orders AS (SELECT order_status AS status FROM (SELECT * FROM t_orders) AS __dat_model LIMIT 10) SELECT UPPER(status) AS status_upper FROM orders LIMIT 10
+
+-- keep_limit_order_by
+WITH orders AS (SELECT id AS order_id FROM (SELECT * FROM t_orders) AS __dat_model) SELECT order_id FROM orders ORDER BY order_id LIMIT 10
+
+-- keep_limit_group_by
+WITH orders AS (SELECT order_status AS status, total_amount AS amount FROM (SELECT * FROM t_orders) AS __dat_model) SELECT status, SUM(amount) AS total FROM orders GROUP BY status LIMIT 10
+
+-- keep_limit_distinct
+WITH orders AS (SELECT order_status AS status FROM (SELECT * FROM t_orders) AS __dat_model) SELECT DISTINCT status FROM orders LIMIT 10
+
+-- keep_limit_aggregate
+WITH orders AS (SELECT id AS order_id, order_status AS status, region AS region, DATE_FORMAT(created_at, '%Y-%m-%d') AS order_date, total_amount AS amount FROM (SELECT * FROM t_orders) AS __dat_model) SELECT COUNT(*) AS cnt FROM orders LIMIT 10
+
+-- keep_limit_window
+WITH orders AS (SELECT id AS order_id FROM (SELECT * FROM t_orders) AS __dat_model) SELECT order_id, ROW_NUMBER() OVER (ORDER BY order_id) AS rn FROM orders LIMIT 10
+
+-- keep_limit_partial_where
+WITH orders AS (SELECT id AS order_id, order_status AS status, total_amount AS amount FROM (SELECT * FROM t_orders) AS __dat_model WHERE (order_status = 'paid')) SELECT order_id FROM orders WHERE status = 'paid' AND amount > 10 LIMIT 10
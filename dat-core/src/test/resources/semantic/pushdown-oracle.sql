@@ -0,0 +1,47 @@
+-- push_conjuncts_by_expr
+WITH orders AS (SELECT id AS order_id, order_status AS status, total_amount AS amount FROM (SELECT * FROM T_ORDERS) AS __dat_model WHERE (ORDER_STATUS = 'paid') AND (ID > 100)) SELECT order_id, amount FROM orders WHERE status = 'paid' AND order_id > 100 AND amount > 10
+
+-- push_in_between_like_null
+WITH orders AS (SELECT id AS order_id, order_status AS status, region AS region FROM (SELECT * FROM T_ORDERS) AS __dat_model WHERE (ORDER_STATUS IN ('paid', 'shipped')) AND (ID BETWEEN ASYMMETRIC 1 AND 9) AND (REGION LIKE 'east%') AND (REGION IS NOT NULL)) SELECT order_id FROM orders WHERE status IN ('paid', 'shipped') AND order_id BETWEEN ASYMMETRIC 1 AND 9 AND region LIKE 'east%' AND region IS NOT NULL
+
+-- push_qualified_by_alias
+WITH orders AS (SELECT id AS order_id, order_status AS status FROM (SELECT * FROM T_ORDERS) AS __dat_model WHERE (ORDER_STATUS <> 'cancelled')) SELECT o.order_id FROM orders o WHERE o.status <> 'cancelled'
+
+-- push_time_dimension_with_granularity
+WITH orders AS (SELECT id AS order_id, TRUNC(created_at, 'DD') AS order_date FROM (SELECT * FROM T_ORDERS) AS __dat_model WHERE (TRUNC(CREATED_AT, 'DD') >= DATE '2025-01-01')) SELECT order_id FROM orders WHERE order_date >= DATE '2025-01-01'
+
+-- keep_disjunction
+WITH orders AS (SELECT id AS order_id, order_status AS status, region AS region FROM (SELECT * FROM T_ORDERS) AS __dat_model) SELECT order_id FROM orders WHERE status = 'paid' OR region = 'east'
+
+-- keep_function_and_column_comparison
+WITH orders AS (SELECT id AS order_id, order_status AS status, region AS region FROM (SELECT * FROM T_ORDERS) AS __dat_model) SELECT order_id FROM orders WHERE UPPER(status) = 'PAID' AND region = status
+
+-- keep_joined_model
+WITH orders AS (SELECT id AS order_id, order_status AS status FROM (SELECT * FROM T_ORDERS) AS __dat_model) SELECT a.order_id FROM orders a INNER JOIN orders b ON a.order_id = b.order_id WHERE a.status = 'paid'
+
+-- push_limit
+WITH orders AS (SELECT id AS order_id, order_status AS status FROM (SELECT * FROM T_ORDERS) AS __dat_model WHERE (ORDER_STATUS = 'paid') FETCH NEXT 10 ROWS ONLY) SELECT order_id, status FROM orders WHERE status = 'paid' FETCH NEXT 10 ROWS ONLY
+
+-- push_limit_with_offset
+WITH orders AS (SELECT id AS order_id FROM (SELECT * FROM T_ORDERS) AS __dat_model FETCH NEXT 15 ROWS ONLY) SELECT order_id FROM orders OFFSET 5 ROWS FETCH NEXT 10 ROWS ONLY
+
+-- push_limit_scalar_function
+WITH orders AS (SELECT order_status AS status FROM (SELECT * FROM T_ORDERS) AS __dat_model FETCH NEXT 10 ROWS ONLY) SELECT UPPER(status) status_upper FROM orders FETCH NEXT 10 ROWS ONLY
+
+-- keep_limit_order_by
+WITH orders AS (SELECT id AS order_id FROM (SELECT * FROM T_ORDERS) AS __dat_model) SELECT order_id FROM orders ORDER BY order_id FETCH NEXT 10 ROWS ONLY
+
+-- keep_limit_group_by
+WITH orders AS (SELECT order_status AS status, total_amount AS amount FROM (SELECT * FROM T_ORDERS) AS __dat_model) SELECT status, SUM(amount) total FROM orders GROUP BY status FETCH NEXT 10 ROWS ONLY
+
+-- keep_limit_distinct
+WITH orders AS (SELECT order_status AS status FROM (SELECT * FROM T_ORDERS) AS __dat_model) SELECT DISTINCT status FROM orders FETCH NEXT 10 ROWS ONLY
+
+-- keep_limit_aggregate
+WITH orders AS (SELECT id AS order_id, order_status AS status, region AS region, TRUNC(created_at, 'DD') AS order_date, total_amount AS amount FROM (SELECT * FROM T_ORDERS) AS __dat_model) SELECT COUNT(*) cnt FROM orders FETCH NEXT 10 ROWS ONLY
+
+-- keep_limit_window
+WITH orders AS (SELECT id AS order_id FROM (SELECT * FROM T_ORDERS) AS __dat_model) SELECT order_id, ROW_NUMBER() OVER (ORDER BY order_id) rn FROM orders FETCH NEXT 10 ROWS ONLY
+
+-- keep_limit_partial_where
+WITH orders AS (SELECT id AS order_id, order_status AS status, total_amount AS amount FROM (SELECT * FROM T_ORDERS) AS __dat_model WHERE (ORDER_STATUS = 'paid')) SELECT order_id FROM orders WHERE status = 'paid' AND amount > 10 FETCH NEXT 10 ROWS ONLY
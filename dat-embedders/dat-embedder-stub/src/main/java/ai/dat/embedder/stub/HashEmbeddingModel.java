@@ -0,0 +1,103 @@
+package ai.dat.embedder.stub;
+
+import com.google.common.hash.Hashing;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import lombok.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 特征哈希向量模型：单词（中文为单字与相邻两字）哈希到固定维度后做L2归一化，
+ * 相同的文本总是得到相同的向量，词汇重叠越多的文本余弦相似度越高
+ *
+ * @Author JunjieM
+ * @Date 2025/10/30
+ */
+public class HashEmbeddingModel implements EmbeddingModel {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}_]+");
+
+    private final int dimension;
+    private final Duration latency;
+
+    public HashEmbeddingModel(int dimension, @NonNull Duration latency) {
+        this.dimension = dimension;
+        this.latency = latency;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("The stub embedding call was interrupted", e);
+            }
+        }
+        List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+        int tokens = 0;
+        for (TextSegment textSegment : textSegments) {
+            List<String> features = features(textSegment.text());
+            tokens += features.size();
+            embeddings.add(Embedding.from(embed(features)));
+        }
+        return Response.from(embeddings, new TokenUsage(tokens));
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    private float[] embed(List<String> features) {
+        float[] vector = new float[dimension];
+        for (String feature : features) {
+            long hash = Hashing.murmur3_128().hashString(feature, StandardCharsets.UTF_8).asLong();
+            int index = (int) Math.floorMod(hash, (long) dimension);
+            // 用哈希的最高位决定符号，抵消哈希冲突带来的偏差
+            vector[index] += hash < 0 ? -1.0f : 1.0f;
+        }
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private static List<String> features(String text) {
+        List<String> features = new ArrayList<>();
+        Matcher matcher = WORD.matcher(text.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String word = matcher.group();
+            if (word.codePoints().anyMatch(c -> Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN)) {
+                int[] codePoints = word.codePoints().toArray();
+                for (int i = 0; i < codePoints.length; i++) {
+                    features.add(new String(codePoints, i, 1));
+                    if (i + 1 < codePoints.length) {
+                        features.add(new String(codePoints, i, 2));
+                    }
+                }
+            } else {
+                features.add(word);
+            }
+        }
+        return features;
+    }
+}
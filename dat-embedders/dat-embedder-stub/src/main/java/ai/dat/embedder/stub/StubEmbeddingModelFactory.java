@@ -0,0 +1,73 @@
+package ai.dat.embedder.stub;
+
+import ai.dat.core.configuration.ConfigOption;
+import ai.dat.core.configuration.ConfigOptions;
+import ai.dat.core.configuration.ReadableConfig;
+import ai.dat.core.factories.EmbeddingModelFactory;
+import ai.dat.core.utils.FactoryUtil;
+import com.google.common.base.Preconditions;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 本地桩（Stub）向量模型：基于特征哈希生成确定性的向量，不加载任何模型，
+ * 用于压测与容量评估
+ *
+ * @Author JunjieM
+ * @Date 2025/10/30
+ */
+public class StubEmbeddingModelFactory implements EmbeddingModelFactory {
+
+    public static final String IDENTIFIER = "stub";
+
+    public static final ConfigOption<Integer> DIMENSION =
+            ConfigOptions.key("dimension")
+                    .intType()
+                    .defaultValue(384)
+                    .withDescription("The dimension of the embeddings.");
+
+    public static final ConfigOption<Duration> LATENCY =
+            ConfigOptions.key("latency")
+                    .durationType()
+                    .defaultValue(Duration.ZERO)
+                    .withDescription("The simulated latency of each embedding call.");
+
+    @Override
+    public String factoryIdentifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public Set<ConfigOption<?>> requiredOptions() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Set<ConfigOption<?>> optionalOptions() {
+        return new LinkedHashSet<>(List.of(DIMENSION, LATENCY));
+    }
+
+    @Override
+    public Set<ConfigOption<?>> fingerprintOptions() {
+        return Set.of(DIMENSION);
+    }
+
+    @Override
+    public EmbeddingModel create(ReadableConfig config) {
+        FactoryUtil.validateFactoryOptions(this, config);
+        validateConfigOptions(config);
+        return new HashEmbeddingModel(config.get(DIMENSION), config.get(LATENCY));
+    }
+
+    private void validateConfigOptions(ReadableConfig config) {
+        Preconditions.checkArgument(config.get(DIMENSION) > 0,
+                "'" + DIMENSION.key() + "' value must be greater than 0");
+        Preconditions.checkArgument(!config.get(LATENCY).isNegative(),
+                "'" + LATENCY.key() + "' value cannot be negative");
+    }
+}
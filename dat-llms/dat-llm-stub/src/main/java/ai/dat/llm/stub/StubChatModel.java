@@ -0,0 +1,41 @@
+package ai.dat.llm.stub;
+
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import lombok.NonNull;
+
+import java.util.Set;
+
+/**
+ * 桩对话模型：阻塞调用线程直到预置内容按配置的速率“生成”完毕
+ *
+ * @Author JunjieM
+ * @Date 2025/10/30
+ */
+public class StubChatModel implements ChatModel {
+
+    private final StubResponder responder;
+
+    StubChatModel(@NonNull StubResponder responder) {
+        this.responder = responder;
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest chatRequest) {
+        StubResponder.Reply reply = responder.reply(chatRequest);
+        try {
+            Thread.sleep(reply.totalMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("The stub chat model call was interrupted", e);
+        }
+        return reply.toChatResponse();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return Set.of(Capability.RESPONSE_FORMAT_JSON_SCHEMA);
+    }
+}
@@ -0,0 +1,133 @@
+package ai.dat.llm.stub;
+
+import ai.dat.core.configuration.ConfigOption;
+import ai.dat.core.configuration.ConfigOptions;
+import ai.dat.core.configuration.ReadableConfig;
+import ai.dat.core.factories.ChatModelFactory;
+import ai.dat.core.utils.FactoryUtil;
+import com.google.common.base.Preconditions;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 本地桩（Stub）对话模型：不调用任何LLM服务，按配置的延迟与token速率返回预置的内容，
+ * 用于压测与容量评估
+ *
+ * @Author JunjieM
+ * @Date 2025/10/30
+ */
+public class StubChatModelFactory implements ChatModelFactory {
+
+    public static final String IDENTIFIER = "stub";
+
+    public enum LatencyDistribution {
+        FIXED, UNIFORM, NORMAL
+    }
+
+    public static final ConfigOption<Duration> LATENCY =
+            ConfigOptions.key("latency")
+                    .durationType()
+                    .defaultValue(Duration.ofMillis(300))
+                    .withDescription("The (mean) latency before the first token is returned.");
+
+    public static final ConfigOption<Duration> LATENCY_JITTER =
+            ConfigOptions.key("latency-jitter")
+                    .durationType()
+                    .defaultValue(Duration.ZERO)
+                    .withDescription("The jitter of the latency. " +
+                            "For `UNIFORM` it is the maximum deviation from the latency, " +
+                            "for `NORMAL` it is the standard deviation.");
+
+    public static final ConfigOption<LatencyDistribution> LATENCY_DISTRIBUTION =
+            ConfigOptions.key("latency-distribution")
+                    .enumType(LatencyDistribution.class)
+                    .defaultValue(LatencyDistribution.FIXED)
+                    .withDescription("The distribution of the latency: `FIXED`, `UNIFORM` or `NORMAL`.");
+
+    public static final ConfigOption<Double> TOKENS_PER_SECOND =
+            ConfigOptions.key("tokens-per-second")
+                    .doubleType()
+                    .defaultValue(50.0)
+                    .withDescription("The rate at which the response tokens are generated " +
+                            "(a token is about 4 characters).");
+
+    public static final ConfigOption<List<String>> SQLS =
+            ConfigOptions.key("sqls")
+                    .stringType()
+                    .asList()
+                    .defaultValues("SELECT 1 AS result")
+                    .withDescription("The canned semantic SQLs returned for the SQL generation requests. " +
+                            "The same question (ignoring the digits in the prompt, such as the current time) " +
+                            "always gets the same SQL.");
+
+    public static final ConfigOption<String> INTENT =
+            ConfigOptions.key("intent")
+                    .stringType()
+                    .defaultValue("TEXT_TO_SQL")
+                    .withDescription("The intent returned for the intent classification requests.");
+
+    public static final ConfigOption<String> RESPONSE =
+            ConfigOptions.key("response")
+                    .stringType()
+                    .defaultValue("This is a canned response from the stub chat model. " +
+                            "It is used to simulate the reasoning and the answer of a real LLM " +
+                            "without any network calls, so the throughput of DAT itself can be measured.")
+                    .withDescription("The canned text returned for the free-form (non-JSON) requests.");
+
+    public static final ConfigOption<Long> SEED =
+            ConfigOptions.key("seed")
+                    .longType()
+                    .defaultValue(0L)
+                    .withDescription("The random seed of the latency sampling.");
+
+    @Override
+    public String factoryIdentifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public Set<ConfigOption<?>> requiredOptions() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Set<ConfigOption<?>> optionalOptions() {
+        return new LinkedHashSet<>(List.of(LATENCY, LATENCY_JITTER, LATENCY_DISTRIBUTION,
+                TOKENS_PER_SECOND, SQLS, INTENT, RESPONSE, SEED));
+    }
+
+    @Override
+    public ChatModel create(ReadableConfig config) {
+        return new StubChatModel(createResponder(config));
+    }
+
+    @Override
+    public StreamingChatModel createStream(ReadableConfig config) {
+        return new StubStreamingChatModel(createResponder(config));
+    }
+
+    private StubResponder createResponder(ReadableConfig config) {
+        FactoryUtil.validateFactoryOptions(this, config);
+        validateConfigOptions(config);
+        return new StubResponder(config.get(LATENCY), config.get(LATENCY_JITTER),
+                config.get(LATENCY_DISTRIBUTION), config.get(TOKENS_PER_SECOND),
+                config.get(SQLS), config.get(INTENT), config.get(RESPONSE), config.get(SEED));
+    }
+
+    private void validateConfigOptions(ReadableConfig config) {
+        Preconditions.checkArgument(!config.get(LATENCY).isNegative(),
+                "'" + LATENCY.key() + "' value cannot be negative");
+        Preconditions.checkArgument(!config.get(LATENCY_JITTER).isNegative(),
+                "'" + LATENCY_JITTER.key() + "' value cannot be negative");
+        Preconditions.checkArgument(config.get(TOKENS_PER_SECOND) > 0,
+                "'" + TOKENS_PER_SECOND.key() + "' value must be greater than 0");
+        Preconditions.checkArgument(!config.get(SQLS).isEmpty(),
+                "'" + SQLS.key() + "' value cannot be empty");
+    }
+}
@@ -0,0 +1,189 @@
+package ai.dat.llm.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import dev.langchain4j.data.message.*;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ResponseFormat;
+import dev.langchain4j.model.chat.request.json.JsonObjectSchema;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+import lombok.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 桩模型的应答生成：根据请求的类型（意图分类、SQL生成、自由文本）选择预置的内容，
+ * 并按配置的延迟分布与token速率计算返回的时间
+ *
+ * @Author JunjieM
+ * @Date 2025/10/30
+ */
+class StubResponder {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    /**
+     * 近似的token长度（字符数）
+     */
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final Duration latency;
+    private final Duration latencyJitter;
+    private final StubChatModelFactory.LatencyDistribution latencyDistribution;
+    private final double tokensPerSecond;
+    private final List<String> sqls;
+    private final String intent;
+    private final String response;
+    private final Random random;
+
+    StubResponder(@NonNull Duration latency, @NonNull Duration latencyJitter,
+                  @NonNull StubChatModelFactory.LatencyDistribution latencyDistribution, double tokensPerSecond,
+                  @NonNull List<String> sqls, @NonNull String intent, @NonNull String response, long seed) {
+        this.latency = latency;
+        this.latencyJitter = latencyJitter;
+        this.latencyDistribution = latencyDistribution;
+        this.tokensPerSecond = tokensPerSecond;
+        this.sqls = List.copyOf(sqls);
+        this.intent = intent;
+        this.response = response;
+        this.random = new Random(seed);
+    }
+
+    Reply reply(@NonNull ChatRequest chatRequest) {
+        String userText = lastUserText(chatRequest.messages());
+        Set<String> jsonProperties = jsonProperties(chatRequest, userText);
+        String text;
+        if (jsonProperties.contains("intent")) {
+            text = toJson(Map.of("reasoning", "stub", "intent", intent));
+        } else if (jsonProperties.contains("sql")) {
+            text = toJson(Map.of("sql", chooseSql(userText)));
+        } else {
+            text = response;
+        }
+        int inputTokens = chatRequest.messages().stream()
+                .map(StubResponder::text)
+                .mapToInt(StubResponder::countTokens)
+                .sum();
+        return new Reply(text, split(text), sampleLatencyMillis(),
+                (long) (1_000_000_000L / tokensPerSecond), inputTokens);
+    }
+
+    /**
+     * 忽略数字（如提示词中的当前时间）后按内容选择SQL，相同的问题总是得到相同的SQL
+     */
+    private String chooseSql(String userText) {
+        String shape = userText.replaceAll("\\d", "");
+        long hash = Hashing.murmur3_128().hashString(shape, StandardCharsets.UTF_8).asLong();
+        return sqls.get((int) Math.floorMod(hash, (long) sqls.size()));
+    }
+
+    private long sampleLatencyMillis() {
+        double mean = latency.toMillis();
+        double jitter = latencyJitter.toMillis();
+        double sampled;
+        synchronized (random) {
+            sampled = switch (latencyDistribution) {
+                case FIXED -> mean;
+                case UNIFORM -> mean + (random.nextDouble() * 2 - 1) * jitter;
+                case NORMAL -> mean + random.nextGaussian() * jitter;
+            };
+        }
+        return Math.max(0L, Math.round(sampled));
+    }
+
+    /**
+     * 请求期望的JSON结构的字段：支持JSON Schema时取自响应格式，
+     * 否则取自追加在用户消息末尾的JSON格式说明
+     */
+    private static Set<String> jsonProperties(ChatRequest chatRequest, String userText) {
+        ResponseFormat responseFormat = chatRequest.responseFormat();
+        if (responseFormat != null && responseFormat.jsonSchema() != null
+                && responseFormat.jsonSchema().rootElement() instanceof JsonObjectSchema root) {
+            return root.properties().keySet();
+        }
+        Set<String> properties = new HashSet<>();
+        int index = userText.lastIndexOf("JSON format");
+        if (index >= 0) {
+            String format = userText.substring(index);
+            if (format.contains("\"intent\"")) properties.add("intent");
+            if (format.contains("\"sql\"")) properties.add("sql");
+        }
+        return properties;
+    }
+
+    private static String lastUserText(List<ChatMessage> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) instanceof UserMessage) {
+                return text(messages.get(i));
+            }
+        }
+        return "";
+    }
+
+    private static String text(ChatMessage message) {
+        if (message instanceof UserMessage userMessage) {
+            return userMessage.hasSingleText() ? userMessage.singleText() : "";
+        } else if (message instanceof SystemMessage systemMessage) {
+            return systemMessage.text();
+        } else if (message instanceof AiMessage aiMessage) {
+            return Objects.requireNonNullElse(aiMessage.text(), "");
+        } else if (message instanceof ToolExecutionResultMessage resultMessage) {
+            return resultMessage.text();
+        }
+        return "";
+    }
+
+    private static int countTokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    private static List<String> split(String text) {
+        List<String> tokens = new ArrayList<>(countTokens(text));
+        for (int i = 0; i < text.length(); i += CHARS_PER_TOKEN) {
+            tokens.add(text.substring(i, Math.min(text.length(), i + CHARS_PER_TOKEN)));
+        }
+        return tokens;
+    }
+
+    private static String toJson(Map<String, String> value) {
+        try {
+            return JSON_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize the stub response to JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 应答
+     *
+     * @param text               完整内容
+     * @param tokens             内容拆分后的token
+     * @param latencyMillis      首个token之前的延迟（毫秒）
+     * @param tokenIntervalNanos 相邻token之间的间隔（纳秒）
+     * @param inputTokens        输入的token数
+     */
+    record Reply(String text, List<String> tokens, long latencyMillis,
+                 long tokenIntervalNanos, int inputTokens) {
+
+        /**
+         * 返回完整内容所需的总时间（毫秒）
+         */
+        long totalMillis() {
+            return latencyMillis + tokenIntervalNanos * tokens.size() / 1_000_000L;
+        }
+
+        ChatResponse toChatResponse() {
+            return ChatResponse.builder()
+                    .aiMessage(AiMessage.from(text))
+                    .modelName(StubChatModelFactory.IDENTIFIER)
+                    .tokenUsage(new TokenUsage(inputTokens, tokens.size()))
+                    .finishReason(FinishReason.STOP)
+                    .build();
+        }
+    }
+}
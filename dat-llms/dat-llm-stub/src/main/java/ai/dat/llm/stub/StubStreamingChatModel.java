@@ -0,0 +1,71 @@
+package ai.dat.llm.stub;
+
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 桩流式对话模型：由共享的调度线程按配置的速率逐个推送token，
+ * 不占用调用线程，与真实的流式HTTP响应一样可以支撑大量并发的会话
+ *
+ * @Author JunjieM
+ * @Date 2025/10/30
+ */
+@Slf4j
+public class StubStreamingChatModel implements StreamingChatModel {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), daemonThreadFactory("dat-stub-llm-"));
+
+    private final StubResponder responder;
+
+    StubStreamingChatModel(@NonNull StubResponder responder) {
+        this.responder = responder;
+    }
+
+    @Override
+    public void doChat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        StubResponder.Reply reply = responder.reply(chatRequest);
+        SCHEDULER.schedule(() -> emit(reply, 0, handler), reply.latencyMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void emit(StubResponder.Reply reply, int index, StreamingChatResponseHandler handler) {
+        try {
+            if (index >= reply.tokens().size()) {
+                handler.onCompleteResponse(reply.toChatResponse());
+                return;
+            }
+            handler.onPartialResponse(reply.tokens().get(index));
+            SCHEDULER.schedule(() -> emit(reply, index + 1, handler),
+                    reply.tokenIntervalNanos(), TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            log.warn("The stub streaming response handler failed", e);
+            handler.onError(e);
+        }
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return Set.of(Capability.RESPONSE_FORMAT_JSON_SCHEMA);
+    }
+
+    private static ThreadFactory daemonThreadFactory(String threadNamePrefix) {
+        AtomicInteger id = new AtomicInteger(0);
+        return r -> {
+            Thread thread = new Thread(r);
+            thread.setName(threadNamePrefix + id.addAndGet(1));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
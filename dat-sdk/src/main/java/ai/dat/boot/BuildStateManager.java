@@ -11,6 +11,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -38,6 +39,18 @@ class BuildStateManager {
         this.lock = new ReentrantReadWriteLock();
     }
 
+    private BuildStateManager(Path datDir, ReentrantReadWriteLock lock) {
+        this.datDir = datDir;
+        this.lock = lock;
+    }
+
+    /**
+     * @param datDir 构建状态与内容存储本地文件所在目录
+     */
+    static BuildStateManager ofDir(@NonNull Path datDir) {
+        return new BuildStateManager(datDir, new ReentrantReadWriteLock());
+    }
+
     /**
      * 加载指定配置的构建状态
      */
@@ -94,7 +107,7 @@ class BuildStateManager {
             }
             List<Path> files = listStateFiles();
             for (Path file : files) {
-                Files.delete(file);
+                delete(file);
                 log.info("Clean the expired state and embedding files: {}", file.getFileName());
             }
             log.info("Cleared {} expired state and embedding files", files.size());
@@ -130,11 +143,48 @@ class BuildStateManager {
                 log.info("Cleared {} expired embedding files and retained the latest {}",
                         files.size(), keepCount * 2);
             }
+            List<Path> lexicalIndexDirs = listLexicalIndexDirsByModifiedTime();
+            if (lexicalIndexDirs.size() > keepCount) {
+                List<Path> dirs = lexicalIndexDirs.subList(keepCount, lexicalIndexDirs.size());
+                for (Path dir : dirs) {
+                    delete(dir);
+                    log.info("Clean the expired lexical index: {}", dir.getFileName());
+                }
+                log.info("Cleared {} expired lexical indexes and retained the latest {}", dirs.size(), keepCount);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 将指定配置的构建状态与内容存储本地文件（DuckDB向量存储、词法索引）复制到目标目录，
+     * 在副本上增量构建不影响当前目录下正在使用的内容存储
+     */
+    public void copyState(@NonNull String stateId, @NonNull Path targetDir) throws IOException {
+        withReadLock(() -> {
+            Files.createDirectories(targetDir);
+            if (!Files.exists(datDir)) {
+                return null;
+            }
+            List<Path> files;
+            try (Stream<Path> paths = Files.list(datDir)) {
+                files = paths.filter(path -> {
+                            String fileName = path.getFileName().toString();
+                            return path.equals(getStateFile(stateId))
+                                    || fileName.startsWith(ProjectUtil.DUCKDB_EMBEDDING_STORE_FILE_PREFIX + stateId)
+                                    || fileName.equals(ProjectUtil.LEXICAL_INDEX_DIR_PREFIX + stateId);
+                        })
+                        .toList();
+            }
+            for (Path file : files) {
+                copy(file, targetDir.resolve(file.getFileName().toString()));
+            }
+            log.info("Copied {} state and content store files to {}", files.size(), targetDir);
             return null;
         });
     }
 
-    private Path getStateFile(String stateId) {
+    Path getStateFile(@NonNull String stateId) {
         return datDir.resolve(STATE_FILE_PREFIX + stateId + STATE_FILE_SUFFIX);
     }
 
@@ -149,7 +199,8 @@ class BuildStateManager {
             return files.filter(path -> {
                         String fileName = path.getFileName().toString();
                         return (fileName.startsWith(STATE_FILE_PREFIX) && fileName.endsWith(STATE_FILE_SUFFIX))
-                                || fileName.startsWith(ProjectUtil.DUCKDB_EMBEDDING_STORE_FILE_PREFIX);
+                                || fileName.startsWith(ProjectUtil.DUCKDB_EMBEDDING_STORE_FILE_PREFIX)
+                                || fileName.startsWith(ProjectUtil.LEXICAL_INDEX_DIR_PREFIX);
                     })
                     .toList();
         }
@@ -191,6 +242,52 @@ class BuildStateManager {
         }
     }
 
+    private List<Path> listLexicalIndexDirsByModifiedTime() throws IOException {
+        try (Stream<Path> files = Files.list(datDir)) {
+            return files.filter(path -> Files.isDirectory(path)
+                                        && path.getFileName().toString().startsWith(ProjectUtil.LEXICAL_INDEX_DIR_PREFIX))
+                    .sorted((o1, o2) -> {
+                        try {
+                            return Files.getLastModifiedTime(o2).compareTo(Files.getLastModifiedTime(o1));
+                        } catch (IOException e) {
+                            log.warn("The comparison of file modification times failed: {} vs {}", o1, o2, e);
+                            return 0;
+                        }
+                    })
+                    .toList();
+        }
+    }
+
+    /**
+     * 复制文件，目录（如词法索引目录）连同其中的文件一起复制
+     */
+    private static void copy(Path source, Path target) throws IOException {
+        if (Files.isDirectory(source)) {
+            Files.createDirectories(target);
+            try (Stream<Path> files = Files.list(source)) {
+                for (Path file : files.toList()) {
+                    copy(file, target.resolve(file.getFileName().toString()));
+                }
+            }
+        } else {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 删除文件，目录（如词法索引目录）连同其中的文件一起删除
+     */
+    static void delete(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.list(path)) {
+                for (Path file : files.toList()) {
+                    delete(file);
+                }
+            }
+        }
+        Files.delete(path);
+    }
+
     // 锁操作辅助方法
     private <T> T withReadLock(IOSupplier<T> supplier) throws IOException {
         lock.readLock().lock();
@@ -5,6 +5,7 @@ import ai.dat.boot.data.SchemaFileState;
 import ai.dat.boot.utils.ProjectUtil;
 import ai.dat.core.contentstore.ContentStore;
 import ai.dat.core.data.project.DatProject;
+import ai.dat.core.factories.SharedModelRegistry;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
@@ -24,7 +25,7 @@ import java.util.stream.Collectors;
  * @Date 2025/7/17
  */
 @Slf4j
-class ContentStoreManager {
+class ContentStoreManager implements AutoCloseable {
 
     private final DatProject project;
 
@@ -32,11 +33,12 @@ class ContentStoreManager {
     private final String stateId;
     private final BuildStateManager stateManager;
 
-    public ContentStoreManager(DatProject project, Path projectPath, String stateId) {
+    public ContentStoreManager(DatProject project, Path projectPath, String stateId,
+                               BuildStateManager stateManager) {
         this.project = project;
         this.stateId = stateId;
         this.contentStore = ProjectUtil.createContentStore(project, projectPath);
-        this.stateManager = new BuildStateManager(projectPath);
+        this.stateManager = stateManager;
     }
 
     public void updateStore(@NonNull List<SchemaFileState> fileStates,
@@ -54,6 +56,8 @@ class ContentStoreManager {
             remove(oldFileStates, fs);
             add(newFileStates, fs);
         });
+        // 持久化变更（如词法索引），每批变更只写一次
+        contentStore.flush();
         // 保存状态
         stateManager.saveBuildState(stateId, newFileStates);
     }
@@ -106,4 +110,11 @@ class ContentStoreManager {
                 .ifPresent(contentStore::removeDocs);
     }
 
-}
\ No newline at end of file
+    /**
+     * 释放内容存储使用的共享模型实例
+     */
+    @Override
+    public void close() {
+        SharedModelRegistry.releaseAll(contentStore);
+    }
+}
@@ -0,0 +1,387 @@
+package ai.dat.boot;
+
+import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.core.adapter.AccelerationRegistry;
+import ai.dat.core.adapter.DatabaseAdapter;
+import ai.dat.core.adapter.QueryResultCache;
+import ai.dat.core.adapter.data.AnsiSqlType;
+import ai.dat.core.adapter.data.Column;
+import ai.dat.core.adapter.data.ColumnMetadata;
+import ai.dat.core.adapter.data.Table;
+import ai.dat.core.contentstore.ContentStore;
+import ai.dat.core.configuration.ReadableConfig;
+import ai.dat.core.data.project.DatProject;
+import ai.dat.core.factories.SharedModelRegistry;
+import ai.dat.core.semantic.data.Acceleration;
+import ai.dat.core.semantic.data.Entity;
+import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.JinjaTemplateUtil;
+import ai.dat.core.utils.SemanticModelUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.sql.parser.SqlParseException;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static ai.dat.core.utils.DatProjectUtil.ACCELERATION_ENABLED;
+import static ai.dat.core.utils.DatProjectUtil.ACCELERATION_REFRESH_INTERVAL;
+
+/**
+ * 本地加速：将开启加速的语义模型数据抽取到项目 .dat 目录下的嵌入式DuckDB文件，并记录抽取状态
+ * （用于路由时的新鲜度检查）。
+ * <p>
+ * 配置了水位线的语义模型增量抽取：只抽取水位线大于上次最大值的数据，有主键实体时按主键替换已有的行
+ * （此时使用大于等于，避免遗漏与上次最大值相同的数据），否则追加。
+ * 未配置水位线、首次抽取、定义指纹变化或指定全量刷新时全量抽取。
+ * 抽取的数据先写入临时表，完成后再替换抽取表，刷新期间查询仍读取上一次的抽取数据。
+ * <p>
+ * 语义模型读取自已构建的内容存储，需要先执行构建。
+ *
+ * @Author JunjieM
+ * @Date 2025/10/26
+ */
+@Slf4j
+public class ProjectAccelerator {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private static final String STAGING_TABLE_SUFFIX = "__staging";
+    private static final int EXTRACT_BATCH_SIZE = 10000;
+
+    /**
+     * 带时区的时间戳水位线的类型，水位线值为UTC时间
+     */
+    private static final String TIMESTAMP_WITH_TIME_ZONE = "TIMESTAMP_WITH_TIME_ZONE";
+
+    private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+    private static final Map<Path, ScheduledFuture<?>> SCHEDULES = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dat-acceleration-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path projectPath;
+    private final Map<String, Object> variables;
+
+    private DatProject project;
+
+    /**
+     * 是否忽略水位线全量抽取
+     */
+    @Setter
+    private boolean fullRefresh = false;
+
+    /**
+     * 是否在控制台输出进度（后台定期刷新时关闭）
+     */
+    @Setter
+    private boolean console = true;
+
+    public ProjectAccelerator(@NonNull Path projectPath, Map<String, Object> variables) {
+        this.projectPath = projectPath;
+        this.variables = Optional.ofNullable(variables).orElse(Collections.emptyMap());
+    }
+
+    public ProjectAccelerator(@NonNull Path projectPath, @NonNull DatProject project,
+                              Map<String, Object> variables) {
+        this(projectPath, variables);
+        this.project = project;
+    }
+
+    /**
+     * 在长期运行的进程（服务、守护进程）内按项目配置的间隔后台刷新加速数据，同一项目只会调度一次。
+     * 首次刷新在一个间隔之后执行（启动时的抽取由 dat accelerate 负责），
+     * 每次刷新重新读取项目配置，关闭加速后跳过刷新
+     */
+    public static void scheduleRefresh(@NonNull DatProject project, @NonNull Path projectPath) {
+        ReadableConfig config = project.getConfiguration();
+        if (!config.get(ACCELERATION_ENABLED)) {
+            return;
+        }
+        Duration interval = config.get(ACCELERATION_REFRESH_INTERVAL);
+        Preconditions.checkArgument(!interval.isNegative(),
+                "'" + ACCELERATION_REFRESH_INTERVAL.key() + "' value cannot be negative");
+        if (interval.isZero()) {
+            return;
+        }
+        SCHEDULES.computeIfAbsent(projectPath.toAbsolutePath().normalize(), path ->
+                SCHEDULER.scheduleWithFixedDelay(() -> {
+                    try {
+                        DatProject current = ProjectUtil.loadProject(path);
+                        if (!current.getConfiguration().get(ACCELERATION_ENABLED)) {
+                            return;
+                        }
+                        ProjectAccelerator accelerator = new ProjectAccelerator(path, current, null);
+                        accelerator.setConsole(false);
+                        accelerator.refreshAll();
+                    } catch (Exception e) {
+                        log.warn("Scheduled acceleration refresh of the project {} failed", path, e);
+                    }
+                }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 停止项目的后台刷新，进行中的刷新会执行完成
+     */
+    public static void cancelRefresh(@NonNull Path projectPath) {
+        ScheduledFuture<?> schedule = SCHEDULES.remove(projectPath.toAbsolutePath().normalize());
+        if (schedule != null) {
+            schedule.cancel(false);
+        }
+    }
+
+    public void refreshAll() {
+        refresh(semanticModel -> true);
+    }
+
+    /**
+     * @param selects 语义模型名称
+     */
+    public void refreshSelect(@NonNull List<String> selects) {
+        refresh(semanticModel -> selects.contains(semanticModel.getName()));
+    }
+
+    /**
+     * @param excludes 语义模型名称
+     */
+    public void refreshExclude(@NonNull List<String> excludes) {
+        refresh(semanticModel -> !excludes.contains(semanticModel.getName()));
+    }
+
+    private void refresh(Predicate<SemanticModel> filter) {
+        if (project == null) {
+            project = ProjectUtil.loadProject(projectPath);
+        }
+        synchronized (LOCKS.computeIfAbsent(projectPath.toAbsolutePath().normalize(), k -> new Object())) {
+            ContentStore contentStore = ProjectUtil.createContentStore(project, projectPath);
+            List<SemanticModel> semanticModels;
+            try {
+                semanticModels = contentStore.allMdls().stream()
+                        .filter(m -> m.getConfig().isAccelerated())
+                        .map(this::render)
+                        .filter(filter)
+                        .toList();
+            } finally {
+                // 只需读取语义模型，释放内容存储使用的共享模型实例（数据库适配器按语句获取并关闭连接，无需释放）
+                SharedModelRegistry.releaseAll(contentStore);
+            }
+
+            DatabaseAdapter source = ProjectUtil.createDatabaseAdapter(project, projectPath);
+            DatabaseAdapter accelerator = ProjectUtil.createAcceleratorDatabaseAdapter(project, projectPath);
+            AccelerationRegistry registry = ProjectUtil.loadAccelerationRegistry(project, projectPath);
+
+            Map<String, AccelerationRegistry.AccelerationState> states = new LinkedHashMap<>();
+            registry.states().forEach(state -> states.put(state.semanticModel(), state));
+
+            log.info("Total accelerated semantic models: {}", semanticModels.size());
+            print("🔢 Total accelerated semantic models: " + semanticModels.size() + "\n");
+            try {
+                for (SemanticModel semanticModel : semanticModels) {
+                    String name = semanticModel.getName();
+                    long startTime = System.currentTimeMillis();
+                    log.info("Extracting '{}'...", name);
+                    print("Extracting '" + name + "' \t");
+                    AccelerationRegistry.AccelerationState state;
+                    try {
+                        state = extract(source, accelerator, semanticModel, states.get(name));
+                    } catch (SqlParseException | SQLException e) {
+                        throw new RuntimeException("Extracting '" + name + "' failed", e);
+                    }
+                    states.put(name, state);
+                    registry.update(state);
+                    // 抽取表写入不经过结果缓存，使引用该语义模型的缓存结果失效
+                    QueryResultCache.invalidateAllSemanticModels(List.of(name));
+                    long endTime = System.currentTimeMillis();
+                    log.info("Successfully extracted '{}' with {} rows in {} ms",
+                            name, state.rowCount(), endTime - startTime);
+                    print("\t[ " + state.rowCount() + " rows, " + (endTime - startTime) + "ms ]\n");
+                }
+            } finally {
+                // 已抽取成功的语义模型即使后续失败也记录状态
+                ProjectUtil.saveAccelerationStates(project, projectPath, states.values());
+            }
+        }
+    }
+
+    private AccelerationRegistry.AccelerationState extract(DatabaseAdapter source, DatabaseAdapter accelerator,
+                                                           SemanticModel semanticModel,
+                                                           AccelerationRegistry.AccelerationState previous)
+            throws SqlParseException, SQLException {
+        String watermark = semanticModel.getConfig().getAcceleration().getWatermark();
+        String table = Acceleration.tableName(semanticModel.getName());
+        String stagingTable = table + STAGING_TABLE_SUFFIX;
+        String fingerprint = AccelerationRegistry.fingerprint(semanticModel);
+        Optional<String> primaryKey = semanticModel.getEntities().stream()
+                .filter(e -> Entity.EntityType.PRIMARY == e.getType())
+                .map(Entity::getName)
+                .findFirst();
+        boolean incremental = !fullRefresh && watermark != null && !watermark.isBlank()
+                              && previous != null && previous.fingerprint().equals(fingerprint)
+                              && previous.watermark() != null;
+
+        String condition = incremental ? watermark + (primaryKey.isPresent() ? " >= " : " > ")
+                                         + literal(previous.watermark(), previous.watermarkType()) : null;
+        String sql = SemanticModelUtil.extractSql(source.semanticAdapter(), semanticModel, watermark, condition);
+
+        List<ColumnMetadata> columnMetadatas = source.getColumnMetadata("SELECT * FROM (" + sql + ") AS "
+                + source.semanticAdapter().quoteIdentifier("__dat_extract") + " WHERE 1 = 0");
+        List<Column> columns = columnMetadatas.stream()
+                .map(c -> new Column(c.getColumnLabel(), duckdbType(c)))
+                .toList();
+        Table staging = new Table(stagingTable, columns);
+        accelerator.initTable(staging, Collections.emptyList());
+        // 流式读取并分批写入，不在内存中保留整个抽取结果
+        List<List<String>> batch = new ArrayList<>(EXTRACT_BATCH_SIZE);
+        source.streamQuery(sql, row -> {
+            batch.add(columnMetadatas.stream().map(c -> text(row.get(c.getColumnLabel()), c)).toList());
+            if (batch.size() >= EXTRACT_BATCH_SIZE) {
+                accelerator.appendTable(staging, batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            accelerator.appendTable(staging, batch);
+        }
+
+        String quotedTable = accelerator.semanticAdapter().quoteIdentifier(table);
+        String quotedStagingTable = accelerator.semanticAdapter().quoteIdentifier(stagingTable);
+        // 在一个事务中合并或替换抽取表，失败时抽取表保持不变，查询不会读到删除了一半或缺失的表
+        List<String> sqls = new ArrayList<>();
+        if (incremental) {
+            if (primaryKey.isPresent()) {
+                String quotedPrimaryKey = accelerator.semanticAdapter().quoteIdentifier(primaryKey.get());
+                sqls.add("DELETE FROM " + quotedTable + " WHERE " + quotedPrimaryKey
+                         + " IN (SELECT " + quotedPrimaryKey + " FROM " + quotedStagingTable + ")");
+            }
+            sqls.add("INSERT INTO " + quotedTable + " SELECT * FROM " + quotedStagingTable);
+            sqls.add("DROP TABLE " + quotedStagingTable);
+        } else {
+            sqls.add("DROP TABLE IF EXISTS " + quotedTable);
+            sqls.add("ALTER TABLE " + quotedStagingTable + " RENAME TO " + quotedTable);
+        }
+        accelerator.executeUpdates(sqls);
+
+        boolean hasWatermark = watermark != null && !watermark.isBlank();
+        Map<String, Object> stats = accelerator.executeQuery("SELECT COUNT(*) AS "
+                + accelerator.semanticAdapter().quoteIdentifier("row_count")
+                + (hasWatermark ? ", MAX(" + accelerator.semanticAdapter()
+                .quoteIdentifier(SemanticModelUtil.WATERMARK_COLUMN_NAME) + ") AS "
+                + accelerator.semanticAdapter().quoteIdentifier("watermark") : "")
+                + " FROM " + quotedTable).get(0);
+        long rowCount = ((Number) stats.get("row_count")).longValue();
+        String maxWatermark = hasWatermark ? text(stats.get("watermark"), null) : null;
+        String watermarkType = hasWatermark ? columnMetadatas.stream()
+                .filter(c -> SemanticModelUtil.WATERMARK_COLUMN_NAME.equals(c.getColumnLabel()))
+                .map(c -> isTimestampWithTimeZone(c) ? TIMESTAMP_WITH_TIME_ZONE : String.valueOf(c.getAnsiSqlType()))
+                .findFirst().orElse(null) : null;
+        return new AccelerationRegistry.AccelerationState(semanticModel.getName(), table, fingerprint,
+                System.currentTimeMillis(), rowCount, maxWatermark, watermarkType);
+    }
+
+    /**
+     * 源数据库的类型映射为DuckDB的类型，二进制等其他类型按字符串保存
+     */
+    private static String duckdbType(ColumnMetadata column) {
+        AnsiSqlType type = Optional.ofNullable(column.getAnsiSqlType()).orElse(AnsiSqlType.UNKNOWN);
+        return switch (type) {
+            case TINYINT, SMALLINT, INTEGER, BIGINT, REAL, DOUBLE, BOOLEAN, DATE, TIME, TIMESTAMP -> type.name();
+            case FLOAT -> "DOUBLE";
+            case DECIMAL, NUMERIC -> column.getPrecision() > 0 && column.getPrecision() <= 38
+                    ? "DECIMAL(" + column.getPrecision() + ","
+                      + Math.max(0, Math.min(column.getScale(), column.getPrecision())) + ")"
+                    : "DOUBLE";
+            default -> "VARCHAR";
+        };
+    }
+
+    /**
+     * 查询结果的值转换为 {@link DatabaseAdapter#initTable} 可以解析的字符串，
+     * 带时区的时间戳统一转换为UTC
+     *
+     * @param column 值所在的列，为null时按值的类型转换
+     */
+    private static String text(Object value, ColumnMetadata column) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof byte[] bytes) {
+            return Base64.getEncoder().encodeToString(bytes);
+        } else if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        } else if (value instanceof LocalDateTime dateTime) {
+            return Timestamp.valueOf(dateTime).toString();
+        } else if (value instanceof OffsetDateTime dateTime) {
+            return utc(dateTime.toInstant());
+        } else if (value instanceof ZonedDateTime dateTime) {
+            return utc(dateTime.toInstant());
+        } else if (value instanceof Instant instant) {
+            return utc(instant);
+        } else if (value instanceof Timestamp timestamp && column != null && isTimestampWithTimeZone(column)) {
+            // 驱动按JVM时区返回带时区的时间戳，还原为UTC
+            return utc(timestamp.toInstant());
+        } else if (value instanceof java.sql.Date || value instanceof java.sql.Time
+                   || value instanceof Timestamp) {
+            return value.toString();
+        } else if (value instanceof Date date) {
+            return new Timestamp(date.getTime()).toString();
+        }
+        return String.valueOf(value);
+    }
+
+    private static String utc(Instant instant) {
+        return Timestamp.valueOf(LocalDateTime.ofInstant(instant, ZoneOffset.UTC)).toString();
+    }
+
+    private static boolean isTimestampWithTimeZone(ColumnMetadata column) {
+        return column.getColumnType() == Types.TIMESTAMP_WITH_TIMEZONE;
+    }
+
+    /**
+     * 水位线值在源数据库方言中的字面量，带时区的时间戳水位线（UTC）显式指定时区
+     */
+    private static String literal(String value, String ansiSqlType) {
+        if (TIMESTAMP_WITH_TIME_ZONE.equals(ansiSqlType)) {
+            return "TIMESTAMP WITH TIME ZONE '" + value + "+00:00'";
+        }
+        AnsiSqlType type = ansiSqlType == null ? AnsiSqlType.UNKNOWN : AnsiSqlType.valueOf(ansiSqlType);
+        return switch (type) {
+            case TINYINT, SMALLINT, INTEGER, BIGINT, DECIMAL, NUMERIC, REAL, DOUBLE, FLOAT -> value;
+            case DATE -> "DATE '" + value + "'";
+            case TIMESTAMP -> "TIMESTAMP '" + value + "'";
+            default -> "'" + value.replace("'", "''") + "'";
+        };
+    }
+
+    private SemanticModel render(SemanticModel m) {
+        try {
+            SemanticModel semanticModel = JSON_MAPPER.readValue(
+                    JSON_MAPPER.writeValueAsString(m), SemanticModel.class);
+            semanticModel.setModel(JinjaTemplateUtil.render(semanticModel.getModel(), variables));
+            return semanticModel;
+        } catch (JsonProcessingException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private void print(String message) {
+        if (console) {
+            System.out.print(message);
+        }
+    }
+}
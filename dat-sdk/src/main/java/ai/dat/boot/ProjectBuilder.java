@@ -3,6 +3,9 @@ package ai.dat.boot;
 import ai.dat.boot.data.FileChanges;
 import ai.dat.boot.data.SchemaFileState;
 import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.core.adapter.QueryResultCache;
+import ai.dat.core.agent.DataPreviewCache;
+import ai.dat.core.agent.SemanticAnswerCache;
 import ai.dat.core.data.project.DatProject;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -22,12 +25,18 @@ public class ProjectBuilder {
 
     private final Path projectPath;
 
+    /**
+     * 构建状态与内容存储本地文件所在目录，为null时使用项目的 .dat 目录
+     */
+    private final Path storeDir;
+
     private DatProject project;
 
     private final BuildStateManager stateManager;
 
     public ProjectBuilder(@NonNull Path projectPath) {
         this.projectPath = projectPath;
+        this.storeDir = null;
         this.stateManager = new BuildStateManager(projectPath);
     }
 
@@ -37,6 +46,20 @@ public class ProjectBuilder {
         this.project = project;
     }
 
+    /**
+     * 构建到指定目录（如项目运行时的新版本目录），构建后项目配置的内容存储指向该目录
+     *
+     * @param storeDir 构建状态与内容存储本地文件所在目录
+     */
+    public ProjectBuilder(@NonNull Path projectPath,
+                          @NonNull DatProject project,
+                          @NonNull Path storeDir) {
+        this.projectPath = projectPath;
+        this.project = project;
+        this.storeDir = storeDir;
+        this.stateManager = BuildStateManager.ofDir(storeDir);
+    }
+
     /**
      * 构建项目
      *
@@ -49,6 +72,10 @@ public class ProjectBuilder {
         }
 
         String fingerprint = ProjectUtil.contentStoreFingerprint(project);
+        if (storeDir != null) {
+            // 指纹按未指定位置的配置计算，与 .dat 目录下的构建状态一致
+            ProjectUtil.locateContentStore(project, storeDir);
+        }
 
         List<SchemaFileState> fileStates = stateManager.loadBuildState(fingerprint);
 
@@ -59,8 +86,15 @@ public class ProjectBuilder {
             // 校验
             new PreBuildValidator(project, projectPath, variables).validate();
             // 更新状态
-            ContentStoreManager storeManager = new ContentStoreManager(project, projectPath, fingerprint);
-            storeManager.updateStore(fileStates, changes);
+            try (ContentStoreManager storeManager =
+                         new ContentStoreManager(project, projectPath, fingerprint, stateManager)) {
+                storeManager.updateStore(fileStates, changes);
+            }
+            // 内容存储已变化，缓存的语义SQL不再可信
+            SemanticAnswerCache.invalidateAll();
+            // 语义模型定义可能已变化，缓存的查询结果同样失效
+            QueryResultCache.invalidateAll();
+            DataPreviewCache.invalidateAll();
         }
         log.info("Incremental build project completed");
     }
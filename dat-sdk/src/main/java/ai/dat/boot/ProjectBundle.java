@@ -0,0 +1,288 @@
+package ai.dat.boot;
+
+import ai.dat.boot.data.BundleManifest;
+import ai.dat.boot.data.BundleManifest.BundleFile;
+import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.core.data.project.DatProject;
+import ai.dat.core.data.project.EmbeddingStoreConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 项目预构建包：将构建产物（构建状态即语义模型目录、DuckDB嵌入存储文件、词法索引）
+ * 按内容存储指纹打包为带版本与校验和的单个文件。
+ * <p>
+ * 服务实例启动时安装预构建包后直接运行，跳过变化分析、数据库校验与向量化，
+ * 水平扩容只需复制文件。嵌入存储为外部服务（如pgvector、Milvus）时，
+ * 向量数据本就由各实例共享，预构建包只包含构建状态与词法索引
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Slf4j
+public class ProjectBundle {
+
+    /**
+     * 预构建包格式版本，格式不兼容时递增
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String MANIFEST_ENTRY_NAME = "manifest.json";
+    private static final String FILE_ENTRY_PREFIX = "files/";
+    /**
+     * 已安装的预构建包清单，用于重复启动时跳过解压
+     */
+    private static final String INSTALLED_MANIFEST_FILE_PREFIX = "bundle_";
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Path projectPath;
+
+    private final Path datDir;
+
+    private DatProject project;
+
+    private final BuildStateManager stateManager;
+
+    public ProjectBundle(@NonNull Path projectPath) {
+        this.projectPath = projectPath;
+        this.datDir = projectPath.resolve(ProjectUtil.DAT_DIR_NAME);
+        this.stateManager = new BuildStateManager(projectPath);
+    }
+
+    public ProjectBundle(@NonNull Path projectPath,
+                         @NonNull DatProject project) {
+        this(projectPath);
+        this.project = project;
+    }
+
+    /**
+     * 导出当前配置的构建产物为预构建包（需先构建项目）
+     *
+     * @param bundleFile 预构建包文件
+     * @return 预构建包清单
+     */
+    public BundleManifest export(@NonNull Path bundleFile) throws IOException {
+        log.info("Start export the project bundle: {}", bundleFile);
+        DatProject datProject = project();
+        String fingerprint = ProjectUtil.contentStoreFingerprint(datProject);
+        List<Path> files = bundledFiles(datProject, fingerprint);
+        if (files.stream().noneMatch(file -> file.equals(stateManager.getStateFile(fingerprint)))) {
+            throw new IllegalStateException("The project has not been built with the current configuration, "
+                    + "please build the project first");
+        }
+        List<BundleFile> bundleFiles = new ArrayList<>();
+        for (Path file : files) {
+            try (InputStream in = Files.newInputStream(file)) {
+                bundleFiles.add(new BundleFile(relativePath(file), Files.size(file), DigestUtils.sha256Hex(in)));
+            }
+        }
+        BundleManifest manifest = BundleManifest.builder()
+                .formatVersion(FORMAT_VERSION)
+                .projectName(datProject.getName())
+                .fingerprint(fingerprint)
+                .embeddingStoreProvider(datProject.getEmbeddingStore().getProvider())
+                .createdAt(System.currentTimeMillis())
+                .files(bundleFiles)
+                .build();
+        Path parent = bundleFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tempFile = Files.createTempFile(parent, bundleFile.getFileName().toString(), ".tmp");
+        try {
+            try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(tempFile))) {
+                out.putNextEntry(new ZipEntry(MANIFEST_ENTRY_NAME));
+                out.write(JSON_MAPPER.writeValueAsBytes(manifest));
+                out.closeEntry();
+                for (Path file : files) {
+                    out.putNextEntry(new ZipEntry(FILE_ENTRY_PREFIX + relativePath(file)));
+                    Files.copy(file, out);
+                    out.closeEntry();
+                }
+            }
+            Files.move(tempFile, bundleFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        log.info("Export the project bundle completed, fingerprint: {}, files: {}", fingerprint, bundleFiles.size());
+        return manifest;
+    }
+
+    /**
+     * 安装预构建包到项目的 .dat 目录（校验格式版本、内容存储指纹与每个文件的校验和），
+     * 已安装相同的预构建包时跳过
+     *
+     * @param bundleFile 预构建包文件
+     * @return 预构建包清单
+     */
+    public BundleManifest install(@NonNull Path bundleFile) throws IOException {
+        log.info("Start install the project bundle: {}", bundleFile);
+        try (ZipFile zipFile = new ZipFile(bundleFile.toFile())) {
+            ZipEntry manifestEntry = zipFile.getEntry(MANIFEST_ENTRY_NAME);
+            if (manifestEntry == null) {
+                throw new IllegalArgumentException("The file " + bundleFile + " is not a DAT project bundle");
+            }
+            BundleManifest manifest;
+            try (InputStream in = zipFile.getInputStream(manifestEntry)) {
+                manifest = JSON_MAPPER.readValue(in, BundleManifest.class);
+            }
+            if (manifest.getFormatVersion() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported project bundle format version: "
+                        + manifest.getFormatVersion() + ", expected: " + FORMAT_VERSION);
+            }
+            String fingerprint = ProjectUtil.contentStoreFingerprint(project());
+            if (!fingerprint.equals(manifest.getFingerprint())) {
+                throw new IllegalArgumentException("The project bundle was built for the content store fingerprint "
+                        + manifest.getFingerprint() + ", but the project's is " + fingerprint
+                        + ", the embedding, embedding store or content store configuration is different");
+            }
+            if (isInstalled(manifest)) {
+                log.info("The project bundle has been installed, fingerprint: {}", fingerprint);
+                return manifest;
+            }
+            Files.createDirectories(datDir);
+            Path installedManifestFile = installedManifestFile(fingerprint);
+            Files.deleteIfExists(installedManifestFile);
+            // 先清理旧的构建产物，避免残留文件（如DuckDB的WAL）与预构建包的数据混在一起
+            for (Path file : bundledFiles(project(), fingerprint)) {
+                Files.delete(file);
+            }
+            for (BundleFile file : manifest.getFiles()) {
+                extract(zipFile, file);
+            }
+            JSON_MAPPER.writeValue(installedManifestFile.toFile(), manifest);
+            log.info("Install the project bundle completed, fingerprint: {}, files: {}",
+                    fingerprint, manifest.getFiles().size());
+            return manifest;
+        }
+    }
+
+    private void extract(ZipFile zipFile, BundleFile file) throws IOException {
+        Path target = datDir.resolve(file.getRelativePath()).normalize();
+        if (!target.startsWith(datDir.normalize())) {
+            throw new IllegalArgumentException("Illegal file path in the project bundle: " + file.getRelativePath());
+        }
+        ZipEntry entry = zipFile.getEntry(FILE_ENTRY_PREFIX + file.getRelativePath());
+        if (entry == null) {
+            throw new IllegalArgumentException("The project bundle is missing the file: " + file.getRelativePath());
+        }
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            MessageDigest digest = DigestUtils.getSha256Digest();
+            long size;
+            try (InputStream in = new DigestInputStream(zipFile.getInputStream(entry), digest);
+                 OutputStream out = Files.newOutputStream(tempFile)) {
+                size = in.transferTo(out);
+            }
+            String sha256Hash = HexFormat.of().formatHex(digest.digest());
+            if (size != file.getSize() || !sha256Hash.equals(file.getSha256Hash())) {
+                throw new IOException("The checksum of the file " + file.getRelativePath()
+                        + " in the project bundle does not match, the bundle may be corrupted");
+            }
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private boolean isInstalled(BundleManifest manifest) throws IOException {
+        Path installedManifestFile = installedManifestFile(manifest.getFingerprint());
+        if (!Files.exists(installedManifestFile)) {
+            return false;
+        }
+        BundleManifest installed;
+        try {
+            installed = JSON_MAPPER.readValue(installedManifestFile.toFile(), BundleManifest.class);
+        } catch (IOException e) {
+            log.warn("The installed project bundle manifest {} loading failed", installedManifestFile, e);
+            return false;
+        }
+        if (!manifest.equals(installed)) {
+            return false;
+        }
+        // 构建产物可能已被清理或重新构建
+        for (BundleFile file : manifest.getFiles()) {
+            Path path = datDir.resolve(file.getRelativePath());
+            if (!Files.isRegularFile(path) || Files.size(path) != file.getSize()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 当前配置的构建产物：构建状态、默认位置的DuckDB嵌入存储文件（含WAL）与词法索引目录中的文件
+     */
+    private List<Path> bundledFiles(DatProject datProject, String fingerprint) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(datDir)) {
+            return files;
+        }
+        Path stateFile = stateManager.getStateFile(fingerprint);
+        if (Files.isRegularFile(stateFile)) {
+            files.add(stateFile);
+        }
+        EmbeddingStoreConfig embeddingStore = datProject.getEmbeddingStore();
+        String prefix = ProjectUtil.DUCKDB_EMBEDDING_STORE_FILE_PREFIX + fingerprint;
+        Path defaultStoreFile = datDir.resolve(prefix).toAbsolutePath().normalize();
+        // 只打包默认位置（.dat目录下）的DuckDB嵌入存储文件
+        if (EmbeddingStoreConfig.DUCKDB_PROVIDER.equals(embeddingStore.getProvider())
+                && embeddingStore.getConfiguration().getOptional(EmbeddingStoreConfig.DUCKDB_FILE_PATH)
+                .map(path -> Path.of(path).toAbsolutePath().normalize().equals(defaultStoreFile))
+                .orElse(true)) {
+            try (Stream<Path> paths = Files.list(datDir)) {
+                paths.filter(path -> Files.isRegularFile(path) && path.getFileName().toString().startsWith(prefix))
+                        .sorted()
+                        .forEach(files::add);
+            }
+        } else {
+            log.info("The embeddings are kept in the {} embedding store, which is not included in the project bundle",
+                    embeddingStore.getProvider());
+        }
+        Path lexicalIndexDir = datDir.resolve(ProjectUtil.LEXICAL_INDEX_DIR_PREFIX + fingerprint);
+        if (Files.isDirectory(lexicalIndexDir)) {
+            try (Stream<Path> paths = Files.walk(lexicalIndexDir)) {
+                paths.filter(Files::isRegularFile)
+                        .sorted(Comparator.naturalOrder())
+                        .forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    private String relativePath(Path file) {
+        return datDir.relativize(file).toString().replace('\\', '/');
+    }
+
+    private Path installedManifestFile(String fingerprint) {
+        return datDir.resolve(INSTALLED_MANIFEST_FILE_PREFIX + fingerprint + ".json");
+    }
+
+    private DatProject project() {
+        if (project == null) {
+            project = ProjectUtil.loadProject(projectPath);
+        }
+        return project;
+    }
+}
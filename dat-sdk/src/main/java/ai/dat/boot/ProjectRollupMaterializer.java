@@ -0,0 +1,136 @@
+package ai.dat.boot;
+
+import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.core.adapter.DatabaseAdapter;
+import ai.dat.core.contentstore.ContentStore;
+import ai.dat.core.data.project.DatProject;
+import ai.dat.core.semantic.RollupRegistry;
+import ai.dat.core.semantic.data.Rollup;
+import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.JinjaTemplateUtil;
+import ai.dat.core.utils.SemanticModelUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.sql.parser.SqlParseException;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 将语义模型声明的rollup物化到目标数据库，并记录物化状态（用于路由时的新鲜度检查）。
+ * <p>
+ * 语义模型读取自已构建的内容存储，需要先执行构建。
+ *
+ * @Author JunjieM
+ * @Date 2025/10/25
+ */
+@Slf4j
+public class ProjectRollupMaterializer {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private final Path projectPath;
+    private final Map<String, Object> variables;
+
+    private DatProject project;
+
+    public ProjectRollupMaterializer(@NonNull Path projectPath, Map<String, Object> variables) {
+        this.projectPath = projectPath;
+        this.variables = Optional.ofNullable(variables).orElse(Collections.emptyMap());
+    }
+
+    public ProjectRollupMaterializer(@NonNull Path projectPath, @NonNull DatProject project,
+                                     Map<String, Object> variables) {
+        this(projectPath, variables);
+        this.project = project;
+    }
+
+    public void materializeAll() {
+        materialize(rollup -> true);
+    }
+
+    /**
+     * @param selects rollup名称或"语义模型名称.rollup名称"
+     */
+    public void materializeSelect(@NonNull List<String> selects) {
+        materialize(named -> named.matches(selects));
+    }
+
+    /**
+     * @param excludes rollup名称或"语义模型名称.rollup名称"
+     */
+    public void materializeExclude(@NonNull List<String> excludes) {
+        materialize(named -> !named.matches(excludes));
+    }
+
+    private void materialize(Predicate<NamedRollup> filter) {
+        if (project == null) {
+            project = ProjectUtil.loadProject(projectPath);
+        }
+        ContentStore contentStore = ProjectUtil.createContentStore(project, projectPath);
+        List<NamedRollup> rollups = contentStore.allMdls().stream()
+                .map(this::render)
+                .flatMap(model -> model.getRollups().stream().map(rollup -> new NamedRollup(model, rollup)))
+                .filter(filter)
+                .toList();
+
+        DatabaseAdapter databaseAdapter = ProjectUtil.createDatabaseAdapter(project, projectPath);
+
+        Map<String, RollupRegistry.RollupState> states = new LinkedHashMap<>();
+        ProjectUtil.loadRollupStates(project, projectPath)
+                .forEach(state -> states.put(state.semanticModel() + "." + state.rollup(), state));
+
+        log.info("Total rollups: {}", rollups.size());
+        System.out.println("🔢 Total rollups: " + rollups.size());
+        try {
+            for (NamedRollup named : rollups) {
+                String name = named.semanticModel.getName() + "." + named.rollup.getName();
+                String table = named.rollup.tableName(named.semanticModel.getName());
+                long startTime = System.currentTimeMillis();
+                log.info("Materializing '{}' into '{}'...", name, table);
+                System.out.print("Materializing '" + name + "' into '" + table + "' \t");
+                long rowCount;
+                try {
+                    String sql = SemanticModelUtil.rollupSql(databaseAdapter.semanticAdapter(),
+                            named.semanticModel, named.rollup);
+                    rowCount = databaseAdapter.createTableAs(table, sql);
+                } catch (SqlParseException | SQLException | RuntimeException e) {
+                    // 物化失败时不再记录该rollup的状态，路由不再使用它，直到下次物化成功
+                    states.remove(name);
+                    throw new RuntimeException("Materializing '" + name + "' failed", e);
+                }
+                long endTime = System.currentTimeMillis();
+                states.put(name, new RollupRegistry.RollupState(named.semanticModel.getName(),
+                        named.rollup.getName(), table, RollupRegistry.fingerprint(named.semanticModel, named.rollup),
+                        endTime, rowCount));
+                log.info("Successfully materialized '{}' with {} rows in {} ms", name, rowCount, endTime - startTime);
+                System.out.println("\t[ " + rowCount + " rows, " + (endTime - startTime) + "ms ]");
+            }
+        } finally {
+            // 已物化成功的rollup即使后续失败也记录状态，失败的rollup已移除状态
+            ProjectUtil.saveRollupStates(project, projectPath, states.values());
+        }
+    }
+
+    private SemanticModel render(SemanticModel m) {
+        try {
+            SemanticModel semanticModel = JSON_MAPPER.readValue(
+                    JSON_MAPPER.writeValueAsString(m), SemanticModel.class);
+            semanticModel.setModel(JinjaTemplateUtil.render(semanticModel.getModel(), variables));
+            return semanticModel;
+        } catch (JsonProcessingException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private record NamedRollup(SemanticModel semanticModel, Rollup rollup) {
+        boolean matches(List<String> names) {
+            return names.contains(rollup.getName())
+                   || names.contains(semanticModel.getName() + "." + rollup.getName());
+        }
+    }
+}
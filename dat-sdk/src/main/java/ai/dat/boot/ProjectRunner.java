@@ -2,11 +2,13 @@ package ai.dat.boot;
 
 import ai.dat.boot.utils.ProjectUtil;
 import ai.dat.core.agent.AskdataAgent;
+import ai.dat.core.agent.ConcurrencyGovernor;
 import ai.dat.core.agent.data.StreamAction;
 import ai.dat.core.contentstore.ContentStore;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
 import ai.dat.core.data.project.AgentConfig;
 import ai.dat.core.data.project.DatProject;
+import ai.dat.core.factories.SharedModelRegistry;
 import ai.dat.core.semantic.data.SemanticModel;
 import com.google.common.base.Preconditions;
 import lombok.Getter;
@@ -14,6 +16,7 @@ import lombok.NonNull;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -23,23 +26,49 @@ import java.util.stream.Collectors;
  * @Date 2025/7/21
  */
 @Getter
-public class ProjectRunner {
+public class ProjectRunner implements AutoCloseable {
 
     private final AskdataAgent agent;
 
+    private final ConcurrencyGovernor governor;
+
     public ProjectRunner(@NonNull Path projectPath, @NonNull String agentName,
                          Map<String, Object> variables) {
-        DatProject project = ProjectUtil.loadProject(projectPath);
+        this(projectPath, agentName, variables, true);
+    }
+
+    /**
+     * @param build 是否先增量构建项目，已安装预构建包（{@link ProjectBundle}）时可跳过
+     */
+    public ProjectRunner(@NonNull Path projectPath, @NonNull String agentName,
+                         Map<String, Object> variables, boolean build) {
+        this(projectPath, ProjectUtil.loadProject(projectPath), agentName, variables, build);
+    }
+
+    /**
+     * 使用已加载（已构建）的项目配置创建运行时，不再构建项目，由 {@link ProjectRuntime} 使用
+     */
+    public ProjectRunner(@NonNull Path projectPath, @NonNull DatProject project,
+                         @NonNull String agentName, Map<String, Object> variables) {
+        this(projectPath, project, agentName, variables, false);
+    }
+
+    private ProjectRunner(Path projectPath, DatProject project, String agentName,
+                          Map<String, Object> variables, boolean build) {
         Map<String, AgentConfig> agentMap = project.getAgents().stream()
                 .collect(Collectors.toMap(AgentConfig::getName, o -> o));
         Preconditions.checkArgument(agentMap.containsKey(agentName),
                 "The project doesn't exist agent: " + agentName);
-        ProjectBuilder builder = new ProjectBuilder(projectPath, project);
-        try {
-            builder.build(variables);
-        } catch (IOException e) {
-            throw new RuntimeException("The project build failed", e);
+        if (build) {
+            ProjectBuilder builder = new ProjectBuilder(projectPath, project);
+            try {
+                builder.build(variables);
+            } catch (IOException e) {
+                throw new RuntimeException("The project build failed", e);
+            }
         }
+        ProjectUtil.configureAgentExecutor(project);
+        this.governor = ProjectUtil.createConcurrencyGovernor(project, agentName);
         this.agent = ProjectUtil.createAskdataAgent(project, agentName, projectPath, variables);
     }
 
@@ -49,11 +78,24 @@ public class ProjectRunner {
     }
 
     public StreamAction ask(@NonNull String question) {
-        return agent.ask(question);
+        return ask(question, Collections.emptyList());
     }
 
+    /**
+     * 提问，超出Agent并发上限时在有界队列中等待
+     *
+     * @throws ai.dat.core.exception.BusyException 等待队列已满或等待超时
+     */
     public StreamAction ask(@NonNull String question, @NonNull List<QuestionSqlPair> histories) {
-        return agent.ask(question, histories);
+        ConcurrencyGovernor.Permit permit = governor.acquire();
+        try {
+            StreamAction action = agent.ask(question, histories);
+            action.onFinished(permit::release);
+            return action;
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
     }
 
     public void userResponse(@NonNull String response) {
@@ -63,4 +105,20 @@ public class ProjectRunner {
     public void userApproval(@NonNull Boolean approval) {
         agent.userApproval(approval);
     }
-}
\ No newline at end of file
+
+    /**
+     * 清空Agent的会话状态，运行时被新的会话复用前调用
+     */
+    public void reset() {
+        agent.reset();
+    }
+
+    /**
+     * 释放Agent与内容存储使用的共享模型实例
+     */
+    @Override
+    public void close() {
+        SharedModelRegistry.releaseAll(agent);
+        SharedModelRegistry.releaseAll(agent.contentStore());
+    }
+}
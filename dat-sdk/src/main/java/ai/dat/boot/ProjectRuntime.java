@@ -0,0 +1,382 @@
+package ai.dat.boot;
+
+import ai.dat.boot.data.ProjectReloadEvent;
+import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.core.adapter.QueryResultCache;
+import ai.dat.core.agent.DataPreviewCache;
+import ai.dat.core.agent.SemanticAnswerCache;
+import ai.dat.core.data.project.DatProject;
+import ai.dat.core.metrics.DatMetrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * 长期运行的项目运行时（服务使用）：启动时构建一次并缓存项目配置，
+ * 监听项目配置文件与 models 目录的变化，防抖后在后台线程增量构建，
+ * 成功后切换到新版本的项目配置（内容存储与语义模型目录随之生效）。
+ * <p>
+ * 重载不修改当前版本的内容存储：先将当前版本的构建状态与本地内容存储（向量存储、词法索引）
+ * 复制到 .dat/generations 下的新版本目录，在其中增量构建，成功后通过一次volatile写切换
+ * 项目配置与内容存储的快照，因此重载期间问数与运行时的创建无需等待。
+ * 已创建的运行时继续使用旧版本，调用方按 {@link #generation()} 判断运行时是否过期，在会话空闲时重新创建；
+ * 上一版本的目录保留给仍在使用旧运行时的问数，更早的版本目录在切换后删除。
+ * 使用外部向量存储（如 pgvector）时向量数据仍在原处更新。
+ * 重载失败时删除新版本目录并继续使用旧版本，耗时与结果记录为指标 {@link DatMetrics#PROJECT_RELOAD} 并通知监听器
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Slf4j
+public class ProjectRuntime implements AutoCloseable {
+
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(500);
+
+    /**
+     * 重载构建的新版本内容存储所在目录（位于 .dat 目录下）
+     */
+    private static final String GENERATIONS_DIR_NAME = "generations";
+
+    private final Path projectPath;
+
+    private final Path generationsPath;
+
+    private final Path modelsPath;
+
+    private final Map<String, Object> variables;
+
+    private final Duration debounce;
+
+    private volatile Snapshot snapshot;
+
+    private volatile ProjectReloadEvent lastReload;
+
+    private final List<Consumer<ProjectReloadEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private final Set<String> pendingChanges = new TreeSet<>();
+
+    private final ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dat-project-reloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ScheduledFuture<?> pendingReload;
+
+    private final Object reloadLock = new Object();
+
+    /**
+     * 上一版本的内容存储目录，下一次切换后删除（由 reloadLock 保护）
+     */
+    private Path retiredStoreDir;
+
+    private WatchService watchService;
+
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+
+    /**
+     * @param build 是否在启动时增量构建项目，已安装预构建包（{@link ProjectBundle}）时可跳过
+     */
+    public ProjectRuntime(@NonNull Path projectPath, Map<String, Object> variables,
+                          boolean build, @NonNull Duration debounce) {
+        this.projectPath = projectPath;
+        this.modelsPath = projectPath.resolve(ProjectUtil.MODELS_DIR_NAME);
+        this.generationsPath = projectPath.resolve(ProjectUtil.DAT_DIR_NAME).resolve(GENERATIONS_DIR_NAME);
+        this.variables = variables == null ? Collections.emptyMap() : variables;
+        this.debounce = debounce;
+        DatProject project = ProjectUtil.loadProject(projectPath);
+        if (build) {
+            try {
+                new ProjectBuilder(projectPath, project).build(this.variables);
+            } catch (IOException e) {
+                throw new RuntimeException("The project build failed", e);
+            }
+        }
+        // 首个版本使用 .dat 目录下的内容存储（与 dat build 及预构建包一致）
+        Path storeDir = projectPath.resolve(ProjectUtil.DAT_DIR_NAME);
+        ProjectUtil.locateContentStore(project, storeDir);
+        this.snapshot = new Snapshot(project, storeDir, 1);
+        ProjectAccelerator.scheduleRefresh(project, projectPath);
+    }
+
+    public DatProject project() {
+        return snapshot.project();
+    }
+
+    /**
+     * 当前项目配置的版本号，每次重载成功后递增
+     */
+    public long generation() {
+        return snapshot.generation();
+    }
+
+    public ProjectReloadEvent lastReload() {
+        return lastReload;
+    }
+
+    public void addListener(@NonNull Consumer<ProjectReloadEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 使用当前版本的项目配置创建Agent运行时，运行时在其生命周期内固定使用该版本
+     *
+     * @return 运行时与其使用的项目配置版本号
+     */
+    public Lease createRunner(@NonNull String agentName) {
+        Snapshot current = snapshot;
+        return new Lease(new ProjectRunner(projectPath, current.project(), agentName, variables),
+                current.generation());
+    }
+
+    /**
+     * 开始监听项目文件变化
+     */
+    public synchronized void watch() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        register(projectPath);
+        registerAll(modelsPath);
+        Thread watcher = new Thread(this::processEvents, "dat-project-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching the project {} for changes, debounce: {}ms", projectPath, debounce.toMillis());
+    }
+
+    /**
+     * 立即重载项目（同步执行）
+     */
+    public ProjectReloadEvent reload() {
+        List<String> changedFiles;
+        synchronized (pendingChanges) {
+            changedFiles = new ArrayList<>(pendingChanges);
+            pendingChanges.clear();
+        }
+        return doReload(changedFiles);
+    }
+
+    private ProjectReloadEvent doReload(List<String> changedFiles) {
+        synchronized (reloadLock) {
+            return build(changedFiles);
+        }
+    }
+
+    private ProjectReloadEvent build(List<String> changedFiles) {
+        log.info("Start reload project, changed files: {}", changedFiles);
+        Timer.Sample sample = Timer.start(DatMetrics.registry());
+        long startTime = System.currentTimeMillis();
+        String outcome = DatMetrics.ERROR;
+        ProjectReloadEvent.ProjectReloadEventBuilder event = ProjectReloadEvent.builder()
+                .changedFiles(changedFiles);
+        Path storeDir = null;
+        try {
+            DatProject project = ProjectUtil.loadProject(projectPath);
+            Snapshot current = snapshot;
+            long generation = current.generation() + 1;
+            Files.createDirectories(generationsPath);
+            storeDir = Files.createTempDirectory(generationsPath, generation + "-");
+            // 从当前版本复制相同配置（指纹）的构建状态与内容存储，在副本上增量构建
+            BuildStateManager.ofDir(current.storeDir())
+                    .copyState(ProjectUtil.contentStoreFingerprint(project), storeDir);
+            new ProjectBuilder(projectPath, project, storeDir).build(variables);
+            snapshot = new Snapshot(project, storeDir, generation);
+            retire(current.storeDir());
+            // 构建期间旧版本的问数可能写入了缓存
+            SemanticAnswerCache.invalidateAll();
+            QueryResultCache.invalidateAll();
+            DataPreviewCache.invalidateAll();
+            event.success(true).generation(generation);
+            outcome = DatMetrics.SUCCESS;
+            log.info("Reload project completed, generation: {}, store: {}", generation, storeDir);
+        } catch (Exception e) {
+            if (storeDir != null && snapshot.storeDir() != storeDir) {
+                deleteQuietly(storeDir);
+            }
+            event.success(false).generation(snapshot.generation()).error(e.getMessage());
+            log.error("Reload project failed, keep using generation: {}", snapshot.generation(), e);
+        } finally {
+            sample.stop(DatMetrics.timer(DatMetrics.PROJECT_RELOAD, "outcome", outcome));
+        }
+        long endTime = System.currentTimeMillis();
+        ProjectReloadEvent reloadEvent = event.durationMillis(endTime - startTime).timestamp(endTime).build();
+        lastReload = reloadEvent;
+        for (Consumer<ProjectReloadEvent> listener : listeners) {
+            try {
+                listener.accept(reloadEvent);
+            } catch (Exception e) {
+                log.warn("The project reload listener failed", e);
+            }
+        }
+        return reloadEvent;
+    }
+
+    /**
+     * 保留上一版本的目录供旧运行时使用，删除更早的版本目录（.dat 目录本身不删除）
+     */
+    private void retire(Path storeDir) {
+        if (retiredStoreDir != null) {
+            deleteQuietly(retiredStoreDir);
+        }
+        retiredStoreDir = storeDir.startsWith(generationsPath) ? storeDir : null;
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try {
+            BuildStateManager.delete(dir);
+        } catch (IOException e) {
+            log.warn("Failed to delete the content store directory: {}", dir, e);
+        }
+    }
+
+    private void processEvents() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir;
+            synchronized (this) {
+                dir = watchedDirs.get(key);
+            }
+            if (dir != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        scheduleReload(ProjectUtil.MODELS_DIR_NAME);
+                        continue;
+                    }
+                    Path path = dir.resolve((Path) event.context());
+                    if (isRelevant(path)) {
+                        if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                            registerAllQuietly(path);
+                        }
+                        scheduleReload(projectPath.relativize(path).toString().replace('\\', '/'));
+                    }
+                }
+            }
+            if (!key.reset()) {
+                synchronized (this) {
+                    watchedDirs.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 项目根目录下只关心项目配置文件与 models 目录，models 目录下的所有变化都需要重载
+     */
+    private boolean isRelevant(Path path) {
+        if (path.startsWith(modelsPath)) {
+            return true;
+        }
+        String fileName = path.getFileName().toString();
+        return ProjectUtil.PROJECT_CONFIG_FILE_NAME_YAML.equals(fileName)
+                || ProjectUtil.PROJECT_CONFIG_FILE_NAME_YML.equals(fileName);
+    }
+
+    private void scheduleReload(String changedFile) {
+        synchronized (pendingChanges) {
+            pendingChanges.add(changedFile);
+            // 防抖：编辑器保存、git checkout 等会在短时间内产生多个事件，只在静默后重载一次
+            if (pendingReload != null) {
+                pendingReload.cancel(false);
+            }
+            pendingReload = reloader.schedule(() -> {
+                reload();
+            }, debounce.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void registerAllQuietly(Path dir) {
+        try {
+            registerAll(dir);
+        } catch (IOException e) {
+            log.warn("Failed to watch the directory: {}", dir, e);
+        }
+    }
+
+    private void registerAll(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.filter(Files::isDirectory).toList()) {
+                register(path);
+            }
+        }
+    }
+
+    private synchronized void register(Path dir) throws IOException {
+        WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        watchedDirs.put(key, dir);
+    }
+
+    @Override
+    public void close() {
+        reloader.shutdownNow();
+        ProjectAccelerator.cancelRefresh(projectPath);
+        synchronized (reloadLock) {
+            // 运行时已随服务关闭，删除本进程构建的版本目录
+            if (retiredStoreDir != null) {
+                deleteQuietly(retiredStoreDir);
+                retiredStoreDir = null;
+            }
+            if (snapshot.storeDir().startsWith(generationsPath)) {
+                deleteQuietly(snapshot.storeDir());
+            }
+        }
+        synchronized (this) {
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close the project watch service", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 项目配置与其内容存储目录，整体替换
+     */
+    private record Snapshot(DatProject project, Path storeDir, long generation) {
+    }
+
+    /**
+     * 借出的Agent运行时及其使用的项目配置版本号
+     */
+    public record Lease(ProjectRunner runner, long generation) {
+    }
+}
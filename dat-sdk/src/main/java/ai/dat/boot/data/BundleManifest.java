@@ -0,0 +1,74 @@
+package ai.dat.boot.data;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 预构建包清单
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BundleManifest {
+    /**
+     * 预构建包格式版本
+     */
+    private int formatVersion;
+
+    /**
+     * 项目名称
+     */
+    private String projectName;
+
+    /**
+     * 内容存储指纹，预构建包只能用于指纹相同的项目配置
+     */
+    private String fingerprint;
+
+    /**
+     * 嵌入存储提供者
+     */
+    private String embeddingStoreProvider;
+
+    /**
+     * 创建时间（毫秒时间戳）
+     */
+    private long createdAt;
+
+    /**
+     * 包含的文件
+     */
+    private List<BundleFile> files;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BundleFile {
+        /**
+         * 相对于 .dat 目录的路径
+         */
+        private String relativePath;
+
+        /**
+         * 文件大小（字节）
+         */
+        private long size;
+
+        /**
+         * 文件的SHA-256哈希值
+         */
+        private String sha256Hash;
+    }
+}
@@ -0,0 +1,52 @@
+package ai.dat.boot.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 项目热重载事件
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProjectReloadEvent {
+    /**
+     * 重载后生效的项目版本号，失败时为仍在使用的版本号
+     */
+    private long generation;
+
+    /**
+     * 是否重载成功，失败时继续使用旧版本
+     */
+    private boolean success;
+
+    /**
+     * 触发重载的文件（相对项目根目录）
+     */
+    private List<String> changedFiles;
+
+    /**
+     * 重载耗时（毫秒）
+     */
+    private long durationMillis;
+
+    /**
+     * 失败原因
+     */
+    private String error;
+
+    /**
+     * 重载完成时间
+     */
+    private long timestamp;
+}
@@ -1,21 +1,34 @@
 package ai.dat.boot.utils;
 
+import ai.dat.core.adapter.AcceleratedDatabaseAdapter;
+import ai.dat.core.adapter.AccelerationRegistry;
+import ai.dat.core.adapter.CachingDatabaseAdapter;
 import ai.dat.core.adapter.DatabaseAdapter;
+import ai.dat.core.adapter.GenericSqlDatabaseAdapter;
+import ai.dat.core.adapter.QueryResultCache;
+import ai.dat.core.agent.AbstractAskdataAgent;
 import ai.dat.core.agent.AskdataAgent;
+import ai.dat.core.agent.ConcurrencyGovernor;
+import ai.dat.core.configuration.ReadableConfig;
 import ai.dat.core.contentstore.ContentStore;
+import ai.dat.core.conversation.ConversationStore;
 import ai.dat.core.data.DatModel;
 import ai.dat.core.data.DatSchema;
 import ai.dat.core.data.DatSeed;
+import ai.dat.core.configuration.Configuration;
 import ai.dat.core.data.project.*;
 import ai.dat.core.exception.ValidationException;
 import ai.dat.core.factories.*;
 import ai.dat.core.factories.data.FactoryDescriptor;
+import ai.dat.core.semantic.RollupRegistry;
 import ai.dat.core.semantic.data.SemanticModel;
+import ai.dat.core.utils.ComponentInitializer;
 import ai.dat.core.utils.DatProjectUtil;
 import ai.dat.core.utils.DatSchemaUtil;
 import ai.dat.core.utils.FactoryUtil;
 import ai.dat.core.utils.SemanticModelUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
 import lombok.NonNull;
@@ -29,10 +42,25 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static ai.dat.core.utils.DatProjectUtil.ACCELERATION_ENABLED;
+import static ai.dat.core.utils.DatProjectUtil.ACCELERATION_MAX_STALENESS;
+import static ai.dat.core.utils.DatProjectUtil.AGENT_EXECUTOR_MAX_THREADS;
+import static ai.dat.core.utils.DatProjectUtil.AGENT_EXECUTOR_MODE;
+import static ai.dat.core.utils.DatProjectUtil.AGENT_MAX_CONCURRENT_ASKS;
+import static ai.dat.core.utils.DatProjectUtil.AGENT_MAX_QUEUED_ASKS;
+import static ai.dat.core.utils.DatProjectUtil.AGENT_QUEUE_TIMEOUT;
+import static ai.dat.core.utils.DatProjectUtil.RESULT_CACHE_ENABLED;
+import static ai.dat.core.utils.DatProjectUtil.RESULT_CACHE_MAX_SIZE;
+import static ai.dat.core.utils.DatProjectUtil.RESULT_CACHE_TTL;
+import static ai.dat.core.utils.DatProjectUtil.SEMANTIC_PUSHDOWN;
+import static ai.dat.core.utils.DatProjectUtil.SEMANTIC_ROLLUP_MAX_STALENESS;
+import static ai.dat.core.utils.DatProjectUtil.SEMANTIC_ROLLUP_ROUTING;
 import static java.util.stream.Collectors.joining;
 
 @Slf4j
@@ -53,6 +81,15 @@ public class ProjectUtil {
     public final static String DUCKDB_EMBEDDING_STORE_FILE_PREFIX = "embeddings_";
     public final static String DUCKDB_DATABASE_FILE_NAME = "duckdb";
 
+    public final static String LEXICAL_INDEX_DIR_PREFIX = "lexical_";
+
+    public final static String ROLLUP_STATE_FILE_PREFIX = "rollup_state_";
+
+    public final static String ACCELERATION_DATABASE_FILE_PREFIX = "acceleration_";
+    public final static String ACCELERATION_STATE_FILE_PREFIX = "acceleration_state_";
+
+    public final static String CONVERSATIONS_DIR_NAME = "conversations";
+
     private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
 
     private ProjectUtil() {
@@ -115,8 +152,8 @@ public class ProjectUtil {
     }
 
     public static ContentStore createContentStore(@NonNull DatProject project, @NonNull Path projectPath) {
-        FactoryDescriptor contentStoreFactoryDescriptor = FactoryDescriptor.from(
-                project.getContentStore().getProvider(), project.getContentStore().getConfiguration());
+        FactoryDescriptor contentStoreFactoryDescriptor =
+                createContentStoreFactoryDescriptor(project, projectPath);
         FactoryDescriptor embeddingFactoryDescriptor = FactoryDescriptor.from(
                 project.getEmbedding().getProvider(), project.getEmbedding().getConfiguration());
 
@@ -136,21 +173,51 @@ public class ProjectUtil {
                 chatModelFactoryDescriptors, rerankingFactoryDescriptor);
     }
 
-    private static void adjustEmbeddingStoreConfig(@NonNull DatProject project, @NonNull Path projectPath) {
+    /**
+     * 将内容存储的本地文件（词法索引、DuckDB向量存储）放到指定目录下，已显式配置位置的保持不变。
+     * 之后基于该项目配置创建的内容存储都使用该目录，因此需要在计算内容存储指纹之后调用
+     *
+     * @param storeDir 内容存储目录，默认为项目的 .dat 目录
+     */
+    public static void locateContentStore(@NonNull DatProject project, @NonNull Path storeDir) {
+        adjustContentStoreConfig(project, storeDir);
+        adjustEmbeddingStoreConfig(project, storeDir);
+    }
+
+    private static void adjustContentStoreConfig(@NonNull DatProject project, @NonNull Path storeDir) {
+        ContentStoreConfig contentStore = project.getContentStore();
+        if (ContentStoreConfig.DEFAULT_PROVIDER.equals(contentStore.getProvider())
+            && contentStore.getConfiguration().getOptional(DefaultContentStoreFactory.LEXICAL_INDEX_DIR).isEmpty()) {
+            String indexDirName = LEXICAL_INDEX_DIR_PREFIX + contentStoreFingerprint(project);
+            Path dirPath = storeDir.resolve(indexDirName);
+            Map<String, Object> configs = new HashMap<>(contentStore.getConfiguration().toMap());
+            configs.put(DefaultContentStoreFactory.LEXICAL_INDEX_DIR.key(), dirPath.toAbsolutePath().toString());
+            contentStore.setConfiguration(configs);
+        }
+    }
+
+    private static FactoryDescriptor createContentStoreFactoryDescriptor(@NonNull DatProject project,
+                                                                         @NonNull Path projectPath) {
+        // 调整内容存储配置，词法索引默认持久化到.dat目录下
+        adjustContentStoreConfig(project, projectPath.resolve(DAT_DIR_NAME));
+        return FactoryDescriptor.from(project.getContentStore().getProvider(),
+                project.getContentStore().getConfiguration());
+    }
+
+    private static void adjustEmbeddingStoreConfig(@NonNull DatProject project, @NonNull Path storeDir) {
         EmbeddingStoreConfig embeddingStore = project.getEmbeddingStore();
         if (EmbeddingStoreConfig.DUCKDB_PROVIDER.equals(embeddingStore.getProvider())
             && embeddingStore.getConfiguration().getOptional(EmbeddingStoreConfig.DUCKDB_FILE_PATH).isEmpty()) {
-            Path datDirPath = projectPath.resolve(DAT_DIR_NAME);
-            if (!Files.exists(datDirPath)) {
+            if (!Files.exists(storeDir)) {
                 try {
-                    Files.createDirectories(datDirPath);
+                    Files.createDirectories(storeDir);
                 } catch (IOException e) {
-                    throw new RuntimeException("The creation of the " + DAT_DIR_NAME
-                                               + " directory under the project root directory failed", e);
+                    throw new RuntimeException("The creation of the content store directory "
+                                               + storeDir + " failed", e);
                 }
             }
             String storeFileName = DUCKDB_EMBEDDING_STORE_FILE_PREFIX + contentStoreFingerprint(project);
-            Path filePath = projectPath.resolve(DAT_DIR_NAME + File.separator + storeFileName);
+            Path filePath = storeDir.resolve(storeFileName);
             embeddingStore.setConfiguration(
                     Map.of(EmbeddingStoreConfig.DUCKDB_FILE_PATH.key(), filePath.toAbsolutePath().toString())
             );
@@ -159,7 +226,7 @@ public class ProjectUtil {
 
     private static FactoryDescriptor createEmbeddingStoreFactoryDescriptor(@NonNull DatProject project,
                                                                            @NonNull Path projectPath) {
-        adjustEmbeddingStoreConfig(project, projectPath); // 调整Embedding存储配置
+        adjustEmbeddingStoreConfig(project, projectPath.resolve(DAT_DIR_NAME)); // 调整Embedding存储配置
         return FactoryDescriptor.from(project.getEmbeddingStore().getProvider(),
                 project.getEmbeddingStore().getConfiguration());
     }
@@ -182,34 +249,48 @@ public class ProjectUtil {
         Preconditions.checkArgument(agentMap.containsKey(agentName),
                 "The project doesn't exist agent: " + agentName);
 
-        ContentStore contentStore = ProjectUtil.createContentStore(project, projectPath);
+        // 依赖关系：语义模型依赖内容存储，Agent依赖语义模型、内容存储与数据库适配器；
+        // 内容存储与数据库适配器（可能需要连接数据库）互不依赖，并行创建
+        ComponentInitializer initializer = new ComponentInitializer("agent '" + agentName + "'");
+        CompletableFuture<ContentStore> contentStoreFuture = initializer.start("content store",
+                () -> ProjectUtil.createContentStore(project, projectPath), SharedModelRegistry::releaseAll);
+        CompletableFuture<DatabaseAdapter> databaseAdapterFuture = initializer.start("database adapter",
+                () -> createQueryDatabaseAdapter(project, projectPath));
+        try {
+            ContentStore contentStore = initializer.join(contentStoreFuture);
+
+            List<SemanticModel> semanticModels = null;
+            AgentConfig agentConfig = agentMap.get(agentName);
+            List<String> semanticModelNames = agentConfig.getSemanticModels();
+            List<String> semanticModelTags = agentConfig.getSemanticModelTags();
+            // When the corresponding list of semantic_models or semantic_model_tags is manually specified in the agent
+            if (!semanticModelNames.isEmpty() || !semanticModelTags.isEmpty()) {
+                List<SemanticModel> allSemanticModels = initializer.create("semantic models", contentStore::allMdls);
+                validateAgent(agentConfig, allSemanticModels);
+                semanticModels = allSemanticModels.stream()
+                        .filter(model -> semanticModelNames.contains(model.getName())
+                                         || model.getTags().stream().anyMatch(semanticModelTags::contains))
+                        .collect(Collectors.toList());
+            }
 
-        List<SemanticModel> semanticModels = null;
-        AgentConfig agentConfig = agentMap.get(agentName);
-        List<String> semanticModelNames = agentConfig.getSemanticModels();
-        List<String> semanticModelTags = agentConfig.getSemanticModelTags();
-        // When the corresponding list of semantic_models or semantic_model_tags is manually specified in the agent
-        if (!semanticModelNames.isEmpty() || !semanticModelTags.isEmpty()) {
-            List<SemanticModel> allSemanticModels = contentStore.allMdls();
-            validateAgent(agentConfig, allSemanticModels);
-            semanticModels = allSemanticModels.stream()
-                    .filter(model -> semanticModelNames.contains(model.getName())
-                                     || model.getTags().stream().anyMatch(semanticModelTags::contains))
-                    .collect(Collectors.toList());
+            Map<String, FactoryDescriptor> chatModelFactoryDescriptors = project.getLlms().stream()
+                    .collect(Collectors.toMap(LlmConfig::getName,
+                            o -> FactoryDescriptor.from(o.getProvider(), o.getConfiguration())));
+
+            FactoryDescriptor agentFactoryDescriptor = FactoryDescriptor.from(
+                    agentConfig.getProvider(), agentConfig.getConfiguration());
+
+            DatabaseAdapter databaseAdapter = initializer.join(databaseAdapterFuture);
+            List<SemanticModel> agentSemanticModels = semanticModels;
+            AskdataAgent agent = initializer.create("agent", () -> FactoryUtil.createAskdataAgent(
+                    agentFactoryDescriptor, agentSemanticModels, contentStore,
+                    chatModelFactoryDescriptors, databaseAdapter, connectionId(project.getDb()), variables));
+            initializer.completed();
+            return agent;
+        } catch (RuntimeException e) {
+            initializer.rollback();
+            throw e;
         }
-
-        Map<String, FactoryDescriptor> chatModelFactoryDescriptors = project.getLlms().stream()
-                .collect(Collectors.toMap(LlmConfig::getName,
-                        o -> FactoryDescriptor.from(o.getProvider(), o.getConfiguration())));
-
-        FactoryDescriptor agentFactoryDescriptor = FactoryDescriptor.from(
-                agentConfig.getProvider(), agentConfig.getConfiguration());
-
-        FactoryDescriptor databaseAdapterFactoryDescriptor =
-                createDatabaseAdapterFactoryDescriptor(project, projectPath);
-
-        return FactoryUtil.createAskdataAgent(agentFactoryDescriptor, semanticModels, contentStore,
-                chatModelFactoryDescriptors, databaseAdapterFactoryDescriptor, variables);
     }
 
     @Deprecated
@@ -274,8 +355,213 @@ public class ProjectUtil {
         return createAskdataAgent(project, agentName, semanticModels, projectPath, null);
     }
 
+    /**
+     * 创建Agent的并发准入控制器，同一进程内同一项目的同一Agent共享
+     */
+    public static ConcurrencyGovernor createConcurrencyGovernor(@NonNull DatProject project,
+                                                                @NonNull String agentName) {
+        ReadableConfig config = project.getConfiguration();
+        Integer maxConcurrentAsks = config.get(AGENT_MAX_CONCURRENT_ASKS);
+        Integer maxQueuedAsks = config.get(AGENT_MAX_QUEUED_ASKS);
+        Preconditions.checkArgument(maxConcurrentAsks > 0,
+                "'" + AGENT_MAX_CONCURRENT_ASKS.key() + "' value must be greater than 0");
+        Preconditions.checkArgument(maxQueuedAsks >= 0,
+                "'" + AGENT_MAX_QUEUED_ASKS.key() + "' value must be greater than or equal to 0");
+        return ConcurrencyGovernor.getOrCreate("agent:" + project.getName() + "/" + agentName,
+                maxConcurrentAsks, maxQueuedAsks, config.get(AGENT_QUEUE_TIMEOUT));
+    }
+
+    /**
+     * 按项目配置调整进程内所有Agent共享的执行线程池
+     */
+    public static void configureAgentExecutor(@NonNull DatProject project) {
+        ReadableConfig config = project.getConfiguration();
+        Integer maxThreads = config.get(AGENT_EXECUTOR_MAX_THREADS);
+        Preconditions.checkArgument(maxThreads > 0,
+                "'" + AGENT_EXECUTOR_MAX_THREADS.key() + "' value must be greater than 0");
+        AbstractAskdataAgent.configureExecutor(config.get(AGENT_EXECUTOR_MODE), maxThreads);
+    }
+
     public static DatabaseAdapter createDatabaseAdapter(@NonNull DatProject project, @NonNull Path projectPath) {
-        return FactoryUtil.createDatabaseAdapter(createDatabaseAdapterFactoryDescriptor(project, projectPath));
+        DatabaseAdapter databaseAdapter =
+                FactoryUtil.createDatabaseAdapter(createDatabaseAdapterFactoryDescriptor(project, projectPath));
+        if (databaseAdapter instanceof GenericSqlDatabaseAdapter genericSqlDatabaseAdapter) {
+            genericSqlDatabaseAdapter.setPushdown(project.getConfiguration().get(SEMANTIC_PUSHDOWN));
+            if (project.getConfiguration().get(SEMANTIC_ROLLUP_ROUTING)) {
+                genericSqlDatabaseAdapter.setRollupRegistry(loadRollupRegistry(project, projectPath));
+            }
+        }
+        return databaseAdapter;
+    }
+
+    /**
+     * 创建会话历史存储，本地文件存储未指定目录时默认持久化到.dat/conversations目录下
+     *
+     * @param provider 会话历史存储的工厂标识，如 memory、file
+     * @param configs  会话历史存储的配置
+     */
+    public static ConversationStore createConversationStore(@NonNull Path projectPath,
+                                                            @NonNull String provider,
+                                                            Map<String, Object> configs) {
+        Map<String, Object> storeConfigs = configs == null ? new HashMap<>() : new HashMap<>(configs);
+        if (FileConversationStoreFactory.IDENTIFIER.equals(provider)
+            && !storeConfigs.containsKey(FileConversationStoreFactory.DIR.key())) {
+            Path dirPath = projectPath.resolve(DAT_DIR_NAME + File.separator + CONVERSATIONS_DIR_NAME);
+            storeConfigs.put(FileConversationStoreFactory.DIR.key(), dirPath.toAbsolutePath().toString());
+        }
+        return FactoryUtil.createConversationStore(
+                FactoryDescriptor.from(provider, Configuration.fromMap(storeConfigs)));
+    }
+
+    /**
+     * 加载项目已物化的rollup状态，同一进程内连接相同数据库的适配器共享同一个注册表
+     */
+    public static RollupRegistry loadRollupRegistry(@NonNull DatProject project, @NonNull Path projectPath) {
+        Duration maxStaleness = project.getConfiguration().get(SEMANTIC_ROLLUP_MAX_STALENESS);
+        Preconditions.checkArgument(!maxStaleness.isNegative() && !maxStaleness.isZero(),
+                "'" + SEMANTIC_ROLLUP_MAX_STALENESS.key() + "' value must be greater than 0");
+        RollupRegistry rollupRegistry = RollupRegistry.getOrCreate(connectionId(project.getDb()), maxStaleness);
+        rollupRegistry.reload(loadRollupStates(project, projectPath));
+        return rollupRegistry;
+    }
+
+    public static List<RollupRegistry.RollupState> loadRollupStates(@NonNull DatProject project,
+                                                                    @NonNull Path projectPath) {
+        Path file = rollupStateFile(project, projectPath);
+        if (!Files.exists(file)) {
+            return Collections.emptyList();
+        }
+        try {
+            return JSON_MAPPER.readValue(file.toFile(), new TypeReference<>() {
+            });
+        } catch (IOException e) {
+            log.warn("The rollup state file " + file.getFileName() + " loading failed, rollups are not routed", e);
+            return Collections.emptyList();
+        }
+    }
+
+    public static void saveRollupStates(@NonNull DatProject project, @NonNull Path projectPath,
+                                        @NonNull Collection<RollupRegistry.RollupState> rollupStates) {
+        Path file = rollupStateFile(project, projectPath);
+        try {
+            Files.createDirectories(file.getParent());
+            JSON_MAPPER.writeValue(file.toFile(), rollupStates);
+        } catch (IOException e) {
+            throw new RuntimeException("The rollup state file " + file.getFileName() + " saving failed", e);
+        }
+    }
+
+    /**
+     * rollup状态文件，按数据库连接区分
+     */
+    private static Path rollupStateFile(DatProject project, Path projectPath) {
+        return projectPath.resolve(DAT_DIR_NAME)
+                .resolve(ROLLUP_STATE_FILE_PREFIX + DigestUtils.md5Hex(connectionId(project.getDb())) + ".json");
+    }
+
+    /**
+     * 创建本地加速使用的DuckDB数据库适配器，数据库文件位于项目 .dat 目录下，按源数据库连接区分
+     */
+    public static DatabaseAdapter createAcceleratorDatabaseAdapter(@NonNull DatProject project,
+                                                                   @NonNull Path projectPath) {
+        adjustDatabaseConfig(project, projectPath);
+        Path datDirPath = projectPath.resolve(DAT_DIR_NAME);
+        try {
+            Files.createDirectories(datDirPath);
+        } catch (IOException e) {
+            throw new RuntimeException("The creation of the " + DAT_DIR_NAME
+                                       + " directory under the project root directory failed", e);
+        }
+        Path filePath = datDirPath.resolve(ACCELERATION_DATABASE_FILE_PREFIX
+                                           + DigestUtils.md5Hex(connectionId(project.getDb())) + ".duckdb");
+        return FactoryUtil.createDatabaseAdapter(FactoryDescriptor.from(DatabaseConfig.DUCKDB_PROVIDER,
+                Configuration.fromMap(Map.of(DatabaseConfig.DUCKDB_FILE_PATH.key(),
+                        filePath.toAbsolutePath().toString()))));
+    }
+
+    /**
+     * 加载项目本地加速的抽取状态，同一进程内连接相同数据库的适配器共享同一个注册表
+     */
+    public static AccelerationRegistry loadAccelerationRegistry(@NonNull DatProject project,
+                                                                @NonNull Path projectPath) {
+        Duration maxStaleness = project.getConfiguration().get(ACCELERATION_MAX_STALENESS);
+        Preconditions.checkArgument(!maxStaleness.isNegative() && !maxStaleness.isZero(),
+                "'" + ACCELERATION_MAX_STALENESS.key() + "' value must be greater than 0");
+        AccelerationRegistry accelerationRegistry =
+                AccelerationRegistry.getOrCreate(connectionId(project.getDb()), maxStaleness);
+        accelerationRegistry.reload(loadAccelerationStates(project, projectPath));
+        return accelerationRegistry;
+    }
+
+    public static List<AccelerationRegistry.AccelerationState> loadAccelerationStates(
+            @NonNull DatProject project, @NonNull Path projectPath) {
+        Path file = accelerationStateFile(project, projectPath);
+        if (!Files.exists(file)) {
+            return Collections.emptyList();
+        }
+        try {
+            return JSON_MAPPER.readValue(file.toFile(), new TypeReference<>() {
+            });
+        } catch (IOException e) {
+            log.warn("The acceleration state file " + file.getFileName()
+                     + " loading failed, queries fall back to the source database", e);
+            return Collections.emptyList();
+        }
+    }
+
+    public static void saveAccelerationStates(@NonNull DatProject project, @NonNull Path projectPath,
+                                              @NonNull Collection<AccelerationRegistry.AccelerationState> states) {
+        Path file = accelerationStateFile(project, projectPath);
+        try {
+            Files.createDirectories(file.getParent());
+            JSON_MAPPER.writeValue(file.toFile(), states);
+        } catch (IOException e) {
+            throw new RuntimeException("The acceleration state file " + file.getFileName() + " saving failed", e);
+        }
+    }
+
+    /**
+     * 本地加速状态文件，按数据库连接区分
+     */
+    private static Path accelerationStateFile(DatProject project, Path projectPath) {
+        return projectPath.resolve(DAT_DIR_NAME)
+                .resolve(ACCELERATION_STATE_FILE_PREFIX + DigestUtils.md5Hex(connectionId(project.getDb())) + ".json");
+    }
+
+    /**
+     * 数据库连接标识：数据库类型与连接配置的摘要
+     */
+    private static String connectionId(DatabaseConfig databaseConfig) {
+        return databaseConfig.getProvider() + ":"
+               + DigestUtils.sha256Hex(new TreeMap<>(databaseConfig.getConfiguration().toMap()).toString());
+    }
+
+    /**
+     * 创建Agent查询使用的数据库适配器：开启本地加速时包装为 {@link AcceleratedDatabaseAdapter}
+     * （定期刷新由长期运行的进程通过 {@link ai.dat.boot.ProjectAccelerator#scheduleRefresh} 启动），
+     * 开启结果缓存时再包装为 {@link CachingDatabaseAdapter}，
+     * 同一进程内连接相同数据库的Agent共享同一个结果缓存
+     */
+    public static DatabaseAdapter createQueryDatabaseAdapter(@NonNull DatProject project,
+                                                             @NonNull Path projectPath) {
+        DatabaseAdapter databaseAdapter = createDatabaseAdapter(project, projectPath);
+        ReadableConfig config = project.getConfiguration();
+        if (config.get(ACCELERATION_ENABLED)) {
+            databaseAdapter = new AcceleratedDatabaseAdapter(databaseAdapter,
+                    createAcceleratorDatabaseAdapter(project, projectPath),
+                    loadAccelerationRegistry(project, projectPath));
+        }
+        if (!config.get(RESULT_CACHE_ENABLED)) {
+            return databaseAdapter;
+        }
+        Duration ttl = config.get(RESULT_CACHE_TTL);
+        long maxBytes = config.get(RESULT_CACHE_MAX_SIZE).getBytes();
+        Preconditions.checkArgument(!ttl.isNegative(),
+                "'" + RESULT_CACHE_TTL.key() + "' value cannot be negative");
+        Preconditions.checkArgument(maxBytes > 0,
+                "'" + RESULT_CACHE_MAX_SIZE.key() + "' value must be greater than 0");
+        return new CachingDatabaseAdapter(databaseAdapter,
+                QueryResultCache.getOrCreate(connectionId(project.getDb()), maxBytes), ttl);
     }
 
     private static void adjustDatabaseConfig(@NonNull DatProject project, @NonNull Path projectPath) {
@@ -2,10 +2,12 @@ package ai.dat.core.utils;
 
 import ai.dat.core.configuration.ConfigOption;
 import ai.dat.core.configuration.ConfigOptions;
+import ai.dat.core.configuration.MemorySize;
 import ai.dat.core.configuration.ReadableConfig;
 import ai.dat.core.data.project.*;
 import ai.dat.core.exception.ValidationException;
 import ai.dat.core.factories.*;
+import ai.dat.core.utils.ExecutorUtil.ExecutorMode;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
@@ -18,6 +20,7 @@ import lombok.NonNull;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -100,6 +103,110 @@ public class DatProjectUtil {
                     .withDescription("Whether to automatically complete the data types of " +
                                      "entities, dimensions, measures in the semantic model during building");
 
+    public static final ConfigOption<Integer> AGENT_MAX_CONCURRENT_ASKS =
+            ConfigOptions.key("agent.max-concurrent-asks")
+                    .intType()
+                    .defaultValue(16)
+                    .withDescription("The maximum number of asks that each agent executes concurrently " +
+                                     "in the process, the excess asks wait in the queue");
+
+    public static final ConfigOption<Integer> AGENT_MAX_QUEUED_ASKS =
+            ConfigOptions.key("agent.max-queued-asks")
+                    .intType()
+                    .defaultValue(32)
+                    .withDescription("The maximum number of asks that each agent keeps waiting in the queue, " +
+                                     "asks beyond it are rejected immediately as busy");
+
+    public static final ConfigOption<Duration> AGENT_QUEUE_TIMEOUT =
+            ConfigOptions.key("agent.queue-timeout")
+                    .durationType()
+                    .defaultValue(Duration.ofSeconds(30))
+                    .withDescription("The maximum time an ask waits in the queue before it is rejected as busy");
+
+    public static final ConfigOption<ExecutorMode> AGENT_EXECUTOR_MODE =
+            ConfigOptions.key("agent.executor-mode")
+                    .enumType(ExecutorMode.class)
+                    .defaultValue(ExecutorMode.PLATFORM)
+                    .withDescription("The executor mode of the agent threads. Supported: `PLATFORM`, `VIRTUAL`. " +
+                                     "`VIRTUAL` requires Java 21+, otherwise it falls back to `PLATFORM`");
+
+    public static final ConfigOption<Integer> AGENT_EXECUTOR_MAX_THREADS =
+            ConfigOptions.key("agent.executor-max-threads")
+                    .intType()
+                    .defaultValue(256)
+                    .withDescription("The maximum number of platform threads shared by all agents in the process");
+
+    public static final ConfigOption<Boolean> SEMANTIC_PUSHDOWN =
+            ConfigOptions.key("semantic.pushdown")
+                    .booleanType()
+                    .defaultValue(true)
+                    .withDescription("Whether to push simple WHERE conditions on entities and dimensions, " +
+                                     "and LIMIT where it is safe, down into the semantic model subqueries " +
+                                     "of the generated dialect SQL");
+
+    public static final ConfigOption<Boolean> SEMANTIC_ROLLUP_ROUTING =
+            ConfigOptions.key("semantic.rollup-routing")
+                    .booleanType()
+                    .defaultValue(true)
+                    .withDescription("Whether to transparently route eligible aggregate semantic SQL to " +
+                                     "the smallest fresh rollup table materialized by `dat rollup`");
+
+    public static final ConfigOption<Duration> SEMANTIC_ROLLUP_MAX_STALENESS =
+            ConfigOptions.key("semantic.rollup-max-staleness")
+                    .durationType()
+                    .defaultValue(Duration.ofDays(1))
+                    .withDescription("The default maximum staleness of the materialized rollup tables, " +
+                                     "stale rollups are not routed to until materialized again, " +
+                                     "can be overridden by `max_staleness` of each rollup");
+
+    public static final ConfigOption<Boolean> RESULT_CACHE_ENABLED =
+            ConfigOptions.key("result-cache.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription("Whether to cache the query results of the dialect SQL. " +
+                                     "The cache is shared by all agents connected to the same database " +
+                                     "in the process, and concurrent identical queries hit the database only once");
+
+    public static final ConfigOption<Duration> RESULT_CACHE_TTL =
+            ConfigOptions.key("result-cache.ttl")
+                    .durationType()
+                    .defaultValue(Duration.ofMinutes(5))
+                    .withDescription("The default time to live of the cached query results, " +
+                                     "can be overridden by `config.cache_ttl` of each semantic model " +
+                                     "(the minimum value of the referenced semantic models is used)");
+
+    public static final ConfigOption<MemorySize> RESULT_CACHE_MAX_SIZE =
+            ConfigOptions.key("result-cache.max-size")
+                    .memoryType()
+                    .defaultValue(MemorySize.ofMebiBytes(64))
+                    .withDescription("The maximum (estimated) heap memory size of the cached query results, " +
+                                     "the least recently used results are evicted beyond it");
+
+    public static final ConfigOption<Boolean> ACCELERATION_ENABLED =
+            ConfigOptions.key("acceleration.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription("Whether to enable the local acceleration layer. The semantic models " +
+                                     "with `config.acceleration` are extracted into an embedded DuckDB file " +
+                                     "under the .dat directory, and queries whose referenced semantic models " +
+                                     "are all accelerated and fresh are executed on DuckDB instead of the source");
+
+    public static final ConfigOption<Duration> ACCELERATION_MAX_STALENESS =
+            ConfigOptions.key("acceleration.max-staleness")
+                    .durationType()
+                    .defaultValue(Duration.ofHours(1))
+                    .withDescription("The default maximum staleness of the accelerated extracts, " +
+                                     "queries fall back to the source database beyond it, " +
+                                     "can be overridden by `config.acceleration.max_staleness` of each semantic model");
+
+    public static final ConfigOption<Duration> ACCELERATION_REFRESH_INTERVAL =
+            ConfigOptions.key("acceleration.refresh-interval")
+                    .durationType()
+                    .defaultValue(Duration.ofMinutes(30))
+                    .withDescription("The interval at which the serving process refreshes the accelerated " +
+                                     "extracts in the background, 0 means no scheduled refresh " +
+                                     "(refresh with `dat accelerate` instead)");
+
     private DatProjectUtil() {
     }
 
@@ -129,7 +236,21 @@ public class DatProjectUtil {
         return new LinkedHashSet<>(List.of(
                 BUILDING_VERIFY_MDL_DIMENSIONS_ENUM_VALUES,
                 BUILDING_VERIFY_MDL_DATA_TYPES,
-                BUILDING_AUTO_COMPLETE_MDL_DATA_TYPES
+                BUILDING_AUTO_COMPLETE_MDL_DATA_TYPES,
+                AGENT_MAX_CONCURRENT_ASKS,
+                AGENT_MAX_QUEUED_ASKS,
+                AGENT_QUEUE_TIMEOUT,
+                AGENT_EXECUTOR_MODE,
+                AGENT_EXECUTOR_MAX_THREADS,
+                SEMANTIC_PUSHDOWN,
+                SEMANTIC_ROLLUP_ROUTING,
+                SEMANTIC_ROLLUP_MAX_STALENESS,
+                RESULT_CACHE_ENABLED,
+                RESULT_CACHE_TTL,
+                RESULT_CACHE_MAX_SIZE,
+                ACCELERATION_ENABLED,
+                ACCELERATION_MAX_STALENESS,
+                ACCELERATION_REFRESH_INTERVAL
         ));
     }
 
@@ -0,0 +1,19 @@
+package ai.dat.server.mcp.config;
+
+import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.core.conversation.ConversationStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 按配置创建会话历史存储，服务关闭时释放
+ */
+@Configuration
+public class ConversationStoreConfig {
+
+    @Bean(destroyMethod = "close")
+    public ConversationStore conversationStore(ServerConfig serverConfig) {
+        return ProjectUtil.createConversationStore(serverConfig.getAbsoluteProjectPath(),
+                serverConfig.getConversationStore(), serverConfig.getConversationStoreConfig());
+    }
+}
@@ -0,0 +1,24 @@
+package ai.dat.server.mcp.config;
+
+import ai.dat.boot.ProjectRuntime;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * 服务启动时构建一次项目，按配置监听项目文件变化并热重载
+ */
+@Configuration
+public class ProjectRuntimeConfig {
+
+    @Bean(destroyMethod = "close")
+    public ProjectRuntime projectRuntime(ServerConfig serverConfig) throws IOException {
+        ProjectRuntime runtime = new ProjectRuntime(serverConfig.getAbsoluteProjectPath(),
+                serverConfig.getVariables(), !serverConfig.isSkipBuild(), serverConfig.getWatchDebounce());
+        if (serverConfig.isWatch()) {
+            runtime.watch();
+        }
+        return runtime;
+    }
+}
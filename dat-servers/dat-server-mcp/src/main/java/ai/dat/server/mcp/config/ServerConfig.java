@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -25,6 +26,24 @@ public class ServerConfig implements InitializingBean {
     // 动态参数
     private Map<String, Object> variables = Collections.emptyMap();
 
+    // 跳过项目构建（启动前已安装预构建包）
+    private boolean skipBuild = false;
+
+    // 监听项目文件变化，后台增量构建并热重载
+    private boolean watch = true;
+
+    // 热重载的防抖时间
+    private Duration watchDebounce = Duration.ofMillis(500);
+
+    // 会话的运行时空闲超过该时长后释放（关闭模型与连接），为0时不释放
+    private Duration runnerIdleTimeout = Duration.ofMinutes(30);
+
+    // 会话历史存储（memory: 内存，重启后丢失；file: 本地文件，默认在项目的 .dat/conversations 目录下）
+    private String conversationStore = "memory";
+
+    // 会话历史存储的配置（如 max-messages、ttl、max-size、dir）
+    private Map<String, Object> conversationStoreConfig = Collections.emptyMap();
+
     public Path getAbsoluteProjectPath() {
         return Paths.get(projectPath).toAbsolutePath();
     }
@@ -42,6 +61,10 @@ public class ServerConfig implements InitializingBean {
         log.info("=== ServerConfig PostConstruct ===");
         log.info("  - Project path: {}", projectPath);
         log.info("  - Variables: {}", variables);
+        log.info("  - Skip build: {}", skipBuild);
+        log.info("  - Watch: {}, debounce: {}", watch, watchDebounce);
+        log.info("  - Runner idle timeout: {}", runnerIdleTimeout);
+        log.info("  - Conversation store: {}, config: {}", conversationStore, conversationStoreConfig);
         log.info("================================");
     }
 
@@ -66,5 +89,18 @@ public class ServerConfig implements InitializingBean {
             log.warn("Variables is null, using empty map");
             variables = Collections.emptyMap();
         }
+
+        // 验证运行时空闲超时
+        if (runnerIdleTimeout == null || runnerIdleTimeout.isNegative()) {
+            throw new IllegalArgumentException("'dat.server.runner-idle-timeout' value cannot be negative");
+        }
+
+        // 验证会话历史存储
+        if (conversationStore == null || conversationStore.isBlank()) {
+            throw new IllegalArgumentException("'dat.server.conversation-store' value cannot be empty");
+        }
+        if (conversationStoreConfig == null) {
+            conversationStoreConfig = Collections.emptyMap();
+        }
     }
 }
\ No newline at end of file
@@ -1,54 +1,142 @@
 package ai.dat.server.mcp.service;
 
 import ai.dat.boot.ProjectRunner;
-import ai.dat.boot.utils.ProjectUtil;
+import ai.dat.boot.ProjectRuntime;
 import ai.dat.core.agent.data.StreamAction;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
 import ai.dat.core.data.project.DatProject;
+import ai.dat.core.tracing.DatTracing;
 import ai.dat.server.mcp.config.ServerConfig;
-import com.google.common.base.Preconditions;
+import io.opentelemetry.context.Scope;
+import jakarta.annotation.PreDestroy;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.nio.file.Path;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProjectService {
 
-    private final ServerConfig serverConfig;
-
-    private static final Map<String, ProjectRunner> projectRunnerPool = new HashMap<>();
-
-    private ProjectRunner getProjectRunner(@NonNull String conversationId, @NonNull String agentName) {
-        ProjectRunner projectRunner = projectRunnerPool.get(conversationId);
-        if (projectRunner == null) {
-            Path projectPath = serverConfig.getAbsoluteProjectPath();
-            Map<String, Object> variables = serverConfig.getVariables();
-            try {
-                projectRunner = new ProjectRunner(projectPath, agentName, variables);
-                projectRunnerPool.put(conversationId, projectRunner);
-            } catch (Exception e) {
-                log.error("Failed to initialize project runner", e);
-                throw new RuntimeException("Failed to initialize project runner: " + e.getMessage(), e);
+    private final ProjectRuntime projectRuntime;
+
+    /**
+     * 会话的运行时空闲超过该时长后释放，为0时不释放
+     */
+    private final Duration runnerIdleTimeout;
+
+    private final Map<String, PooledRunner> projectRunnerPool = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dat-runner-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProjectService(ProjectRuntime projectRuntime, ServerConfig serverConfig) {
+        this.projectRuntime = projectRuntime;
+        this.runnerIdleTimeout = serverConfig.getRunnerIdleTimeout();
+        if (!runnerIdleTimeout.isZero()) {
+            long interval = Math.max(1, Math.min(runnerIdleTimeout.toSeconds(), 60));
+            evictor.scheduleWithFixedDelay(this::evictIdleRunners, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        evictor.shutdownNow();
+        List<PooledRunner> runners = new ArrayList<>(projectRunnerPool.values());
+        projectRunnerPool.clear();
+        runners.forEach(this::release);
+    }
+
+    /**
+     * 新的提问使用最新版本的项目配置：会话的运行时已过期时重新创建（同一会话的并发提问只创建一个），
+     * 旧运行时在进行中的问数结束后释放
+     */
+    private PooledRunner getLatestProjectRunner(@NonNull String conversationId, @NonNull String agentName) {
+        List<PooledRunner> replaced = new ArrayList<>(1);
+        PooledRunner latest = projectRunnerPool.compute(conversationId, (id, pooled) -> {
+            if (pooled != null && pooled.generation() == projectRuntime.generation()) {
+                return pooled.touch();
+            }
+            PooledRunner created = createProjectRunner(agentName);
+            if (pooled != null) {
+                replaced.add(pooled);
             }
+            return created;
+        });
+        for (PooledRunner pooled : replaced) {
+            log.info("Conversation {} switches to the project generation {}", conversationId, latest.generation());
+            release(pooled);
+        }
+        return latest;
+    }
+
+    private PooledRunner createProjectRunner(String agentName) {
+        try {
+            ProjectRuntime.Lease lease = projectRuntime.createRunner(agentName);
+            return new PooledRunner(lease.runner(), lease.generation(), null, System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("Failed to initialize project runner", e);
+            throw new RuntimeException("Failed to initialize project runner: " + e.getMessage(), e);
         }
-        return projectRunner;
+    }
+
+    /**
+     * 释放运行时，进行中的问数结束后再释放
+     */
+    private void release(PooledRunner pooled) {
+        StreamAction lastAction = pooled.lastAction();
+        if (lastAction != null) {
+            lastAction.onFinished(pooled.runner()::close);
+        } else {
+            pooled.runner().close();
+        }
+    }
+
+    private void evictIdleRunners() {
+        long deadline = System.currentTimeMillis() - runnerIdleTimeout.toMillis();
+        projectRunnerPool.forEach((conversationId, pooled) -> {
+            if (pooled.lastUsedAt() <= deadline && projectRunnerPool.remove(conversationId, pooled)) {
+                log.info("Release the idle project runner of conversation {}", conversationId);
+                release(pooled);
+            }
+        });
     }
 
     public DatProject getProject() {
-        Path projectPath = serverConfig.getAbsoluteProjectPath();
-        return ProjectUtil.loadProject(projectPath);
+        return projectRuntime.project();
     }
 
     public StreamAction ask(@NonNull String conversationId, @NonNull String agentName,
                             @NonNull String question, @NonNull List<QuestionSqlPair> histories) {
-        return getProjectRunner(conversationId, agentName).ask(question, histories);
+        // 问数的追踪span带上会话ID
+        try (Scope ignored = DatTracing.withConversationId(conversationId)) {
+            PooledRunner pooled = getLatestProjectRunner(conversationId, agentName);
+            StreamAction action = pooled.runner().ask(question, histories);
+            projectRunnerPool.computeIfPresent(conversationId, (id, current) ->
+                    current.runner() == pooled.runner() ? current.withLastAction(action) : current);
+            return action;
+        }
+    }
+
+    private record PooledRunner(ProjectRunner runner, long generation, StreamAction lastAction, long lastUsedAt) {
+
+        PooledRunner withLastAction(StreamAction action) {
+            return new PooledRunner(runner, generation, action, System.currentTimeMillis());
+        }
+
+        PooledRunner touch() {
+            return new PooledRunner(runner, generation, lastAction, System.currentTimeMillis());
+        }
     }
-}
\ No newline at end of file
+}
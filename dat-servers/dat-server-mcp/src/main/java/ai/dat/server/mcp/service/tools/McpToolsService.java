@@ -1,9 +1,9 @@
 package ai.dat.server.mcp.service.tools;
 
-import ai.dat.boot.utils.QuestionSqlPairCacheUtil;
 import ai.dat.core.agent.data.StreamAction;
 import ai.dat.core.agent.data.StreamEvent;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
+import ai.dat.core.conversation.ConversationStore;
 import ai.dat.core.data.project.DatProject;
 import ai.dat.server.mcp.service.ProjectService;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -34,6 +34,8 @@ public class McpToolsService {
 
     private final ProjectService runnerService;
 
+    private final ConversationStore conversationStore;
+
     @Tool(name = "dat_agents", description = "List agents information of ask data.")
     public String agents() throws JsonProcessingException {
         DatProject project = runnerService.getProject();
@@ -58,7 +60,7 @@ public class McpToolsService {
 
         agentName = (agentName == null || agentName.isBlank() ? "default" : agentName);
 
-        List<QuestionSqlPair> histories = QuestionSqlPairCacheUtil.get(conversationId);
+        List<QuestionSqlPair> histories = conversationStore.get(conversationId);
 
         StreamAction action = runnerService.ask(conversationId, agentName, question, histories);
 
@@ -68,29 +70,34 @@ public class McpToolsService {
         String lastEvent = "";
         boolean lastIncremental = false;
         boolean isAccurateSql = false;
-        for (StreamEvent event : action) {
-            if (event == null) break;
-            String eventName = event.name();
-            if (event.getSemanticSql().isPresent()) {
-                sql = event.getSemanticSql().get();
-            }
-            if (event.getQueryData().isPresent()) {
-                isAccurateSql = true;
-            }
-            if (!lastEvent.equals(eventName)) {
-                if (lastIncremental) result.append("\n");
-                lastEvent = eventName;
-                lastIncremental = event.getIncrementalContent().isPresent();
-                result.append("--------------------- ").append(eventName).append(" ---------------------\n");
+        try {
+            for (StreamEvent event : action) {
+                if (event == null) break;
+                String eventName = event.name();
+                if (event.getSemanticSql().isPresent()) {
+                    sql = event.getSemanticSql().get();
+                }
+                if (event.getQueryData().isPresent()) {
+                    isAccurateSql = true;
+                }
+                if (!lastEvent.equals(eventName)) {
+                    if (lastIncremental) result.append("\n");
+                    lastEvent = eventName;
+                    lastIncremental = event.getIncrementalContent().isPresent();
+                    result.append("--------------------- ").append(eventName).append(" ---------------------\n");
+                }
+                append(event, result);
             }
-            append(event, result);
+        } finally {
+            // 调用方放弃（线程被中断）或事件处理失败时，取消仍在进行的问数，中止在途的查询与LLM等待
+            action.cancel("The MCP caller stopped waiting");
         }
 
         if (lastIncremental) result.append("\n");
         if (!isAccurateSql && !NOT_GENERATE.equals(sql)) {
             sql = "/* Incorrect SQL */ " + sql;
         }
-        QuestionSqlPairCacheUtil.add(conversationId, QuestionSqlPair.from(question, sql));
+        conversationStore.add(conversationId, QuestionSqlPair.from(question, sql));
 
         return result.toString();
     }
@@ -0,0 +1,33 @@
+package ai.dat.server.openapi.config;
+
+import ai.dat.core.metrics.DatMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * 将Spring Boot Actuator的指标注册表插入问数流程的指标，通过 /actuator/prometheus 暴露
+ */
+@Component
+@Slf4j
+public class MetricsConfig implements InitializingBean, DisposableBean {
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        DatMetrics.addRegistry(meterRegistry);
+        log.info("DAT metrics registered to {}", meterRegistry.getClass().getSimpleName());
+    }
+
+    @Override
+    public void destroy() {
+        DatMetrics.removeRegistry(meterRegistry);
+    }
+}
@@ -1,5 +1,6 @@
 package ai.dat.server.openapi.config;
 
+import ai.dat.core.utils.ExecutorUtil.ExecutorMode;
 import jakarta.annotation.PostConstruct;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Component;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -25,6 +27,30 @@ public class ServerConfig implements InitializingBean {
     // 动态参数
     private Map<String, Object> variables = Collections.emptyMap();
 
+    // 跳过项目构建（启动前已安装预构建包）
+    private boolean skipBuild = false;
+
+    // 监听项目文件变化，后台增量构建并热重载
+    private boolean watch = true;
+
+    // 热重载的防抖时间
+    private Duration watchDebounce = Duration.ofMillis(500);
+
+    // 会话的运行时空闲超过该时长后释放（关闭模型与连接），为0时不释放
+    private Duration runnerIdleTimeout = Duration.ofMinutes(30);
+
+    // 会话历史存储（memory: 内存，重启后丢失；file: 本地文件，默认在项目的 .dat/conversations 目录下）
+    private String conversationStore = "memory";
+
+    // 会话历史存储的配置（如 max-messages、ttl、max-size、dir）
+    private Map<String, Object> conversationStoreConfig = Collections.emptyMap();
+
+    // SSE流式响应的最大并发数，超出后直接返回 429
+    private int maxConcurrentStreams = 64;
+
+    // SSE流式响应的线程池模式（VIRTUAL 需要 Java 21+）
+    private ExecutorMode executorMode = ExecutorMode.PLATFORM;
+
     public Path getAbsoluteProjectPath() {
         return Paths.get(projectPath).toAbsolutePath();
     }
@@ -42,6 +68,12 @@ public class ServerConfig implements InitializingBean {
         log.info("=== ServerConfig PostConstruct ===");
         log.info("  - Project path: {}", projectPath);
         log.info("  - Variables: {}", variables);
+        log.info("  - Skip build: {}", skipBuild);
+        log.info("  - Watch: {}, debounce: {}", watch, watchDebounce);
+        log.info("  - Runner idle timeout: {}", runnerIdleTimeout);
+        log.info("  - Conversation store: {}, config: {}", conversationStore, conversationStoreConfig);
+        log.info("  - Max concurrent streams: {}", maxConcurrentStreams);
+        log.info("  - Executor mode: {}", executorMode);
         log.info("================================");
     }
 
@@ -66,5 +98,23 @@ public class ServerConfig implements InitializingBean {
             log.warn("Variables is null, using empty map");
             variables = Collections.emptyMap();
         }
+
+        // 验证运行时空闲超时
+        if (runnerIdleTimeout == null || runnerIdleTimeout.isNegative()) {
+            throw new IllegalArgumentException("'dat.server.runner-idle-timeout' value cannot be negative");
+        }
+
+        // 验证会话历史存储
+        if (conversationStore == null || conversationStore.isBlank()) {
+            throw new IllegalArgumentException("'dat.server.conversation-store' value cannot be empty");
+        }
+        if (conversationStoreConfig == null) {
+            conversationStoreConfig = Collections.emptyMap();
+        }
+
+        // 验证并发配置
+        if (maxConcurrentStreams <= 0) {
+            throw new IllegalArgumentException("'dat.server.max-concurrent-streams' value must be greater than 0");
+        }
     }
 }
\ No newline at end of file
@@ -1,13 +1,19 @@
 package ai.dat.server.openapi.controller;
 
-import ai.dat.boot.utils.QuestionSqlPairCacheUtil;
+import ai.dat.core.agent.ConcurrencyGovernor;
 import ai.dat.core.agent.data.StreamAction;
 import ai.dat.core.agent.data.StreamEvent;
 import ai.dat.core.contentstore.data.QuestionSqlPair;
+import ai.dat.core.conversation.ConversationStore;
+import ai.dat.core.exception.BusyException;
+import ai.dat.core.metrics.DatMetrics;
+import ai.dat.core.utils.ExecutorUtil;
+import ai.dat.server.openapi.config.ServerConfig;
 import ai.dat.server.openapi.dto.AskRequest;
 import ai.dat.server.openapi.dto.AskUserApproval;
 import ai.dat.server.openapi.dto.AskUserResponse;
 import ai.dat.server.openapi.service.ProjectService;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -15,10 +21,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -26,18 +35,17 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/ask")
-@RequiredArgsConstructor
 @Tag(name = "Ask data", description = "Ask data API based on natural language")
 public class AskController {
 
@@ -81,20 +89,33 @@ public class AskController {
 
     private final ProjectService runnerService;
 
+    // 会话历史存储
+    private final ConversationStore conversationStore;
+
     // 用于定时发送ping事件的线程池
     private final ScheduledExecutorService pingScheduler = Executors.newScheduledThreadPool(1);
 
-    // 用于处理SSE流式响应的线程池
-    private final ExecutorService streamExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
-        private final AtomicInteger threadNumber = new AtomicInteger(1);
+    // 用于SSE流式响应的并发准入控制
+    private final ConcurrencyGovernor streamGovernor;
 
-        @Override
-        public Thread newThread(Runnable r) {
-            Thread thread = new Thread(r, "sse-stream-processor-" + threadNumber.getAndIncrement());
-            thread.setDaemon(false);
-            return thread;
-        }
-    });
+    // 用于处理SSE流式响应的线程池（线程数受并发准入控制约束）
+    private final ExecutorService streamExecutor;
+
+    public AskController(ProjectService runnerService, ConversationStore conversationStore,
+                         ServerConfig serverConfig) {
+        this.runnerService = runnerService;
+        this.conversationStore = conversationStore;
+        this.streamGovernor = ConcurrencyGovernor.getOrCreate("sse-stream",
+                serverConfig.getMaxConcurrentStreams(), 0, Duration.ZERO);
+        this.streamExecutor = ExecutorUtil.newExecutor("sse-stream-processor-",
+                serverConfig.getExecutorMode(), serverConfig.getMaxConcurrentStreams());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        pingScheduler.shutdownNow();
+        streamExecutor.shutdownNow();
+    }
 
     private static final String NOT_GENERATE = "<not generate>";
 
@@ -209,6 +230,7 @@ public class AskController {
                             }
                     )),
             @ApiResponse(responseCode = "400", description = "Request parameter error"),
+            @ApiResponse(responseCode = "429", description = "Server is busy, please retry later"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -216,34 +238,67 @@ public class AskController {
         String conversationId = request.getConversationId() == null || request.getConversationId().isBlank() ?
                 UUID.randomUUID().toString() : request.getConversationId();
 
-        List<QuestionSqlPair> histories = QuestionSqlPairCacheUtil.get(conversationId);
+        List<QuestionSqlPair> histories = conversationStore.get(conversationId);
 
         SseEmitter emitter = new SseEmitter();
 
         // 使用 AtomicReference 确保线程安全
         AtomicReference<ScheduledFuture<?>> pingTaskRef = new AtomicReference<>();
+        AtomicReference<StreamAction> actionRef = new AtomicReference<>();
+
+        // 客户端断开时取消问数：中止在途的查询与LLM等待，释放Agent线程
+        Runnable cancelAsk = () -> {
+            StreamAction action = actionRef.get();
+            if (action != null) {
+                action.cancel("The client disconnected");
+            }
+        };
+
+        // 超出并发上限时立即抛出 BusyException（429），不在请求线程上排队等待
+        ConcurrencyGovernor.Permit permit = streamGovernor.tryAcquire();
 
         // 启动定时ping任务，每10秒发送一次ping事件
-        ScheduledFuture<?> pingTask = pingScheduler.scheduleAtFixedRate(() -> {
-            try {
-                emitter.send(SseEmitter.event()
-                        .name(PING_EVENT)
-                        .data(Map.of(TIMESTAMP, System.currentTimeMillis(),
-                                CONVERSATION_ID, conversationId)));
-            } catch (Exception e) {
-                log.debug("Failed to send ping event for request [{}]: {}", conversationId, e.getMessage());
-                // ping失败通常表示连接已断开，取消任务
-                ScheduledFuture<?> task = pingTaskRef.get();
-                if (task != null) {
-                    task.cancel(false);
+        ScheduledFuture<?> pingTask;
+        try {
+            pingTask = pingScheduler.scheduleAtFixedRate(() -> {
+                try {
+                    send(emitter, PING_EVENT, Map.of(TIMESTAMP, System.currentTimeMillis(),
+                            CONVERSATION_ID, conversationId));
+                } catch (Exception e) {
+                    log.debug("Failed to send ping event for request [{}]: {}", conversationId, e.getMessage());
+                    // ping失败通常表示连接已断开，取消任务
+                    ScheduledFuture<?> task = pingTaskRef.get();
+                    if (task != null) {
+                        task.cancel(false);
+                    }
+                    cancelAsk.run();
                 }
-            }
-        }, 0, 10, TimeUnit.SECONDS);
+            }, 0, 10, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
 
         pingTaskRef.set(pingTask);
 
         // 使用线程池异步处理流式响应
-        streamExecutor.execute(() -> processStreamEvents(emitter, conversationId, request, histories, pingTask));
+        try {
+            streamExecutor.execute(() -> {
+                try {
+                    processStreamEvents(emitter, conversationId, request, histories, pingTask, actionRef);
+                } finally {
+                    permit.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permit.release();
+            pingTask.cancel(false);
+            throw new BusyException("Stream processor rejected the request, please retry later", e);
+        } catch (RuntimeException e) {
+            permit.release();
+            pingTask.cancel(false);
+            throw e;
+        }
 
         // 回调中也取消 ping 任务（作为额外保障）
         Runnable cancelPing = () -> {
@@ -254,8 +309,14 @@ public class AskController {
         };
 
         emitter.onCompletion(cancelPing); // 添加完成回调，确保ping任务被取消
-        emitter.onTimeout(cancelPing); // 添加超时回调，确保ping任务被取消
-        emitter.onError((ex) -> cancelPing.run()); // 添加错误回调，确保ping任务被取消
+        emitter.onTimeout(() -> { // 添加超时回调，确保ping任务被取消
+            cancelPing.run();
+            cancelAsk.run();
+        });
+        emitter.onError((ex) -> { // 添加错误回调，确保ping任务被取消
+            cancelPing.run();
+            cancelAsk.run();
+        });
 
         return emitter;
     }
@@ -265,14 +326,17 @@ public class AskController {
      */
     private void processStreamEvents(SseEmitter emitter, String conversationId,
                                      AskRequest request, List<QuestionSqlPair> histories,
-                                     ScheduledFuture<?> pingTask) {
+                                     ScheduledFuture<?> pingTask,
+                                     AtomicReference<StreamAction> actionRef) {
         String sql = NOT_GENERATE;
         boolean isAccurateSql = false;
         Exception caughtException = null;
+        StreamAction action = null;
 
         try {
-            StreamAction action = runnerService.ask(conversationId,
+            action = runnerService.ask(conversationId,
                     request.getAgentName(), request.getQuestion(), histories);
+            actionRef.set(action);
 
             String previousEvent = "";
             boolean previousIncremental = false;
@@ -326,11 +390,16 @@ public class AskController {
                 log.error("Error sending error event: {}", ex.getMessage());
             }
         } finally {
+            // 停止消费事件时（发送失败即客户端已断开、或遇到错误事件）取消仍在进行的问数
+            if (action != null) {
+                action.cancel("The stream processing stopped");
+            }
+
             // 添加历史记录
             if (!isAccurateSql && !NOT_GENERATE.equals(sql)) {
                 sql = "/* Incorrect SQL */ " + sql;
             }
-            QuestionSqlPairCacheUtil.add(conversationId, QuestionSqlPair.from(request.getQuestion(), sql));
+            conversationStore.add(conversationId, QuestionSqlPair.from(request.getQuestion(), sql));
 
             // 确保 ping 任务被取消（在 complete 之前，避免竞态条件）
             if (!pingTask.isCancelled()) {
@@ -411,29 +480,25 @@ public class AskController {
         }
         eventData.putAll(messages);
 
-        emitter.send(SseEmitter.event().name(eventName.get()).data(eventData));
+        send(emitter, eventName.get(), eventData);
     }
 
     /**
      * 发送代理回答结束事件
      */
     private void sendAgentAnswerEndEvent(SseEmitter emitter, String answerId, String conversationId) throws IOException {
-        emitter.send(SseEmitter.event()
-                .name(AGENT_ANSWER_END_EVENT)
-                .data(Map.of(ANSWER_ID, answerId,
-                        TIMESTAMP, System.currentTimeMillis(),
-                        CONVERSATION_ID, conversationId)));
+        send(emitter, AGENT_ANSWER_END_EVENT, Map.of(ANSWER_ID, answerId,
+                TIMESTAMP, System.currentTimeMillis(),
+                CONVERSATION_ID, conversationId));
     }
 
     /**
      * 发送错误事件
      */
     private void sendErrorEvent(SseEmitter emitter, String conversationId, String errorMsg) throws IOException {
-        emitter.send(SseEmitter.event()
-                .name(ERROR_EVENT)
-                .data(Map.of(ERROR, errorMsg,
-                        TIMESTAMP, System.currentTimeMillis(),
-                        CONVERSATION_ID, conversationId)));
+        send(emitter, ERROR_EVENT, Map.of(ERROR, errorMsg,
+                TIMESTAMP, System.currentTimeMillis(),
+                CONVERSATION_ID, conversationId));
     }
 
     /**
@@ -448,7 +513,21 @@ public class AskController {
         if (error != null) {
             data.put(ERROR, error);
         }
-        emitter.send(SseEmitter.event().name(FINISHED_EVENT).data(data));
+        send(emitter, FINISHED_EVENT, data);
+    }
+
+    /**
+     * 写出SSE事件并记录写出耗时（客户端接收慢时写出会阻塞）
+     */
+    private void send(SseEmitter emitter, String eventName, Object data) throws IOException {
+        Timer.Sample sample = Timer.start(DatMetrics.registry());
+        String outcome = DatMetrics.ERROR;
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data));
+            outcome = DatMetrics.SUCCESS;
+        } finally {
+            sample.stop(DatMetrics.timer(DatMetrics.SSE_WRITE, "event", eventName, "outcome", outcome));
+        }
     }
 
     /**
@@ -471,6 +550,17 @@ public class AskController {
         return errorMsg != null ? errorMsg.toString() : "Unknown error";
     }
 
+    /**
+     * 并发已满时快速返回 429（流式接口只接受 text/event-stream，因此使用纯文本消息体）
+     */
+    @ExceptionHandler(BusyException.class)
+    public ResponseEntity<String> handleBusy(BusyException e) {
+        log.warn("Ask data request rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
     @Operation(summary = "User response",
             description = "Handle the user's response to AI request")
     @ApiResponses({
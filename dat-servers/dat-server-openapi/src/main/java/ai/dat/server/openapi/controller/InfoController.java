@@ -1,10 +1,19 @@
 package ai.dat.server.openapi.controller;
 
+import ai.dat.boot.data.ProjectReloadEvent;
+import ai.dat.core.adapter.AccelerationRegistry;
+import ai.dat.core.adapter.QueryResultCache;
+import ai.dat.core.agent.ConcurrencyGovernor;
+import ai.dat.core.agent.DataPreviewCache;
+import ai.dat.core.agent.QueryCostGuard;
+import ai.dat.core.agent.SemanticAnswerCache;
 import ai.dat.core.data.project.DatProject;
+import ai.dat.core.semantic.RollupRegistry;
 import ai.dat.server.openapi.config.ServerConfig;
 import ai.dat.server.openapi.service.ProjectService;
 import ai.dat.server.openapi.utils.VersionUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,10 +22,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -80,6 +92,52 @@ public class InfoController {
         ));
     }
 
+    @Operation(summary = "Concurrency information",
+            description = "Obtain in-flight, queue depth and wait time metrics of the SSE streams and agents")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Successful")})
+    @GetMapping("/concurrency")
+    public ResponseEntity<Map<String, Object>> concurrency() {
+        return ResponseEntity.ok(Map.of(
+                "governors", ConcurrencyGovernor.allMetrics(),
+                "timestamp", LocalDateTime.now()
+        ));
+    }
+
+    @Operation(summary = "Cache information",
+            description = "Obtain size, hit ratio and eviction metrics of the caches")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Successful")})
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> cache() {
+        return ResponseEntity.ok(Map.of(
+                "answer_caches", SemanticAnswerCache.allMetrics(),
+                "result_caches", QueryResultCache.allMetrics(),
+                "data_preview_caches", DataPreviewCache.allMetrics(),
+                "rollups", RollupRegistry.allMetrics(),
+                "accelerations", AccelerationRegistry.allMetrics(),
+                "cost_guards", QueryCostGuard.allMetrics(),
+                "timestamp", LocalDateTime.now()
+        ));
+    }
+
+    @Operation(summary = "Invalidate result caches",
+            description = "Invalidate the cached query results which reference the specified semantic models, " +
+                          "or all cached query results when no semantic model is specified")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Successful")})
+    @PostMapping("/cache/result/invalidate")
+    public ResponseEntity<Map<String, Object>> invalidateResultCache(
+            @Parameter(description = "Semantic model names")
+            @RequestParam(value = "semantic_models", required = false) List<String> semanticModels) {
+        if (semanticModels == null || semanticModels.isEmpty()) {
+            QueryResultCache.invalidateAll();
+        } else {
+            QueryResultCache.invalidateAllSemanticModels(semanticModels);
+        }
+        return ResponseEntity.ok(Map.of(
+                "result_caches", QueryResultCache.allMetrics(),
+                "timestamp", LocalDateTime.now()
+        ));
+    }
+
     @Operation(summary = "Project information",
             description = "Obtain project information")
     @ApiResponses({@ApiResponse(responseCode = "200", description = "Successful")})
@@ -117,4 +175,30 @@ public class InfoController {
         ));
     }
 
+    @Operation(summary = "Project reload information",
+            description = "Obtain the serving project generation and the last hot reload result")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Successful")})
+    @GetMapping("/project/reload")
+    public ResponseEntity<Map<String, Object>> reloadStatus() {
+        return ResponseEntity.ok(reloadMap(projectService.getProjectRuntime().lastReload()));
+    }
+
+    @Operation(summary = "Reload project",
+            description = "Incrementally build the project and switch to the new generation, " +
+                          "in-flight asks keep running on the previous generation")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Successful")})
+    @PostMapping("/project/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        return ResponseEntity.ok(reloadMap(projectService.getProjectRuntime().reload()));
+    }
+
+    private Map<String, Object> reloadMap(ProjectReloadEvent lastReload) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("generation", projectService.getProjectRuntime().generation());
+        map.put("watch", serverConfig.isWatch());
+        map.put("last_reload", lastReload);
+        map.put("timestamp", LocalDateTime.now());
+        return map;
+    }
+
 }
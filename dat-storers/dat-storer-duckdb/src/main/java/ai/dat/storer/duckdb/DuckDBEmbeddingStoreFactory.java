@@ -6,17 +6,25 @@ import ai.dat.core.configuration.ReadableConfig;
 import ai.dat.core.contentstore.ContentType;
 import ai.dat.core.factories.EmbeddingStoreFactory;
 import ai.dat.core.utils.FactoryUtil;
+import com.google.common.base.Preconditions;
 import dev.langchain4j.community.store.embedding.duckdb.DuckDBEmbeddingStore;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.store.embedding.EmbeddingStore;
+import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * @Author JunjieM
  * @Date 2025/6/30
  */
+@Slf4j
 public class DuckDBEmbeddingStoreFactory implements EmbeddingStoreFactory {
 
     public static final String IDENTIFIER = "duckdb";
@@ -34,6 +42,33 @@ public class DuckDBEmbeddingStoreFactory implements EmbeddingStoreFactory {
                             files with the prefix 'embeddings_'.
                             """);
 
+    public static final ConfigOption<VectorQuantization> QUANTIZATION =
+            ConfigOptions.key("quantization")
+                    .enumType(VectorQuantization.class)
+                    .defaultValue(VectorQuantization.NONE)
+                    .withDescription("Vector quantization used to speed up the similarity search. " +
+                            "Only the quantized codes are kept in memory (shared by the stores of the same file), " +
+                            "the full vectors of the candidates are read from the file to rescore them. " +
+                            "Requires the '" + FILE_PATH.key() + "' option.\n" +
+                            Arrays.stream(VectorQuantization.values())
+                                    .map(e -> e.name() + ": " + e.getDescription())
+                                    .collect(Collectors.joining("\n")));
+
+    public static final ConfigOption<Integer> QUANTIZATION_OVERSAMPLING =
+            ConfigOptions.key("quantization.oversampling")
+                    .intType()
+                    .defaultValue(10)
+                    .withDescription("The number of candidates prefiltered by the quantized codes " +
+                            "is max-results times the oversampling, must be between 1 and 100. " +
+                            "The larger the value, the higher the recall and the slower the search.");
+
+    public static final ConfigOption<Double> QUANTIZATION_RECALL_SAMPLE_RATE =
+            ConfigOptions.key("quantization.recall-sample-rate")
+                    .doubleType()
+                    .defaultValue(0.01)
+                    .withDescription("The rate of searches that also run the exact search to measure " +
+                            "the recall of the quantized search, must be between 0.0 and 1.0.");
+
     @Override
     public String factoryIdentifier() {
         return IDENTIFIER;
@@ -46,7 +81,8 @@ public class DuckDBEmbeddingStoreFactory implements EmbeddingStoreFactory {
 
     @Override
     public Set<ConfigOption<?>> optionalOptions() {
-        return Set.of(FILE_PATH);
+        return new LinkedHashSet<>(List.of(FILE_PATH,
+                QUANTIZATION, QUANTIZATION_OVERSAMPLING, QUANTIZATION_RECALL_SAMPLE_RATE));
     }
 
     @Override
@@ -58,14 +94,36 @@ public class DuckDBEmbeddingStoreFactory implements EmbeddingStoreFactory {
     public EmbeddingStore<TextSegment> create(String storeId,
                                               ContentType contentType,
                                               ReadableConfig config) {
-        FactoryUtil.validateFactoryOptions(this, config);
+        validateConfigOptions(config);
         String tableName = String.join("_",
                 DEFAULT_TABLE_NAME_PREFIX,
                 storeId.replace('-', '_'),
                 contentType.getValue());
         DuckDBEmbeddingStore.Builder builder = DuckDBEmbeddingStore.builder()
                 .tableName(tableName);
-        config.getOptional(FILE_PATH).ifPresent(builder::filePath);
-        return builder.build();
+        Optional<String> filePath = config.getOptional(FILE_PATH);
+        filePath.ifPresent(builder::filePath);
+        VectorQuantization quantization = config.get(QUANTIZATION);
+        if (VectorQuantization.NONE == quantization) {
+            return builder.build();
+        }
+        if (filePath.isEmpty()) {
+            // 内存数据库无法通过另外的连接读取候选向量
+            log.warn("The in-memory DuckDB embedding store does not support '{}', use exact search",
+                    QUANTIZATION.key());
+            return builder.build();
+        }
+        return new QuantizedEmbeddingStore(builder.build(), filePath.get(), tableName, quantization,
+                config.get(QUANTIZATION_OVERSAMPLING), config.get(QUANTIZATION_RECALL_SAMPLE_RATE));
+    }
+
+    private void validateConfigOptions(ReadableConfig config) {
+        FactoryUtil.validateFactoryOptions(this, config);
+        Integer oversampling = config.get(QUANTIZATION_OVERSAMPLING);
+        Preconditions.checkArgument(oversampling >= 1 && oversampling <= 100,
+                "'" + QUANTIZATION_OVERSAMPLING.key() + "' value must be between 1 and 100");
+        Double recallSampleRate = config.get(QUANTIZATION_RECALL_SAMPLE_RATE);
+        Preconditions.checkArgument(recallSampleRate >= 0.0 && recallSampleRate <= 1.0,
+                "'" + QUANTIZATION_RECALL_SAMPLE_RATE.key() + "' value must be between 0.0 and 1.0");
     }
 }
@@ -0,0 +1,119 @@
+package ai.dat.storer.duckdb;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import lombok.NonNull;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * 直接读取DuckDB嵌入存储的表（id, embedding, text, metadata）：
+ * 构建量化索引时流式扫描全部向量（不加载文本），重排序时只读取候选的向量与文本片段。
+ * <p>
+ * 同一进程内对同一文件的连接共享DuckDB数据库实例，与嵌入存储的写入互相可见
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class DuckDBEmbeddingTable {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private static final int SCAN_FETCH_SIZE = 1000;
+
+    private final String url;
+
+    private final String tableName;
+
+    DuckDBEmbeddingTable(@NonNull String filePath, @NonNull String tableName) {
+        this.url = "jdbc:duckdb:" + filePath;
+        this.tableName = tableName;
+    }
+
+    /**
+     * 流式扫描全部向量
+     */
+    void scan(@NonNull BiConsumer<String, float[]> consumer) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(SCAN_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT CAST(id AS VARCHAR) AS id, embedding FROM " + tableName)) {
+                while (rs.next()) {
+                    consumer.accept(rs.getString("id"), toVector(rs.getArray("embedding")));
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取指定ID的向量与文本片段
+     */
+    List<StoredEmbedding> fetch(@NonNull Collection<String> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT CAST(id AS VARCHAR) AS id, embedding, text, metadata FROM " + tableName
+                     + " WHERE CAST(id AS VARCHAR) IN (" + placeholders + ")";
+        List<StoredEmbedding> embeddings = new ArrayList<>(ids.size());
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (String id : ids) {
+                stmt.setString(index++, id);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String text = rs.getString("text");
+                    TextSegment textSegment = text == null
+                            ? null : TextSegment.from(text, toMetadata(rs.getString("metadata")));
+                    embeddings.add(new StoredEmbedding(rs.getString("id"),
+                            Embedding.from(toVector(rs.getArray("embedding"))), textSegment));
+                }
+            }
+        }
+        return embeddings;
+    }
+
+    private static float[] toVector(Array array) throws SQLException {
+        Object[] values = (Object[]) array.getArray();
+        float[] vector = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            vector[i] = ((Number) values[i]).floatValue();
+        }
+        return vector;
+    }
+
+    private static Metadata toMetadata(String json) throws SQLException {
+        if (json == null || json.isBlank()) {
+            return new Metadata();
+        }
+        try {
+            Map<String, Object> map = JSON_MAPPER.readValue(json, new TypeReference<>() {
+            });
+            return Metadata.from(map);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Failed to parse the embedding metadata: " + e.getMessage(), e);
+        }
+    }
+
+    record StoredEmbedding(String id, Embedding embedding, TextSegment textSegment) {
+    }
+}
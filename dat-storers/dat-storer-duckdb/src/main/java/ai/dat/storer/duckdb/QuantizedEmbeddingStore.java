@@ -0,0 +1,282 @@
+package ai.dat.storer.duckdb;
+
+import ai.dat.core.metrics.DatMetrics;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.CosineSimilarity;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 量化检索的嵌入存储：向量、文本与元数据仍由DuckDB嵌入存储持久化（文件格式不变），
+ * 首次检索时流式扫描表中的向量，构建内存中只有编码的量化索引（{@link QuantizedVectorIndex}），
+ * 之后的写入同时更新两者。检索先在编码上预筛选候选，再从表中读取候选的原始向量精确重排序，
+ * 返回的分数与精确检索一致。同一进程内同一张表的存储实例（构建与各个运行时）共享一份量化索引。
+ * <p>
+ * 带元数据过滤条件的检索、候选数不少于记录数的检索，以及读取表失败后的检索，仍由DuckDB精确检索。
+ * 按采样率同时执行精确检索，将量化检索相对精确检索的召回率记录为指标 {@link DatMetrics#RETRIEVAL_QUANTIZED_RECALL}
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Slf4j
+class QuantizedEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    /**
+     * 按文件、表与量化方式共享的量化索引，没有存储实例引用时回收
+     */
+    private static final Cache<String, SharedIndex> SHARED_INDEXES = CacheBuilder.newBuilder()
+            .weakValues()
+            .build();
+
+    private final EmbeddingStore<TextSegment> delegate;
+
+    private final DuckDBEmbeddingTable table;
+
+    private final VectorQuantization quantization;
+
+    private final int oversampling;
+
+    private final double recallSampleRate;
+
+    private final SharedIndex shared;
+
+    QuantizedEmbeddingStore(@NonNull EmbeddingStore<TextSegment> delegate,
+                            @NonNull String filePath, @NonNull String tableName,
+                            @NonNull VectorQuantization quantization,
+                            int oversampling, double recallSampleRate) {
+        this.delegate = delegate;
+        this.table = new DuckDBEmbeddingTable(filePath, tableName);
+        this.quantization = quantization;
+        this.oversampling = oversampling;
+        this.recallSampleRate = recallSampleRate;
+        String key = String.join("#", Path.of(filePath).toAbsolutePath().normalize().toString(),
+                tableName, quantization.name());
+        this.shared = SHARED_INDEXES.asMap().computeIfAbsent(key, k -> new SharedIndex());
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = randomId();
+        addAll(List.of(id), List.of(embedding), null);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        addAll(List.of(id), List.of(embedding), null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        String id = randomId();
+        addAll(List.of(id), List.of(embedding), List.of(textSegment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> ids = randomIds(embeddings.size());
+        addAll(ids, embeddings, null);
+        return ids;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> textSegments) {
+        List<String> ids = randomIds(embeddings.size());
+        addAll(ids, embeddings, textSegments);
+        return ids;
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> textSegments) {
+        shared.lock.writeLock().lock();
+        try {
+            delegate.addAll(ids, embeddings, textSegments);
+            if (shared.index != null) {
+                for (int i = 0; i < ids.size(); i++) {
+                    shared.index.add(ids.get(i), embeddings.get(i).vector());
+                }
+            }
+        } finally {
+            shared.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        removeAll(List.of(id));
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        shared.lock.writeLock().lock();
+        try {
+            delegate.removeAll(ids);
+            if (shared.index != null) {
+                ids.forEach(shared.index::remove);
+            }
+        } finally {
+            shared.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        shared.lock.writeLock().lock();
+        try {
+            delegate.removeAll(filter);
+            // 下次检索时重新加载
+            shared.index = null;
+        } finally {
+            shared.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        shared.lock.writeLock().lock();
+        try {
+            delegate.removeAll();
+            if (shared.index != null) {
+                shared.index.clear();
+            }
+        } finally {
+            shared.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        if (request.filter() != null || shared.unsupported) {
+            return delegate.search(request);
+        }
+        shared.lock.readLock().lock();
+        try {
+            if (shared.index == null) {
+                shared.lock.readLock().unlock();
+                try {
+                    loadIndex();
+                } finally {
+                    shared.lock.readLock().lock();
+                }
+                if (shared.unsupported || shared.index == null) {
+                    return delegate.search(request);
+                }
+            }
+            int maxResults = request.maxResults();
+            int candidates = (int) Math.min((long) maxResults * oversampling, Integer.MAX_VALUE);
+            if (candidates >= shared.index.size()) {
+                return delegate.search(request);
+            }
+            List<String> ids = shared.index.candidates(request.queryEmbedding().vector(), candidates);
+            List<EmbeddingMatch<TextSegment>> matches;
+            try {
+                matches = rescore(table.fetch(ids), request.queryEmbedding(), maxResults, request.minScore());
+            } catch (SQLException e) {
+                log.warn("Failed to read the candidate embeddings, fall back to exact search", e);
+                return delegate.search(request);
+            }
+            if (recallSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < recallSampleRate) {
+                recordRecall(matches, delegate.search(request).matches());
+            }
+            return new EmbeddingSearchResult<>(matches);
+        } finally {
+            shared.lock.readLock().unlock();
+        }
+    }
+
+    private void loadIndex() {
+        shared.lock.writeLock().lock();
+        try {
+            if (shared.index != null || shared.unsupported) {
+                return;
+            }
+            long startTime = System.currentTimeMillis();
+            QuantizedVectorIndex quantizedIndex = new QuantizedVectorIndex(quantization);
+            table.scan(quantizedIndex::add);
+            shared.index = quantizedIndex;
+            log.debug("Loaded {} quantized vector index, size: {}, elapsed: {}ms",
+                    quantization, quantizedIndex.size(), System.currentTimeMillis() - startTime);
+        } catch (SQLException e) {
+            log.warn("Failed to scan the embedding table, fall back to exact search without {} quantization",
+                    quantization, e);
+            shared.unsupported = true;
+        } finally {
+            shared.lock.writeLock().unlock();
+        }
+    }
+
+    private static List<EmbeddingMatch<TextSegment>> rescore(List<DuckDBEmbeddingTable.StoredEmbedding> candidates,
+                                                            Embedding queryEmbedding,
+                                                            int maxResults, double minScore) {
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
+        for (DuckDBEmbeddingTable.StoredEmbedding candidate : candidates) {
+            double score = RelevanceScore.fromCosineSimilarity(
+                    CosineSimilarity.between(candidate.embedding(), queryEmbedding));
+            if (score >= minScore) {
+                matches.add(new EmbeddingMatch<>(score, candidate.id(), candidate.embedding(),
+                        candidate.textSegment()));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(EmbeddingMatch<TextSegment>::score).reversed());
+        return matches.size() > maxResults ? new ArrayList<>(matches.subList(0, maxResults)) : matches;
+    }
+
+    private void recordRecall(List<EmbeddingMatch<TextSegment>> matches,
+                              List<EmbeddingMatch<TextSegment>> exactMatches) {
+        if (exactMatches.isEmpty()) {
+            return;
+        }
+        Set<String> ids = matches.stream().map(EmbeddingMatch::embeddingId).collect(Collectors.toSet());
+        long hits = exactMatches.stream().filter(match -> ids.contains(match.embeddingId())).count();
+        DatMetrics.summary(DatMetrics.RETRIEVAL_QUANTIZED_RECALL, "ratio",
+                        "quantization", quantization.name().toLowerCase())
+                .record((double) hits / exactMatches.size());
+    }
+
+    private static String randomId() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static List<String> randomIds(int size) {
+        return Stream.generate(QuantizedEmbeddingStore::randomId).limit(size).toList();
+    }
+
+    /**
+     * 共享的量化索引及其读写锁，写入与索引的更新在写锁内完成
+     */
+    private static final class SharedIndex {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private QuantizedVectorIndex index;
+
+        /**
+         * 读取表失败时无法构建量化索引，回退到精确检索
+         */
+        private volatile boolean unsupported;
+    }
+}
@@ -0,0 +1,176 @@
+package ai.dat.storer.duckdb;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 内存中的量化向量索引：只保存每个向量归一化后的紧凑编码（int8标量量化或1-bit二值化），
+ * 不保存原始向量与文本。检索时在编码上用近似相似度（int8整数点积或汉明距离）预筛选候选ID，
+ * 候选的原始向量由调用方从存储中读取后精确重排序
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class QuantizedVectorIndex {
+
+    private final VectorQuantization quantization;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    QuantizedVectorIndex(VectorQuantization quantization) {
+        this.quantization = quantization;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void add(String id, float[] vector) {
+        float[] unit = normalize(vector);
+        Entry entry;
+        if (quantization == VectorQuantization.BINARY) {
+            entry = new Entry(id, null, binarize(unit), 0f);
+        } else {
+            float scale = int8Scale(unit);
+            entry = new Entry(id, int8Codes(unit, scale), null, scale);
+        }
+        Integer position = positions.get(id);
+        if (position != null) {
+            entries.set(position, entry);
+        } else {
+            positions.put(id, entries.size());
+            entries.add(entry);
+        }
+    }
+
+    void remove(String id) {
+        Integer position = positions.remove(id);
+        if (position == null) {
+            return;
+        }
+        // 用最后一个条目填补空位
+        Entry last = entries.remove(entries.size() - 1);
+        if (position < entries.size()) {
+            entries.set(position, last);
+            positions.put(last.id(), position);
+        }
+    }
+
+    void clear() {
+        entries.clear();
+        positions.clear();
+    }
+
+    /**
+     * 按近似相似度预筛选候选
+     *
+     * @param query      查询向量
+     * @param candidates 候选数量
+     * @return 候选ID（无序）
+     */
+    List<String> candidates(float[] query, int candidates) {
+        float[] unit = normalize(query);
+        long[] queryBits = null;
+        byte[] queryCodes = null;
+        if (quantization == VectorQuantization.BINARY) {
+            queryBits = binarize(unit);
+        } else {
+            // 查询向量同样量化为int8，查询的缩放系数对所有条目相同，排序时可以忽略
+            queryCodes = int8Codes(unit, int8Scale(unit));
+        }
+        // 近似分数最低的候选在堆顶
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(candidates + 1,
+                Comparator.comparingDouble(Candidate::score));
+        for (Entry entry : entries) {
+            double score = queryBits != null
+                    ? -hammingDistance(queryBits, entry.bits())
+                    : (double) int8Dot(queryCodes, entry.codes()) * entry.scale();
+            if (heap.size() < candidates) {
+                heap.add(new Candidate(entry.id(), score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new Candidate(entry.id(), score));
+            }
+        }
+        List<String> ids = new ArrayList<>(heap.size());
+        heap.forEach(candidate -> ids.add(candidate.id()));
+        return ids;
+    }
+
+    private static float int8Scale(float[] unit) {
+        float max = 0f;
+        for (float value : unit) {
+            max = Math.max(max, Math.abs(value));
+        }
+        return max == 0f ? 0f : max / 127f;
+    }
+
+    private static byte[] int8Codes(float[] unit, float scale) {
+        byte[] codes = new byte[unit.length];
+        if (scale > 0f) {
+            for (int i = 0; i < unit.length; i++) {
+                codes[i] = (byte) Math.round(unit[i] / scale);
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * 两侧都是int8，整数乘加累加（单个乘积不超过 127 * 127，4096维以内不会溢出）
+     */
+    private static int int8Dot(byte[] query, byte[] codes) {
+        int length = Math.min(query.length, codes.length);
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += query[i] * codes[i];
+        }
+        return sum;
+    }
+
+    private static long[] binarize(float[] unit) {
+        long[] bits = new long[(unit.length + 63) >>> 6];
+        for (int i = 0; i < unit.length; i++) {
+            if (unit[i] > 0f) {
+                bits[i >>> 6] |= 1L << (i & 63);
+            }
+        }
+        return bits;
+    }
+
+    private static int hammingDistance(long[] a, long[] b) {
+        int length = Math.min(a.length, b.length);
+        int distance = 0;
+        for (int i = 0; i < length; i++) {
+            distance += Long.bitCount(a[i] ^ b[i]);
+        }
+        return distance;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0d;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+        float[] unit = new float[vector.length];
+        if (norm == 0d) {
+            return unit;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = (float) (vector[i] / norm);
+        }
+        return unit;
+    }
+
+    private record Entry(String id, byte[] codes, long[] bits, float scale) {
+    }
+
+    private record Candidate(String id, double score) {
+    }
+}
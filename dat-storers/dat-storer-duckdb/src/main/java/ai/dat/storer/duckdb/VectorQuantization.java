@@ -0,0 +1,24 @@
+package ai.dat.storer.duckdb;
+
+import lombok.Getter;
+
+/**
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+@Getter
+public enum VectorQuantization {
+    NONE("Exact search over the full float vectors."),
+    INT8("Prefilter candidates by integer dot product of int8 scalar quantized codes " +
+            "(1 byte per dimension), " +
+            "then rescore the candidates by exact cosine similarity."),
+    BINARY("Prefilter candidates by Hamming distance of 1-bit binary codes (1 bit per dimension), " +
+            "then rescore the candidates by exact cosine similarity. " +
+            "Fastest, requires a larger oversampling to keep the recall.");
+
+    private final String description;
+
+    VectorQuantization(String description) {
+        this.description = description;
+    }
+}
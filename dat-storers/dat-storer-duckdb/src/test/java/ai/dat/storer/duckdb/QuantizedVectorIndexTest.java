@@ -0,0 +1,136 @@
+package ai.dat.storer.duckdb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 量化向量索引：int8与二值化的候选预筛选、召回率、更新与删除
+ *
+ * @Author JunjieM
+ * @Date 2025/11/1
+ */
+class QuantizedVectorIndexTest {
+
+    private static final int DIMENSION = 256;
+
+    @Test
+    void int8FindsNearestNeighbours() {
+        assertRecall(VectorQuantization.INT8, 10, 0.95);
+    }
+
+    @Test
+    void binaryFindsNearestNeighboursWithOversampling() {
+        // 二值化的近似误差更大，需要更多的候选
+        assertRecall(VectorQuantization.BINARY, 40, 0.95);
+    }
+
+    @Test
+    void ignoresVectorMagnitude() {
+        for (VectorQuantization quantization : List.of(VectorQuantization.INT8, VectorQuantization.BINARY)) {
+            QuantizedVectorIndex index = new QuantizedVectorIndex(quantization);
+            index.add("a", new float[]{100f, 1f, -1f, 0f});
+            index.add("b", new float[]{-1f, 1f, 1f, 0f});
+            assertEquals(List.of("a"), index.candidates(new float[]{0.5f, 0.01f, -0.01f, 0f}, 1), quantization.name());
+        }
+    }
+
+    @Test
+    void replacesAndRemovesEntries() {
+        QuantizedVectorIndex index = new QuantizedVectorIndex(VectorQuantization.INT8);
+        index.add("a", new float[]{1f, 0f});
+        index.add("b", new float[]{0f, 1f});
+        index.add("c", new float[]{-1f, 0f});
+        index.add("a", new float[]{0f, -1f});
+        assertEquals(3, index.size());
+        assertEquals(List.of("c"), index.candidates(new float[]{-1f, 0f}, 1));
+        assertEquals(List.of("a"), index.candidates(new float[]{0f, -1f}, 1));
+
+        // 删除中间的条目后，最后一个条目移到空位，仍然可以被替换与删除
+        index.remove("b");
+        index.remove("unknown");
+        assertEquals(2, index.size());
+        index.add("c", new float[]{0f, 1f});
+        assertEquals(2, index.size());
+        assertEquals(List.of("c"), index.candidates(new float[]{0f, 1f}, 1));
+        index.remove("c");
+        assertEquals(Set.of("a"), new HashSet<>(index.candidates(new float[]{1f, 0f}, 10)));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.candidates(new float[]{1f, 0f}, 10).isEmpty());
+    }
+
+    @Test
+    void handlesZeroVectors() {
+        QuantizedVectorIndex index = new QuantizedVectorIndex(VectorQuantization.INT8);
+        index.add("zero", new float[]{0f, 0f});
+        index.add("a", new float[]{1f, 0f});
+        assertEquals(List.of("a"), index.candidates(new float[]{1f, 0f}, 1));
+        assertEquals(2, index.candidates(new float[]{0f, 0f}, 10).size());
+    }
+
+    /**
+     * 查询是某个已索引向量加上噪声，候选中包含精确最近邻（余弦相似度最高）的比例不低于 minRecall
+     */
+    private static void assertRecall(VectorQuantization quantization, int candidates, double minRecall) {
+        Random random = new Random(42);
+        float[][] vectors = new float[1000][];
+        QuantizedVectorIndex index = new QuantizedVectorIndex(quantization);
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            index.add(String.valueOf(i), vectors[i]);
+        }
+        int hits = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = vectors[random.nextInt(vectors.length)].clone();
+            float[] noise = randomVector(random);
+            for (int i = 0; i < query.length; i++) {
+                query[i] += noise[i];
+            }
+            List<String> found = index.candidates(query, candidates);
+            assertEquals(candidates, new HashSet<>(found).size());
+            if (found.contains(exactTop(vectors, query, 1).get(0))) {
+                hits++;
+            }
+        }
+        double recall = (double) hits / queries;
+        assertTrue(recall >= minRecall, quantization + " recall " + recall + " is below " + minRecall);
+    }
+
+    private static List<String> exactTop(float[][] vectors, float[] query, int k) {
+        Integer[] ids = new Integer[vectors.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        Arrays.sort(ids, (a, b) -> Double.compare(cosine(vectors[b], query), cosine(vectors[a], query)));
+        return Arrays.stream(ids).limit(k).map(String::valueOf).toList();
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0d;
+        double normA = 0d;
+        double normB = 0d;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}